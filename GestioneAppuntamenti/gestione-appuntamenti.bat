@@ -0,0 +1,22 @@
+@echo off
+rem Avvia il client GestioneAppuntamenti con l'archivio AppCDS, se presente.
+rem Jar, dipendenze e archivio si creano con: mvn -Pappcds package
+
+setlocal
+cd /d "%~dp0"
+
+set JAR=target\gestione-appuntamenti.jar
+set ARCHIVE=target\appcds\gestione-appuntamenti.jsa
+if not defined JAVA set JAVA=java
+
+if not exist "%JAR%" (
+    echo %JAR% non trovato. Eseguire: mvn -Pappcds package 1>&2
+    exit /b 1
+)
+
+rem L'archivio vale solo per lo stesso jar: se non corrisponde la JVM lo ignora
+if exist "%ARCHIVE%" (
+    "%JAVA%" -XX:SharedArchiveFile="%ARCHIVE%" -Xshare:auto %JAVA_OPTS% -jar "%JAR%" %*
+) else (
+    "%JAVA%" %JAVA_OPTS% -jar "%JAR%" %*
+)
@@ -0,0 +1,19 @@
+#!/bin/sh
+# Avvia il client GestioneAppuntamenti con l'archivio AppCDS, se presente.
+# Jar, dipendenze e archivio si creano con: mvn -Pappcds package
+
+cd "$(dirname "$0")" || exit 1
+
+JAR=target/gestione-appuntamenti.jar
+ARCHIVE=target/appcds/gestione-appuntamenti.jsa
+
+if [ ! -f "$JAR" ]; then
+    echo "$JAR non trovato. Eseguire: mvn -Pappcds package" >&2
+    exit 1
+fi
+
+# L'archivio vale solo per lo stesso jar: se non corrisponde la JVM lo ignora
+if [ -f "$ARCHIVE" ]; then
+    exec "${JAVA:-java}" -XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto $JAVA_OPTS -jar "$JAR" "$@"
+fi
+exec "${JAVA:-java}" $JAVA_OPTS -jar "$JAR" "$@"
@@ -0,0 +1,17 @@
+@echo off
+rem Avvia l'API HTTP JSON di GestioneAppuntamenti, senza interfaccia grafica.
+rem Jar e dipendenze si creano con: mvn -Pappcds package
+rem Porta e thread: set JAVA_OPTS=-Dappuntamenti.api.port=8080 -Dappuntamenti.api.threads=16
+
+setlocal
+cd /d "%~dp0"
+
+set JAR=target\gestione-appuntamenti.jar
+if not defined JAVA set JAVA=java
+
+if not exist "%JAR%" (
+    echo %JAR% non trovato. Eseguire: mvn -Pappcds package 1>&2
+    exit /b 1
+)
+
+"%JAVA%" %JAVA_OPTS% -cp "%JAR%" Tokyogroup.GestioneAppuntamenti.api.ApiServer %*
@@ -0,0 +1,15 @@
+#!/bin/sh
+# Avvia l'API HTTP JSON di GestioneAppuntamenti, senza interfaccia grafica.
+# Jar e dipendenze si creano con: mvn -Pappcds package
+# Porta e thread: JAVA_OPTS="-Dappuntamenti.api.port=8080 -Dappuntamenti.api.threads=16"
+
+cd "$(dirname "$0")" || exit 1
+
+JAR=target/gestione-appuntamenti.jar
+
+if [ ! -f "$JAR" ]; then
+    echo "$JAR non trovato. Eseguire: mvn -Pappcds package" >&2
+    exit 1
+fi
+
+exec "${JAVA:-java}" $JAVA_OPTS -cp "$JAR" Tokyogroup.GestioneAppuntamenti.api.ApiServer "$@"
@@ -0,0 +1,17 @@
+@echo off
+rem Avvia il server TCP del database per piu' postazioni GestioneAppuntamenti.
+rem Jar e dipendenze si creano con: mvn -Pappcds package
+rem Percorso e porta: set JAVA_OPTS=-Dappuntamenti.db.path=./resources/data/appointments -Dappuntamenti.db.port=9092
+
+setlocal
+cd /d "%~dp0"
+
+set JAR=target\gestione-appuntamenti.jar
+if not defined JAVA set JAVA=java
+
+if not exist "%JAR%" (
+    echo %JAR% non trovato. Eseguire: mvn -Pappcds package 1>&2
+    exit /b 1
+)
+
+"%JAVA%" %JAVA_OPTS% -cp "%JAR%" Tokyogroup.GestioneAppuntamenti.model.DatabaseServer %*
@@ -0,0 +1,15 @@
+#!/bin/sh
+# Avvia il server TCP del database per più postazioni GestioneAppuntamenti.
+# Jar e dipendenze si creano con: mvn -Pappcds package
+# Percorso e porta: JAVA_OPTS="-Dappuntamenti.db.path=./resources/data/appointments -Dappuntamenti.db.port=9092"
+
+cd "$(dirname "$0")" || exit 1
+
+JAR=target/gestione-appuntamenti.jar
+
+if [ ! -f "$JAR" ]; then
+    echo "$JAR non trovato. Eseguire: mvn -Pappcds package" >&2
+    exit 1
+fi
+
+exec "${JAVA:-java}" $JAVA_OPTS -cp "$JAR" Tokyogroup.GestioneAppuntamenti.model.DatabaseServer "$@"
@@ -0,0 +1,135 @@
+package Tokyogroup.GestioneAppuntamenti;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Misura il tempo di avvio del client fino alla prima finestra visibile, con e
+ * senza l'archivio AppCDS prodotto da {@link StartupTraining}.
+ * <p>
+ * Ogni ripetizione avvia una nuova JVM con lo stesso classpath di questo
+ * processo, condizione necessaria perché l'archivio venga utilizzato, ed
+ * esegue {@link StartupTraining} fermandosi alla prima finestra. Le due
+ * configurazioni si alternano a ogni ripetizione, così da subire allo stesso
+ * modo la cache del file system; una prima esecuzione di riscaldamento per
+ * configurazione non viene conteggiata. Per ogni configurazione vengono
+ * riportati il tempo misurato dal processo padre (dal lancio della JVM alla
+ * riga di risultato) e quello interno alla JVM figlia (dall'avvio della JVM).
+ * <p>
+ * Senza display il tempo misurato è quello del caricamento delle viste, non
+ * della comparsa della finestra.
+ * <p>
+ * Uso: {@code StartupBenchmark <archivio.jsa> [ripetizioni]}
+ */
+public class StartupBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 10;
+
+    private StartupBenchmark() {
+        // Classe con solo metodi statici
+    }
+
+    /**
+     * Tempi di una singola esecuzione.
+     *
+     * @param launchMillis tempo dal lancio del processo alla riga di risultato
+     * @param uptimeMillis tempo dall'avvio della JVM riportato dal processo
+     * @param window       true se è stata misurata la comparsa di una finestra
+     */
+    record Sample(long launchMillis, long uptimeMillis, boolean window) {
+    }
+
+    /**
+     * Esegue il benchmark e stampa il riepilogo.
+     *
+     * @param args percorso dell'archivio e, opzionalmente, numero di ripetizioni
+     * @throws Exception se un'esecuzione non riporta il tempo di avvio
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Uso: StartupBenchmark <archivio.jsa> [ripetizioni]");
+            System.exit(2);
+        }
+        Path archive = Path.of(args[0]);
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+        if (!Files.isRegularFile(archive)) {
+            System.err.println("Archivio AppCDS non trovato: " + archive);
+            System.exit(2);
+        }
+
+        Map<String, List<String>> configurations = new LinkedHashMap<>();
+        configurations.put("senza archivio", List.of());
+        configurations.put("con archivio", List.of("-XX:SharedArchiveFile=" + archive, "-Xshare:auto"));
+
+        Map<String, List<Sample>> samples = new LinkedHashMap<>();
+        configurations.forEach((name, options) -> samples.put(name, new ArrayList<>()));
+        for (int i = -1; i < iterations; i++) {
+            for (Map.Entry<String, List<String>> configuration : configurations.entrySet()) {
+                Sample sample = launch(configuration.getValue());
+                if (i >= 0) {
+                    samples.get(configuration.getKey()).add(sample);
+                }
+            }
+        }
+
+        boolean window = samples.values().stream().flatMap(List::stream).allMatch(Sample::window);
+        System.out.printf("Tempo di avvio fino a %s, %d ripetizioni (ms)%n",
+                window ? "prima finestra visibile" : "viste caricate (senza display)", iterations);
+        System.out.printf("%-16s %28s %28s%n", "", "dal lancio min/mediana/max", "dall'avvio JVM min/mediana/max");
+        samples.forEach((name, values) -> System.out.printf("%-16s %28s %28s%n", name,
+                summary(values.stream().map(Sample::launchMillis).toList()),
+                summary(values.stream().map(Sample::uptimeMillis).toList())));
+    }
+
+    private static Sample launch(List<String> options) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options);
+        String databasePath = System.getProperty("appuntamenti.db.path");
+        if (databasePath != null) {
+            command.add("-Dappuntamenti.db.path=" + databasePath);
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(StartupTraining.class.getName());
+        command.add(StartupTraining.FIRST_FRAME_ONLY);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Sample sample = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (sample == null && line.startsWith(StartupTraining.RESULT_PREFIX)) {
+                    long launchMillis = (System.nanoTime() - start) / 1_000_000;
+                    String[] fields = line.substring(StartupTraining.RESULT_PREFIX.length()).split(" finestra=");
+                    sample = new Sample(launchMillis, Long.parseLong(fields[0]), Boolean.parseBoolean(fields[1]));
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (sample == null || exitCode != 0) {
+            throw new IllegalStateException("Esecuzione terminata senza tempo di avvio (codice " + exitCode + "): "
+                    + String.join(" ", command));
+        }
+        return sample;
+    }
+
+    private static String summary(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        long median = sorted.size() % 2 == 1 ? sorted.get(sorted.size() / 2)
+                : (sorted.get(sorted.size() / 2 - 1) + sorted.get(sorted.size() / 2)) / 2;
+        return sorted.get(0) + " / " + median + " / " + sorted.get(sorted.size() - 1);
+    }
+}
@@ -0,0 +1,137 @@
+package Tokyogroup.GestioneAppuntamenti;
+
+import com.formdev.flatlaf.FlatDarculaLaf;
+
+import java.awt.GraphicsEnvironment;
+import java.awt.Window;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+
+import Tokyogroup.GestioneAppuntamenti.controller.LoginController;
+import Tokyogroup.GestioneAppuntamenti.model.DatabaseManager;
+import Tokyogroup.GestioneAppuntamenti.model.User;
+import Tokyogroup.GestioneAppuntamenti.model.UserDAO;
+import Tokyogroup.GestioneAppuntamenti.view.ClienteView;
+import Tokyogroup.GestioneAppuntamenti.view.GestoreView;
+import Tokyogroup.GestioneAppuntamenti.view.LoginView;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Esecuzione di addestramento per l'archivio AppCDS (Application Class-Data
+ * Sharing) del client.
+ * <p>
+ * Ripercorre l'avvio di {@link App#main(String[])} fino alla vista di login e
+ * poi apre la vista del gestore e quella del cliente con due utenti di
+ * addestramento, così che la JVM avviata con
+ * {@code -XX:ArchiveClassesAtExit} salvi nell'archivio le classi di FlatLaf,
+ * H2, log4j e Swing caricate lungo il percorso. Al termine chiude le finestre
+ * ed esce.
+ * <p>
+ * Con l'argomento {@value #FIRST_FRAME_ONLY} l'esecuzione si ferma alla comparsa
+ * della prima finestra: è la modalità usata da {@link StartupBenchmark} per
+ * misurare il tempo di avvio.
+ * <p>
+ * Senza display (ambiente headless) le finestre non possono essere create:
+ * l'esecuzione inizializza il database, imposta il look and feel, autentica
+ * gli utenti e carica le classi delle viste senza costruirle.
+ */
+public class StartupTraining {
+    private static final Logger logger = LogManager.getLogger(StartupTraining.class);
+
+    /** Argomento che ferma l'esecuzione alla comparsa della prima finestra. */
+    public static final String FIRST_FRAME_ONLY = "--solo-prima-finestra";
+
+    /** Prefisso della riga su standard output con il tempo misurato. */
+    public static final String RESULT_PREFIX = "avvio-ms=";
+
+    private static final String PASSWORD = "addestramento";
+    private static final List<User> USERS = List.of(
+            new User("addestramento-gestore", PASSWORD, "GESTORE"),
+            new User("addestramento-cliente", PASSWORD, "CLIENTE"));
+
+    private StartupTraining() {
+        // Classe con solo metodi statici
+    }
+
+    /**
+     * Esegue l'addestramento.
+     *
+     * @param args {@value #FIRST_FRAME_ONLY} per fermarsi alla prima finestra
+     */
+    public static void main(String[] args) {
+        boolean firstFrameOnly = List.of(args).contains(FIRST_FRAME_ONLY);
+
+        if (GraphicsEnvironment.isHeadless()) {
+            logger.warn("Display non disponibile: le viste vengono caricate senza essere mostrate.");
+            runHeadless();
+            finish(false);
+            return;
+        }
+
+        StartupOrchestrator orchestrator = new StartupOrchestrator();
+        orchestrator.start();
+        orchestrator.whenFirstFrameVisible().thenRun(() -> {
+            if (!firstFrameOnly) {
+                openViews();
+            }
+            finish(true);
+        });
+    }
+
+    private static void runHeadless() {
+        try {
+            DatabaseManager.initializeDatabase();
+            UIManager.setLookAndFeel(new FlatDarculaLaf());
+            LoginController loginController = new LoginController();
+            for (User user : USERS) {
+                authenticate(loginController, user);
+            }
+            for (Class<?> view : List.of(LoginView.class, GestoreView.class, ClienteView.class)) {
+                Class.forName(view.getName(), true, view.getClassLoader());
+            }
+        } catch (Exception e) {
+            logger.error("Addestramento senza display fallito.", e);
+            System.exit(1);
+        }
+    }
+
+    private static void openViews() {
+        try {
+            LoginController loginController = new LoginController();
+            for (User user : USERS) {
+                User authenticated = authenticate(loginController, user);
+                SwingUtilities.invokeAndWait(() -> loginController.handleSuccessfulLogin(authenticated));
+                // Accodato dopo gli eventi generati da show(), tra cui il primo disegno della vista
+                SwingUtilities.invokeAndWait(() -> {
+                    for (Window window : Window.getWindows()) {
+                        window.dispose();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            logger.error("Apertura delle viste di addestramento fallita.", e);
+            System.exit(1);
+        }
+    }
+
+    private static User authenticate(LoginController loginController, User user) throws Exception {
+        User authenticated = loginController.authenticate(user.getUsername(), PASSWORD);
+        if (authenticated == null) {
+            UserDAO.getInstance().addUser(user);
+            authenticated = loginController.authenticate(user.getUsername(), PASSWORD);
+        }
+        return authenticated;
+    }
+
+    private static void finish(boolean firstFrame) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        System.out.println(RESULT_PREFIX + uptime + " finestra=" + firstFrame);
+        System.out.flush();
+        // L'uscita esplicita scrive l'archivio richiesto con -XX:ArchiveClassesAtExit
+        System.exit(0);
+    }
+}
@@ -0,0 +1,140 @@
+package Tokyogroup.GestioneAppuntamenti.benchmark;
+
+import Tokyogroup.GestioneAppuntamenti.model.AppointmentDAO;
+import Tokyogroup.GestioneAppuntamenti.model.AvailabilityIndex;
+import Tokyogroup.GestioneAppuntamenti.model.WeeklyAppointment;
+import Tokyogroup.GestioneAppuntamenti.model.WeeklySummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark dei percorsi critici di {@link AppointmentDAO}: orari occupati,
+ * ore occupate di 90 giorni, prenotazione, vista settimanale e fatturato
+ * settimanale.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentDAOBenchmark {
+
+    // Un solo servizio da un'ora: gli orari liberi sono ore consecutive dello stesso parrucchiere
+    private static final List<Integer> SERVICE_IDS = List.of(1);
+    private static final int SEARCH_DAYS = 90;
+
+    /**
+     * Generatore deterministico di ogni thread.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom(42);
+    }
+
+    /**
+     * Orari occupati di un parrucchiere in un giorno a caso.
+     *
+     * @param db     database popolato
+     * @param cursor generatore del thread
+     * @return gli orari occupati
+     * @throws SQLException se l'interrogazione fallisce
+     */
+    @Benchmark
+    public List<String> getBookedHours(BenchmarkDatabase db, Cursor cursor) throws SQLException {
+        return AppointmentDAO.getInstance().getBookedHours(db.hairdresserId(cursor.random),
+                db.day(cursor.random).toString());
+    }
+
+    /**
+     * Quarti d'ora occupati di un parrucchiere nei 90 giorni da una data a caso, lette
+     * dal database con un'unica interrogazione come nella ricerca delle prime
+     * disponibilità (l'indice in memoria viene svuotato prima di ogni
+     * chiamata).
+     *
+     * @param db     database popolato
+     * @param cursor generatore del thread
+     * @return i quarti d'ora occupati di ogni giorno
+     * @throws SQLException se l'interrogazione fallisce
+     */
+    @Benchmark
+    public Map<LocalDate, BitSet> getOccupiedSlotsBetween(BenchmarkDatabase db, Cursor cursor) throws SQLException {
+        int hairdresserId = db.hairdresserId(cursor.random);
+        LocalDate from = db.day(cursor.random);
+        AvailabilityIndex.getInstance().invalidate(hairdresserId);
+        return AppointmentDAO.getInstance().getOccupiedSlotsBetween(hairdresserId, from, from.plusDays(SEARCH_DAYS));
+    }
+
+    /**
+     * Prenotazione di un orario mai occupato.
+     *
+     * @param db     database popolato
+     * @param cursor generatore del thread
+     * @return true se la prenotazione è riuscita
+     * @throws SQLException se l'inserimento fallisce
+     */
+    @Benchmark
+    public boolean bookAppointment(BenchmarkDatabase db, Cursor cursor) throws SQLException {
+        BenchmarkDatabase.Slot slot = db.nextFreeSlot();
+        return AppointmentDAO.getInstance().bookAppointment(db.clientId(cursor.random), slot.hairdresserId(),
+                Timestamp.valueOf(slot.dateTime()).toString(), SERVICE_IDS);
+    }
+
+    /**
+     * Appuntamenti di una settimana a caso di un parrucchiere.
+     *
+     * @param db     database popolato
+     * @param cursor generatore del thread
+     * @return gli appuntamenti della settimana
+     * @throws SQLException se l'interrogazione fallisce
+     */
+    @Benchmark
+    public List<WeeklyAppointment> getAppointmentsForWeek(BenchmarkDatabase db, Cursor cursor)
+            throws SQLException {
+        LocalDate startOfWeek = db.day(cursor.random).with(DayOfWeek.MONDAY);
+        return AppointmentDAO.getInstance().getAppointmentsForWeek(db.hairdresserId(cursor.random), startOfWeek,
+                startOfWeek.plusDays(6));
+    }
+
+    /**
+     * Riepilogo di una settimana a caso di un parrucchiere, con il fatturato.
+     *
+     * @param db     database popolato
+     * @param cursor generatore del thread
+     * @return il riepilogo della settimana
+     * @throws SQLException se l'interrogazione fallisce
+     */
+    @Benchmark
+    public WeeklySummary getWeeklySummary(BenchmarkDatabase db, Cursor cursor) throws SQLException {
+        return AppointmentDAO.getInstance().getWeeklySummary(db.hairdresserId(cursor.random), db.day(cursor.random));
+    }
+
+    /**
+     * Fatturato della settimana corrente di un parrucchiere.
+     *
+     * @param db     database popolato
+     * @param cursor generatore del thread
+     * @return il fatturato
+     * @throws SQLException se l'interrogazione fallisce
+     */
+    @Benchmark
+    public double calculateWeeklyRevenue(BenchmarkDatabase db, Cursor cursor) throws SQLException {
+        return AppointmentDAO.getInstance().calculateWeeklyRevenue(db.hairdresserId(cursor.random));
+    }
+}
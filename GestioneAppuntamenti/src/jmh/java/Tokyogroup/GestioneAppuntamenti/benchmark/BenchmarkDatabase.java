@@ -0,0 +1,165 @@
+package Tokyogroup.GestioneAppuntamenti.benchmark;
+
+import Tokyogroup.GestioneAppuntamenti.model.DatabaseManager;
+import Tokyogroup.GestioneAppuntamenti.model.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Database H2 dedicato ai benchmark, popolato da {@link SyntheticDataGenerator}
+ * con il numero di appuntamenti indicato dal parametro {@code rows}.
+ * <p>
+ * Ogni dimensione usa un proprio file in {@code target/jmh-db}, creato alla
+ * prima esecuzione e riutilizzato da quelle successive. Il percorso viene
+ * impostato tramite la proprietà di sistema {@code appuntamenti.db.path} prima
+ * del primo accesso a {@link DatabaseManager}: i benchmark vanno quindi
+ * eseguiti in un JVM separato per ogni dimensione (fork maggiore di zero).
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    private static final long SEED = 42L;
+    private static final int FIRST_HOUR = 9;
+    private static final int HOURS_PER_DAY = 9;
+
+    /**
+     * Numero di appuntamenti del database.
+     */
+    @Param({ "1000", "100000", "10000000" })
+    public int rows;
+
+    private SyntheticDataGenerator.Settings settings;
+    private SyntheticDataGenerator generator;
+    private LocalDate firstDay;
+    private int days;
+    private LocalDateTime firstFreeSlot;
+    private final AtomicLong bookedSlots = new AtomicLong();
+
+    /**
+     * Apre il database della dimensione richiesta, popolandolo se necessario.
+     *
+     * @throws Exception se la preparazione del database fallisce
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path path = Path.of("target", "jmh-db", "appointments-" + rows).toAbsolutePath();
+        System.setProperty("appuntamenti.db.path", path.toString());
+
+        settings = SyntheticDataGenerator.Settings.forAppointments(rows, SEED);
+        generator = new SyntheticDataGenerator(settings);
+
+        DatabaseManager.initializeDatabase();
+        if (countAppointments() < rows) {
+            DatabaseManager.deleteDatabaseFiles();
+            DatabaseManager.initializeDatabase();
+            generator.generate();
+        }
+
+        try (Connection conn = DatabaseManager.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(
+                        "SELECT MIN(appointmentDate), MAX(appointmentDate) FROM Appointments")) {
+            rs.next();
+            firstDay = rs.getTimestamp(1).toLocalDateTime().toLocalDate();
+            LocalDate lastDay = rs.getTimestamp(2).toLocalDateTime().toLocalDate();
+            days = (int) ChronoUnit.DAYS.between(firstDay, lastDay) + 1;
+            firstFreeSlot = lastDay.plusDays(1).atTime(FIRST_HOUR, 0);
+        }
+    }
+
+    /**
+     * Chiude le connessioni al termine delle misure.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseManager.closeConnectionPool();
+    }
+
+    /**
+     * Restituisce un parrucchiere a caso.
+     *
+     * @param random generatore del thread
+     * @return l'ID del parrucchiere
+     */
+    public int hairdresserId(SplittableRandom random) {
+        return generator.hairdresserId(random.nextInt(settings.hairdressers()));
+    }
+
+    /**
+     * Restituisce un cliente a caso.
+     *
+     * @param random generatore del thread
+     * @return l'ID del cliente
+     */
+    public int clientId(SplittableRandom random) {
+        return generator.clientId(random.nextInt(settings.clients()));
+    }
+
+    /**
+     * Restituisce lo username di un cliente a caso.
+     *
+     * @param random generatore del thread
+     * @return lo username del cliente
+     */
+    public String clientUsername(SplittableRandom random) {
+        return SyntheticDataGenerator.clientUsername(random.nextInt(settings.clients()));
+    }
+
+    /**
+     * Restituisce un giorno a caso nell'intervallo popolato.
+     *
+     * @param random generatore del thread
+     * @return il giorno
+     */
+    public LocalDate day(SplittableRandom random) {
+        return firstDay.plusDays(random.nextInt(days));
+    }
+
+    /**
+     * Restituisce il prossimo orario mai prenotato, successivo a tutti gli
+     * appuntamenti presenti.
+     *
+     * @return un'istanza con l'ID del parrucchiere e l'orario
+     */
+    public Slot nextFreeSlot() {
+        long slot = bookedSlots.getAndIncrement();
+        int hairdresserId = generator.hairdresserId((int) (slot % settings.hairdressers()));
+        long hourIndex = slot / settings.hairdressers();
+        LocalDateTime dateTime = firstFreeSlot.plusDays(hourIndex / HOURS_PER_DAY)
+                .plusHours(hourIndex % HOURS_PER_DAY);
+        return new Slot(hairdresserId, dateTime);
+    }
+
+    /**
+     * Orario libero di un parrucchiere.
+     *
+     * @param hairdresserId ID del parrucchiere
+     * @param dateTime      data e ora
+     */
+    public record Slot(int hairdresserId, LocalDateTime dateTime) {
+    }
+
+    private int countAppointments() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM Appointments")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
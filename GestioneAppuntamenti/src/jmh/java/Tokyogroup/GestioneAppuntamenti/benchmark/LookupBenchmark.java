@@ -0,0 +1,100 @@
+package Tokyogroup.GestioneAppuntamenti.benchmark;
+
+import Tokyogroup.GestioneAppuntamenti.controller.AppointmentController;
+import Tokyogroup.GestioneAppuntamenti.model.FreeSlot;
+import Tokyogroup.GestioneAppuntamenti.model.Message;
+import Tokyogroup.GestioneAppuntamenti.model.MessageDAO;
+import Tokyogroup.GestioneAppuntamenti.model.Service;
+import Tokyogroup.GestioneAppuntamenti.model.ServiceDAO;
+import Tokyogroup.GestioneAppuntamenti.model.User;
+import Tokyogroup.GestioneAppuntamenti.model.UserDAO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark delle letture usate all'accesso e nelle schermate del gestore:
+ * servizi di un parrucchiere, login e messaggi non letti, e della ricerca
+ * dei primi orari liberi.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+
+    /**
+     * Generatore deterministico, DAO dei servizi e controller degli
+     * appuntamenti di ogni thread.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom(42);
+        final ServiceDAO serviceDAO = new ServiceDAO();
+        final AppointmentController appointments = new AppointmentController(
+                new User(0, "benchmark", "password", "CLIENTE", true));
+    }
+
+    /**
+     * Servizi offerti da un parrucchiere a caso.
+     *
+     * @param db     database popolato
+     * @param cursor generatore del thread
+     * @return i servizi
+     */
+    @Benchmark
+    public List<Service> getServicesByHairdresser(BenchmarkDatabase db, Cursor cursor) {
+        return cursor.serviceDAO.getServicesByHairdresser(db.hairdresserId(cursor.random));
+    }
+
+    /**
+     * Ricerca di un utente per username e password, come al login.
+     *
+     * @param db     database popolato
+     * @param cursor generatore del thread
+     * @return l'utente trovato
+     * @throws SQLException se l'interrogazione fallisce
+     */
+    @Benchmark
+    public User findUser(BenchmarkDatabase db, Cursor cursor) throws SQLException {
+        return UserDAO.getInstance().findUser(db.clientUsername(cursor.random), "password");
+    }
+
+    /**
+     * Messaggi non letti di un parrucchiere a caso.
+     *
+     * @param db     database popolato
+     * @param cursor generatore del thread
+     * @return i messaggi non letti
+     */
+    @Benchmark
+    public List<Message> getUnreadMessages(BenchmarkDatabase db, Cursor cursor) {
+        return MessageDAO.getInstance().getUnreadMessages(db.hairdresserId(cursor.random));
+    }
+
+    /**
+     * Primi dieci orari liberi per un taglio nei prossimi 90 giorni presso un
+     * parrucchiere a caso. Dopo il riscaldamento le ore occupate sono servite
+     * dall'indice in memoria.
+     *
+     * @param db     database popolato
+     * @param cursor generatore del thread
+     * @return gli orari liberi
+     */
+    @Benchmark
+    public List<FreeSlot> findFreeSlots(BenchmarkDatabase db, Cursor cursor) {
+        return cursor.appointments.findFreeSlots(db.hairdresserId(cursor.random), List.of("Taglio"), 90, 10);
+    }
+}
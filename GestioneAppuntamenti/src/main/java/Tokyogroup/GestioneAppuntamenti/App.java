@@ -2,36 +2,37 @@ package Tokyogroup.GestioneAppuntamenti;
 
 import com.formdev.flatlaf.FlatDarculaLaf;
 
-import java.sql.SQLException;
-
-import javax.swing.SwingUtilities;
-import javax.swing.UIManager;
-
 import Tokyogroup.GestioneAppuntamenti.controller.LoginController;
+import Tokyogroup.GestioneAppuntamenti.model.Configuration;
 import Tokyogroup.GestioneAppuntamenti.model.DatabaseManager;
+import Tokyogroup.GestioneAppuntamenti.model.PastAppointmentsScheduler;
 import Tokyogroup.GestioneAppuntamenti.view.LoginView;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
  * Classe principale dell'applicazione di gestione appuntamenti per barbieri.
- * Questa classe contiene il metodo main che avvia l'applicazione e gestisce
- * l'inizializzazione del database, la pulizia degli appuntamenti obsoleti,
- * l'impostazione del look and feel e l'avvio della vista di login.
+ * Questa classe contiene il metodo main, che delega l'avvio a
+ * {@link StartupOrchestrator}.
  * 
  * <p>
- * Il flusso principale dell'applicazione è il seguente:
+ * Il flusso di avvio è il seguente:
  * <ol>
- * <li>Inizializzazione del database</li>
- * <li>Pulizia degli appuntamenti obsoleti</li>
- * <li>Impostazione del look and feel</li>
- * <li>Avvio della vista di login</li>
+ * <li>Caricamento e verifica della {@link Configuration}: con valori non
+ * validi l'applicazione viene terminata indicando le chiavi errate</li>
+ * <li>Inizializzazione del database, in background</li>
+ * <li>In parallelo, impostazione del look and feel e avvio della vista di
+ * login, con l'accesso abilitato quando il database è pronto</li>
+ * <li>Dopo la comparsa della prima finestra, avvio dell'aggiornamento
+ * periodico degli appuntamenti obsoleti, eseguito in background</li>
+ * <li>Scrittura nel log della sequenza temporale delle fasi di avvio</li>
  * </ol>
  * 
  * <p>
- * In caso di errori durante l'inizializzazione del database o la pulizia
- * degli appuntamenti obsoleti, l'applicazione verrà terminata con un messaggio
- * di errore appropriato.
+ * In caso di errori durante l'inizializzazione del database, l'applicazione
+ * verrà terminata con un messaggio di errore appropriato. Gli errori
+ * dell'aggiornamento degli appuntamenti obsoleti vengono registrati nel log e
+ * l'aggiornamento viene ritentato all'esecuzione successiva.
  * 
  * <p>
  * In caso di errore durante l'impostazione del look and feel, verrà utilizzato
@@ -45,7 +46,9 @@ import org.apache.logging.log4j.Logger;
  * La classe utilizza un logger per registrare informazioni e messaggi di errore
  * durante l'esecuzione.
  * 
+ * @see StartupOrchestrator
  * @see DatabaseManager
+ * @see PastAppointmentsScheduler
  * @see LoginController
  * @see LoginView
  * @see FlatDarculaLaf
@@ -69,45 +72,12 @@ public class App {
     public static void main(String[] args) {
         logger.info("Avvio dell'applicazione...");
         try {
-            DatabaseManager.initializeDatabase();
-            logger.info("Database inizializzato con successo.");
-        } catch (SQLException e) {
-            logger.error("Inizializzazione del database fallita a causa di un'eccezione SQL.", e);
-            terminateApplication("Inizializzazione del database fallita. L'applicazione verrà chiusa.");
-        } catch (Exception e) {
-            logger.error("Errore imprevisto durante l'inizializzazione del database.", e);
-            terminateApplication("Errore imprevisto. L'applicazione verrà chiusa.");
-        }
-
-        try {
-            logger.info("Pulizia degli appuntamenti obsoleti...");
-            DatabaseManager.updatePastAppointments();
-            logger.info("Appuntamenti obsoleti puliti con successo.");
-        } catch (SQLException e) {
-            logger.error("Aggiornamento degli appuntamenti obsoleti fallito.", e);
-            terminateApplication("Pulizia degli appuntamenti obsoleti fallita. L'applicazione verrà chiusa.");
+            Configuration.getInstance();
+        } catch (IllegalArgumentException e) {
+            terminateApplication(e.getMessage());
+            return;
         }
-
-        try {
-            UIManager.setLookAndFeel(new FlatDarculaLaf());
-            logger.info("Look and Feel impostato su FlatDarculaLaf.");
-        } catch (Exception e) {
-            logger.warn("Impostazione del Look and Feel fallita. Utilizzo del look and feel predefinito.", e);
-        }
-
-        SwingUtilities.invokeLater(() -> {
-            try {
-                logger.info("Avvio della LoginView...");
-                LoginController loginController = new LoginController();
-                LoginView loginView = new LoginView(loginController);
-                loginView.show();
-                logger.info("LoginView avviata con successo.");
-            } catch (Exception e) {
-                logger.error("Avvio della LoginView fallito.", e);
-                terminateApplication("Avvio della LoginView fallito. L'applicazione verrà chiusa.");
-            }
-        });
-
+        new StartupOrchestrator().start();
         logger.info("Applicazione avviata.");
     }
 
@@ -116,7 +86,7 @@ public class App {
      *
      * @param message Il messaggio da loggare prima di uscire.
      */
-    private static void terminateApplication(String message) {
+    static void terminateApplication(String message) {
         logger.error(message);
         System.exit(1);
     }
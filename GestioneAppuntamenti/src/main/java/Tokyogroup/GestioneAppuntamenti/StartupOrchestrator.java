@@ -0,0 +1,135 @@
+package Tokyogroup.GestioneAppuntamenti;
+
+import com.formdev.flatlaf.FlatDarculaLaf;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+
+import Tokyogroup.GestioneAppuntamenti.controller.LoginController;
+import Tokyogroup.GestioneAppuntamenti.model.DatabaseManager;
+import Tokyogroup.GestioneAppuntamenti.model.MetricsRegistry;
+import Tokyogroup.GestioneAppuntamenti.model.PastAppointmentsScheduler;
+import Tokyogroup.GestioneAppuntamenti.view.CorrelatingEventQueue;
+import Tokyogroup.GestioneAppuntamenti.view.LoginView;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Avvio dell'applicazione con le fasi indipendenti eseguite in parallelo.
+ * <p>
+ * L'inizializzazione del database (controllo e migrazione dello schema) avviene
+ * su un thread dedicato mentre il thread principale imposta il look and feel e
+ * l'Event Dispatch Thread costruisce e mostra la vista di login. Il pulsante di
+ * accesso resta disabilitato finché il database non è pronto. Prima della
+ * vista viene installata la coda degli eventi che assegna a ogni azione
+ * dell'utente un identificativo di correlazione per il log. L'aggiornamento
+ * periodico degli appuntamenti passati parte solo dopo la comparsa della prima
+ * finestra e il completamento dell'inizializzazione, insieme al riepilogo
+ * periodico delle metriche nel log; a quel punto la sequenza delle fasi viene
+ * scritta nel log.
+ */
+public class StartupOrchestrator {
+    private static final Logger logger = LogManager.getLogger(StartupOrchestrator.class);
+
+    private final StartupTimeline timeline = new StartupTimeline();
+    private final CompletableFuture<Void> firstFrame = new CompletableFuture<>();
+
+    /**
+     * Costruttore predefinito della classe StartupOrchestrator.
+     */
+    public StartupOrchestrator() {
+        // Costruttore vuoto
+    }
+
+    /**
+     * Avvia l'applicazione. Il metodo ritorna dopo aver impostato il look and
+     * feel, senza attendere il database né la comparsa della finestra.
+     */
+    public void start() {
+        CompletableFuture<Void> databaseReady = CompletableFuture.runAsync(this::initializeDatabase,
+                daemonThread("avvio-database"));
+        databaseReady.exceptionally(error -> {
+            logger.error("Inizializzazione del database fallita.", error);
+            App.terminateApplication("Inizializzazione del database fallita. L'applicazione verrà chiusa.");
+            return null;
+        });
+
+        try (StartupTimeline.Measure phase = timeline.start("look and feel")) {
+            UIManager.setLookAndFeel(new FlatDarculaLaf());
+            logger.info("Look and Feel impostato su FlatDarculaLaf.");
+        } catch (Exception e) {
+            logger.warn("Impostazione del Look and Feel fallita. Utilizzo del look and feel predefinito.", e);
+        }
+
+        CorrelatingEventQueue.install();
+        SwingUtilities.invokeLater(() -> showLogin(databaseReady));
+
+        firstFrame.thenCombine(databaseReady, (frame, database) -> null).thenRun(() -> {
+            // Le attività di manutenzione non competono con la costruzione della prima finestra
+            try (StartupTimeline.Measure phase = timeline.start("avvio manutenzione")) {
+                PastAppointmentsScheduler.getInstance().start();
+                MetricsRegistry.getInstance().startSnapshots();
+            }
+            timeline.log();
+        });
+    }
+
+    /**
+     * Restituisce la sequenza delle fasi di avvio.
+     *
+     * @return la sequenza delle fasi
+     */
+    public StartupTimeline getTimeline() {
+        return timeline;
+    }
+
+    /**
+     * Restituisce la fase che si completa quando la prima finestra è visibile.
+     *
+     * @return la fase di comparsa della prima finestra
+     */
+    public CompletionStage<Void> whenFirstFrameVisible() {
+        return firstFrame.minimalCompletionStage();
+    }
+
+    private void initializeDatabase() {
+        try (StartupTimeline.Measure phase = timeline.start("schema del database")) {
+            DatabaseManager.initializeDatabase();
+            logger.info("Database inizializzato con successo.");
+        } catch (Exception e) {
+            throw new IllegalStateException("Inizializzazione del database fallita.", e);
+        }
+    }
+
+    private void showLogin(CompletableFuture<Void> databaseReady) {
+        try {
+            LoginView loginView;
+            try (StartupTimeline.Measure phase = timeline.start("costruzione LoginView")) {
+                loginView = new LoginView(new LoginController(databaseReady));
+            }
+            loginView.show();
+            logger.info("LoginView avviata con successo.");
+        } catch (Exception e) {
+            logger.error("Avvio della LoginView fallito.", e);
+            App.terminateApplication("Avvio della LoginView fallito. L'applicazione verrà chiusa.");
+        }
+
+        // Accodato dopo gli eventi generati da show(), tra cui il primo disegno della finestra
+        SwingUtilities.invokeLater(() -> {
+            timeline.mark("prima finestra visibile");
+            firstFrame.complete(null);
+        });
+    }
+
+    private static Executor daemonThread(String name) {
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            thread.start();
+        };
+    }
+}
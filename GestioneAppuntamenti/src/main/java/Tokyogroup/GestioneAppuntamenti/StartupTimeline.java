@@ -0,0 +1,111 @@
+package Tokyogroup.GestioneAppuntamenti;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sequenza temporale delle fasi di avvio dell'applicazione.
+ * <p>
+ * Ogni fase registra il thread che l'ha eseguita, l'istante di inizio rispetto
+ * all'avvio della JVM e la durata, così nel log si vede quali fasi si
+ * sovrappongono e quale ritarda la comparsa della prima finestra.
+ */
+public class StartupTimeline {
+    private static final Logger logger = LogManager.getLogger(StartupTimeline.class);
+
+    private final long originNanos;
+    private final long originUptimeMillis;
+    private final List<Phase> phases = new ArrayList<>(); // Protetto da this
+
+    /**
+     * Fase di avvio completata.
+     *
+     * @param name           nome della fase
+     * @param thread         nome del thread che l'ha eseguita
+     * @param startMillis    inizio, in millisecondi dall'avvio della JVM
+     * @param durationMillis durata in millisecondi, zero per un evento puntuale
+     */
+    public record Phase(String name, String thread, long startMillis, long durationMillis) {
+    }
+
+    /**
+     * Misura in corso di una fase, da chiudere al termine della fase.
+     */
+    public final class Measure implements AutoCloseable {
+        private final String name;
+        private final long startNanos = System.nanoTime();
+
+        private Measure(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Termina la fase e la aggiunge alla sequenza.
+         */
+        @Override
+        public void close() {
+            add(name, startNanos, System.nanoTime());
+        }
+    }
+
+    /**
+     * Crea una sequenza vuota, con origine nell'istante di creazione.
+     */
+    public StartupTimeline() {
+        this.originNanos = System.nanoTime();
+        this.originUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    /**
+     * Inizia la misura di una fase.
+     *
+     * @param name nome della fase
+     * @return la misura, da chiudere al termine della fase
+     */
+    public Measure start(String name) {
+        return new Measure(name);
+    }
+
+    /**
+     * Registra un evento puntuale, come la comparsa della prima finestra.
+     *
+     * @param name nome dell'evento
+     */
+    public void mark(String name) {
+        long now = System.nanoTime();
+        add(name, now, now);
+    }
+
+    /**
+     * Restituisce le fasi registrate, in ordine di inizio.
+     *
+     * @return le fasi registrate
+     */
+    public synchronized List<Phase> getPhases() {
+        List<Phase> sorted = new ArrayList<>(phases);
+        sorted.sort(Comparator.comparingLong(Phase::startMillis));
+        return sorted;
+    }
+
+    /**
+     * Scrive nel log la sequenza delle fasi.
+     */
+    public void log() {
+        StringBuilder timeline = new StringBuilder("Sequenza di avvio (ms dall'avvio della JVM):");
+        for (Phase phase : getPhases()) {
+            timeline.append(String.format("%n  %6d  %-28s %6d ms  [%s]", phase.startMillis(), phase.name(),
+                    phase.durationMillis(), phase.thread()));
+        }
+        logger.info(timeline);
+    }
+
+    private synchronized void add(String name, long startNanos, long endNanos) {
+        phases.add(new Phase(name, Thread.currentThread().getName(),
+                originUptimeMillis + (startNanos - originNanos) / 1_000_000, (endNanos - startNanos) / 1_000_000));
+    }
+}
@@ -0,0 +1,31 @@
+package Tokyogroup.GestioneAppuntamenti.api;
+
+/**
+ * Errore di una richiesta all'API, restituito al client con lo stato HTTP
+ * indicato e il messaggio nel corpo della risposta.
+ */
+public class ApiException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    /**
+     * Crea un errore con lo stato HTTP e il messaggio indicati.
+     *
+     * @param status  stato HTTP della risposta
+     * @param message messaggio per il client
+     */
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    /**
+     * Restituisce lo stato HTTP della risposta.
+     *
+     * @return lo stato HTTP
+     */
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,600 @@
+package Tokyogroup.GestioneAppuntamenti.api;
+
+import Tokyogroup.GestioneAppuntamenti.controller.CorrelationId;
+import Tokyogroup.GestioneAppuntamenti.controller.LoginController;
+import Tokyogroup.GestioneAppuntamenti.controller.ViewMessagesController;
+import Tokyogroup.GestioneAppuntamenti.model.AppointmentEntry;
+import Tokyogroup.GestioneAppuntamenti.model.AppointmentListing;
+import Tokyogroup.GestioneAppuntamenti.model.Configuration;
+import Tokyogroup.GestioneAppuntamenti.model.DatabaseManager;
+import Tokyogroup.GestioneAppuntamenti.model.FreeSlot;
+import Tokyogroup.GestioneAppuntamenti.model.Message;
+import Tokyogroup.GestioneAppuntamenti.model.MetricsRegistry;
+import Tokyogroup.GestioneAppuntamenti.model.PastAppointmentsScheduler;
+import Tokyogroup.GestioneAppuntamenti.model.Service;
+import Tokyogroup.GestioneAppuntamenti.model.User;
+
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * API HTTP senza interfaccia grafica per prenotare da telefono o da pagina web.
+ * <p>
+ * Il server usa {@code com.sun.net.httpserver} del JDK con un gruppo fisso di
+ * thread e risponde in JSON. Le operazioni delegano agli stessi controller
+ * delle viste Swing, quindi valgono le stesse regole di validazione. Ogni
+ * richiesta riceve un {@link CorrelationId} e la sua latenza viene registrata
+ * in {@link MetricsRegistry} come {@code Api.<metodo> <percorso>}.
+ * <p>
+ * Endpoint (tutti tranne il login richiedono
+ * {@code Authorization: Bearer <token>}):
+ * <ul>
+ * <li>{@code POST /api/login} {@code {"username", "password"}}: apre una
+ * sessione e restituisce il token;</li>
+ * <li>{@code POST /api/logout}: chiude la sessione;</li>
+ * <li>{@code GET /api/hairdressers}: parrucchieri disponibili;</li>
+ * <li>{@code GET /api/hairdressers/{id}/services}: servizi di un
+ * parrucchiere;</li>
+ * <li>{@code GET /api/hairdressers/{id}/availability?date=AAAA-MM-GG&services=}:
+ * orari di inizio, a intervalli di un quarto d'ora, in cui c'è tempo per i
+ * servizi indicati (un'ora se mancano);</li>
+ * <li>{@code GET /api/slots?hairdresserId=&services=&days=&limit=}: primi
+ * orari liberi presso un parrucchiere (o qualsiasi, senza
+ * {@code hairdresserId}) che offra i servizi indicati, separati da virgole,
+ * nei prossimi {@code days} giorni (predefiniti 90);</li>
+ * <li>{@code GET /api/appointments}: appuntamenti validi dell'utente;</li>
+ * <li>{@code POST /api/appointments}
+ * {@code {"hairdresserId", "date", "hour", "services"}}: prenotazione (un
+ * gestore indica {@code clientId} al posto di {@code hairdresserId});</li>
+ * <li>{@code DELETE /api/appointments/{id}}: disdetta;</li>
+ * <li>{@code GET /api/managers}: gestori a cui scrivere;</li>
+ * <li>{@code POST /api/messages} {@code {"receiverId", "text"}}: invio di un
+ * messaggio;</li>
+ * <li>{@code GET /api/messages}: messaggi non letti del gestore;</li>
+ * <li>{@code POST /api/messages/{id}/read}: segna un messaggio come
+ * letto.</li>
+ * </ul>
+ * Gli errori hanno il corpo {@code {"error": "messaggio"}}: 400 per dati non
+ * validi, 401 senza sessione valida, 403 per operazioni non consentite al tipo
+ * di account, 404 per risorse inesistenti o di altri utenti, 409 per un orario
+ * già occupato.
+ */
+public final class ApiServer {
+    private static final Logger logger = LogManager.getLogger(ApiServer.class);
+
+    // Coda delle connessioni in attesa di accettazione
+    private static final int BACKLOG = 1_024;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final int DEFAULT_SEARCH_DAYS = 90;
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+
+    static {
+        // Senza TCP_NODELAY le risposte brevi attendono l'ACK ritardato del client
+        // (circa 40 ms per richiesta sulla stessa connessione)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final LoginController loginController = new LoginController();
+    private final ApiSessions sessions;
+    private final List<Route> routes;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /** Richiesta di login. */
+    record LoginRequest(String username, String password) {
+    }
+
+    /** Richiesta di prenotazione. */
+    record BookingRequest(Integer hairdresserId, Integer clientId, String date, String hour, List<String> services) {
+    }
+
+    /** Richiesta di invio di un messaggio. */
+    record MessageRequest(Integer receiverId, String text) {
+    }
+
+    /** Sessione aperta. */
+    record LoginResponse(String token, int userId, String username, String accountType) {
+    }
+
+    /** Utente visibile agli altri utenti. */
+    record UserResponse(int id, String username) {
+    }
+
+    /** Servizio del catalogo. */
+    record ServiceResponse(int id, String name, double price, int durationMinutes) {
+    }
+
+    /** Ore libere di un parrucchiere in un giorno. */
+    record AvailabilityResponse(int hairdresserId, String date, List<String> hours) {
+    }
+
+    /** Orario libero. */
+    record SlotResponse(int hairdresserId, String hairdresserName, String dateTime) {
+    }
+
+    /** Appuntamento dell'utente; la controparte è il parrucchiere o il cliente. */
+    record AppointmentResponse(int id, String dateTime, String status, int counterpartId, String counterpartName,
+            String services) {
+    }
+
+    /** Esito di una prenotazione. */
+    record BookingResponse(boolean booked) {
+    }
+
+    /** Messaggio ricevuto. */
+    record MessageResponse(int id, int senderId, String senderUsername, String sentDate, String text) {
+    }
+
+    /** Errore. */
+    record ErrorResponse(String error) {
+    }
+
+    /**
+     * Risposta di un endpoint.
+     *
+     * @param status stato HTTP
+     * @param body   corpo da serializzare in JSON, null per una risposta vuota
+     */
+    record Response(int status, Object body) {
+
+        static Response ok(Object body) {
+            return new Response(200, body);
+        }
+
+        static Response noContent() {
+            return new Response(204, null);
+        }
+    }
+
+    /**
+     * Operazione associata a un percorso.
+     */
+    @FunctionalInterface
+    interface Endpoint {
+        /**
+         * Esegue l'operazione.
+         *
+         * @param request la richiesta
+         * @return la risposta
+         * @throws IOException se la lettura del corpo fallisce
+         */
+        Response handle(Request request) throws IOException;
+    }
+
+    /**
+     * Percorso dell'API con il relativo endpoint.
+     */
+    private record Route(String method, Pattern path, boolean authenticated, Endpoint endpoint,
+            MetricsRegistry.Operation operation) {
+    }
+
+    /**
+     * Richiesta in corso, con i parametri del percorso e la sessione.
+     */
+    final class Request {
+        private final HttpExchange exchange;
+        private final Matcher path;
+        private final ApiSessions.Session session;
+
+        private Request(HttpExchange exchange, Matcher path, ApiSessions.Session session) {
+            this.exchange = exchange;
+            this.path = path;
+            this.session = session;
+        }
+
+        ApiSessions.Session session() {
+            return session;
+        }
+
+        int pathId() {
+            try {
+                return Integer.parseInt(path.group(1));
+            } catch (NumberFormatException e) {
+                throw new ApiException(404, "Risorsa inesistente.");
+            }
+        }
+
+        int queryInt(String name, int defaultValue) {
+            String value = query(name);
+            if (value == null || value.isBlank()) {
+                return defaultValue;
+            }
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, "Parametro " + name + " non valido: " + value);
+            }
+        }
+
+        String query(String name) {
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query == null) {
+                return null;
+            }
+            for (String pair : query.split("&")) {
+                int separator = pair.indexOf('=');
+                if (separator > 0 && name.equals(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8))) {
+                    return URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+                }
+            }
+            return null;
+        }
+
+        <T> T body(Class<T> type) throws IOException {
+            byte[] bytes;
+            try (InputStream in = exchange.getRequestBody()) {
+                bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            }
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Corpo della richiesta troppo grande.");
+            }
+            try {
+                T value = mapper.readValue(bytes, type);
+                if (value == null) {
+                    throw new ApiException(400, "Corpo della richiesta mancante.");
+                }
+                return value;
+            } catch (JacksonException e) {
+                throw new ApiException(400, "Corpo JSON non valido: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private ApiServer(HttpServer server, int threads, long sessionTimeoutMillis) {
+        this.server = server;
+        this.sessions = new ApiSessions(sessionTimeoutMillis);
+        this.routes = List.of(
+                route("POST", "/api/login", false, this::login),
+                route("POST", "/api/logout", true, this::logout),
+                route("GET", "/api/hairdressers", true, this::hairdressers),
+                route("GET", "/api/hairdressers/{id}/services", true, this::services),
+                route("GET", "/api/hairdressers/{id}/availability", true, this::availability),
+                route("GET", "/api/slots", true, this::freeSlots),
+                route("GET", "/api/appointments", true, this::appointments),
+                route("POST", "/api/appointments", true, this::book),
+                route("DELETE", "/api/appointments/{id}", true, this::cancel),
+                route("GET", "/api/managers", true, this::managers),
+                route("GET", "/api/messages", true, this::unreadMessages),
+                route("POST", "/api/messages", true, this::sendMessage),
+                route("POST", "/api/messages/{id}/read", true, this::markRead));
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "api-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+    }
+
+    /**
+     * Avvia l'API HTTP sul database configurato in questo processo.
+     *
+     * @param port                 porta TCP, 0 per una porta libera qualsiasi
+     * @param threads              thread che servono le richieste
+     * @param sessionTimeoutMillis inattività dopo la quale una sessione scade
+     * @return il server avviato
+     * @throws IOException se la porta non è disponibile
+     */
+    public static ApiServer start(int port, int threads, long sessionTimeoutMillis) throws IOException {
+        ApiServer api = new ApiServer(HttpServer.create(new InetSocketAddress(port), BACKLOG), threads,
+                sessionTimeoutMillis);
+        api.server.start();
+        logger.info("API HTTP in ascolto sulla porta {} con {} thread.", api.getPort(), threads);
+        return api;
+    }
+
+    /**
+     * Restituisce la porta su cui il server è in ascolto.
+     *
+     * @return la porta TCP
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Arresta il server attendendo al massimo un secondo le richieste in corso.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("API HTTP arrestata.");
+    }
+
+    /**
+     * Avvia l'API HTTP da riga di comando con porta, thread e durata delle
+     * sessioni di {@link Configuration}, insieme all'aggiornamento periodico
+     * degli appuntamenti passati e al riepilogo delle metriche.
+     *
+     * @param args non utilizzati
+     * @throws Exception se l'inizializzazione del database o l'avvio del server
+     *                   falliscono
+     */
+    public static void main(String[] args) throws Exception {
+        Configuration config = Configuration.getInstance();
+        DatabaseManager.initializeDatabase();
+        PastAppointmentsScheduler.getInstance().start();
+        MetricsRegistry.getInstance().startSnapshots();
+
+        ApiServer api = start(config.getApiPort(), config.getApiThreads(), config.getApiSessionTimeoutMillis());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.stop();
+            DatabaseManager.closeConnectionPool();
+        }, "arresto-api"));
+    }
+
+    private Route route(String method, String template, boolean authenticated, Endpoint endpoint) {
+        Pattern path = Pattern.compile(template.replace("{id}", "([^/]+)"));
+        return new Route(method, path, authenticated, endpoint,
+                MetricsRegistry.getInstance().operation("Api." + method + " " + template));
+    }
+
+    private void handle(HttpExchange exchange) {
+        try (CorrelationId.Scope scope = CorrelationId.begin()) {
+            Response response;
+            try {
+                response = dispatch(exchange);
+            } catch (ApiException e) {
+                response = new Response(e.getStatus(), new ErrorResponse(e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                response = new Response(400, new ErrorResponse(e.getMessage()));
+            } catch (Exception e) {
+                logger.error("Errore nella richiesta {} {}.", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+                response = new Response(500, new ErrorResponse("Errore interno del server."));
+            }
+            send(exchange, response);
+        } catch (IOException e) {
+            logger.debug("Risposta a {} non inviata: {}", exchange.getRequestURI(), e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response dispatch(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        boolean pathExists = false;
+        for (Route route : routes) {
+            Matcher matcher = route.path().matcher(path);
+            if (!matcher.matches()) {
+                continue;
+            }
+            pathExists = true;
+            if (!route.method().equals(exchange.getRequestMethod())) {
+                continue;
+            }
+            try (MetricsRegistry.Timer timer = route.operation().time()) {
+                ApiSessions.Session session = route.authenticated() ? authenticate(exchange) : null;
+                return route.endpoint().handle(new Request(exchange, matcher, session));
+            }
+        }
+        throw pathExists ? new ApiException(405, "Metodo non consentito.") : new ApiException(404, "Risorsa inesistente.");
+    }
+
+    private ApiSessions.Session authenticate(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            ApiSessions.Session session = sessions.find(authorization.substring("Bearer ".length()).trim());
+            if (session != null) {
+                return session;
+            }
+        }
+        throw new ApiException(401, "Sessione assente o scaduta: eseguire il login.");
+    }
+
+    private void send(HttpExchange exchange, Response response) throws IOException {
+        if (response.body() == null) {
+            exchange.sendResponseHeaders(response.status(), -1);
+            return;
+        }
+        byte[] body = mapper.writeValueAsBytes(response.body());
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(response.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Response login(Request request) throws IOException {
+        LoginRequest login = request.body(LoginRequest.class);
+        User user = loginController.authenticate(login.username(), login.password());
+        if (user == null) {
+            throw new ApiException(401, "Credenziali non valide.");
+        }
+        if (!user.isActive()) {
+            throw new ApiException(403, "Account disattivato.");
+        }
+        ApiSessions.Session session = sessions.open(user);
+        return Response.ok(new LoginResponse(session.token(), user.getId(), user.getUsername(), user.getAccountType()));
+    }
+
+    private Response logout(Request request) {
+        sessions.close(request.session());
+        return Response.noContent();
+    }
+
+    private Response hairdressers(Request request) {
+        return Response.ok(request.session().appointments().getAvailableHairdressers().stream()
+                .map(user -> new UserResponse(user.getId(), user.getUsername()))
+                .toList());
+    }
+
+    private Response services(Request request) {
+        // Il controller usa solo l'ID del parrucchiere
+        User hairdresser = new User();
+        hairdresser.setId(request.pathId());
+        List<Service> services = request.session().appointments().getServicesForHairdresser(hairdresser);
+        return Response.ok(services.stream()
+                .map(service -> new ServiceResponse(service.getId(), service.getName(), service.getPrice(),
+                        service.getDurationMinutes()))
+                .toList());
+    }
+
+    private Response availability(Request request) {
+        String date = request.query("date");
+        requireDate(date);
+        int hairdresserId = request.pathId();
+        return Response.ok(new AvailabilityResponse(hairdresserId, date,
+                request.session().appointments().getAvailableHours(hairdresserId, date, serviceNames(request))));
+    }
+
+    private Response freeSlots(Request request) {
+        String hairdresserId = request.query("hairdresserId");
+        List<FreeSlot> slots = request.session().appointments().findFreeSlots(
+                hairdresserId == null || hairdresserId.isBlank() ? null : request.queryInt("hairdresserId", 0),
+                serviceNames(request), request.queryInt("days", DEFAULT_SEARCH_DAYS),
+                request.queryInt("limit", DEFAULT_SEARCH_LIMIT));
+        return Response.ok(slots.stream()
+                .map(slot -> new SlotResponse(slot.hairdresserId(), slot.hairdresserName(), slot.start().toString()))
+                .toList());
+    }
+
+    private static List<String> serviceNames(Request request) {
+        String services = request.query("services");
+        return services == null || services.isBlank() ? List.of()
+                : Arrays.stream(services.split(",")).map(String::trim).toList();
+    }
+
+    private Response appointments(Request request) {
+        ApiSessions.Session session = request.session();
+        List<AppointmentListing> listings = session.isHairdresser()
+                ? session.hairdresserAppointments().getValidAppointmentListings()
+                : session.clientAppointments().getValidAppointmentListings();
+        return Response.ok(listings.stream()
+                .map(listing -> new AppointmentResponse(listing.id(), listing.appointmentDate().toString(),
+                        listing.status(), listing.counterpartId(), listing.counterpartName(), listing.services()))
+                .toList());
+    }
+
+    private Response book(Request request) throws IOException {
+        ApiSessions.Session session = request.session();
+        BookingRequest booking = request.body(BookingRequest.class);
+        requireDate(booking.date());
+        if (booking.hour() == null || !booking.hour().matches("\\d{2}:\\d{2}")) {
+            throw new ApiException(400, "Ora mancante o non valida (atteso HH:mm).");
+        }
+        List<String> services = booking.services() == null ? List.of() : booking.services();
+
+        boolean booked;
+        if (session.isHairdresser()) {
+            if (booking.clientId() == null) {
+                throw new ApiException(400, "Indicare il cliente (clientId).");
+            }
+            booked = session.hairdresserBookings().createAppointment(booking.clientId(), booking.date(),
+                    booking.hour(), services);
+        } else {
+            if (booking.hairdresserId() == null) {
+                throw new ApiException(400, "Indicare il parrucchiere (hairdresserId).");
+            }
+            booked = session.appointments().bookAppointment(booking.hairdresserId(), booking.date(), booking.hour(),
+                    services);
+        }
+        if (!booked) {
+            throw new ApiException(409, "L'orario selezionato è già stato prenotato.");
+        }
+        return new Response(201, new BookingResponse(true));
+    }
+
+    private Response cancel(Request request) {
+        ApiSessions.Session session = request.session();
+        int appointmentId = request.pathId();
+        List<AppointmentEntry> own = session.isHairdresser()
+                ? session.hairdresserAppointments().getValidAppointmentsForHairdresser()
+                : session.clientAppointments().getValidAppointmentsForClient();
+        if (own.stream().noneMatch(entry -> entry.id() == appointmentId)) {
+            throw new ApiException(404, "Appuntamento inesistente o non disdicibile.");
+        }
+        boolean cancelled = session.isHairdresser()
+                ? session.hairdresserAppointments().cancelAppointment(appointmentId)
+                : session.clientAppointments().cancelAppointment(appointmentId);
+        if (!cancelled) {
+            throw new ApiException(404, "Appuntamento inesistente o non disdicibile.");
+        }
+        return Response.noContent();
+    }
+
+    private Response managers(Request request) {
+        return Response.ok(request.session().messages().getAllManagers().stream()
+                .map(user -> new UserResponse(user.getId(), user.getUsername()))
+                .toList());
+    }
+
+    private Response sendMessage(Request request) throws IOException {
+        MessageRequest message = request.body(MessageRequest.class);
+        if (message.receiverId() == null || message.text() == null || message.text().isBlank()) {
+            throw new ApiException(400, "Indicare destinatario (receiverId) e testo (text).");
+        }
+        if (!request.session().messages().sendMessage(message.receiverId(), message.text())) {
+            throw new ApiException(400, "Invio del messaggio non riuscito.");
+        }
+        return new Response(201, null);
+    }
+
+    private Response unreadMessages(Request request) {
+        return Response.ok(inbox(request).getUnreadMessages().stream()
+                .map(ApiServer::toResponse)
+                .toList());
+    }
+
+    private Response markRead(Request request) {
+        int messageId = request.pathId();
+        ViewMessagesController inbox = inbox(request);
+        if (inbox.getUnreadMessages().stream().noneMatch(message -> message.getId() == messageId)
+                || !inbox.markMessageAsRead(messageId)) {
+            throw new ApiException(404, "Messaggio inesistente o già letto.");
+        }
+        return Response.noContent();
+    }
+
+    private static ViewMessagesController inbox(Request request) {
+        if (!request.session().isHairdresser()) {
+            throw new ApiException(403, "Solo i gestori ricevono messaggi.");
+        }
+        return request.session().inbox();
+    }
+
+    private static MessageResponse toResponse(Message message) {
+        return new MessageResponse(message.getId(), message.getSenderId(), message.getSenderUsername(),
+                message.getSentDate(), message.getMessageText());
+    }
+
+    private static void requireDate(String date) {
+        try {
+            LocalDate.parse(date == null ? "" : date);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Data mancante o non valida (atteso AAAA-MM-GG).");
+        }
+    }
+}
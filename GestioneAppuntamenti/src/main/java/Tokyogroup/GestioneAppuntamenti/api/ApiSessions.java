@@ -0,0 +1,175 @@
+package Tokyogroup.GestioneAppuntamenti.api;
+
+import Tokyogroup.GestioneAppuntamenti.controller.AppointmentController;
+import Tokyogroup.GestioneAppuntamenti.controller.CancelAppointmentController;
+import Tokyogroup.GestioneAppuntamenti.controller.CancelAppointmentForHairdresserController;
+import Tokyogroup.GestioneAppuntamenti.controller.CreateAppointmentController;
+import Tokyogroup.GestioneAppuntamenti.controller.MessageController;
+import Tokyogroup.GestioneAppuntamenti.controller.ViewMessagesController;
+import Tokyogroup.GestioneAppuntamenti.model.User;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sessioni dell'API HTTP.
+ * <p>
+ * Dopo l'autenticazione il client riceve un token casuale da inviare
+ * nell'intestazione {@code Authorization: Bearer <token>}. La sessione
+ * conserva l'utente e i controller che gli competono, così le richieste
+ * successive non interrogano il database per l'autenticazione. Le sessioni
+ * scadono dopo il periodo di inattività indicato.
+ */
+final class ApiSessions {
+    private static final Logger logger = LogManager.getLogger(ApiSessions.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    /**
+     * Sessione di un utente autenticato, con i controller delle operazioni
+     * consentite al suo tipo di account.
+     */
+    static final class Session {
+        private final String token;
+        private final User user;
+        private final AppointmentController appointments;
+        private final MessageController messages;
+        private final CancelAppointmentController clientAppointments;
+        private final CancelAppointmentForHairdresserController hairdresserAppointments;
+        private final CreateAppointmentController hairdresserBookings;
+        private final ViewMessagesController inbox;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+
+        private Session(String token, User user) {
+            this.token = token;
+            this.user = user;
+            this.appointments = new AppointmentController(user);
+            this.messages = new MessageController(user);
+            if (isHairdresser()) {
+                clientAppointments = null;
+                hairdresserAppointments = new CancelAppointmentForHairdresserController(user);
+                hairdresserBookings = new CreateAppointmentController(user);
+                inbox = new ViewMessagesController(user.getId());
+            } else {
+                clientAppointments = new CancelAppointmentController(user);
+                hairdresserAppointments = null;
+                hairdresserBookings = null;
+                inbox = null;
+            }
+        }
+
+        String token() {
+            return token;
+        }
+
+        User user() {
+            return user;
+        }
+
+        boolean isHairdresser() {
+            return "GESTORE".equals(user.getAccountType());
+        }
+
+        AppointmentController appointments() {
+            return appointments;
+        }
+
+        MessageController messages() {
+            return messages;
+        }
+
+        CancelAppointmentController clientAppointments() {
+            return clientAppointments;
+        }
+
+        CancelAppointmentForHairdresserController hairdresserAppointments() {
+            return hairdresserAppointments;
+        }
+
+        CreateAppointmentController hairdresserBookings() {
+            return hairdresserBookings;
+        }
+
+        ViewMessagesController inbox() {
+            return inbox;
+        }
+    }
+
+    /**
+     * Crea l'archivio delle sessioni.
+     *
+     * @param timeoutMillis inattività dopo la quale una sessione scade
+     */
+    ApiSessions(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Apre una sessione per un utente autenticato, eliminando prima quelle
+     * scadute.
+     *
+     * @param user utente autenticato
+     * @return la nuova sessione
+     */
+    Session open(User user) {
+        evictExpired();
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        Session session = new Session(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes), user);
+        sessions.put(session.token(), session);
+        logger.info("Sessione API aperta per l'utente {} ({} attive).", user.getUsername(), sessions.size());
+        return session;
+    }
+
+    /**
+     * Restituisce la sessione del token indicato, se esiste e non è scaduta.
+     *
+     * @param token token della sessione
+     * @return la sessione, o null se il token non è valido
+     */
+    Session find(String token) {
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now - session.lastUsedAt > timeoutMillis) {
+            sessions.remove(token, session);
+            return null;
+        }
+        session.lastUsedAt = now;
+        return session;
+    }
+
+    /**
+     * Chiude una sessione.
+     *
+     * @param session la sessione da chiudere
+     */
+    void close(Session session) {
+        sessions.remove(session.token(), session);
+    }
+
+    /**
+     * Restituisce il numero di sessioni aperte.
+     *
+     * @return il numero di sessioni
+     */
+    int size() {
+        return sessions.size();
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> now - session.lastUsedAt > timeoutMillis);
+    }
+}
@@ -2,6 +2,11 @@
 package Tokyogroup.GestioneAppuntamenti.controller;
 
 import Tokyogroup.GestioneAppuntamenti.model.AppointmentDAO;
+import Tokyogroup.GestioneAppuntamenti.model.AvailabilityIndex;
+import Tokyogroup.GestioneAppuntamenti.model.BookingResult;
+import Tokyogroup.GestioneAppuntamenti.model.FreeSlot;
+import Tokyogroup.GestioneAppuntamenti.model.ScheduleCalendar;
+import Tokyogroup.GestioneAppuntamenti.model.ScheduleDAO;
 import Tokyogroup.GestioneAppuntamenti.model.Service;
 import Tokyogroup.GestioneAppuntamenti.model.ServiceDAO;
 import Tokyogroup.GestioneAppuntamenti.model.User;
@@ -12,9 +17,19 @@ import org.apache.logging.log4j.Logger;
 import java.sql.SQLException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller per la gestione degli appuntamenti.
@@ -22,8 +37,15 @@ import java.util.List;
 public class AppointmentController {
     private static final Logger logger = LogManager.getLogger(AppointmentController.class);
 
+    /**
+     * Numero massimo di giorni esaminati dalla ricerca delle prime
+     * disponibilità.
+     */
+    public static final int MAX_SEARCH_DAYS = 366;
+
     AppointmentDAO appointmentDAO;
     ServiceDAO serviceDAO;
+    ScheduleDAO scheduleDAO;
     private final User currentUser;
 
     /**
@@ -34,9 +56,10 @@ public class AppointmentController {
     public AppointmentController(User currentUser) {
         this.appointmentDAO = AppointmentDAO.getInstance();
         this.serviceDAO = new ServiceDAO();
+        this.scheduleDAO = new ScheduleDAO();
         this.currentUser = currentUser;
 
-        logger.info("AppointmentController inizializzato per l'utente: {}", currentUser.getUsername());
+        logger.debug("AppointmentController inizializzato per l'utente: {}", currentUser.getUsername());
     }
 
     /**
@@ -56,7 +79,7 @@ public class AppointmentController {
     public List<User> getAvailableHairdressers() {
         try {
             List<User> hairdressers = appointmentDAO.getAvailableHairdressers();
-            logger.info("Recuperati {} parrucchieri disponibili.", hairdressers.size());
+            logger.debug("Recuperati {} parrucchieri disponibili.", hairdressers.size());
             return hairdressers;
         } catch (SQLException e) {
             logger.error("Errore nel recupero dei parrucchieri disponibili.", e);
@@ -73,7 +96,7 @@ public class AppointmentController {
     public List<Service> getServicesForHairdresser(User hairdresser) {
         try {
             List<Service> services = serviceDAO.getServicesByHairdresser(hairdresser.getId());
-            logger.info("Recuperati {} servizi per il parrucchiere: {}", services.size(), hairdresser.getUsername());
+            logger.debug("Recuperati {} servizi per il parrucchiere: {}", services.size(), hairdresser.getUsername());
             return services;
         } catch (RuntimeException e) {
             logger.error("Errore nel recupero dei servizi per il parrucchiere con ID: {}", hairdresser.getId(), e);
@@ -83,25 +106,43 @@ public class AppointmentController {
 
     /**
      * Restituisce la lista delle ore disponibili per un parrucchiere in una data
-     * specifica.
+     * specifica, per un appuntamento della durata predefinita di
+     * {@value Service#DEFAULT_DURATION_MINUTES} minuti.
      *
      * @param hairdresserId l'ID del parrucchiere
      * @param selectedDate  la data selezionata
      * @return lista delle ore disponibili
      */
     public List<String> getAvailableHours(int hairdresserId, String selectedDate) {
+        return getAvailableHours(hairdresserId, selectedDate, List.of());
+    }
+
+    /**
+     * Restituisce gli orari, a intervalli di un quarto d'ora, in cui può
+     * iniziare un appuntamento con i servizi selezionati: l'intera durata dei
+     * servizi deve essere libera e rientrare nell'orario di lavoro del
+     * parrucchiere, senza attraversare pause o assenze.
+     *
+     * @param hairdresserId    l'ID del parrucchiere
+     * @param selectedDate     la data selezionata
+     * @param selectedServices i servizi selezionati, o lista vuota per la
+     *                         durata predefinita
+     * @return lista degli orari di inizio disponibili in formato "HH:mm"
+     */
+    public List<String> getAvailableHours(int hairdresserId, String selectedDate, List<String> selectedServices) {
         try {
-            List<String> bookedHours = appointmentDAO.getBookedHours(hairdresserId, selectedDate);
+            LocalDate date = LocalDate.parse(selectedDate);
+            BitSet occupiedSlots = appointmentDAO.getOccupiedSlots(hairdresserId, date);
+            int durationMinutes = serviceDAO.getTotalDurationByName(selectedServices);
+            BitSet starts = AvailabilityIndex.feasibleStarts(occupiedSlots,
+                    scheduleDAO.getOpenSlots(hairdresserId, date), durationMinutes, 0);
 
-            List<String> allHours = new ArrayList<>();
-            for (int hour = 9; hour < 18; hour++) {
-                String formattedHour = String.format("%02d:00", hour);
-                if (!bookedHours.contains(formattedHour)) {
-                    allHours.add(formattedHour);
-                }
+            List<String> allHours = new ArrayList<>(starts.cardinality());
+            for (int slot = starts.nextSetBit(0); slot >= 0; slot = starts.nextSetBit(slot + 1)) {
+                allHours.add(AvailabilityIndex.slotLabel(slot));
             }
-            logger.info("Recuperate {} ore disponibili per il parrucchiere ID: {} nella data: {}", allHours.size(),
-                    hairdresserId, selectedDate);
+            logger.debug("Recuperate {} ore disponibili per il parrucchiere ID: {} nella data: {} ({} minuti)",
+                    allHours.size(), hairdresserId, selectedDate, durationMinutes);
             return allHours;
         } catch (SQLException e) {
             logger.error("Errore nel recupero delle ore disponibili per il parrucchiere con ID: {}.", hairdresserId, e);
@@ -109,6 +150,114 @@ public class AppointmentController {
         }
     }
 
+    /**
+     * Cerca i primi orari liberi a partire da adesso presso un parrucchiere, o
+     * presso qualsiasi parrucchiere, che offra tutti i servizi indicati.
+     * <p>
+     * Per ogni parrucchiere i quarti d'ora occupati dell'intero periodo vengono
+     * letti con un'unica interrogazione (o dall'indice in memoria) e gli orari
+     * di lavoro vengono presi dal calendario precalcolato; per ogni giorno si
+     * calcolano poi gli inizi in cui la durata complessiva dei servizi è libera
+     * e lavorativa, scorrendoli in ordine senza ulteriori accessi al database.
+     * A parità di orario i parrucchieri sono in ordine di ID.
+     *
+     * @param hairdresserId ID del parrucchiere, o null per qualsiasi
+     *                      parrucchiere
+     * @param serviceNames  servizi richiesti, o lista vuota per non filtrare
+     * @param days          numero di giorni da esaminare a partire da oggi
+     * @param limit         numero massimo di orari restituiti
+     * @return gli orari liberi in ordine cronologico, al più {@code limit}
+     * @throws IllegalArgumentException se giorni o numero di orari non sono
+     *                                  validi
+     */
+    public List<FreeSlot> findFreeSlots(Integer hairdresserId, List<String> serviceNames, int days, int limit) {
+        if (days < 1 || days > MAX_SEARCH_DAYS) {
+            throw new IllegalArgumentException(
+                    "Il numero di giorni deve essere compreso tra 1 e " + MAX_SEARCH_DAYS + ".");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Il numero di orari richiesti deve essere positivo.");
+        }
+        try {
+            List<User> candidates = new ArrayList<>();
+            for (User hairdresser : appointmentDAO.getAvailableHairdressers()) {
+                if ((hairdresserId == null || hairdresser.getId() == hairdresserId)
+                        && offersAll(hairdresser.getId(), serviceNames)) {
+                    candidates.add(hairdresser);
+                }
+            }
+            candidates.sort(Comparator.comparingInt(User::getId));
+            if (candidates.isEmpty()) {
+                logger.debug("Nessun parrucchiere offre i servizi richiesti: {}", serviceNames);
+                return List.of();
+            }
+
+            int durationMinutes = serviceDAO.getTotalDurationByName(serviceNames);
+            LocalDateTime now = LocalDateTime.now();
+            LocalDate from = now.toLocalDate();
+            LocalDate to = from.plusDays(days);
+            List<Map<LocalDate, BitSet>> occupied = new ArrayList<>(candidates.size());
+            for (User hairdresser : candidates) {
+                occupied.add(appointmentDAO.getOccupiedSlotsBetween(hairdresser.getId(), from, to));
+            }
+            ScheduleCalendar.Calendar calendar = scheduleDAO.getCalendar();
+
+            // Primo quarto d'ora di oggi che non è già iniziato
+            long slotNanos = AvailabilityIndex.SLOT_MINUTES * 60_000_000_000L;
+            int firstSlotToday = (int) ((now.toLocalTime().toNanoOfDay() + slotNanos - 1) / slotNanos);
+
+            List<FreeSlot> slots = new ArrayList<>(limit);
+            BitSet[] starts = new BitSet[candidates.size()];
+            for (LocalDate date = from; date.isBefore(to) && slots.size() < limit; date = date.plusDays(1)) {
+                if (calendar.isClosed(date)) {
+                    continue;
+                }
+                int earliestSlot = date.equals(from) ? firstSlotToday : 0;
+                BitSet anyStart = new BitSet(AvailabilityIndex.SLOTS_PER_DAY);
+                for (int i = 0; i < candidates.size(); i++) {
+                    starts[i] = AvailabilityIndex.feasibleStarts(occupied.get(i).get(date),
+                            calendar.openSlots(candidates.get(i).getId(), date), durationMinutes, earliestSlot);
+                    anyStart.or(starts[i]);
+                }
+                for (int slot = anyStart.nextSetBit(0); slot >= 0 && slots.size() < limit;
+                        slot = anyStart.nextSetBit(slot + 1)) {
+                    for (int i = 0; i < candidates.size() && slots.size() < limit; i++) {
+                        if (starts[i].get(slot)) {
+                            User hairdresser = candidates.get(i);
+                            LocalDateTime start = date.atStartOfDay()
+                                    .plusMinutes((long) slot * AvailabilityIndex.SLOT_MINUTES);
+                            slots.add(new FreeSlot(hairdresser.getId(), hairdresser.getUsername(), start));
+                        }
+                    }
+                }
+            }
+            logger.debug("Trovati {} orari liberi su {} parrucchieri nei prossimi {} giorni.", slots.size(),
+                    candidates.size(), days);
+            return slots;
+        } catch (SQLException e) {
+            logger.error("Errore nella ricerca degli orari liberi.", e);
+            throw new RuntimeException("Errore nella ricerca degli orari liberi.", e);
+        }
+    }
+
+    /**
+     * Verifica se un parrucchiere offre tutti i servizi indicati.
+     *
+     * @param hairdresserId l'ID del parrucchiere
+     * @param serviceNames  i servizi richiesti
+     * @return true se il parrucchiere li offre tutti
+     */
+    private boolean offersAll(int hairdresserId, List<String> serviceNames) {
+        if (serviceNames == null || serviceNames.isEmpty()) {
+            return true;
+        }
+        Set<String> offered = new HashSet<>();
+        for (Service service : serviceDAO.getServicesByHairdresser(hairdresserId)) {
+            offered.add(service.getName());
+        }
+        return offered.containsAll(serviceNames);
+    }
+
     /**
      * Prenota un appuntamento per un parrucchiere in una data e ora specifica con i
      * servizi selezionati.
@@ -117,7 +266,8 @@ public class AppointmentController {
      * @param date             la data dell'appuntamento
      * @param hour             l'ora dell'appuntamento
      * @param selectedServices lista dei servizi selezionati
-     * @return true se la prenotazione è avvenuta con successo, false altrimenti
+     * @return true se la prenotazione è avvenuta con successo, false se l'orario è
+     *         già stato prenotato
      */
     public boolean bookAppointment(int hairdresserId, String date, String hour, List<String> selectedServices) {
         try {
@@ -134,16 +284,18 @@ public class AppointmentController {
 
             String dateTime = date + " " + hour + ":00";
 
-            List<Integer> serviceIds = new ArrayList<>();
-            for (String serviceName : selectedServices) {
-                int serviceId = serviceDAO.getServiceIdByName(serviceName);
-                serviceIds.add(serviceId);
-            }
+            List<Integer> serviceIds = serviceDAO.getServiceIdsByName(selectedServices);
+            checkWorkingHours(scheduleDAO, hairdresserId, date, hour,
+                    serviceDAO.getTotalDurationByName(selectedServices));
 
-            boolean success = appointmentDAO.bookAppointment(clientId, hairdresserId, dateTime, serviceIds);
-            logger.info("Appuntamento prenotato con successo per il parrucchiere ID: {} e cliente ID: {}",
-                    hairdresserId, clientId);
-            return success;
+            BookingResult result = appointmentDAO.reserveAppointment(clientId, hairdresserId, dateTime, serviceIds);
+            if (result.isBooked()) {
+                logger.info("Appuntamento prenotato con successo per il parrucchiere ID: {} e cliente ID: {}",
+                        hairdresserId, clientId);
+            } else {
+                logger.warn("Orario {} già occupato per il parrucchiere ID: {}", dateTime, hairdresserId);
+            }
+            return result.isBooked();
         } catch (SQLException e) {
             logger.error("Errore SQL nella prenotazione dell'appuntamento per il parrucchiere con ID: {}.",
                     hairdresserId, e);
@@ -154,6 +306,35 @@ public class AppointmentController {
         }
     }
 
+    /**
+     * Verifica che un appuntamento inizi a un quarto d'ora esatto e si svolga
+     * per intero nell'orario di lavoro del parrucchiere, senza attraversare
+     * pause, assenze o chiusure del negozio.
+     *
+     * @param scheduleDAO     DAO degli orari di lavoro
+     * @param hairdresserId   l'ID del parrucchiere
+     * @param date            la data in formato "yyyy-MM-dd"
+     * @param hour            l'ora di inizio in formato "HH:mm"
+     * @param durationMinutes la durata complessiva dei servizi
+     * @throws IllegalArgumentException se l'orario non è valido
+     */
+    static void checkWorkingHours(ScheduleDAO scheduleDAO, int hairdresserId, String date, String hour,
+            int durationMinutes) {
+        int slot;
+        LocalDate day;
+        try {
+            slot = AvailabilityIndex.slotOf(LocalTime.parse(hour));
+            day = LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data o ora non valida.");
+        }
+        BitSet open = scheduleDAO.getOpenSlots(hairdresserId, day);
+        if (!open.get(slot) || open.nextClearBit(slot) < slot + AvailabilityIndex.slotsFor(durationMinutes)) {
+            throw new IllegalArgumentException("L'appuntamento di " + durationMinutes
+                    + " minuti non rientra nell'orario di lavoro: " + date + " " + hour);
+        }
+    }
+
     /**
      * Verifica se la data e l'ora selezionate sono valide (non nel passato).
      *
@@ -174,4 +355,81 @@ public class AppointmentController {
             throw new IllegalArgumentException("Data o ora non valida.");
         }
     }
+
+    /**
+     * Variante asincrona di {@link #getAvailableHairdressers()}: recupera i
+     * parrucchieri disponibili.
+     *
+     * @return il future con la lista dei parrucchieri disponibili
+     */
+    public CompletableFuture<List<User>> getAvailableHairdressersAsync() {
+        return AsyncExecutor.supply(this::getAvailableHairdressers);
+    }
+
+    /**
+     * Variante asincrona di {@link #getServicesForHairdresser(User)}: recupera
+     * i servizi offerti da un parrucchiere.
+     *
+     * @param hairdresser il parrucchiere
+     * @return il future con la lista dei servizi offerti
+     */
+    public CompletableFuture<List<Service>> getServicesForHairdresserAsync(User hairdresser) {
+        return AsyncExecutor.supply(() -> getServicesForHairdresser(hairdresser));
+    }
+
+    /**
+     * Variante asincrona di {@link #getAvailableHours(int, String)}: recupera
+     * le ore disponibili.
+     *
+     * @param hairdresserId l'ID del parrucchiere
+     * @param selectedDate la data selezionata
+     * @return il future con la lista delle ore disponibili
+     */
+    public CompletableFuture<List<String>> getAvailableHoursAsync(int hairdresserId, String selectedDate) {
+        return AsyncExecutor.supply(() -> getAvailableHours(hairdresserId, selectedDate));
+    }
+
+    /**
+     * Variante asincrona di {@link #getAvailableHours(int, String, List)}:
+     * recupera gli orari di inizio disponibili per i servizi selezionati.
+     *
+     * @param hairdresserId l'ID del parrucchiere
+     * @param selectedDate la data selezionata
+     * @param selectedServices i servizi selezionati
+     * @return il future con la lista degli orari di inizio disponibili
+     */
+    public CompletableFuture<List<String>> getAvailableHoursAsync(int hairdresserId, String selectedDate,
+            List<String> selectedServices) {
+        return AsyncExecutor.supply(() -> getAvailableHours(hairdresserId, selectedDate, selectedServices));
+    }
+
+    /**
+     * Variante asincrona di {@link #findFreeSlots(Integer, List, int, int)}:
+     * cerca i primi orari liberi.
+     *
+     * @param hairdresserId l'ID del parrucchiere, o null per qualsiasi parrucchiere
+     * @param serviceNames i servizi richiesti
+     * @param days numero di giorni da esaminare a partire da oggi
+     * @param limit numero massimo di orari restituiti
+     * @return il future con gli orari liberi in ordine cronologico
+     */
+    public CompletableFuture<List<FreeSlot>> findFreeSlotsAsync(Integer hairdresserId, List<String> serviceNames,
+            int days, int limit) {
+        return AsyncExecutor.supply(() -> findFreeSlots(hairdresserId, serviceNames, days, limit));
+    }
+
+    /**
+     * Variante asincrona di {@link #bookAppointment(int, String, String,
+     * List)}: prenota un appuntamento.
+     *
+     * @param hairdresserId l'ID del parrucchiere
+     * @param date la data dell'appuntamento
+     * @param hour l'ora dell'appuntamento
+     * @param selectedServices lista dei servizi selezionati
+     * @return il future con true se la prenotazione è avvenuta, false se l'orario è già stato prenotato
+     */
+    public CompletableFuture<Boolean> bookAppointmentAsync(int hairdresserId, String date, String hour,
+            List<String> selectedServices) {
+        return AsyncExecutor.supply(() -> bookAppointment(hairdresserId, date, hour, selectedServices));
+    }
 }
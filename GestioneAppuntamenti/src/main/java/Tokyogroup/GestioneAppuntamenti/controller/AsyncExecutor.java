@@ -0,0 +1,121 @@
+package Tokyogroup.GestioneAppuntamenti.controller;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Esecutore condiviso per le varianti asincrone dei metodi dei controller.
+ * <p>
+ * Le operazioni che accedono al database vengono eseguite fuori dall'Event
+ * Dispatch Thread di Swing. Su Java 21 o successivo ogni operazione usa un
+ * thread virtuale; sulle versioni precedenti viene usato un pool limitato di
+ * thread daemon con una coda di dimensione fissa. In entrambi i casi il numero
+ * di accessi concorrenti al database resta limitato dal pool di connessioni.
+ */
+public final class AsyncExecutor {
+    private static final Logger logger = LogManager.getLogger(AsyncExecutor.class);
+
+    // Dimensioni del pool usato quando i thread virtuali non sono disponibili
+    private static final int POOL_SIZE = 4;
+    private static final int QUEUE_CAPACITY = 100;
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static final ExecutorService executor = createExecutor();
+
+    private AsyncExecutor() {
+        // Classe di utilità
+    }
+
+    /**
+     * Esegue un'operazione in modo asincrono.
+     * <p>
+     * Se il future restituito viene cancellato prima che l'operazione inizi,
+     * l'operazione non viene eseguita. L'operazione viene eseguita con
+     * l'identificativo di correlazione dell'azione in corso sul thread
+     * chiamante (vedi {@link CorrelationId}).
+     *
+     * @param <T>  tipo del risultato
+     * @param task l'operazione da eseguire
+     * @return il future che verrà completato con il risultato dell'operazione
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Supplier<T> correlated = CorrelationId.propagate(task);
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(correlated.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Operazione asincrona rifiutata: coda piena o esecutore chiuso.");
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Restituisce l'esecutore condiviso.
+     *
+     * @return l'esecutore delle operazioni asincrone
+     */
+    public static ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Arresta l'esecutore, attendendo per un breve periodo il completamento delle
+     * operazioni in corso.
+     */
+    public static void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ExecutorService createExecutor() {
+        // Executors.newVirtualThreadPerTaskExecutor esiste solo da Java 21: viene
+        // cercato per riflessione per continuare a compilare con Java 17.
+        try {
+            ExecutorService virtual = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            logger.info("Operazioni asincrone eseguite su thread virtuali.");
+            return virtual;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.info("Thread virtuali non disponibili, uso di un pool di {} thread.", POOL_SIZE);
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "appuntamenti-async-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -1,6 +1,8 @@
 package Tokyogroup.GestioneAppuntamenti.controller;
 
 import Tokyogroup.GestioneAppuntamenti.model.AppointmentDAO;
+import Tokyogroup.GestioneAppuntamenti.model.AppointmentEntry;
+import Tokyogroup.GestioneAppuntamenti.model.AppointmentListing;
 import Tokyogroup.GestioneAppuntamenti.model.User;
 
 import org.apache.logging.log4j.LogManager;
@@ -10,6 +12,7 @@ import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller per la gestione della cancellazione degli appuntamenti.
@@ -29,18 +32,36 @@ public class CancelAppointmentController {
         this.appointmentDAO = AppointmentDAO.getInstance();
         this.currentUser = currentUser;
 
-        logger.info("CancelAppointmentController inizializzato per l'utente ID: {}", currentUser.getId());
+        logger.debug("CancelAppointmentController inizializzato per l'utente ID: {}", currentUser.getId());
     }
 
     /**
      * Ottiene tutte le prenotazioni valide per il cliente.
      *
-     * @return Lista di appuntamenti in formato leggibile.
+     * @return Lista di appuntamenti validi.
      */
-    public List<String[]> getValidAppointmentsForClient() {
+    public List<AppointmentEntry> getValidAppointmentsForClient() {
         try {
-            List<String[]> appointments = appointmentDAO.getValidAppointmentsForClient(currentUser.getId());
-            logger.info("Recuperate {} prenotazioni valide per l'utente ID: {}", appointments.size(),
+            List<AppointmentEntry> appointments = appointmentDAO.getValidAppointmentsForClient(currentUser.getId());
+            logger.debug("Recuperate {} prenotazioni valide per l'utente ID: {}", appointments.size(),
+                    currentUser.getId());
+            return appointments;
+        } catch (SQLException e) {
+            logger.error("Errore durante il recupero delle prenotazioni per l'utente ID: {}", currentUser.getId(), e);
+            throw new RuntimeException("Errore durante il recupero delle prenotazioni.", e);
+        }
+    }
+
+    /**
+     * Ottiene le prenotazioni valide del cliente con il nome del parrucchiere e i
+     * servizi prenotati, con un'unica interrogazione.
+     *
+     * @return Lista degli appuntamenti validi.
+     */
+    public List<AppointmentListing> getValidAppointmentListings() {
+        try {
+            List<AppointmentListing> appointments = appointmentDAO.getClientAppointmentListings(currentUser.getId());
+            logger.debug("Recuperate {} prenotazioni valide per l'utente ID: {}", appointments.size(),
                     currentUser.getId());
             return appointments;
         } catch (SQLException e) {
@@ -61,7 +82,7 @@ public class CancelAppointmentController {
             for (User hairdresser : hairdressers) {
                 hairdresserNames.put(hairdresser.getId(), hairdresser.getUsername());
             }
-            logger.info("Recuperati {} parrucchieri disponibili.", hairdresserNames.size());
+            logger.debug("Recuperati {} parrucchieri disponibili.", hairdresserNames.size());
             return hairdresserNames;
         } catch (SQLException e) {
             logger.error("Errore durante il recupero dei nomi dei parrucchieri.", e);
@@ -89,4 +110,45 @@ public class CancelAppointmentController {
             throw new RuntimeException("Errore durante la disdetta dell'appuntamento.", e);
         }
     }
+
+    /**
+     * Variante asincrona di {@link #getValidAppointmentsForClient()}: recupera
+     * le prenotazioni valide del cliente.
+     *
+     * @return il future con la lista degli appuntamenti
+     */
+    public CompletableFuture<List<AppointmentEntry>> getValidAppointmentsForClientAsync() {
+        return AsyncExecutor.supply(this::getValidAppointmentsForClient);
+    }
+
+    /**
+     * Variante asincrona di {@link #getValidAppointmentListings()}: recupera le
+     * prenotazioni valide del cliente con il nome del parrucchiere.
+     *
+     * @return il future con la lista degli appuntamenti
+     */
+    public CompletableFuture<List<AppointmentListing>> getValidAppointmentListingsAsync() {
+        return AsyncExecutor.supply(this::getValidAppointmentListings);
+    }
+
+    /**
+     * Variante asincrona di {@link #getHairdresserNames()}: recupera i nomi dei
+     * parrucchieri.
+     *
+     * @return il future con la mappa da ID a nome
+     */
+    public CompletableFuture<Map<Integer, String>> getHairdresserNamesAsync() {
+        return AsyncExecutor.supply(this::getHairdresserNames);
+    }
+
+    /**
+     * Variante asincrona di {@link #cancelAppointment(int)}: annulla un
+     * appuntamento.
+     *
+     * @param appointmentId ID dell'appuntamento da annullare.
+     * @return il future con true se l'operazione ha avuto successo, false altrimenti
+     */
+    public CompletableFuture<Boolean> cancelAppointmentAsync(int appointmentId) {
+        return AsyncExecutor.supply(() -> cancelAppointment(appointmentId));
+    }
 }
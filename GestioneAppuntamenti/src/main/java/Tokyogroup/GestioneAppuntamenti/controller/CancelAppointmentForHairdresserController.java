@@ -1,6 +1,8 @@
 package Tokyogroup.GestioneAppuntamenti.controller;
 
 import Tokyogroup.GestioneAppuntamenti.model.AppointmentDAO;
+import Tokyogroup.GestioneAppuntamenti.model.AppointmentEntry;
+import Tokyogroup.GestioneAppuntamenti.model.AppointmentListing;
 import Tokyogroup.GestioneAppuntamenti.model.User;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -9,6 +11,7 @@ import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller per la gestione della cancellazione degli appuntamenti da parte
@@ -29,19 +32,19 @@ public class CancelAppointmentForHairdresserController {
     public CancelAppointmentForHairdresserController(User currentHairdresser) {
         this.appointmentDAO = AppointmentDAO.getInstance();
         this.currentHairdresser = currentHairdresser;
-        logger.info("CancelAppointmentForHairdresserController inizializzato per il parrucchiere ID: {}",
+        logger.debug("CancelAppointmentForHairdresserController inizializzato per il parrucchiere ID: {}",
                 currentHairdresser.getId());
     }
 
     /**
      * Ottiene tutti gli appuntamenti validi per il parrucchiere.
      *
-     * @return Lista di appuntamenti in formato leggibile.
+     * @return Lista di appuntamenti validi.
      */
-    public List<String[]> getValidAppointmentsForHairdresser() {
+    public List<AppointmentEntry> getValidAppointmentsForHairdresser() {
         try {
-            List<String[]> appointments = appointmentDAO.getValidAppointmentsForHairdresser(currentHairdresser.getId());
-            logger.info("Appuntamenti validi recuperati per il parrucchiere ID: {}", currentHairdresser.getId());
+            List<AppointmentEntry> appointments = appointmentDAO.getValidAppointmentsForHairdresser(currentHairdresser.getId());
+            logger.debug("Appuntamenti validi recuperati per il parrucchiere ID: {}", currentHairdresser.getId());
             return appointments;
         } catch (SQLException e) {
             logger.error("Errore durante il recupero degli appuntamenti per il parrucchiere ID: {}",
@@ -50,6 +53,26 @@ public class CancelAppointmentForHairdresserController {
         }
     }
 
+    /**
+     * Ottiene le prenotazioni valide future del parrucchiere con il nome del
+     * cliente e i servizi prenotati, con un'unica interrogazione.
+     *
+     * @return Lista degli appuntamenti validi.
+     */
+    public List<AppointmentListing> getValidAppointmentListings() {
+        try {
+            List<AppointmentListing> appointments = appointmentDAO
+                    .getHairdresserAppointmentListings(currentHairdresser.getId());
+            logger.debug("Recuperate {} prenotazioni valide per il parrucchiere ID: {}", appointments.size(),
+                    currentHairdresser.getId());
+            return appointments;
+        } catch (SQLException e) {
+            logger.error("Errore durante il recupero delle prenotazioni per il parrucchiere ID: {}",
+                    currentHairdresser.getId(), e);
+            throw new RuntimeException("Errore durante il recupero degli appuntamenti.", e);
+        }
+    }
+
     /**
      * Ottiene i nomi dei clienti.
      *
@@ -61,9 +84,8 @@ public class CancelAppointmentForHairdresserController {
             Map<Integer, String> clientNames = new HashMap<>();
             for (User client : clients) {
                 clientNames.put(client.getId(), client.getUsername());
-                logger.info("Cliente ID: {}, Nome: {}", client.getId(), client.getUsername());
             }
-            logger.info("Nomi dei clienti recuperati con successo.");
+            logger.debug("Recuperati i nomi di {} clienti.", clientNames.size());
             return clientNames;
         } catch (SQLException e) {
             logger.error("Errore durante il recupero dei nomi dei clienti.", e);
@@ -91,4 +113,45 @@ public class CancelAppointmentForHairdresserController {
             throw new RuntimeException("Errore durante la disdetta dell'appuntamento.", e);
         }
     }
+
+    /**
+     * Variante asincrona di {@link #getValidAppointmentsForHairdresser()}:
+     * recupera le prenotazioni valide del parrucchiere.
+     *
+     * @return il future con la lista degli appuntamenti
+     */
+    public CompletableFuture<List<AppointmentEntry>> getValidAppointmentsForHairdresserAsync() {
+        return AsyncExecutor.supply(this::getValidAppointmentsForHairdresser);
+    }
+
+    /**
+     * Variante asincrona di {@link #getValidAppointmentListings()}: recupera le
+     * prenotazioni valide future del parrucchiere con il nome del cliente.
+     *
+     * @return il future con la lista degli appuntamenti
+     */
+    public CompletableFuture<List<AppointmentListing>> getValidAppointmentListingsAsync() {
+        return AsyncExecutor.supply(this::getValidAppointmentListings);
+    }
+
+    /**
+     * Variante asincrona di {@link #getClientNames()}: recupera i nomi dei
+     * clienti.
+     *
+     * @return il future con la mappa da ID a nome
+     */
+    public CompletableFuture<Map<Integer, String>> getClientNamesAsync() {
+        return AsyncExecutor.supply(this::getClientNames);
+    }
+
+    /**
+     * Variante asincrona di {@link #cancelAppointment(int)}: annulla un
+     * appuntamento.
+     *
+     * @param appointmentId ID dell'appuntamento da annullare.
+     * @return il future con true se l'operazione ha avuto successo, false altrimenti
+     */
+    public CompletableFuture<Boolean> cancelAppointmentAsync(int appointmentId) {
+        return AsyncExecutor.supply(() -> cancelAppointment(appointmentId));
+    }
 }
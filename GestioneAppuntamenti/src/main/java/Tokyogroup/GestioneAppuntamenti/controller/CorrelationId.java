@@ -0,0 +1,107 @@
+package Tokyogroup.GestioneAppuntamenti.controller;
+
+import org.apache.logging.log4j.ThreadContext;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Identificativo di correlazione dell'azione utente in corso.
+ * <p>
+ * L'identificativo viene conservato nel {@link ThreadContext} di log4j con la
+ * chiave {@value #KEY}, così ogni riga di log scritta durante l'azione, dalla
+ * vista al controller fino ai DAO, lo riporta. Le operazioni eseguite da
+ * {@link AsyncExecutor} ereditano l'identificativo del thread che le avvia,
+ * per cui una prenotazione si segue nel log anche quando passa dall'Event
+ * Dispatch Thread a un thread in background.
+ */
+public final class CorrelationId {
+
+    /** Chiave dell'identificativo nel ThreadContext e nel layout del log. */
+    public static final String KEY = "azione";
+
+    private static final AtomicLong sequence = new AtomicLong();
+
+    private CorrelationId() {
+        // Classe di utilità
+    }
+
+    /**
+     * Ambito in cui un identificativo è attivo sul thread corrente. Alla
+     * chiusura viene ripristinato l'identificativo precedente.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final String previous;
+
+        private Scope(String previous) {
+            this.previous = previous;
+        }
+
+        /**
+         * Ripristina l'identificativo attivo prima dell'apertura dell'ambito.
+         */
+        @Override
+        public void close() {
+            set(previous);
+        }
+    }
+
+    /**
+     * Inizia una nuova azione utente con un nuovo identificativo.
+     *
+     * @return l'ambito dell'azione, da chiudere al termine
+     */
+    public static Scope begin() {
+        return use(next());
+    }
+
+    /**
+     * Rende attivo l'identificativo indicato sul thread corrente.
+     *
+     * @param id l'identificativo, o null per nessun identificativo
+     * @return l'ambito dell'identificativo, da chiudere al termine
+     */
+    public static Scope use(String id) {
+        Scope scope = new Scope(current());
+        set(id);
+        return scope;
+    }
+
+    /**
+     * Restituisce l'identificativo attivo sul thread corrente.
+     *
+     * @return l'identificativo, o null se nessuna azione è in corso
+     */
+    public static String current() {
+        return ThreadContext.get(KEY);
+    }
+
+    /**
+     * Associa un'operazione all'azione in corso sul thread chiamante, o a una
+     * nuova azione se non ce n'è una.
+     *
+     * @param <T>  tipo del risultato
+     * @param task l'operazione da eseguire su un altro thread
+     * @return l'operazione, che viene eseguita con l'identificativo dell'azione
+     */
+    static <T> Supplier<T> propagate(Supplier<T> task) {
+        String id = current() != null ? current() : next();
+        return () -> {
+            try (Scope scope = use(id)) {
+                return task.get();
+            }
+        };
+    }
+
+    private static String next() {
+        return Long.toString(sequence.incrementAndGet(), 36);
+    }
+
+    private static void set(String id) {
+        if (id == null) {
+            ThreadContext.remove(KEY);
+        } else {
+            ThreadContext.put(KEY, id);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package Tokyogroup.GestioneAppuntamenti.controller;
 
 import Tokyogroup.GestioneAppuntamenti.model.AppointmentDAO;
+import Tokyogroup.GestioneAppuntamenti.model.AvailabilityIndex;
+import Tokyogroup.GestioneAppuntamenti.model.BookingResult;
+import Tokyogroup.GestioneAppuntamenti.model.ScheduleDAO;
 import Tokyogroup.GestioneAppuntamenti.model.Service;
 import Tokyogroup.GestioneAppuntamenti.model.ServiceDAO;
 import Tokyogroup.GestioneAppuntamenti.model.User;
@@ -10,9 +13,12 @@ import org.apache.logging.log4j.Logger;
 
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller per la creazione di appuntamenti.
@@ -23,6 +29,7 @@ public class CreateAppointmentController {
 
     private final AppointmentDAO appointmentDAO;
     private final ServiceDAO serviceDAO;
+    private final ScheduleDAO scheduleDAO;
     private final User currentHairdresser;
 
     /**
@@ -33,9 +40,10 @@ public class CreateAppointmentController {
     public CreateAppointmentController(User currentHairdresser) {
         this.appointmentDAO = AppointmentDAO.getInstance();
         this.serviceDAO = new ServiceDAO();
+        this.scheduleDAO = new ScheduleDAO();
         this.currentHairdresser = currentHairdresser;
 
-        logger.info("CreateAppointmentController inizializzato per parrucchiere: {}", currentHairdresser.getUsername());
+        logger.debug("CreateAppointmentController inizializzato per parrucchiere: {}", currentHairdresser.getUsername());
     }
 
     /**
@@ -46,7 +54,7 @@ public class CreateAppointmentController {
     public List<User> getClients() {
         try {
             List<User> clients = appointmentDAO.getClients();
-            logger.info("Recuperati {} clienti.", clients.size());
+            logger.debug("Recuperati {} clienti.", clients.size());
             return clients;
         } catch (SQLException e) {
             logger.error("Errore durante il recupero dei clienti.", e);
@@ -62,7 +70,7 @@ public class CreateAppointmentController {
     public List<Service> getServicesForCurrentHairdresser() {
         try {
             List<Service> services = serviceDAO.getServicesByHairdresser(currentHairdresser.getId());
-            logger.info("Recuperati {} servizi per parrucchiere: {}", services.size(),
+            logger.debug("Recuperati {} servizi per parrucchiere: {}", services.size(),
                     currentHairdresser.getUsername());
             return services;
         } catch (RuntimeException e) {
@@ -73,24 +81,39 @@ public class CreateAppointmentController {
     }
 
     /**
-     * Ottiene le ore disponibili per una data specifica.
+     * Ottiene le ore disponibili per una data specifica, per un appuntamento
+     * della durata predefinita.
      *
      * @param selectedDate Data selezionata in formato "yyyy-MM-dd".
      * @return Lista di orari disponibili.
      */
     public List<String> getAvailableHoursForDate(String selectedDate) {
+        return getAvailableHoursForDate(selectedDate, List.of());
+    }
+
+    /**
+     * Ottiene gli orari di inizio, a intervalli di un quarto d'ora, in cui c'è
+     * tempo per tutti i servizi selezionati entro l'orario di lavoro.
+     *
+     * @param selectedDate     Data selezionata in formato "yyyy-MM-dd".
+     * @param selectedServices Servizi selezionati, o lista vuota per la durata
+     *                         predefinita.
+     * @return Lista di orari disponibili in formato "HH:mm".
+     */
+    public List<String> getAvailableHoursForDate(String selectedDate, List<String> selectedServices) {
         try {
-            List<String> bookedHours = appointmentDAO.getBookedHours(currentHairdresser.getId(), selectedDate);
-
-            List<String> allHours = new ArrayList<>();
-            for (int hour = 9; hour < 18; hour++) {
-                String formattedHour = String.format("%02d:00", hour);
-                if (!bookedHours.contains(formattedHour)) {
-                    allHours.add(formattedHour);
-                }
+            LocalDate date = LocalDate.parse(selectedDate);
+            BitSet occupiedSlots = appointmentDAO.getOccupiedSlots(currentHairdresser.getId(), date);
+            int durationMinutes = serviceDAO.getTotalDurationByName(selectedServices);
+            BitSet starts = AvailabilityIndex.feasibleStarts(occupiedSlots,
+                    scheduleDAO.getOpenSlots(currentHairdresser.getId(), date), durationMinutes, 0);
+
+            List<String> allHours = new ArrayList<>(starts.cardinality());
+            for (int slot = starts.nextSetBit(0); slot >= 0; slot = starts.nextSetBit(slot + 1)) {
+                allHours.add(AvailabilityIndex.slotLabel(slot));
             }
-            logger.info("Recuperate {} ore disponibili per parrucchiere ID: {} nella data: {}", allHours.size(),
-                    currentHairdresser.getId(), selectedDate);
+            logger.debug("Recuperate {} ore disponibili per parrucchiere ID: {} nella data: {} ({} minuti)",
+                    allHours.size(), currentHairdresser.getId(), selectedDate, durationMinutes);
             return allHours;
         } catch (SQLException e) {
             logger.error("Errore durante il recupero delle ore disponibili per il parrucchiere con ID: {}.",
@@ -106,7 +129,8 @@ public class CreateAppointmentController {
      * @param date             Data dell'appuntamento (formato "yyyy-MM-dd").
      * @param hour             Ora dell'appuntamento (formato "HH:mm").
      * @param selectedServices Lista di servizi selezionati.
-     * @return true se l'appuntamento è stato creato con successo, false altrimenti.
+     * @return true se l'appuntamento è stato creato con successo, false se l'orario
+     *         è già stato prenotato.
      */
     public boolean createAppointment(int clientId, String date, String hour, List<String> selectedServices) {
         try {
@@ -122,22 +146,20 @@ public class CreateAppointmentController {
 
             String dateTime = date + " " + hour + ":00";
 
-            List<Integer> serviceIds = new ArrayList<>();
-            for (String serviceName : selectedServices) {
-                int serviceId = serviceDAO.getServiceIdByName(serviceName);
-                serviceIds.add(serviceId);
-            }
+            List<Integer> serviceIds = serviceDAO.getServiceIdsByName(selectedServices);
+            AppointmentController.checkWorkingHours(scheduleDAO, currentHairdresser.getId(), date, hour,
+                    serviceDAO.getTotalDurationByName(selectedServices));
 
-            boolean success = appointmentDAO.bookAppointment(clientId, currentHairdresser.getId(), dateTime,
+            BookingResult result = appointmentDAO.reserveAppointment(clientId, currentHairdresser.getId(), dateTime,
                     serviceIds);
-            if (success) {
+            if (result.isBooked()) {
                 logger.info("Appuntamento creato con successo per cliente ID: {} e parrucchiere ID: {}", clientId,
                         currentHairdresser.getId());
             } else {
-                logger.warn("Creazione appuntamento fallita per cliente ID: {} e parrucchiere ID: {}", clientId,
-                        currentHairdresser.getId());
+                logger.warn("Creazione appuntamento fallita per cliente ID: {}: orario {} già occupato "
+                        + "per il parrucchiere ID: {}", clientId, dateTime, currentHairdresser.getId());
             }
-            return success;
+            return result.isBooked();
         } catch (SQLException e) {
             logger.error("Errore SQL durante la creazione dell'appuntamento per il parrucchiere con ID: {}.",
                     currentHairdresser.getId(), e);
@@ -165,4 +187,62 @@ public class CreateAppointmentController {
             throw new IllegalArgumentException("Data o ora non valida.");
         }
     }
+
+    /**
+     * Variante asincrona di {@link #getClients()}: recupera i clienti.
+     *
+     * @return il future con la lista dei clienti
+     */
+    public CompletableFuture<List<User>> getClientsAsync() {
+        return AsyncExecutor.supply(this::getClients);
+    }
+
+    /**
+     * Variante asincrona di {@link #getServicesForCurrentHairdresser()}:
+     * recupera i servizi del parrucchiere corrente.
+     *
+     * @return il future con la lista dei servizi
+     */
+    public CompletableFuture<List<Service>> getServicesForCurrentHairdresserAsync() {
+        return AsyncExecutor.supply(this::getServicesForCurrentHairdresser);
+    }
+
+    /**
+     * Variante asincrona di {@link #getAvailableHoursForDate(String)}: recupera
+     * le ore disponibili per una data.
+     *
+     * @param selectedDate Data selezionata in formato "yyyy-MM-dd".
+     * @return il future con la lista degli orari disponibili
+     */
+    public CompletableFuture<List<String>> getAvailableHoursForDateAsync(String selectedDate) {
+        return AsyncExecutor.supply(() -> getAvailableHoursForDate(selectedDate));
+    }
+
+    /**
+     * Variante asincrona di {@link #getAvailableHoursForDate(String, List)}:
+     * recupera gli orari di inizio disponibili per i servizi selezionati.
+     *
+     * @param selectedDate     Data selezionata in formato "yyyy-MM-dd".
+     * @param selectedServices Servizi selezionati.
+     * @return il future con la lista degli orari disponibili
+     */
+    public CompletableFuture<List<String>> getAvailableHoursForDateAsync(String selectedDate,
+            List<String> selectedServices) {
+        return AsyncExecutor.supply(() -> getAvailableHoursForDate(selectedDate, selectedServices));
+    }
+
+    /**
+     * Variante asincrona di {@link #createAppointment(int, String, String,
+     * List)}: crea un appuntamento.
+     *
+     * @param clientId ID del cliente.
+     * @param date Data dell'appuntamento (formato "yyyy-MM-dd").
+     * @param hour Ora dell'appuntamento (formato "HH:mm").
+     * @param selectedServices Lista di servizi selezionati.
+     * @return il future con true se l'appuntamento è stato creato, false se l'orario è già stato prenotato
+     */
+    public CompletableFuture<Boolean> createAppointmentAsync(int clientId, String date, String hour,
+            List<String> selectedServices) {
+        return AsyncExecutor.supply(() -> createAppointment(clientId, date, hour, selectedServices));
+    }
 }
@@ -1,6 +1,8 @@
 package Tokyogroup.GestioneAppuntamenti.controller;
 
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -18,15 +20,38 @@ public class LoginController {
     private static final Logger logger = LogManager.getLogger(LoginController.class);
 
     private final UserDAO userDAO;
+    private final CompletableFuture<Void> databaseReady;
 
     /**
-     * Costruttore che inizializza il controller con un'istanza di UserDAO.
+     * Costruttore che inizializza il controller con un'istanza di UserDAO, per un
+     * database già inizializzato.
      */
     public LoginController() {
+        this(CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Costruttore per un database la cui inizializzazione può essere ancora in
+     * corso: le operazioni sul database attendono il suo completamento.
+     *
+     * @param databaseReady completato quando il database è pronto
+     */
+    public LoginController(CompletionStage<Void> databaseReady) {
         this.userDAO = UserDAO.getInstance();
+        this.databaseReady = databaseReady.toCompletableFuture();
         logger.info("LoginController inizializzato con UserDAO.");
     }
 
+    /**
+     * Restituisce lo stato di inizializzazione del database, per abilitare il
+     * login solo quando è pronto.
+     *
+     * @return completato quando il database è pronto
+     */
+    public CompletionStage<Void> whenDatabaseReady() {
+        return databaseReady.minimalCompletionStage();
+    }
+
     /**
      * Autentica un utente con username e password.
      *
@@ -46,6 +71,7 @@ public class LoginController {
         }
 
         try {
+            databaseReady.join();
             User user = userDAO.findUser(username, password);
             if (user != null) {
                 logger.info("Autenticazione riuscita per l'utente: {}", username);
@@ -71,7 +97,7 @@ public class LoginController {
         logger.debug("Tentativo di ripristino account per l'utente: {}", user.getUsername());
 
         try {
-            UserDAO userDAO = UserDAO.getInstance();
+            databaseReady.join();
             boolean success = userDAO.restoreUserAccount(user.getId());
             if (success) {
                 logger.info("Account ripristinato con successo per l'utente: {}", user.getUsername());
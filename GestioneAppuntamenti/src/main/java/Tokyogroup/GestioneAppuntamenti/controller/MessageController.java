@@ -25,7 +25,7 @@ public class MessageController {
     public MessageController(User user) {
         this.user = user;
         this.messageDAO = MessageDAO.getInstance();
-        logger.info("MessageController inizializzato per l'utente: {}", user.getUsername());
+        logger.debug("MessageController inizializzato per l'utente: {}", user.getUsername());
     }
 
     /**
@@ -34,10 +34,10 @@ public class MessageController {
      * @return Una lista di utenti che sono gestori.
      */
     public List<User> getAllManagers() {
-        logger.info("Recupero di tutti i gestori attivi...");
+        logger.debug("Recupero di tutti i gestori attivi...");
         try {
             List<User> managers = messageDAO.getManagers();
-            logger.info("Recuperati {} gestori.", managers.size());
+            logger.debug("Recuperati {} gestori.", managers.size());
             return managers;
         } catch (Exception e) {
             logger.error("Errore durante il recupero dei gestori.", e);
@@ -53,7 +53,7 @@ public class MessageController {
      * @return true se il messaggio è stato inviato con successo, false altrimenti.
      */
     public boolean sendMessage(int receiverId, String messageText) {
-        logger.info("Invio del messaggio dall'utente ID {} al gestore ID {}.", user.getId(), receiverId);
+        logger.debug("Invio del messaggio dall'utente ID {} al gestore ID {}.", user.getId(), receiverId);
         try {
             boolean result = messageDAO.addMessage(user.getId(), receiverId, messageText);
             if (result) {
@@ -86,8 +86,22 @@ public class ModifyServicesController {
      * @return ID del nuovo servizio aggiunto.
      */
     public int addNewService(String name, double price) {
-        logger.info("Aggiunta di un nuovo servizio: {} con prezzo {}", name, price);
-        int newServiceId = serviceDAO.addNewService(name, price);
+        return addNewService(name, price, Service.DEFAULT_DURATION_MINUTES);
+    }
+
+    /**
+     * Aggiunge un nuovo servizio con la durata indicata.
+     *
+     * @param name            Nome del nuovo servizio.
+     * @param price           Prezzo del nuovo servizio.
+     * @param durationMinutes Durata del servizio in minuti, multiplo di
+     *                        {@value Service#DURATION_STEP_MINUTES}.
+     * @return ID del nuovo servizio aggiunto.
+     */
+    public int addNewService(String name, double price, int durationMinutes) {
+        logger.info("Aggiunta di un nuovo servizio: {} con prezzo {} e durata {} minuti", name, price,
+                durationMinutes);
+        int newServiceId = serviceDAO.addNewService(name, price, durationMinutes);
         logger.debug("Nuovo servizio aggiunto con ID: {}", newServiceId);
         return newServiceId;
     }
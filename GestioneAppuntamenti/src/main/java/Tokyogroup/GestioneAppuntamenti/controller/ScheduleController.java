@@ -0,0 +1,214 @@
+package Tokyogroup.GestioneAppuntamenti.controller;
+
+import Tokyogroup.GestioneAppuntamenti.model.SalonClosure;
+import Tokyogroup.GestioneAppuntamenti.model.ScheduleDAO;
+import Tokyogroup.GestioneAppuntamenti.model.ScheduleException;
+import Tokyogroup.GestioneAppuntamenti.model.User;
+import Tokyogroup.GestioneAppuntamenti.model.WorkingInterval;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Controller per la gestione dell'orario di lavoro di un parrucchiere e delle
+ * chiusure del negozio.
+ */
+public class ScheduleController {
+
+    private static final Logger logger = LogManager.getLogger(ScheduleController.class);
+
+    private final ScheduleDAO scheduleDAO;
+    private final User hairdresser;
+
+    /**
+     * Costruttore della classe ScheduleController.
+     *
+     * @param hairdresser Il parrucchiere di cui gestire l'orario.
+     */
+    public ScheduleController(User hairdresser) {
+        this.hairdresser = hairdresser;
+        this.scheduleDAO = new ScheduleDAO();
+    }
+
+    /**
+     * Ottiene l'orario settimanale del parrucchiere.
+     *
+     * @return Fasce di lavoro, vuota se il parrucchiere segue l'orario
+     *         predefinito dalle 9:00 alle 18:00.
+     */
+    public List<WorkingInterval> getWorkingHours() {
+        logger.info("Recupero dell'orario settimanale del parrucchiere con ID: {}", hairdresser.getId());
+        return scheduleDAO.getWorkingHours(hairdresser.getId());
+    }
+
+    /**
+     * Aggiunge una fascia di lavoro all'orario settimanale.
+     *
+     * @param dayOfWeek Giorno della settimana.
+     * @param start     Inizio della fascia in formato "HH:mm".
+     * @param end       Fine della fascia in formato "HH:mm".
+     * @return ID della fascia aggiunta.
+     * @throws IllegalArgumentException se la fascia non è valida.
+     */
+    public int addWorkingInterval(DayOfWeek dayOfWeek, String start, String end) {
+        logger.info("Aggiunta della fascia {} {}-{} al parrucchiere con ID {}", dayOfWeek, start, end,
+                hairdresser.getId());
+        return scheduleDAO.addWorkingInterval(hairdresser.getId(), dayOfWeek, parseTime(start), parseTime(end));
+    }
+
+    /**
+     * Rimuove una fascia di lavoro dall'orario settimanale.
+     *
+     * @param intervalId ID della fascia.
+     * @return true se la fascia è stata rimossa.
+     */
+    public boolean removeWorkingInterval(int intervalId) {
+        logger.info("Rimozione della fascia con ID {} dal parrucchiere con ID {}", intervalId, hairdresser.getId());
+        return scheduleDAO.removeWorkingInterval(hairdresser.getId(), intervalId);
+    }
+
+    /**
+     * Ottiene le eccezioni all'orario del parrucchiere da oggi in poi.
+     *
+     * @return Lista delle eccezioni.
+     */
+    public List<ScheduleException> getExceptions() {
+        logger.info("Recupero delle eccezioni del parrucchiere con ID: {}", hairdresser.getId());
+        return scheduleDAO.getExceptions(hairdresser.getId());
+    }
+
+    /**
+     * Aggiunge un'assenza o una fascia di lavoro in più in un giorno.
+     *
+     * @param date      Giorno in formato "yyyy-MM-dd".
+     * @param start     Inizio della fascia in formato "HH:mm", vuoto per tutto
+     *                  il giorno.
+     * @param end       Fine della fascia in formato "HH:mm", vuoto per tutto il
+     *                  giorno.
+     * @param available true per una fascia di lavoro in più, false per
+     *                  un'assenza.
+     * @param reason    Motivo, può essere vuoto.
+     * @return ID dell'eccezione aggiunta.
+     * @throws IllegalArgumentException se il giorno o la fascia non sono validi.
+     */
+    public int addException(String date, String start, String end, boolean available, String reason) {
+        LocalDate day = parseFutureDate(date);
+        LocalTime from = isBlank(start) ? null : parseTime(start);
+        LocalTime to = isBlank(end) ? null : parseTime(end);
+        logger.info("Aggiunta di {} il {} ({}-{}) al parrucchiere con ID {}",
+                available ? "una fascia in più" : "un'assenza", day, from, to, hairdresser.getId());
+        return scheduleDAO.addException(hairdresser.getId(), day, from, to, available, isBlank(reason) ? null : reason);
+    }
+
+    /**
+     * Rimuove un'eccezione all'orario del parrucchiere.
+     *
+     * @param exceptionId ID dell'eccezione.
+     * @return true se l'eccezione è stata rimossa.
+     */
+    public boolean removeException(int exceptionId) {
+        logger.info("Rimozione dell'eccezione con ID {} dal parrucchiere con ID {}", exceptionId,
+                hairdresser.getId());
+        return scheduleDAO.removeException(hairdresser.getId(), exceptionId);
+    }
+
+    /**
+     * Ottiene le chiusure del negozio da oggi in poi.
+     *
+     * @return Lista delle chiusure.
+     */
+    public List<SalonClosure> getClosures() {
+        logger.info("Recupero delle chiusure del negozio.");
+        return scheduleDAO.getClosures();
+    }
+
+    /**
+     * Aggiunge un giorno di chiusura del negozio, valido per tutti i
+     * parrucchieri.
+     *
+     * @param date   Giorno in formato "yyyy-MM-dd".
+     * @param reason Motivo, può essere vuoto.
+     * @return true se la chiusura è stata aggiunta, false se il giorno era già
+     *         chiuso.
+     * @throws IllegalArgumentException se il giorno non è valido.
+     */
+    public boolean addClosure(String date, String reason) {
+        LocalDate day = parseFutureDate(date);
+        logger.info("Aggiunta della chiusura del negozio del {}", day);
+        return scheduleDAO.addClosure(day, isBlank(reason) ? null : reason);
+    }
+
+    /**
+     * Rimuove un giorno di chiusura del negozio.
+     *
+     * @param date Giorno in formato "yyyy-MM-dd".
+     * @return true se la chiusura è stata rimossa.
+     * @throws IllegalArgumentException se il giorno non è valido.
+     */
+    public boolean removeClosure(String date) {
+        logger.info("Rimozione della chiusura del negozio del {}", date);
+        return scheduleDAO.removeClosure(parseDate(date));
+    }
+
+    /**
+     * Variante asincrona di {@link #getWorkingHours()}.
+     *
+     * @return future completato con le fasce di lavoro
+     */
+    public CompletableFuture<List<WorkingInterval>> getWorkingHoursAsync() {
+        return AsyncExecutor.supply(this::getWorkingHours);
+    }
+
+    /**
+     * Variante asincrona di {@link #getExceptions()}.
+     *
+     * @return future completato con le eccezioni
+     */
+    public CompletableFuture<List<ScheduleException>> getExceptionsAsync() {
+        return AsyncExecutor.supply(this::getExceptions);
+    }
+
+    /**
+     * Variante asincrona di {@link #getClosures()}.
+     *
+     * @return future completato con le chiusure
+     */
+    public CompletableFuture<List<SalonClosure>> getClosuresAsync() {
+        return AsyncExecutor.supply(this::getClosures);
+    }
+
+    private static LocalTime parseTime(String time) {
+        try {
+            return LocalTime.parse(time.trim());
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Orario non valido, usare il formato HH:mm: " + time);
+        }
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date.trim());
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Data non valida, usare il formato yyyy-MM-dd: " + date);
+        }
+    }
+
+    private static LocalDate parseFutureDate(String date) {
+        LocalDate day = parseDate(date);
+        if (day.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("La data selezionata è nel passato: " + date);
+        }
+        return day;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
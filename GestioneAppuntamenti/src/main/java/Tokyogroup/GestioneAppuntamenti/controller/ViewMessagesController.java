@@ -6,6 +6,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller per la visualizzazione dei messaggi.
@@ -25,7 +26,7 @@ public class ViewMessagesController {
     public ViewMessagesController(int managerId) {
         this.messageDAO = MessageDAO.getInstance();
         this.managerId = managerId;
-        logger.info("Inizializzato ViewMessagesController con manager ID: {}", managerId);
+        logger.debug("Inizializzato ViewMessagesController con manager ID: {}", managerId);
     }
 
     /**
@@ -34,9 +35,9 @@ public class ViewMessagesController {
      * @return una lista di messaggi non letti.
      */
     public List<Message> getUnreadMessages() {
-        logger.info("Recupero dei messaggi non letti per il manager ID: {}", managerId);
+        logger.debug("Recupero dei messaggi non letti per il manager ID: {}", managerId);
         List<Message> messages = messageDAO.getUnreadMessages(managerId);
-        logger.info("Recuperati {} messaggi non letti.", messages.size());
+        logger.debug("Recuperati {} messaggi non letti.", messages.size());
         return messages;
     }
 
@@ -47,7 +48,7 @@ public class ViewMessagesController {
      * @return true se l'operazione ha avuto successo, false altrimenti.
      */
     public boolean markMessageAsRead(int messageId) {
-        logger.info("Segnatura del messaggio ID {} come letto.", messageId);
+        logger.debug("Segnatura del messaggio ID {} come letto.", messageId);
         boolean success = messageDAO.updateMessageStatus(messageId, "LETTO");
         if (success) {
             logger.info("Messaggio ID {} segnato come letto con successo.", messageId);
@@ -56,4 +57,25 @@ public class ViewMessagesController {
         }
         return success;
     }
-}
\ No newline at end of file
+
+    /**
+     * Variante asincrona di {@link #getUnreadMessages()}: recupera i messaggi
+     * non letti.
+     *
+     * @return il future con la lista dei messaggi non letti
+     */
+    public CompletableFuture<List<Message>> getUnreadMessagesAsync() {
+        return AsyncExecutor.supply(this::getUnreadMessages);
+    }
+
+    /**
+     * Variante asincrona di {@link #markMessageAsRead(int)}: segna un messaggio
+     * come letto.
+     *
+     * @param messageId l'ID del messaggio da segnare come letto.
+     * @return il future con true se l'operazione ha avuto successo, false altrimenti
+     */
+    public CompletableFuture<Boolean> markMessageAsReadAsync(int messageId) {
+        return AsyncExecutor.supply(() -> markMessageAsRead(messageId));
+    }
+}
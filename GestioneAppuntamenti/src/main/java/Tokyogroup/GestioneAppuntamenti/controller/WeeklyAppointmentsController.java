@@ -2,11 +2,13 @@ package Tokyogroup.GestioneAppuntamenti.controller;
 
 import Tokyogroup.GestioneAppuntamenti.model.AppointmentDAO;
 import Tokyogroup.GestioneAppuntamenti.model.User;
+import Tokyogroup.GestioneAppuntamenti.model.WeeklyAppointment;
+import Tokyogroup.GestioneAppuntamenti.model.WeeklySummary;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller per la gestione degli appuntamenti settimanali.
@@ -26,12 +28,26 @@ public class WeeklyAppointmentsController {
         this.currentHairdresser = currentHairdresser;
     }
 
+    /**
+     * Recupera il riepilogo della settimana corrente per il parrucchiere
+     * corrente: appuntamenti e fatturato con un'unica lettura.
+     *
+     * @return Il riepilogo della settimana, da lunedì a domenica.
+     */
+    public WeeklySummary getWeeklySummary() {
+        try {
+            return appointmentDAO.getWeeklySummary(currentHairdresser.getId(), LocalDate.now());
+        } catch (SQLException e) {
+            throw new RuntimeException("Errore durante il recupero del riepilogo settimanale.", e);
+        }
+    }
+
     /**
      * Recupera gli appuntamenti settimanali per il parrucchiere corrente.
      *
-     * @return Una mappa contenente gli appuntamenti settimanali.
+     * @return La lista degli appuntamenti settimanali, ordinati per giorno e ora.
      */
-    public Map<Integer, List<String[]>> getWeeklyAppointments() {
+    public List<WeeklyAppointment> getWeeklyAppointments() {
         try {
             LocalDate today = LocalDate.now();
             LocalDate startOfWeek = today.minusDays(today.getDayOfWeek().getValue() - 1);
@@ -55,4 +71,34 @@ public class WeeklyAppointmentsController {
             throw new RuntimeException("Errore durante il calcolo del fatturato settimanale.", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Variante asincrona di {@link #getWeeklySummary()}: recupera il riepilogo
+     * settimanale.
+     *
+     * @return il future con il riepilogo settimanale
+     */
+    public CompletableFuture<WeeklySummary> getWeeklySummaryAsync() {
+        return AsyncExecutor.supply(this::getWeeklySummary);
+    }
+
+    /**
+     * Variante asincrona di {@link #getWeeklyAppointments()}: recupera gli
+     * appuntamenti settimanali.
+     *
+     * @return il future con la lista degli appuntamenti settimanali
+     */
+    public CompletableFuture<List<WeeklyAppointment>> getWeeklyAppointmentsAsync() {
+        return AsyncExecutor.supply(this::getWeeklyAppointments);
+    }
+
+    /**
+     * Variante asincrona di {@link #calculateWeeklyRevenue()}: calcola il
+     * fatturato settimanale.
+     *
+     * @return il future con il fatturato settimanale
+     */
+    public CompletableFuture<Double> calculateWeeklyRevenueAsync() {
+        return AsyncExecutor.supply(this::calculateWeeklyRevenue);
+    }
+}
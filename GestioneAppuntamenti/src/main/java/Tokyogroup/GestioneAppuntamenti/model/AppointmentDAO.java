@@ -1,11 +1,18 @@
 package Tokyogroup.GestioneAppuntamenti.model;
 
+import java.math.BigDecimal;
 import java.sql.*;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Classe DAO per la gestione degli appuntamenti.
@@ -15,6 +22,174 @@ public class AppointmentDAO {
 	// Istanza singleton
 	private static AppointmentDAO instance;
 
+	// Indice univoco su (hairdresserId, validSlot), creato dalla migrazione 3
+	static final String VALID_SLOT_INDEX = "UQ_APPOINTMENTS_HAIRDRESSER_VALID_SLOT";
+
+	// SQLState standard per la violazione di un vincolo di unicità
+	private static final String UNIQUE_VIOLATION_STATE = "23505";
+
+	// Caricamenti dal database di giorni assenti dall'indice degli orari occupati
+	private static final MetricsRegistry.Counter OCCUPIED_SLOTS_LOADS = MetricsRegistry.getInstance()
+			.counter("AppointmentDAO.getOccupiedSlots.caricamenti");
+
+	// Indice in memoria degli orari occupati, aggiornato dalle operazioni di scrittura
+	private final AvailabilityIndex availabilityIndex = AvailabilityIndex.getInstance();
+
+	// Registro delle modifiche per il ripristino a un istante preciso
+	private final ChangeJournal journal = ChangeJournal.getInstance();
+
+	// Inserimento con ID esplicito, registrato nel registro delle modifiche
+	static final String JOURNAL_APPOINTMENT_QUERY = """
+			INSERT INTO Appointments (id, clientId, hairdresserId, appointmentDate, durationMinutes, status)
+			VALUES (?, ?, ?, ?, ?, 'VALIDA');
+			""";
+
+	// Durata complessiva dei servizi prenotati
+	static final String BOOKING_DURATION_QUERY = """
+			SELECT SUM(durationMinutes) AS totalDuration
+			FROM Services
+			WHERE id = ANY(?);
+			""";
+
+	// Blocca la riga del parrucchiere per serializzare le sue prenotazioni
+	static final String HAIRDRESSER_LOCK_QUERY = """
+			SELECT id FROM Users WHERE id = ? FOR UPDATE;
+			""";
+
+	/*
+	 * Appuntamenti validi che si sovrappongono all'intervallo [inizio, fine):
+	 * iniziano nello stesso giorno prima della fine e terminano dopo l'inizio.
+	 * Nessun appuntamento attraversa la mezzanotte, quindi l'intervallo sul
+	 * giorno resta una scansione dell'indice (hairdresserId, appointmentDate, status).
+	 */
+	static final String OVERLAPPING_APPOINTMENTS_QUERY = """
+			SELECT id
+			FROM Appointments
+			WHERE hairdresserId = ?
+			AND appointmentDate >= ? AND appointmentDate < ?
+			AND status = 'VALIDA'
+			AND DATEADD(MINUTE, durationMinutes, appointmentDate) > ?
+			LIMIT 1;
+			""";
+
+	/*
+	 * Le interrogazioni per data filtrano appointmentDate con intervalli semiaperti
+	 * [inizio, fine) sulla colonna non trasformata, in modo che H2 possa usare
+	 * l'indice (hairdresserId, appointmentDate, status) invece di una scansione.
+	 */
+
+	/*
+	 * Riepilogo settimanale: una riga per appuntamento con la cella (giorno, ora)
+	 * della griglia, il cliente, lo stato, i servizi e il loro prezzo complessivo.
+	 * Le operazioni di prenotazione e cancellazione lo aggiornano nella stessa
+	 * transazione della tabella Appointments, così la vista settimanale e il
+	 * fatturato si leggono con un'unica scansione dell'indice
+	 * (hairdresserId, weekStart, appointmentDate), senza join né raggruppamenti.
+	 */
+	private static final String SUMMARY_MERGE = """
+			MERGE INTO WeeklySummary (appointmentId, hairdresserId, weekStart, dayOfWeek, hourOfDay,
+				appointmentDate, clientName, status, services, revenue)
+			KEY (appointmentId)
+			SELECT a.id, a.hairdresserId,
+				DATEADD(DAY, 1 - ISO_DAY_OF_WEEK(a.appointmentDate), CAST(a.appointmentDate AS DATE)),
+				ISO_DAY_OF_WEEK(a.appointmentDate) - 1, HOUR(a.appointmentDate), a.appointmentDate,
+				c.username, a.status,
+				COALESCE(GROUP_CONCAT(s.name ORDER BY s.name SEPARATOR ', '), ''),
+				COALESCE(SUM(s.price), 0)
+			FROM Appointments a
+			JOIN Users c ON a.clientId = c.id
+			LEFT JOIN AppointmentServices aps ON a.id = aps.appointmentId
+			LEFT JOIN Services s ON aps.serviceId = s.id
+			""";
+
+	private static final String SUMMARY_GROUP_BY = """
+			GROUP BY a.id, a.hairdresserId, a.appointmentDate, c.username, a.status;
+			""";
+
+	// Riepilogo di un appuntamento appena prenotato
+	static final String SUMMARY_REFRESH_QUERY = SUMMARY_MERGE + "WHERE a.id = ?\n" + SUMMARY_GROUP_BY;
+
+	// Riepilogo di tutti gli appuntamenti, per i caricamenti massivi
+	static final String SUMMARY_REBUILD_QUERY = SUMMARY_MERGE + SUMMARY_GROUP_BY;
+
+	static final String SUMMARY_STATUS_QUERY = """
+			UPDATE WeeklySummary SET status = ? WHERE appointmentId = ?;
+			""";
+
+	// Da eseguire dopo la cancellazione degli appuntamenti validi del cliente
+	static final String SUMMARY_CANCEL_FOR_CLIENT_QUERY = """
+			UPDATE WeeklySummary SET status = 'CANCELLATA'
+			WHERE status = 'VALIDA'
+			AND appointmentId IN (SELECT id FROM Appointments WHERE clientId = ? AND status = 'CANCELLATA');
+			""";
+
+	static final String WEEKLY_SUMMARY_QUERY = """
+			SELECT dayOfWeek, hourOfDay, clientName, status, services, revenue
+			FROM WeeklySummary
+			WHERE hairdresserId = ? AND weekStart = ?
+			ORDER BY appointmentDate;
+			""";
+
+	/*
+	 * Intervallo di giorni qualsiasi: le settimane coinvolte delimitano la
+	 * scansione dell'indice, le date la restringono ai giorni richiesti.
+	 */
+	static final String WEEKLY_APPOINTMENTS_QUERY = """
+			SELECT dayOfWeek, hourOfDay, clientName, status, services
+			FROM WeeklySummary
+			WHERE hairdresserId = ?
+			AND weekStart >= ? AND weekStart <= ?
+			AND appointmentDate >= ? AND appointmentDate < ?
+			ORDER BY appointmentDate;
+			""";
+
+	static final String AVAILABLE_HOURS_QUERY = """
+			SELECT appointmentDate, durationMinutes
+			FROM Appointments
+			WHERE hairdresserId = ?
+			AND appointmentDate >= ? AND appointmentDate < ?
+			AND status = 'VALIDA';
+			""";
+
+	static final String BOOKED_HOURS_QUERY = """
+			SELECT FORMATDATETIME(appointmentDate, 'HH:mm') AS bookedHour
+			FROM Appointments
+			WHERE hairdresserId = ?
+			AND appointmentDate >= ? AND appointmentDate < ?
+			AND status = 'VALIDA';
+			""";
+
+	/*
+	 * Elenchi degli appuntamenti validi con il nome della controparte e i servizi,
+	 * letti con un'unica interrogazione.
+	 */
+
+	static final String CLIENT_LISTING_QUERY = """
+			SELECT a.id, a.appointmentDate, a.status, a.hairdresserId AS counterpartId,
+			h.username AS counterpartName,
+			GROUP_CONCAT(s.name ORDER BY s.name SEPARATOR ', ') AS services
+			FROM Appointments a
+			JOIN Users h ON a.hairdresserId = h.id
+			LEFT JOIN AppointmentServices aps ON a.id = aps.appointmentId
+			LEFT JOIN Services s ON aps.serviceId = s.id
+			WHERE a.clientId = ? AND a.status = 'VALIDA'
+			GROUP BY a.id, a.appointmentDate, a.status, a.hairdresserId, h.username
+			ORDER BY a.appointmentDate ASC;
+			""";
+
+	static final String HAIRDRESSER_LISTING_QUERY = """
+			SELECT a.id, a.appointmentDate, a.status, a.clientId AS counterpartId,
+			c.username AS counterpartName,
+			GROUP_CONCAT(s.name ORDER BY s.name SEPARATOR ', ') AS services
+			FROM Appointments a
+			JOIN Users c ON a.clientId = c.id
+			LEFT JOIN AppointmentServices aps ON a.id = aps.appointmentId
+			LEFT JOIN Services s ON aps.serviceId = s.id
+			WHERE a.hairdresserId = ? AND a.status = 'VALIDA' AND a.appointmentDate > NOW()
+			GROUP BY a.id, a.appointmentDate, a.status, a.clientId, c.username
+			ORDER BY a.appointmentDate ASC;
+			""";
+
 	/**
 	 * Costruttore privato della classe AppointmentDAO.
 	 * Inizializza un'istanza per la gestione degli appuntamenti.
@@ -39,145 +214,271 @@ public class AppointmentDAO {
 	 * Recupera gli appuntamenti validi per un cliente.
 	 *
 	 * @param clientId ID del cliente.
-	 * @return Lista di appuntamenti validi.
+	 * @return Lista di appuntamenti validi, con l'ID del parrucchiere come
+	 *         controparte.
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 */
+	public List<AppointmentEntry> getValidAppointmentsForClient(int clientId) throws SQLException {
+		return MetricsRegistry.timed("AppointmentDAO.getValidAppointmentsForClient", () -> {
+			List<AppointmentEntry> appointments = new ArrayList<>();
+			forEachValidAppointmentForClient(clientId, appointments::add);
+			return appointments;
+		});
+	}
+
+	/**
+	 * Scorre gli appuntamenti validi di un cliente senza caricarli tutti in
+	 * memoria.
+	 *
+	 * @param clientId ID del cliente.
+	 * @param visitor  Azione eseguita per ogni appuntamento, in ordine di data.
 	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
 	 *                      database.
 	 */
-	public List<String[]> getValidAppointmentsForClient(int clientId) throws SQLException {
-		List<String[]> appointments = new ArrayList<>();
-		String query = """
-				SELECT id, appointmentDate, status, hairdresserId
-				FROM Appointments
-				WHERE clientId = ? AND status = 'VALIDA'
-				ORDER BY appointmentDate ASC;
-				""";
+	public void forEachValidAppointmentForClient(int clientId, Consumer<? super AppointmentEntry> visitor)
+			throws SQLException {
+		MetricsRegistry.timed("AppointmentDAO.forEachValidAppointmentForClient", () -> {
+			String query = """
+					SELECT id, appointmentDate, status, hairdresserId AS counterpartId
+					FROM Appointments
+					WHERE clientId = ? AND status = 'VALIDA'
+					ORDER BY appointmentDate ASC;
+					""";
+			forEachAppointmentEntry(query, clientId, visitor);
+		});
+	}
 
+	/**
+	 * Esegue un'interrogazione di appuntamenti con un unico parametro e passa
+	 * ogni riga al visitatore.
+	 *
+	 * @param query   Interrogazione che restituisce id, appointmentDate, status e
+	 *                counterpartId.
+	 * @param userId  ID del cliente o del parrucchiere.
+	 * @param visitor Azione eseguita per ogni appuntamento.
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 */
+	private void forEachAppointmentEntry(String query, int userId, Consumer<? super AppointmentEntry> visitor)
+			throws SQLException {
 		try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement(query)) {
-			stmt.setInt(1, clientId);
+			stmt.setInt(1, userId);
 
 			try (ResultSet rs = stmt.executeQuery()) {
 				while (rs.next()) {
-					appointments.add(new String[] { String.valueOf(rs.getInt("id")), rs.getString("appointmentDate"),
-							rs.getString("status"), rs.getString("hairdresserId") });
+					visitor.accept(new AppointmentEntry(rs.getInt("id"),
+							rs.getTimestamp("appointmentDate").toLocalDateTime(), rs.getString("status"),
+							rs.getInt("counterpartId")));
 				}
 			}
 		}
-		return appointments;
 	}
 
 	/**
-	 * Recupera gli appuntamenti settimanali per un parrucchiere.
+	 * Recupera gli appuntamenti validi di un cliente con il nome del parrucchiere e
+	 * i servizi prenotati.
+	 *
+	 * @param clientId ID del cliente.
+	 * @return Lista degli appuntamenti validi, in ordine di data.
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 */
+	public List<AppointmentListing> getClientAppointmentListings(int clientId) throws SQLException {
+		return MetricsRegistry.timed("AppointmentDAO.getClientAppointmentListings", () -> {
+			return getAppointmentListings(CLIENT_LISTING_QUERY, clientId);
+		});
+	}
+
+	/**
+	 * Recupera gli appuntamenti validi futuri di un parrucchiere con il nome del
+	 * cliente e i servizi prenotati.
 	 *
 	 * @param hairdresserId ID del parrucchiere.
-	 * @param startOfWeek   Data di inizio settimana.
-	 * @param endOfWeek     Data di fine settimana.
-	 * @return Mappa degli appuntamenti settimanali.
+	 * @return Lista degli appuntamenti validi futuri, in ordine di data.
 	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
 	 *                      database.
 	 */
-	public Map<Integer, List<String[]>> getAppointmentsForWeek(int hairdresserId, LocalDate startOfWeek,
-			LocalDate endOfWeek) throws SQLException {
-		Map<Integer, List<String[]>> weeklyAppointments = new HashMap<>();
-
-		String query = """
-				SELECT
-				HOUR(appointmentDate) AS "hour",
-				((DAY_OF_WEEK(appointmentDate) + 6) % 7) AS dayOfWeek,
-				c.username AS clientName,
-				a.status,
-				GROUP_CONCAT(s.name ORDER BY s.name SEPARATOR ', ') AS services
-				FROM Appointments a
-				JOIN Users c ON a.clientId = c.id
-				JOIN AppointmentServices aps ON a.id = aps.appointmentId
-				JOIN Services s ON aps.serviceId = s.id
-				WHERE a.hairdresserId = ?
-				AND CAST(appointmentDate AS DATE) BETWEEN ? AND ?
-				GROUP BY "hour", dayOfWeek, a.id, c.username, a.status
-				ORDER BY dayOfWeek, "hour";
-				""";
+	public List<AppointmentListing> getHairdresserAppointmentListings(int hairdresserId) throws SQLException {
+		return MetricsRegistry.timed("AppointmentDAO.getHairdresserAppointmentListings", () -> {
+			return getAppointmentListings(HAIRDRESSER_LISTING_QUERY, hairdresserId);
+		});
+	}
+
+	/**
+	 * Esegue un'interrogazione di elenco degli appuntamenti.
+	 *
+	 * @param query  Interrogazione con un unico parametro (ID del cliente o del
+	 *               parrucchiere).
+	 * @param userId ID del cliente o del parrucchiere.
+	 * @return Lista degli appuntamenti.
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 */
+	private List<AppointmentListing> getAppointmentListings(String query, int userId) throws SQLException {
+		List<AppointmentListing> appointments = new ArrayList<>();
 
 		try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement(query)) {
-			stmt.setInt(1, hairdresserId);
-			stmt.setDate(2, java.sql.Date.valueOf(startOfWeek));
-			stmt.setDate(3, java.sql.Date.valueOf(endOfWeek));
+			stmt.setInt(1, userId);
 
 			try (ResultSet rs = stmt.executeQuery()) {
 				while (rs.next()) {
-					int dayOfWeek = rs.getInt("dayOfWeek");
-					String hour = rs.getString("hour");
-					String clientName = rs.getString("clientName");
-					String status = rs.getString("status");
 					String services = rs.getString("services");
-
-					weeklyAppointments.computeIfAbsent(dayOfWeek, k -> new ArrayList<>())
-							.add(new String[] { hour, clientName, status, services });
+					appointments.add(new AppointmentListing(rs.getInt("id"),
+							rs.getTimestamp("appointmentDate").toLocalDateTime(), rs.getString("status"),
+							rs.getInt("counterpartId"), rs.getString("counterpartName"),
+							services != null ? services : ""));
 				}
 			}
-		} catch (SQLException e) {
-			throw e;
 		}
-
-		return weeklyAppointments;
+		return appointments;
 	}
 
 	/**
-	 * Calcola il ricavo settimanale per un parrucchiere.
+	 * Recupera gli appuntamenti settimanali per un parrucchiere.
 	 *
 	 * @param hairdresserId ID del parrucchiere.
-	 * @return Ricavo settimanale.
+	 * @param startOfWeek   Data di inizio settimana.
+	 * @param endOfWeek     Data di fine settimana.
+	 * @return Lista degli appuntamenti settimanali, ordinati per giorno e ora.
 	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
 	 *                      database.
 	 */
-	public double calculateWeeklyRevenue(int hairdresserId) throws SQLException {
-		String query = """
-				SELECT SUM(s.price) AS totalRevenue
-				FROM Appointments a
-				JOIN AppointmentServices aps ON a.id = aps.appointmentId
-				JOIN Services s ON aps.serviceId = s.id
-				WHERE a.hairdresserId = ? AND a.status != 'CANCELLATA'
-				AND WEEK(a.appointmentDate) = WEEK(CURRENT_DATE);
-				""";
+	public List<WeeklyAppointment> getAppointmentsForWeek(int hairdresserId, LocalDate startOfWeek,
+			LocalDate endOfWeek) throws SQLException {
+		return MetricsRegistry.timed("AppointmentDAO.getAppointmentsForWeek", () -> {
+			List<WeeklyAppointment> weeklyAppointments = new ArrayList<>();
+			forEachAppointmentForWeek(hairdresserId, startOfWeek, endOfWeek, weeklyAppointments::add);
+			return weeklyAppointments;
+		});
+	}
 
-		try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement(query)) {
-			stmt.setInt(1, hairdresserId);
+	/**
+	 * Scorre gli appuntamenti settimanali di un parrucchiere senza caricarli tutti
+	 * in memoria.
+	 *
+	 * @param hairdresserId ID del parrucchiere.
+	 * @param startOfWeek   Data di inizio settimana.
+	 * @param endOfWeek     Data di fine settimana.
+	 * @param visitor       Azione eseguita per ogni appuntamento, in ordine di
+	 *                      giorno e ora.
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 */
+	public void forEachAppointmentForWeek(int hairdresserId, LocalDate startOfWeek, LocalDate endOfWeek,
+			Consumer<? super WeeklyAppointment> visitor) throws SQLException {
+		MetricsRegistry.timed("AppointmentDAO.forEachAppointmentForWeek", () -> {
+			try (Connection conn = DatabaseManager.getConnection();
+					PreparedStatement stmt = conn.prepareStatement(WEEKLY_APPOINTMENTS_QUERY)) {
+				stmt.setInt(1, hairdresserId);
+				stmt.setDate(2, Date.valueOf(startOfWeek.with(DayOfWeek.MONDAY)));
+				stmt.setDate(3, Date.valueOf(endOfWeek.with(DayOfWeek.MONDAY)));
+				stmt.setTimestamp(4, startOf(startOfWeek));
+				stmt.setTimestamp(5, startOf(endOfWeek.plusDays(1)));
+
+				try (ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						visitor.accept(mapWeeklyAppointment(rs));
+					}
+				}
+			}
+		});
+	}
 
-			try (ResultSet rs = stmt.executeQuery()) {
-				if (rs.next()) {
-					return rs.getDouble("totalRevenue");
+	/**
+	 * Recupera il riepilogo di una settimana di un parrucchiere: appuntamenti e
+	 * fatturato, con un'unica lettura della tabella {@code WeeklySummary}.
+	 *
+	 * @param hairdresserId ID del parrucchiere.
+	 * @param day           Un giorno qualsiasi della settimana.
+	 * @return Il riepilogo della settimana, da lunedì a domenica.
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 */
+	public WeeklySummary getWeeklySummary(int hairdresserId, LocalDate day) throws SQLException {
+		return MetricsRegistry.timed("AppointmentDAO.getWeeklySummary", () -> {
+			LocalDate weekStart = day.with(DayOfWeek.MONDAY);
+			List<WeeklyAppointment> appointments = new ArrayList<>();
+			BigDecimal revenue = BigDecimal.ZERO;
+
+			try (Connection conn = DatabaseManager.getConnection();
+					PreparedStatement stmt = conn.prepareStatement(WEEKLY_SUMMARY_QUERY)) {
+				stmt.setInt(1, hairdresserId);
+				stmt.setDate(2, Date.valueOf(weekStart));
+
+				try (ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						WeeklyAppointment appointment = mapWeeklyAppointment(rs);
+						appointments.add(appointment);
+						if (!"CANCELLATA".equals(appointment.status())) {
+							revenue = revenue.add(rs.getBigDecimal("revenue"));
+						}
+					}
 				}
 			}
-		}
-		return 0.0;
+			return new WeeklySummary(weekStart, appointments, revenue.doubleValue());
+		});
 	}
 
 	/**
-	 * Recupera gli appuntamenti validi per un parrucchiere.
+	 * Calcola il ricavo settimanale per un parrucchiere, considerando la settimana
+	 * corrente da lunedì a domenica.
 	 *
 	 * @param hairdresserId ID del parrucchiere.
-	 * @return Lista di appuntamenti validi.
+	 * @return Ricavo settimanale.
 	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
 	 *                      database.
+	 * @see #getWeeklySummary(int, LocalDate)
 	 */
-	public List<String[]> getValidAppointmentsForHairdresser(int hairdresserId) throws SQLException {
-		List<String[]> appointments = new ArrayList<>();
-		String query = """
-				SELECT id, appointmentDate, status, clientId
-				FROM Appointments
-				WHERE hairdresserId = ? AND status = 'VALIDA' AND appointmentDate > NOW()
-				ORDER BY appointmentDate ASC;
-				""";
+	public double calculateWeeklyRevenue(int hairdresserId) throws SQLException {
+		return MetricsRegistry.timed("AppointmentDAO.calculateWeeklyRevenue", () -> {
+			return getWeeklySummary(hairdresserId, LocalDate.now()).revenue();
+		});
+	}
 
-		try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement(query)) {
-			stmt.setInt(1, hairdresserId);
+	private static WeeklyAppointment mapWeeklyAppointment(ResultSet rs) throws SQLException {
+		return new WeeklyAppointment(rs.getInt("dayOfWeek"), rs.getInt("hourOfDay"), rs.getString("clientName"),
+				rs.getString("status"), rs.getString("services"));
+	}
 
-			try (ResultSet rs = stmt.executeQuery()) {
-				while (rs.next()) {
-					appointments.add(new String[] { String.valueOf(rs.getInt("id")), rs.getString("appointmentDate"),
-							rs.getString("status"), String.valueOf(rs.getInt("clientId")) });
-				}
-			}
-		}
-		return appointments;
+	/**
+	 * Recupera gli appuntamenti validi per un parrucchiere.
+	 *
+	 * @param hairdresserId ID del parrucchiere.
+	 * @return Lista di appuntamenti validi, con l'ID del cliente come
+	 *         controparte.
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 */
+	public List<AppointmentEntry> getValidAppointmentsForHairdresser(int hairdresserId) throws SQLException {
+		return MetricsRegistry.timed("AppointmentDAO.getValidAppointmentsForHairdresser", () -> {
+			List<AppointmentEntry> appointments = new ArrayList<>();
+			forEachValidAppointmentForHairdresser(hairdresserId, appointments::add);
+			return appointments;
+		});
+	}
+
+	/**
+	 * Scorre gli appuntamenti validi futuri di un parrucchiere senza caricarli
+	 * tutti in memoria.
+	 *
+	 * @param hairdresserId ID del parrucchiere.
+	 * @param visitor       Azione eseguita per ogni appuntamento, in ordine di
+	 *                      data.
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 */
+	public void forEachValidAppointmentForHairdresser(int hairdresserId, Consumer<? super AppointmentEntry> visitor)
+			throws SQLException {
+		MetricsRegistry.timed("AppointmentDAO.forEachValidAppointmentForHairdresser", () -> {
+			String query = """
+					SELECT id, appointmentDate, status, clientId AS counterpartId
+					FROM Appointments
+					WHERE hairdresserId = ? AND status = 'VALIDA' AND appointmentDate > NOW()
+					ORDER BY appointmentDate ASC;
+					""";
+			forEachAppointmentEntry(query, hairdresserId, visitor);
+		});
 	}
 
 	/**
@@ -190,14 +491,52 @@ public class AppointmentDAO {
 	 *                      database.
 	 */
 	public boolean updateAppointmentStatus(int appointmentId, String status) throws SQLException {
-		String query = "UPDATE Appointments SET status = ? WHERE id = ?";
-
-		try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement(query)) {
-			stmt.setString(1, status);
-			stmt.setInt(2, appointmentId);
+		return MetricsRegistry.timed("AppointmentDAO.updateAppointmentStatus", () -> {
+			String query = "UPDATE Appointments SET status = ? WHERE id = ?";
+			String slotQuery = "SELECT hairdresserId, appointmentDate, durationMinutes FROM Appointments WHERE id = ?";
+
+			try (Connection conn = DatabaseManager.getConnection()) {
+				conn.setAutoCommit(false);
+				try (PreparedStatement stmt = conn.prepareStatement(query);
+						PreparedStatement summaryStmt = conn.prepareStatement(SUMMARY_STATUS_QUERY)) {
+					stmt.setString(1, status);
+					stmt.setInt(2, appointmentId);
+
+					if (stmt.executeUpdate() == 0) {
+						conn.rollback();
+						return false;
+					}
+					summaryStmt.setString(1, status);
+					summaryStmt.setInt(2, appointmentId);
+					summaryStmt.executeUpdate();
+					journal.commit(conn, List.of(ChangeJournal.Change.of(query, status, appointmentId),
+							ChangeJournal.Change.of(SUMMARY_STATUS_QUERY, status, appointmentId)));
+				} catch (SQLException e) {
+					conn.rollback();
+					throw e;
+				}
 
-			return stmt.executeUpdate() > 0;
-		}
+				// Aggiorna l'indice degli orari occupati per il giorno dell'appuntamento
+				try (PreparedStatement slotStmt = conn.prepareStatement(slotQuery)) {
+					slotStmt.setInt(1, appointmentId);
+					try (ResultSet rs = slotStmt.executeQuery()) {
+						if (rs.next()) {
+							int hairdresserId = rs.getInt("hairdresserId");
+							LocalDateTime dateTime = rs.getTimestamp("appointmentDate").toLocalDateTime();
+							int durationMinutes = rs.getInt("durationMinutes");
+							if ("VALIDA".equals(status)) {
+								availabilityIndex.markOccupied(hairdresserId, dateTime, durationMinutes);
+							} else {
+								// Il giorno viene rimosso invece di azzerarne i bit: senza blocchi la
+								// cancellazione può arrivare dopo una prenotazione concorrente dello stesso orario
+								availabilityIndex.invalidate(hairdresserId, dateTime.toLocalDate());
+							}
+						}
+					}
+				}
+				return true;
+			}
+		});
 	}
 
 	/**
@@ -208,30 +547,32 @@ public class AppointmentDAO {
 	 *                      database.
 	 */
 	public List<User> getClients() throws SQLException {
-		List<User> clients = new ArrayList<>();
-		String query = """
-				SELECT id, username, password, accountType, isActive
-				FROM Users
-				WHERE accountType = 'CLIENTE' AND isActive = TRUE;
-				""";
+		return MetricsRegistry.timed("AppointmentDAO.getClients", () -> {
+			List<User> clients = new ArrayList<>();
+			String query = """
+					SELECT id, username, password, accountType, isActive
+					FROM Users
+					WHERE accountType = 'CLIENTE' AND isActive = TRUE;
+					""";
+
+			try (Connection conn = DatabaseManager.getConnection();
+					PreparedStatement stmt = conn.prepareStatement(query);
+					ResultSet rs = stmt.executeQuery()) {
 
-		try (Connection conn = DatabaseManager.getConnection();
-				PreparedStatement stmt = conn.prepareStatement(query);
-				ResultSet rs = stmt.executeQuery()) {
-
-			while (rs.next()) {
-				clients.add(new User(rs.getInt("id"), // ID utente
-						rs.getString("username"), // Nome utente
-						rs.getString("password"), // Password
-						rs.getString("accountType"), // Tipo di account
-						rs.getBoolean("isActive") // Stato dell'account
-				));
+				while (rs.next()) {
+					clients.add(new User(rs.getInt("id"), // ID utente
+							rs.getString("username"), // Nome utente
+							rs.getString("password"), // Password
+							rs.getString("accountType"), // Tipo di account
+							rs.getBoolean("isActive") // Stato dell'account
+					));
+				}
+			} catch (SQLException e) {
+				throw new SQLException("Errore durante il recupero dei clienti dal database.", e);
 			}
-		} catch (SQLException e) {
-			throw new SQLException("Errore durante il recupero dei clienti dal database.", e);
-		}
 
-		return clients;
+			return clients;
+		});
 	}
 
 	/**
@@ -243,16 +584,34 @@ public class AppointmentDAO {
 	 *                      database.
 	 */
 	public boolean cancelAppointmentsForUser(int userId) throws SQLException {
-		String query = "UPDATE Appointments SET status = 'CANCELLATA' WHERE clientId = ? AND status = 'VALIDA'";
-
-		try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement(query)) {
-			stmt.setInt(1, userId);
-
-			int rowsUpdated = stmt.executeUpdate();
-			return rowsUpdated > 0; // Ritorna true se almeno un appuntamento è stato aggiornato
-		} catch (SQLException e) {
-			throw new SQLException("Errore durante la cancellazione degli appuntamenti per l'utente ID: " + userId, e);
-		}
+		return MetricsRegistry.timed("AppointmentDAO.cancelAppointmentsForUser", () -> {
+			String query = "UPDATE Appointments SET status = 'CANCELLATA' WHERE clientId = ? AND status = 'VALIDA'";
+
+			try (Connection conn = DatabaseManager.getConnection()) {
+				conn.setAutoCommit(false);
+				int rowsUpdated;
+				try (PreparedStatement stmt = conn.prepareStatement(query);
+						PreparedStatement summaryStmt = conn.prepareStatement(SUMMARY_CANCEL_FOR_CLIENT_QUERY)) {
+					stmt.setInt(1, userId);
+					rowsUpdated = stmt.executeUpdate();
+					if (rowsUpdated > 0) {
+						summaryStmt.setInt(1, userId);
+						summaryStmt.executeUpdate();
+						journal.commit(conn, List.of(ChangeJournal.Change.of(query, userId),
+								ChangeJournal.Change.of(SUMMARY_CANCEL_FOR_CLIENT_QUERY, userId)));
+					}
+				} catch (SQLException e) {
+					conn.rollback();
+					throw e;
+				}
+				if (rowsUpdated > 0) {
+					availabilityIndex.invalidateAll();
+				}
+				return rowsUpdated > 0; // Ritorna true se almeno un appuntamento è stato aggiornato
+			} catch (SQLException e) {
+				throw new SQLException("Errore durante la cancellazione degli appuntamenti per l'utente ID: " + userId, e);
+			}
+		});
 	}
 
 	/**
@@ -262,61 +621,187 @@ public class AppointmentDAO {
 	 * @param hairdresserId ID del parrucchiere.
 	 * @param dateTime      Data e ora dell'appuntamento.
 	 * @param serviceIds    Lista di ID dei servizi selezionati.
-	 * @return true se l'appuntamento è stato prenotato con successo, false
-	 *         altrimenti.
+	 * @return true se l'appuntamento è stato prenotato con successo, false se
+	 *         l'orario è già occupato.
 	 * @throws SQLException Se si verifica un errore durante l'inserimento nel
 	 *                      database.
+	 * @see #reserveAppointment(int, int, String, List)
 	 */
 	public boolean bookAppointment(int clientId, int hairdresserId, String dateTime, List<Integer> serviceIds)
 			throws SQLException {
-		String appointmentQuery = """
-				INSERT INTO Appointments (clientId, hairdresserId, appointmentDate, status)
-				VALUES (?, ?, ?, 'VALIDA');
-				""";
-
-		String serviceQuery = """
-				INSERT INTO AppointmentServices (appointmentId, serviceId)
-				VALUES (?, ?);
-				""";
-
-		try (Connection conn = DatabaseManager.getConnection()) {
-			conn.setAutoCommit(false); // Inizio transazione
-
-			int appointmentId;
-			// Inserisce l'appuntamento
-			try (PreparedStatement appointmentStmt = conn.prepareStatement(appointmentQuery,
-					Statement.RETURN_GENERATED_KEYS)) {
-				appointmentStmt.setInt(1, clientId);
-				appointmentStmt.setInt(2, hairdresserId);
-				appointmentStmt.setString(3, dateTime);
-				appointmentStmt.executeUpdate();
-
-				try (ResultSet generatedKeys = appointmentStmt.getGeneratedKeys()) {
-					if (generatedKeys.next()) {
-						appointmentId = generatedKeys.getInt(1); // Recupera l'ID dell'appuntamento generato
-					} else {
-						throw new SQLException("Impossibile recuperare l'ID dell'appuntamento generato.");
+		return MetricsRegistry.timed("AppointmentDAO.bookAppointment", () -> {
+			return reserveAppointment(clientId, hairdresserId, dateTime, serviceIds).isBooked();
+		});
+	}
+
+	/**
+	 * Prenota un nuovo appuntamento solo se il parrucchiere non ha già un
+	 * appuntamento valido che si sovrappone ad esso.
+	 * <p>
+	 * La durata dell'appuntamento è la somma delle durate dei servizi
+	 * selezionati ({@value Service#DEFAULT_DURATION_MINUTES} minuti se non ne è
+	 * selezionato nessuno). Il controllo è atomico: la transazione blocca la
+	 * riga del parrucchiere prima di cercare appuntamenti sovrapposti, quindi
+	 * due prenotazioni concorrenti presso lo stesso parrucchiere vengono
+	 * verificate una dopo l'altra. L'indice univoco
+	 * {@code uq_appointments_hairdresser_valid_slot} sulla coppia (parrucchiere, orario) degli
+	 * appuntamenti validi resta come ulteriore garanzia sugli orari di inizio.
+	 *
+	 * @param clientId      ID del cliente.
+	 * @param hairdresserId ID del parrucchiere.
+	 * @param dateTime      Data e ora dell'appuntamento.
+	 * @param serviceIds    Lista di ID dei servizi selezionati.
+	 * @return L'esito della prenotazione.
+	 * @throws SQLException Se si verifica un errore durante l'inserimento nel
+	 *                      database.
+	 */
+	public BookingResult reserveAppointment(int clientId, int hairdresserId, String dateTime,
+			List<Integer> serviceIds) throws SQLException {
+		return MetricsRegistry.timed("AppointmentDAO.reserveAppointment", () -> {
+			String appointmentQuery = """
+					INSERT INTO Appointments (clientId, hairdresserId, appointmentDate, durationMinutes, status)
+					VALUES (?, ?, ?, ?, 'VALIDA');
+					""";
+
+			String serviceQuery = """
+					INSERT INTO AppointmentServices (appointmentId, serviceId)
+					VALUES (?, ?);
+					""";
+
+			try (Connection conn = DatabaseManager.getConnection()) {
+				conn.setAutoCommit(false); // Inizio transazione
+
+				Set<Integer> uniqueServiceIds = new LinkedHashSet<>(serviceIds);
+				int durationMinutes = bookingDuration(conn, uniqueServiceIds);
+				LocalDateTime start = Timestamp.valueOf(dateTime).toLocalDateTime();
+				if (hasOverlap(conn, hairdresserId, start, durationMinutes)) {
+					conn.rollback();
+					availabilityIndex.invalidate(hairdresserId);
+					return BookingResult.slotTaken();
+				}
+
+				int appointmentId;
+				// Inserisce l'appuntamento
+				try (PreparedStatement appointmentStmt = conn.prepareStatement(appointmentQuery,
+						Statement.RETURN_GENERATED_KEYS)) {
+					appointmentStmt.setInt(1, clientId);
+					appointmentStmt.setInt(2, hairdresserId);
+					appointmentStmt.setString(3, dateTime);
+					appointmentStmt.setInt(4, durationMinutes);
+					appointmentStmt.executeUpdate();
+
+					try (ResultSet generatedKeys = appointmentStmt.getGeneratedKeys()) {
+						if (generatedKeys.next()) {
+							appointmentId = generatedKeys.getInt(1); // Recupera l'ID dell'appuntamento generato
+						} else {
+							throw new SQLException("Impossibile recuperare l'ID dell'appuntamento generato.");
+						}
 					}
+				} catch (SQLException e) {
+					if (!isSlotConflict(e)) {
+						throw e;
+					}
+					conn.rollback();
+					availabilityIndex.invalidate(hairdresserId);
+					return BookingResult.slotTaken();
 				}
-			}
 
-			// Inserisce i servizi associati all'appuntamento
-			try (PreparedStatement serviceStmt = conn.prepareStatement(serviceQuery)) {
-				for (int serviceId : serviceIds) {
-					serviceStmt.setInt(1, appointmentId);
-					serviceStmt.setInt(2, serviceId);
-					serviceStmt.addBatch();
+				// Inserisce i servizi associati all'appuntamento
+				List<ChangeJournal.Change> changes = new ArrayList<>();
+				changes.add(ChangeJournal.Change.of(JOURNAL_APPOINTMENT_QUERY, appointmentId, clientId, hairdresserId,
+						dateTime, durationMinutes));
+				try (PreparedStatement serviceStmt = conn.prepareStatement(serviceQuery)) {
+					for (int serviceId : uniqueServiceIds) {
+						serviceStmt.setInt(1, appointmentId);
+						serviceStmt.setInt(2, serviceId);
+						serviceStmt.addBatch();
+						changes.add(ChangeJournal.Change.of(serviceQuery, appointmentId, serviceId));
+					}
+					serviceStmt.executeBatch();
 				}
-				serviceStmt.executeBatch();
+
+				// Aggiunge l'appuntamento al riepilogo settimanale
+				try (PreparedStatement summaryStmt = conn.prepareStatement(SUMMARY_REFRESH_QUERY)) {
+					summaryStmt.setInt(1, appointmentId);
+					summaryStmt.executeUpdate();
+				}
+				changes.add(ChangeJournal.Change.of(SUMMARY_REFRESH_QUERY, appointmentId));
+
+				journal.commit(conn, changes); // Conferma la transazione
+				availabilityIndex.markOccupied(hairdresserId, start, durationMinutes);
+				return BookingResult.booked(appointmentId);
+			} catch (SQLException | IllegalArgumentException e) {
+				throw new SQLException("Errore durante la prenotazione dell'appuntamento.", e);
+			}
+		});
+	}
+
+	/**
+	 * Calcola la durata di un appuntamento come somma delle durate dei servizi.
+	 *
+	 * @param conn       Connessione della transazione di prenotazione.
+	 * @param serviceIds ID dei servizi selezionati, senza ripetizioni.
+	 * @return La durata in minuti, o la durata predefinita se non ci sono
+	 *         servizi.
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 */
+	private static int bookingDuration(Connection conn, Set<Integer> serviceIds) throws SQLException {
+		if (serviceIds.isEmpty()) {
+			return Service.DEFAULT_DURATION_MINUTES;
+		}
+		try (PreparedStatement stmt = conn.prepareStatement(BOOKING_DURATION_QUERY)) {
+			stmt.setArray(1, conn.createArrayOf("INTEGER", serviceIds.toArray()));
+			try (ResultSet rs = stmt.executeQuery()) {
+				int total = rs.next() ? rs.getInt("totalDuration") : 0;
+				return total > 0 ? total : Service.DEFAULT_DURATION_MINUTES;
 			}
+		}
+	}
 
-			conn.commit(); // Conferma la transazione
-			return true;
-		} catch (SQLException e) {
-			throw new SQLException("Errore durante la prenotazione dell'appuntamento.", e);
+	/**
+	 * Blocca la riga del parrucchiere e verifica se un appuntamento valido si
+	 * sovrappone all'intervallo indicato. Il blocco resta fino alla fine della
+	 * transazione, quindi le prenotazioni concorrenti presso lo stesso
+	 * parrucchiere attendono e vedono l'appuntamento appena confermato.
+	 *
+	 * @param conn            Connessione della transazione di prenotazione.
+	 * @param hairdresserId   ID del parrucchiere.
+	 * @param start           Inizio dell'appuntamento.
+	 * @param durationMinutes Durata dell'appuntamento.
+	 * @return true se l'intervallo è già occupato, anche solo in parte.
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 */
+	private static boolean hasOverlap(Connection conn, int hairdresserId, LocalDateTime start, int durationMinutes)
+			throws SQLException {
+		try (PreparedStatement lockStmt = conn.prepareStatement(HAIRDRESSER_LOCK_QUERY)) {
+			lockStmt.setInt(1, hairdresserId);
+			lockStmt.executeQuery().close();
+		}
+		try (PreparedStatement stmt = conn.prepareStatement(OVERLAPPING_APPOINTMENTS_QUERY)) {
+			stmt.setInt(1, hairdresserId);
+			stmt.setTimestamp(2, startOf(start.toLocalDate()));
+			stmt.setTimestamp(3, Timestamp.valueOf(start.plusMinutes(durationMinutes)));
+			stmt.setTimestamp(4, Timestamp.valueOf(start));
+			try (ResultSet rs = stmt.executeQuery()) {
+				return rs.next();
+			}
 		}
 	}
 
+	/**
+	 * Verifica se un errore di inserimento è dovuto alla violazione dell'indice
+	 * univoco sugli orari degli appuntamenti validi.
+	 *
+	 * @param e Errore restituito dal database.
+	 * @return true se l'orario è già occupato, false altrimenti.
+	 */
+	private static boolean isSlotConflict(SQLException e) {
+		return UNIQUE_VIOLATION_STATE.equals(e.getSQLState()) && e.getMessage() != null
+				&& e.getMessage().toUpperCase().contains(VALID_SLOT_INDEX);
+	}
+
 	/**
 	 * Recupera gli orari disponibili per un parrucchiere in una data specifica.
 	 *
@@ -327,60 +812,161 @@ public class AppointmentDAO {
 	 *                      database.
 	 */
 	public List<String> getAvailableHours(int hairdresserId, String selectedDate) throws SQLException {
-		String query = """
-				SELECT appointmentDate
-				FROM Appointments
-				WHERE hairdresserId = ?
-				AND CAST(appointmentDate AS DATE) = ?
-				AND status = 'VALIDA';
-				""";
+		return MetricsRegistry.timed("AppointmentDAO.getAvailableHours", () -> {
+			LocalDate date = LocalDate.parse(selectedDate);
+
+			try (Connection conn = DatabaseManager.getConnection();
+					PreparedStatement stmt = conn.prepareStatement(AVAILABLE_HOURS_QUERY)) {
+				stmt.setInt(1, hairdresserId);
+				stmt.setTimestamp(2, startOf(date));
+				stmt.setTimestamp(3, startOf(date.plusDays(1)));
+
+				List<String> bookedHours = new ArrayList<>();
+				try (ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						Timestamp appointmentTimestamp = rs.getTimestamp("appointmentDate");
+						String hour = appointmentTimestamp.toLocalDateTime().toLocalTime().toString().substring(0, 5);
+						bookedHours.add(hour); // Aggiunge solo l'ora (formato HH:mm)
+					}
+				}
+				return bookedHours;
+			}
+		});
+	}
 
-		try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement(query)) {
+	/**
+	 * Restituisce i quarti d'ora occupati da appuntamenti validi per un
+	 * parrucchiere in un giorno. Vengono letti dall'indice in memoria e caricati
+	 * dal database solo se il giorno non è ancora presente.
+	 *
+	 * @param hairdresserId ID del parrucchiere.
+	 * @param date          Giorno richiesto.
+	 * @return Insieme di bit in cui il bit q indica che il quarto d'ora q del
+	 *         giorno è occupato (da non modificare).
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 * @see AvailabilityIndex
+	 */
+	public BitSet getOccupiedSlots(int hairdresserId, LocalDate date) throws SQLException {
+		return MetricsRegistry.timed("AppointmentDAO.getOccupiedSlots", () -> {
+			return availabilityIndex.getOccupiedSlots(hairdresserId, date, this::loadOccupiedSlots);
+		});
+	}
+
+	/**
+	 * Carica dal database i quarti d'ora occupati di un parrucchiere in un giorno.
+	 *
+	 * @param hairdresserId ID del parrucchiere.
+	 * @param date          Giorno richiesto.
+	 * @return Insieme di bit dei quarti d'ora occupati.
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 */
+	private BitSet loadOccupiedSlots(int hairdresserId, LocalDate date) throws SQLException {
+		OCCUPIED_SLOTS_LOADS.increment();
+		try (Connection conn = DatabaseManager.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(AVAILABLE_HOURS_QUERY)) {
 			stmt.setInt(1, hairdresserId);
-			stmt.setDate(2, java.sql.Date.valueOf(selectedDate)); // Converte la stringa in `java.sql.Date`
+			stmt.setTimestamp(2, startOf(date));
+			stmt.setTimestamp(3, startOf(date.plusDays(1)));
 
-			List<String> bookedHours = new ArrayList<>();
+			BitSet occupied = new BitSet(AvailabilityIndex.SLOTS_PER_DAY);
 			try (ResultSet rs = stmt.executeQuery()) {
 				while (rs.next()) {
-					Timestamp appointmentTimestamp = rs.getTimestamp("appointmentDate");
-					String hour = appointmentTimestamp.toLocalDateTime().toLocalTime().toString().substring(0, 5);
-					bookedHours.add(hour); // Aggiunge solo l'ora (formato HH:mm)
+					AvailabilityIndex.cover(occupied, rs.getTimestamp("appointmentDate").toLocalDateTime().toLocalTime(),
+							rs.getInt("durationMinutes"));
 				}
 			}
-			return bookedHours;
+			return occupied;
 		}
 	}
 
 	/**
-	 * Recupera i parrucchieri disponibili.
+	 * Restituisce i quarti d'ora occupati da appuntamenti validi per un
+	 * parrucchiere in ogni giorno da {@code from} (incluso) a {@code to} (escluso). Se manca
+	 * almeno un giorno dall'indice in memoria l'intervallo viene caricato con
+	 * un'unica interrogazione.
 	 *
-	 * @return Lista di parrucchieri disponibili.
+	 * @param hairdresserId ID del parrucchiere.
+	 * @param from          Primo giorno.
+	 * @param to            Giorno successivo all'ultimo.
+	 * @return Quarti d'ora occupati di ogni giorno dell'intervallo (da non
+	 *         modificare).
 	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
 	 *                      database.
 	 */
-	public List<User> getAvailableHairdressers() throws SQLException {
-		String query = """
-				SELECT id, username, accountType
-				FROM Users
-				WHERE accountType = 'GESTORE' AND isActive = TRUE;
-				""";
+	public Map<LocalDate, BitSet> getOccupiedSlotsBetween(int hairdresserId, LocalDate from, LocalDate to)
+			throws SQLException {
+		return MetricsRegistry.timed("AppointmentDAO.getOccupiedSlotsBetween", () -> {
+			return availabilityIndex.getOccupiedSlots(hairdresserId, from, to, this::loadOccupiedSlotsBetween);
+		});
+	}
 
+	/**
+	 * Carica dal database i quarti d'ora occupati di un parrucchiere in un
+	 * intervallo di giorni.
+	 *
+	 * @param hairdresserId ID del parrucchiere.
+	 * @param from          Primo giorno.
+	 * @param to            Giorno successivo all'ultimo.
+	 * @return Quarti d'ora occupati dei giorni con almeno un appuntamento.
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 */
+	private Map<LocalDate, BitSet> loadOccupiedSlotsBetween(int hairdresserId, LocalDate from, LocalDate to)
+			throws SQLException {
+		OCCUPIED_SLOTS_LOADS.increment();
 		try (Connection conn = DatabaseManager.getConnection();
-				PreparedStatement stmt = conn.prepareStatement(query);
-				ResultSet rs = stmt.executeQuery()) {
-
-			List<User> hairdressers = new ArrayList<>();
-			while (rs.next()) {
-				User hairdresser = new User();
-				hairdresser.setId(rs.getInt("id"));
-				hairdresser.setUsername(rs.getString("username"));
-				hairdresser.setAccountType(rs.getString("accountType"));
-				hairdressers.add(hairdresser);
+				PreparedStatement stmt = conn.prepareStatement(AVAILABLE_HOURS_QUERY)) {
+			stmt.setInt(1, hairdresserId);
+			stmt.setTimestamp(2, startOf(from));
+			stmt.setTimestamp(3, startOf(to));
+
+			Map<LocalDate, BitSet> occupied = new HashMap<>();
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					LocalDateTime dateTime = rs.getTimestamp("appointmentDate").toLocalDateTime();
+					BitSet day = occupied.computeIfAbsent(dateTime.toLocalDate(),
+							date -> new BitSet(AvailabilityIndex.SLOTS_PER_DAY));
+					AvailabilityIndex.cover(day, dateTime.toLocalTime(), rs.getInt("durationMinutes"));
+				}
 			}
-			return hairdressers;
+			return occupied;
 		}
 	}
 
+	/**
+	 * Recupera i parrucchieri disponibili.
+	 *
+	 * @return Lista di parrucchieri disponibili.
+	 * @throws SQLException Se si verifica un errore durante l'interrogazione del
+	 *                      database.
+	 */
+	public List<User> getAvailableHairdressers() throws SQLException {
+		return MetricsRegistry.timed("AppointmentDAO.getAvailableHairdressers", () -> {
+			String query = """
+					SELECT id, username, accountType
+					FROM Users
+					WHERE accountType = 'GESTORE' AND isActive = TRUE;
+					""";
+
+			try (Connection conn = DatabaseManager.getConnection();
+					PreparedStatement stmt = conn.prepareStatement(query);
+					ResultSet rs = stmt.executeQuery()) {
+
+				List<User> hairdressers = new ArrayList<>();
+				while (rs.next()) {
+					User hairdresser = new User();
+					hairdresser.setId(rs.getInt("id"));
+					hairdresser.setUsername(rs.getString("username"));
+					hairdresser.setAccountType(rs.getString("accountType"));
+					hairdressers.add(hairdresser);
+				}
+				return hairdressers;
+			}
+		});
+	}
+
 	/**
 	 * Recupera gli orari prenotati per un parrucchiere in una data specifica.
 	 *
@@ -391,25 +977,34 @@ public class AppointmentDAO {
 	 *                      database.
 	 */
 	public List<String> getBookedHours(int hairdresserId, String selectedDate) throws SQLException {
-		String query = """
-				SELECT FORMATDATETIME(appointmentDate, 'HH:mm') AS bookedHour
-				FROM Appointments
-				WHERE hairdresserId = ?
-				AND FORMATDATETIME(appointmentDate, 'yyyy-MM-dd') = ?
-				AND status = 'VALIDA';
-				""";
-
-		try (Connection conn = DatabaseManager.getConnection(); PreparedStatement stmt = conn.prepareStatement(query)) {
-			stmt.setInt(1, hairdresserId);
-			stmt.setString(2, selectedDate); // Passa la data come stringa formattata (yyyy-MM-dd)
-
-			List<String> bookedHours = new ArrayList<>();
-			try (ResultSet rs = stmt.executeQuery()) {
-				while (rs.next()) {
-					bookedHours.add(rs.getString("bookedHour"));
+		return MetricsRegistry.timed("AppointmentDAO.getBookedHours", () -> {
+			LocalDate date = LocalDate.parse(selectedDate);
+
+			try (Connection conn = DatabaseManager.getConnection();
+					PreparedStatement stmt = conn.prepareStatement(BOOKED_HOURS_QUERY)) {
+				stmt.setInt(1, hairdresserId);
+				stmt.setTimestamp(2, startOf(date));
+				stmt.setTimestamp(3, startOf(date.plusDays(1)));
+
+				List<String> bookedHours = new ArrayList<>();
+				try (ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						bookedHours.add(rs.getString("bookedHour"));
+					}
 				}
+				return bookedHours;
 			}
-			return bookedHours;
-		}
+		});
+	}
+
+	/**
+	 * Restituisce l'istante di inizio di un giorno, da usare come estremo di un
+	 * intervallo semiaperto su appointmentDate.
+	 *
+	 * @param date il giorno.
+	 * @return la mezzanotte del giorno indicato.
+	 */
+	private static Timestamp startOf(LocalDate date) {
+		return Timestamp.valueOf(date.atStartOfDay());
 	}
 }
\ No newline at end of file
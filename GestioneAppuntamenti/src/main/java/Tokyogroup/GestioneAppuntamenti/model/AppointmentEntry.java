@@ -0,0 +1,18 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Appuntamento di un elenco, letto direttamente dal database senza convertire
+ * ID e date in stringhe.
+ * <p>
+ * La controparte è il parrucchiere per gli elenchi di un cliente e il cliente
+ * per gli elenchi di un parrucchiere.
+ *
+ * @param id              ID dell'appuntamento
+ * @param appointmentDate data e ora dell'appuntamento
+ * @param status          stato dell'appuntamento
+ * @param counterpartId   ID della controparte
+ */
+public record AppointmentEntry(int id, LocalDateTime appointmentDate, String status, int counterpartId) {
+}
@@ -0,0 +1,22 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Riga di un elenco di appuntamenti, letta con un'unica interrogazione insieme
+ * al nome della controparte e ai servizi prenotati.
+ * <p>
+ * La controparte è il parrucchiere per gli elenchi di un cliente e il cliente
+ * per gli elenchi di un parrucchiere.
+ *
+ * @param id              ID dell'appuntamento
+ * @param appointmentDate data e ora dell'appuntamento
+ * @param status          stato dell'appuntamento
+ * @param counterpartId   ID della controparte
+ * @param counterpartName username della controparte
+ * @param services        nomi dei servizi separati da virgola, vuoto se non ce
+ *                        ne sono
+ */
+public record AppointmentListing(int id, LocalDateTime appointmentDate, String status, int counterpartId,
+        String counterpartName, String services) {
+}
@@ -0,0 +1,436 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Indice in memoria degli orari occupati di ogni parrucchiere.
+ * <p>
+ * Per ogni parrucchiere mantiene, giorno per giorno, un {@link BitSet} di
+ * {@value #SLOTS_PER_DAY} quarti d'ora in cui il bit {@code q} indica che il
+ * quarto d'ora che inizia {@code q * 15} minuti dopo la mezzanotte è coperto
+ * da un appuntamento valido. Un appuntamento occupa i quarti d'ora dal suo
+ * inizio per tutta la sua durata, quindi gli orari di inizio possibili per un
+ * insieme di servizi si ottengono cercando sequenze di bit liberi abbastanza
+ * lunghe ({@link #feasibleStarts}). I giorni
+ * non presenti vengono caricati dal database alla prima richiesta, uno alla
+ * volta o per intervalli di più giorni con un'unica interrogazione; le
+ * operazioni di prenotazione e cancellazione aggiornano o invalidano le voci
+ * interessate, così le richieste successive non richiedono accessi al
+ * database.
+ * <p>
+ * I {@link BitSet} memorizzati non vengono mai modificati dopo la
+ * pubblicazione: ogni aggiornamento ne crea una copia.
+ */
+public class AvailabilityIndex {
+
+    // Numero massimo di giorni memorizzati per parrucchiere prima di svuotarne la cache
+    private static final int MAX_DAYS_PER_HAIRDRESSER = 400;
+
+    /**
+     * Durata di un quarto d'ora, la granularità degli orari, in minuti.
+     */
+    public static final int SLOT_MINUTES = Service.DURATION_STEP_MINUTES;
+
+    /**
+     * Numero di quarti d'ora in un giorno.
+     */
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    /**
+     * Primo quarto d'ora di apertura dell'orario predefinito (le 9:00).
+     */
+    public static final int OPENING_SLOT = 9 * 60 / SLOT_MINUTES;
+
+    /**
+     * Quarto d'ora di chiusura dell'orario predefinito (le 18:00): gli
+     * appuntamenti devono terminare entro il suo inizio.
+     */
+    public static final int CLOSING_SLOT = 18 * 60 / SLOT_MINUTES;
+
+    // Quarti d'ora dell'orario predefinito, da non modificare
+    static final BitSet DEFAULT_OPEN_SLOTS = new BitSet(SLOTS_PER_DAY);
+
+    private static final String[] SLOT_LABELS = new String[SLOTS_PER_DAY];
+
+    static {
+        DEFAULT_OPEN_SLOTS.set(OPENING_SLOT, CLOSING_SLOT);
+        for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+            SLOT_LABELS[slot] = String.format("%02d:%02d", slot * SLOT_MINUTES / 60, slot * SLOT_MINUTES % 60);
+        }
+    }
+
+    // Istanza singleton, disattivata se il database è condiviso con altri client
+    private static final AvailabilityIndex instance = new AvailabilityIndex(!DatabaseManager.getMode().isShared());
+
+    private final boolean enabled;
+
+    private volatile Map<Integer, HairdresserDays> hairdressers = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Caricatore dei quarti d'ora occupati di un giorno, usato in caso di cache
+     * miss.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Carica i quarti d'ora occupati di un parrucchiere in un giorno.
+         *
+         * @param hairdresserId ID del parrucchiere
+         * @param date          il giorno richiesto
+         * @return i quarti d'ora occupati
+         * @throws SQLException se si verifica un errore di accesso al database
+         */
+        BitSet load(int hairdresserId, LocalDate date) throws SQLException;
+    }
+
+    /**
+     * Caricatore dei quarti d'ora occupati di un intervallo di giorni, usato
+     * quando almeno un giorno dell'intervallo non è presente.
+     */
+    @FunctionalInterface
+    public interface RangeLoader {
+        /**
+         * Carica i quarti d'ora occupati di un parrucchiere nei giorni da
+         * {@code from} (incluso) a {@code to} (escluso).
+         *
+         * @param hairdresserId ID del parrucchiere
+         * @param from          primo giorno
+         * @param to            giorno successivo all'ultimo
+         * @return i quarti d'ora occupati dei giorni con almeno un appuntamento
+         * @throws SQLException se si verifica un errore di accesso al database
+         */
+        Map<LocalDate, BitSet> load(int hairdresserId, LocalDate from, LocalDate to) throws SQLException;
+    }
+
+    /**
+     * Costruttore dell'indice.
+     */
+    AvailabilityIndex() {
+        this(true);
+    }
+
+    /**
+     * Costruttore dell'indice. Un indice disattivato carica gli orari occupati
+     * a ogni richiesta: serve quando altri processi possono modificare gli
+     * appuntamenti senza aggiornarlo.
+     *
+     * @param enabled false per non memorizzare gli orari occupati
+     */
+    AvailabilityIndex(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Restituisce l'istanza singleton dell'indice.
+     *
+     * @return l'istanza dell'indice
+     */
+    public static AvailabilityIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * Restituisce l'etichetta "HH:mm" dell'inizio di un quarto d'ora senza
+     * formattazioni a runtime.
+     *
+     * @param slot il quarto d'ora (0-95)
+     * @return l'etichetta dell'orario
+     */
+    public static String slotLabel(int slot) {
+        return SLOT_LABELS[slot];
+    }
+
+    /**
+     * Restituisce il quarto d'ora che inizia all'orario indicato.
+     *
+     * @param time l'orario
+     * @return il quarto d'ora (0-95)
+     * @throws IllegalArgumentException se l'orario non è l'inizio di un quarto
+     *                                  d'ora
+     */
+    public static int slotOf(LocalTime time) {
+        int minutes = time.getHour() * 60 + time.getMinute();
+        if (minutes % SLOT_MINUTES != 0 || time.getSecond() != 0 || time.getNano() != 0) {
+            throw new IllegalArgumentException("L'orario deve essere un multiplo di " + SLOT_MINUTES + " minuti: "
+                    + time);
+        }
+        return minutes / SLOT_MINUTES;
+    }
+
+    /**
+     * Restituisce il numero di quarti d'ora occupati da una durata,
+     * arrotondando per eccesso.
+     *
+     * @param durationMinutes la durata in minuti
+     * @return il numero di quarti d'ora
+     */
+    public static int slotsFor(int durationMinutes) {
+        return Math.max(1, (durationMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES);
+    }
+
+    /**
+     * Calcola gli orari di inizio in cui un insieme di servizi della durata
+     * indicata può essere svolto per intero entro l'orario predefinito, dalle
+     * 9:00 alle 18:00.
+     *
+     * @param occupied        i quarti d'ora occupati del giorno
+     * @param durationMinutes la durata complessiva dei servizi
+     * @param earliestSlot    primo quarto d'ora ammesso come inizio, ad esempio
+     *                        per escludere gli orari già passati
+     * @return i quarti d'ora di inizio possibili
+     */
+    public static BitSet feasibleStarts(BitSet occupied, int durationMinutes, int earliestSlot) {
+        return feasibleStarts(occupied, DEFAULT_OPEN_SLOTS, durationMinutes, earliestSlot);
+    }
+
+    /**
+     * Calcola gli orari di inizio in cui un insieme di servizi della durata
+     * indicata può essere svolto per intero nei quarti d'ora di lavoro.
+     * <p>
+     * Interseca i quarti d'ora di lavoro con quelli liberi e ne scorre le
+     * sequenze: ogni sequenza di {@code n} quarti d'ora ammette
+     * {@code n - d + 1} inizi per una durata di {@code d} quarti d'ora. Una
+     * pausa interrompe la sequenza come un appuntamento.
+     *
+     * @param occupied        i quarti d'ora occupati del giorno
+     * @param open            i quarti d'ora di lavoro del giorno, ad esempio da
+     *                        {@link ScheduleCalendar.Calendar#openSlots}
+     * @param durationMinutes la durata complessiva dei servizi
+     * @param earliestSlot    primo quarto d'ora ammesso come inizio, ad esempio
+     *                        per escludere gli orari già passati
+     * @return i quarti d'ora di inizio possibili
+     */
+    public static BitSet feasibleStarts(BitSet occupied, BitSet open, int durationMinutes, int earliestSlot) {
+        int length = slotsFor(durationMinutes);
+        BitSet free = (BitSet) open.clone();
+        free.andNot(occupied);
+        BitSet starts = new BitSet(SLOTS_PER_DAY);
+        int first = free.nextSetBit(Math.max(0, earliestSlot));
+        while (first >= 0) {
+            int end = free.nextClearBit(first);
+            if (end - first >= length) {
+                starts.set(first, end - length + 1);
+            }
+            first = free.nextSetBit(end);
+        }
+        return starts;
+    }
+
+    /**
+     * Restituisce i quarti d'ora occupati di un parrucchiere in un giorno,
+     * caricandoli con il caricatore indicato se non sono presenti nell'indice.
+     *
+     * @param hairdresserId ID del parrucchiere
+     * @param date          il giorno richiesto
+     * @param loader        caricatore da usare in caso di cache miss
+     * @return i quarti d'ora occupati (da non modificare)
+     * @throws SQLException se il caricamento dal database fallisce
+     */
+    public BitSet getOccupiedSlots(int hairdresserId, LocalDate date, Loader loader) throws SQLException {
+        if (!enabled) {
+            misses.increment();
+            return loader.load(hairdresserId, date);
+        }
+        HairdresserDays days = daysOf(hairdresserId);
+        BitSet cached = days.slots.get(date);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        long version = days.version.get();
+        BitSet loaded = loader.load(hairdresserId, date);
+        if (days.slots.size() >= MAX_DAYS_PER_HAIRDRESSER) {
+            days.slots.clear();
+        }
+        // Se nel frattempo il parrucchiere è stato modificato il risultato potrebbe
+        // essere già superato: lo restituisce senza memorizzarlo. Il controllo
+        // avviene sotto il lock della voce, come l'aggiornamento in update().
+        days.slots.compute(date, (d, current) -> {
+            if (current != null) {
+                return current;
+            }
+            return days.version.get() == version ? loaded : null;
+        });
+        return loaded;
+    }
+
+    /**
+     * Restituisce i quarti d'ora occupati di un parrucchiere nei giorni da
+     * {@code from} (incluso) a {@code to} (escluso). Se tutti i giorni sono presenti
+     * nell'indice non accede al database; altrimenti carica l'intero intervallo
+     * con una sola chiamata al caricatore e memorizza ogni giorno.
+     *
+     * @param hairdresserId ID del parrucchiere
+     * @param from          primo giorno
+     * @param to            giorno successivo all'ultimo
+     * @param loader        caricatore da usare se manca almeno un giorno
+     * @return i quarti d'ora occupati di ogni giorno dell'intervallo (da non
+     *         modificare)
+     * @throws SQLException se il caricamento dal database fallisce
+     */
+    public Map<LocalDate, BitSet> getOccupiedSlots(int hairdresserId, LocalDate from, LocalDate to,
+            RangeLoader loader) throws SQLException {
+        Map<LocalDate, BitSet> result = new HashMap<>();
+        if (!enabled) {
+            misses.increment();
+            Map<LocalDate, BitSet> loaded = loader.load(hairdresserId, from, to);
+            for (LocalDate date = from; date.isBefore(to); date = date.plusDays(1)) {
+                result.put(date, loaded.getOrDefault(date, new BitSet(SLOTS_PER_DAY)));
+            }
+            return result;
+        }
+
+        HairdresserDays days = daysOf(hairdresserId);
+        LocalDate date = from;
+        for (BitSet cached; date.isBefore(to) && (cached = days.slots.get(date)) != null; date = date.plusDays(1)) {
+            result.put(date, cached);
+        }
+        if (!date.isBefore(to)) {
+            hits.increment();
+            return result;
+        }
+
+        misses.increment();
+        long version = days.version.get();
+        Map<LocalDate, BitSet> loaded = loader.load(hairdresserId, from, to);
+        if (days.slots.size() >= MAX_DAYS_PER_HAIRDRESSER) {
+            days.slots.clear();
+        }
+        for (date = from; date.isBefore(to); date = date.plusDays(1)) {
+            BitSet occupied = loaded.getOrDefault(date, new BitSet(SLOTS_PER_DAY));
+            // Come per il singolo giorno: un caricamento superato da una modifica
+            // concorrente viene restituito senza memorizzarlo
+            BitSet stored = days.slots.compute(date, (d, current) -> {
+                if (current != null) {
+                    return current;
+                }
+                return days.version.get() == version ? occupied : null;
+            });
+            result.put(date, stored != null ? stored : occupied);
+        }
+        return result;
+    }
+
+    /**
+     * Segna come occupati i quarti d'ora di un appuntamento. Un aggiornamento
+     * in ritardo può solo nascondere un orario libero, mai mostrarne libero
+     * uno occupato.
+     *
+     * @param hairdresserId   ID del parrucchiere
+     * @param dateTime        data e ora di inizio dell'appuntamento
+     * @param durationMinutes durata dell'appuntamento
+     */
+    public void markOccupied(int hairdresserId, LocalDateTime dateTime, int durationMinutes) {
+        update(hairdresserId, dateTime, durationMinutes);
+    }
+
+    /**
+     * Segna nell'insieme indicato i quarti d'ora coperti da un appuntamento,
+     * limitati alla fine del giorno.
+     *
+     * @param slots           i quarti d'ora del giorno
+     * @param time            orario di inizio dell'appuntamento
+     * @param durationMinutes durata dell'appuntamento
+     */
+    public static void cover(BitSet slots, LocalTime time, int durationMinutes) {
+        int first = (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+        int end = (time.getHour() * 60 + time.getMinute() + durationMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES;
+        slots.set(first, Math.min(Math.max(end, first + 1), SLOTS_PER_DAY));
+    }
+
+    /**
+     * Rimuove dall'indice tutti i giorni di un parrucchiere.
+     *
+     * @param hairdresserId ID del parrucchiere
+     */
+    public void invalidate(int hairdresserId) {
+        HairdresserDays days = hairdressers.get(hairdresserId);
+        if (days != null) {
+            days.version.incrementAndGet();
+            days.slots.clear();
+        }
+    }
+
+    /**
+     * Rimuove dall'indice un giorno di un parrucchiere. I caricamenti in corso
+     * per quel parrucchiere non vengono memorizzati.
+     *
+     * @param hairdresserId ID del parrucchiere
+     * @param date          il giorno
+     */
+    public void invalidate(int hairdresserId, LocalDate date) {
+        HairdresserDays days = hairdressers.get(hairdresserId);
+        if (days != null) {
+            days.version.incrementAndGet();
+            days.slots.remove(date);
+        }
+    }
+
+    /**
+     * Svuota completamente l'indice.
+     */
+    public void invalidateAll() {
+        Map<Integer, HairdresserDays> previous = hairdressers;
+        hairdressers = new ConcurrentHashMap<>();
+        for (HairdresserDays days : previous.values()) {
+            days.version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Restituisce il numero di richieste servite dall'indice.
+     *
+     * @return il numero di cache hit
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Restituisce il numero di richieste che hanno richiesto un caricamento.
+     *
+     * @return il numero di cache miss
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private void update(int hairdresserId, LocalDateTime dateTime, int durationMinutes) {
+        if (!enabled) {
+            return;
+        }
+        HairdresserDays days = daysOf(hairdresserId);
+        days.version.incrementAndGet();
+        days.slots.computeIfPresent(dateTime.toLocalDate(), (date, current) -> {
+            BitSet copy = (BitSet) current.clone();
+            cover(copy, dateTime.toLocalTime(), durationMinutes);
+            return copy;
+        });
+    }
+
+    private HairdresserDays daysOf(int hairdresserId) {
+        return hairdressers.computeIfAbsent(hairdresserId, id -> new HairdresserDays());
+    }
+
+    /**
+     * Giorni memorizzati di un parrucchiere con il relativo contatore di
+     * modifiche.
+     */
+    private static final class HairdresserDays {
+        private final ConcurrentHashMap<LocalDate, BitSet> slots = new ConcurrentHashMap<>();
+        private final AtomicLong version = new AtomicLong();
+    }
+}
@@ -0,0 +1,327 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Backup e ripristino del database senza arrestare l'applicazione.
+ * <p>
+ * Il backup usa l'istruzione {@code BACKUP TO} di H2, che scrive in un archivio
+ * zip compresso un'istantanea consistente del file MVStore mentre le altre
+ * connessioni continuano a leggere e scrivere. Vengono conservate le ultime
+ * generazioni indicate; le più vecchie vengono eliminate dopo ogni backup.
+ * <p>
+ * Il ripristino estrae l'archivio accanto al database, lo apre per verificarne
+ * l'integrità e solo se la verifica riesce sostituisce il file del database,
+ * chiudendo prima il pool di connessioni, che viene ricreato alla richiesta
+ * successiva.
+ */
+public class BackupManager {
+    private static final Logger logger = LogManager.getLogger(BackupManager.class);
+
+    private static final String EXTENSION = ".zip";
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    static final String TABLES_QUERY = """
+            SELECT TABLE_NAME
+            FROM INFORMATION_SCHEMA.TABLES
+            WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE';
+            """;
+
+    // Istanza singleton, con cartella, generazioni e credenziali da Configuration
+    private static final BackupManager instance = new BackupManager(
+            Configuration.getInstance().getBackupDirectory(), Configuration.getInstance().getBackupGenerations());
+
+    private final Path directory;
+    private final int generations;
+    private final String user;
+    private final String password;
+
+    /**
+     * Esito di un backup.
+     *
+     * @param file              archivio creato
+     * @param sizeBytes         dimensione dell'archivio in byte
+     * @param databaseSizeBytes dimensione del file del database in byte
+     * @param durationMillis    durata del backup in millisecondi
+     */
+    public record BackupInfo(Path file, long sizeBytes, long databaseSizeBytes, long durationMillis) {
+    }
+
+    /**
+     * Crea un gestore dei backup che apre i backup da verificare con le
+     * credenziali del database di {@link Configuration}.
+     *
+     * @param directory   cartella degli archivi di backup
+     * @param generations numero di backup da conservare
+     * @throws IllegalArgumentException se il numero di generazioni non è positivo
+     */
+    BackupManager(Path directory, int generations) {
+        this(directory, generations, Configuration.getInstance().getUser(), Configuration.getInstance().getPassword());
+    }
+
+    /**
+     * Crea un gestore dei backup.
+     *
+     * @param directory   cartella degli archivi di backup
+     * @param generations numero di backup da conservare
+     * @param user        utente del database, con cui aprire i backup da
+     *                    verificare
+     * @param password    password dell'utente
+     * @throws IllegalArgumentException se il numero di generazioni non è positivo
+     */
+    BackupManager(Path directory, int generations, String user, String password) {
+        if (generations <= 0) {
+            throw new IllegalArgumentException("Il numero di backup da conservare deve essere positivo.");
+        }
+        this.directory = directory;
+        this.generations = generations;
+        this.user = user;
+        this.password = password;
+    }
+
+    /**
+     * Restituisce l'istanza singleton, che conserva i backup nella cartella
+     * {@code backups} accanto al database.
+     *
+     * @return l'istanza del gestore dei backup
+     */
+    public static BackupManager getInstance() {
+        return instance;
+    }
+
+    /**
+     * Esegue un backup del database mentre l'applicazione resta in uso ed
+     * elimina le generazioni in eccesso.
+     *
+     * @return l'esito del backup
+     * @throws IOException se il backup o la rotazione falliscono
+     */
+    public BackupInfo backup() throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        // Le transazioni già registrate nel registro delle modifiche vengono
+        // concluse prima dell'istantanea, così nessuna resta a cavallo del backup
+        LocalDateTime timestamp = ChangeJournal.getInstance().checkpoint();
+        Path file = directory.resolve(baseName() + "-" + timestamp.format(TIMESTAMP_FORMAT) + EXTENSION);
+
+        try (Connection conn = DatabaseManager.getConnection();
+                PreparedStatement stmt = conn.prepareStatement("BACKUP TO ?")) {
+            stmt.setString(1, file.toString());
+            stmt.execute();
+        } catch (SQLException e) {
+            throw new IOException("Errore durante il backup del database in " + file, e);
+        }
+
+        Path databaseFile = databaseFile(DatabaseManager.getDatabasePath());
+        long databaseSize = Files.exists(databaseFile) ? Files.size(databaseFile) : 0;
+        BackupInfo info = new BackupInfo(file, Files.size(file), databaseSize,
+                (System.nanoTime() - start) / 1_000_000);
+        logger.info("Backup del database creato in {}: {} KB compressi da {} KB in {} ms.", file,
+                info.sizeBytes() / 1024, info.databaseSizeBytes() / 1024, info.durationMillis());
+
+        rotate();
+        return info;
+    }
+
+    /**
+     * Restituisce i backup presenti, dal più recente al meno recente.
+     *
+     * @return i percorsi degli archivi di backup
+     * @throws IOException se la cartella dei backup non è leggibile
+     */
+    public List<Path> listBackups() throws IOException {
+        List<Path> backups = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return backups;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, baseName() + "-*" + EXTENSION)) {
+            stream.forEach(backups::add);
+        }
+        // Il nome contiene la data del backup: l'ordine alfabetico è quello cronologico
+        backups.sort(Collections.reverseOrder());
+        return backups;
+    }
+
+    /**
+     * Restituisce il backup più recente eseguito non oltre l'istante indicato.
+     *
+     * @param timestamp istante di riferimento
+     * @return il backup, o vuoto se non ce ne sono
+     * @throws IOException se la cartella dei backup non è leggibile
+     */
+    public Optional<Path> findLatestBackup(LocalDateTime timestamp) throws IOException {
+        for (Path backup : listBackups()) {
+            if (!backupTime(backup).isAfter(timestamp)) {
+                return Optional.of(backup);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Restituisce l'istante di inizio di un backup, ricavato dal nome del file.
+     * Tutte le voci del registro delle modifiche precedenti a questo istante
+     * sono contenute nel backup.
+     *
+     * @param backup archivio di backup
+     * @return l'istante del backup
+     * @throws IllegalArgumentException se il nome non è quello di un backup
+     */
+    public static LocalDateTime backupTime(Path backup) {
+        String name = backup.getFileName().toString();
+        String prefix = baseName() + "-";
+        if (!name.startsWith(prefix) || !name.endsWith(EXTENSION)) {
+            throw new IllegalArgumentException("Nome di backup non valido: " + name);
+        }
+        return LocalDateTime.parse(name.substring(prefix.length(), name.length() - EXTENSION.length()),
+                TIMESTAMP_FORMAT);
+    }
+
+    /**
+     * Ripristina il backup più recente, se presente.
+     *
+     * @return true se un backup è stato ripristinato, false se non ce ne sono
+     * @throws IOException se il backup non è valido o il ripristino fallisce
+     */
+    public boolean restoreLatest() throws IOException {
+        List<Path> backups = listBackups();
+        if (backups.isEmpty()) {
+            logger.warn("Nessun backup da ripristinare in {}", directory);
+            return false;
+        }
+        restore(backups.get(0));
+        return true;
+    }
+
+    /**
+     * Ripristina un backup. L'archivio viene prima estratto e verificato: se non
+     * è valido il database attuale resta invariato.
+     *
+     * @param backup archivio da ripristinare
+     * @throws IOException se il backup non è valido o il ripristino fallisce
+     */
+    public void restore(Path backup) throws IOException {
+        long start = System.nanoTime();
+        Path databasePath = DatabaseManager.getDatabasePath();
+        Path candidatePath = databasePath.resolveSibling(baseName() + ".restore");
+        Path candidate = databaseFile(candidatePath);
+
+        try {
+            extract(backup, candidate);
+            long rows = verify(candidatePath);
+            DatabaseManager.replaceDatabaseFile(candidate);
+            logger.info("Backup {} ripristinato ({} righe verificate) in {} ms.", backup, rows,
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            Files.deleteIfExists(candidate);
+            Files.deleteIfExists(candidatePath.resolveSibling(candidatePath.getFileName() + ".trace.db"));
+        }
+    }
+
+    /**
+     * Estrae il file MVStore contenuto in un archivio di backup.
+     *
+     * @param backup archivio di backup
+     * @param target file in cui estrarre il database
+     * @throws IOException se l'archivio non è leggibile o non contiene un database
+     */
+    private static void extract(Path backup, Path target) throws IOException {
+        try (ZipFile zip = new ZipFile(backup.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(".mv.db")) {
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    return;
+                }
+            }
+        }
+        throw new IOException("Il backup " + backup + " non contiene un database.");
+    }
+
+    /**
+     * Apre un database estratto e ne legge tutte le tabelle. Lo schema non
+     * viene confrontato con quello attuale: i backup di versioni precedenti
+     * vengono aggiornati da {@link SchemaMigrator} all'inizializzazione.
+     *
+     * @param path percorso del database senza estensione
+     * @return numero totale di righe lette
+     * @throws IOException se il database non si apre o non contiene tabelle
+     */
+    private long verify(Path path) throws IOException {
+        String url = "jdbc:h2:file:" + path + ";IFEXISTS=TRUE";
+        try (Connection conn = DriverManager.getConnection(url, user, password);
+                Statement stmt = conn.createStatement()) {
+            List<String> tables = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery(TABLES_QUERY)) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+            if (tables.isEmpty()) {
+                throw new IOException("Il backup non contiene tabelle.");
+            }
+
+            long rows = 0;
+            for (String table : tables) {
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM \"" + table + "\"")) {
+                    rs.next();
+                    rows += rs.getLong(1);
+                }
+            }
+            return rows;
+        } catch (SQLException e) {
+            throw new IOException("Il backup non è un database valido.", e);
+        }
+    }
+
+    /**
+     * Elimina i backup più vecchi oltre il numero di generazioni da conservare.
+     *
+     * @throws IOException se la cartella dei backup non è leggibile
+     */
+    private void rotate() throws IOException {
+        List<Path> backups = listBackups();
+        for (Path old : backups.subList(Math.min(generations, backups.size()), backups.size())) {
+            try {
+                Files.delete(old);
+                logger.info("Backup obsoleto eliminato: {}", old);
+            } catch (IOException e) {
+                logger.warn("Impossibile eliminare il backup obsoleto {}", old, e);
+            }
+        }
+    }
+
+    private static String baseName() {
+        return DatabaseManager.getDatabasePath().getFileName().toString();
+    }
+
+    private static Path databaseFile(Path path) {
+        return path.resolveSibling(path.getFileName() + ".mv.db");
+    }
+}
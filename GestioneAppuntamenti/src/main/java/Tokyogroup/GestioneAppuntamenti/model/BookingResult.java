@@ -0,0 +1,56 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+/**
+ * Esito di una prenotazione.
+ * <p>
+ * Il conflitto con un appuntamento già presente nello stesso orario è un esito
+ * previsto della prenotazione e viene quindi restituito come valore, mentre gli
+ * errori di accesso al database restano eccezioni.
+ *
+ * @param status        esito della prenotazione
+ * @param appointmentId ID dell'appuntamento creato, -1 se la prenotazione non è
+ *                      avvenuta
+ */
+public record BookingResult(Status status, int appointmentId) {
+
+    /**
+     * Possibili esiti di una prenotazione.
+     */
+    public enum Status {
+        /** L'appuntamento è stato creato. */
+        BOOKED,
+        /** Il parrucchiere ha già un appuntamento valido nell'orario richiesto. */
+        SLOT_TAKEN
+    }
+
+    private static final BookingResult SLOT_TAKEN = new BookingResult(Status.SLOT_TAKEN, -1);
+
+    /**
+     * Crea l'esito di una prenotazione riuscita.
+     *
+     * @param appointmentId ID dell'appuntamento creato
+     * @return l'esito della prenotazione
+     */
+    public static BookingResult booked(int appointmentId) {
+        return new BookingResult(Status.BOOKED, appointmentId);
+    }
+
+    /**
+     * Restituisce l'esito di una prenotazione rifiutata perché l'orario è già
+     * occupato.
+     *
+     * @return l'esito della prenotazione
+     */
+    public static BookingResult slotTaken() {
+        return SLOT_TAKEN;
+    }
+
+    /**
+     * Indica se l'appuntamento è stato creato.
+     *
+     * @return true se la prenotazione è riuscita, false altrimenti
+     */
+    public boolean isBooked() {
+        return status == Status.BOOKED;
+    }
+}
@@ -0,0 +1,839 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Registro delle modifiche al database, usato per il ripristino a un istante
+ * preciso.
+ * <p>
+ * Le operazioni di scrittura dei DAO confermano la transazione tramite
+ * {@link #commit(Connection, List)}, che registra le istruzioni SQL che
+ * permettono di ripeterle, con gli ID generati espliciti. Il numero
+ * progressivo della voce viene assegnato subito prima della conferma, mentre
+ * la transazione detiene ancora i propri blocchi: due transazioni in conflitto
+ * ricevono quindi numeri nello stesso ordine in cui vengono confermate. Una
+ * voce viene scritta solo dopo la conferma e dopo tutte le voci con numero
+ * inferiore; se la conferma fallisce la voce viene scartata.
+ * <p>
+ * Le voci vengono scritte senza far attendere il chiamante: un thread dedicato
+ * le aggiunge in fondo al file a gruppi, con una sola sincronizzazione
+ * ({@code fsync}) per tutte le voci in attesa, così il registro non rallenta le
+ * prenotazioni. Ne segue che, dopo un arresto improvviso del sistema, le
+ * modifiche confermate negli ultimi istanti possono mancare dal registro: il
+ * database le contiene, ma un ripristino a un istante successivo al backup non
+ * le riapplica. Chi deve essere certo della scrittura attende il future
+ * restituito da {@code commit} oppure chiama {@link #flush()}, che attende che
+ * le voci già scritte in coda siano su disco.
+ * <p>
+ * Ogni voce occupa una riga con il proprio checksum: una riga incompleta in
+ * fondo al file, lasciata da un arresto improvviso, viene scartata alla
+ * riapertura.
+ */
+public class ChangeJournal {
+    private static final Logger logger = LogManager.getLogger(ChangeJournal.class);
+
+    private static final int MAX_GROUP_SIZE = 256;
+    private static final char SEPARATOR = '\t';
+
+    // SQLState standard per la violazione di un vincolo di unicità
+    private static final String UNIQUE_VIOLATION_STATE = "23505";
+
+    // Indici delle chiavi primarie: solo la loro violazione indica una voce già presente
+    private static final String PRIMARY_KEY_INDEXES_QUERY = """
+            SELECT INDEX_NAME
+            FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS
+            WHERE CONSTRAINT_TYPE = 'PRIMARY KEY' AND INDEX_NAME IS NOT NULL;
+            """;
+
+    // Tabelle con ID generato, da riallineare dopo la ripetizione delle voci
+    private static final List<String> IDENTITY_TABLES = List.of("Users", "Services", "Appointments", "Messages",
+            "WorkingHours", "ScheduleExceptions");
+
+    // Istanza singleton; se il database è condiviso le modifiche degli altri client non
+    // passano da questo processo e il registro resta disattivato
+    private static final ChangeJournal instance = new ChangeJournal(DatabaseManager.getDatabasePath()
+            .resolveSibling(DatabaseManager.getDatabasePath().getFileName() + ".journal"),
+            !DatabaseManager.getMode().isShared());
+
+    private final Path file;
+    private final boolean enabled;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ArrayDeque<Reservation> inFlight = new ArrayDeque<>(); // Protetto da this
+    private final Object fileLock = new Object();
+    private FileChannel channel; // Protetto da fileLock
+    private long lastSequence; // Protetto da this
+    private Thread writer; // Protetto da this
+    private boolean shutdownHookRegistered; // Protetto da this
+
+    /**
+     * Istruzione SQL registrata, con i relativi parametri.
+     * <p>
+     * I parametri possono essere {@code Integer}, {@code Long}, {@code Double},
+     * {@code Boolean}, {@code String}, {@code LocalDateTime} o null.
+     *
+     * @param sql        istruzione con parametri posizionali
+     * @param parameters valori dei parametri, nell'ordine
+     */
+    public record Change(String sql, List<Object> parameters) {
+
+        /**
+         * Crea un'istruzione registrata.
+         *
+         * @param sql        istruzione con parametri posizionali
+         * @param parameters valori dei parametri, nell'ordine
+         * @return l'istruzione
+         */
+        public static Change of(String sql, Object... parameters) {
+            return new Change(sql, Collections.unmodifiableList(Arrays.asList(parameters.clone())));
+        }
+    }
+
+    /**
+     * Voce del registro: istruzioni da ripetere in un'unica transazione.
+     *
+     * @param sequence  numero progressivo della voce
+     * @param timestamp istante della registrazione, subito prima della conferma
+     * @param changes   istruzioni della voce
+     */
+    public record Entry(long sequence, LocalDateTime timestamp, List<Change> changes) {
+    }
+
+    /**
+     * Voce in attesa di scrittura. Senza voce fa da barriera per
+     * {@link #flush()}; con {@code stop} arresta il thread di scrittura.
+     */
+    private record Pending(Entry entry, CompletableFuture<Void> written, boolean stop) {
+    }
+
+    /**
+     * Voce con il numero progressivo già assegnato, in attesa dell'esito della
+     * transazione. Le voci passano al thread di scrittura in ordine di numero.
+     */
+    private static final class Reservation {
+        private final Entry entry;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+        private Boolean confirmed; // Protetto dal registro; null finché la transazione è aperta
+
+        private Reservation(Entry entry) {
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Crea un registro sul file indicato.
+     *
+     * @param file file del registro
+     */
+    ChangeJournal(Path file) {
+        this(file, true);
+    }
+
+    /**
+     * Crea un registro sul file indicato.
+     *
+     * @param file    file del registro
+     * @param enabled false per ignorare le modifiche registrate
+     */
+    ChangeJournal(Path file, boolean enabled) {
+        this.file = file;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Restituisce l'istanza singleton, il cui file si trova accanto al database.
+     *
+     * @return l'istanza del registro delle modifiche
+     */
+    public static ChangeJournal getInstance() {
+        return instance;
+    }
+
+    /**
+     * Registra una modifica composta da una sola istruzione.
+     *
+     * @param sql        istruzione con parametri posizionali
+     * @param parameters valori dei parametri
+     * @return il future completato quando la voce è su disco
+     */
+    public CompletableFuture<Void> record(String sql, Object... parameters) {
+        return record(List.of(Change.of(sql, parameters)));
+    }
+
+    /**
+     * Registra una modifica composta da più istruzioni, da ripetere nella stessa
+     * transazione, già confermata o priva di transazione. Il metodo non attende
+     * la scrittura su disco; se il registro è disattivato la modifica viene
+     * ignorata.
+     *
+     * @param changes istruzioni della modifica
+     * @return il future completato quando la voce è su disco
+     */
+    public CompletableFuture<Void> record(List<Change> changes) {
+        Reservation reservation = reserve(changes);
+        if (reservation == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        resolve(reservation, true);
+        return reservation.written;
+    }
+
+    /**
+     * Conferma la transazione della connessione indicata e registra la
+     * modifica composta da una sola istruzione.
+     *
+     * @param conn       connessione con l'auto-commit disattivato
+     * @param sql        istruzione con parametri posizionali
+     * @param parameters valori dei parametri
+     * @return il future completato quando la voce è su disco
+     * @throws SQLException se la conferma della transazione fallisce
+     * @see #commit(Connection, List)
+     */
+    public CompletableFuture<Void> commit(Connection conn, String sql, Object... parameters) throws SQLException {
+        return commit(conn, List.of(Change.of(sql, parameters)));
+    }
+
+    /**
+     * Conferma la transazione della connessione indicata e registra le
+     * istruzioni che la ripetono. Il numero progressivo viene assegnato prima
+     * della conferma, quando i blocchi della transazione sono ancora attivi;
+     * se la conferma fallisce la voce viene scartata. Il metodo non attende la
+     * scrittura su disco.
+     *
+     * @param conn    connessione con l'auto-commit disattivato
+     * @param changes istruzioni della modifica
+     * @return il future completato quando la voce è su disco
+     * @throws SQLException se la conferma della transazione fallisce
+     */
+    public CompletableFuture<Void> commit(Connection conn, List<Change> changes) throws SQLException {
+        Reservation reservation = reserve(changes);
+        if (reservation == null) {
+            conn.commit();
+            return CompletableFuture.completedFuture(null);
+        }
+        boolean committed = false;
+        try {
+            conn.commit();
+            committed = true;
+        } finally {
+            resolve(reservation, committed);
+        }
+        return reservation.written;
+    }
+
+    /**
+     * Assegna il numero progressivo a una nuova voce e la mette in attesa
+     * dell'esito della transazione.
+     *
+     * @param changes istruzioni della modifica
+     * @return la voce riservata, o null se il registro è disattivato o non
+     *         disponibile
+     */
+    private Reservation reserve(List<Change> changes) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            ensureOpen();
+        } catch (IOException e) {
+            logger.error("Registro delle modifiche {} non disponibile: modifica non registrata.", file, e);
+            return null;
+        }
+        // Numero progressivo e istante sono assegnati insieme: seguono lo stesso ordine
+        synchronized (this) {
+            Reservation reservation = new Reservation(
+                    new Entry(++lastSequence, LocalDateTime.now(), List.copyOf(changes)));
+            inFlight.add(reservation);
+            return reservation;
+        }
+    }
+
+    /**
+     * Registra l'esito della transazione di una voce e passa al thread di
+     * scrittura le voci in testa già confermate, in ordine di numero. Le voci
+     * annullate vengono scartate.
+     *
+     * @param reservation voce riservata
+     * @param confirmed   true se la transazione è stata confermata
+     */
+    private synchronized void resolve(Reservation reservation, boolean confirmed) {
+        reservation.confirmed = confirmed;
+        if (!confirmed) {
+            reservation.written.cancel(false);
+        }
+        while (!inFlight.isEmpty() && inFlight.peek().confirmed != null) {
+            Reservation head = inFlight.poll();
+            if (head.confirmed) {
+                queue.add(new Pending(head.entry, head.written, false));
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Attende che tutte le voci registrate finora siano state scritte su disco.
+     * Le voci confermate che seguono una voce la cui transazione è ancora
+     * aperta vengono scritte solo dopo di essa e non sono attese.
+     *
+     * @throws IOException se la scrittura del registro fallisce
+     */
+    public void flush() throws IOException {
+        CompletableFuture<Void> barrier = new CompletableFuture<>();
+        synchronized (this) {
+            if (writer == null) {
+                return;
+            }
+            queue.add(new Pending(null, barrier, false));
+        }
+        await(barrier);
+    }
+
+    /**
+     * Restituisce l'istante da cui ripetere il registro su un backup eseguito
+     * subito dopo. Prima attende che le transazioni delle voci già riservate
+     * siano confermate o annullate: le voci precedenti all'istante restituito
+     * sono quindi tutte contenute nel backup, mentre quelle successive hanno un
+     * istante non precedente e vengono ripetute.
+     *
+     * @return l'istante del backup
+     * @throws IOException se l'attesa viene interrotta
+     */
+    public synchronized LocalDateTime checkpoint() throws IOException {
+        LocalDateTime timestamp = LocalDateTime.now();
+        long sequence = lastSequence;
+        try {
+            // In testa c'è sempre la voce aperta con il numero più basso
+            while (!inFlight.isEmpty() && inFlight.peek().entry.sequence() <= sequence) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Attesa delle transazioni in corso interrotta.", e);
+        }
+        return timestamp;
+    }
+
+    /**
+     * Scrive le voci in attesa e arresta il thread di scrittura. Il registro
+     * viene riaperto alla registrazione successiva.
+     */
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        CompletableFuture<Void> stopped = new CompletableFuture<>();
+        queue.add(new Pending(null, stopped, true));
+        try {
+            await(stopped);
+            writer.join();
+        } catch (IOException e) {
+            logger.error("Scrittura del registro delle modifiche fallita durante la chiusura.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+
+        synchronized (fileLock) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Chiusura del file del registro {} fallita.", file, e);
+            }
+        }
+    }
+
+    /**
+     * Legge le voci valide del registro, in ordine.
+     *
+     * @return le voci del registro
+     * @throws IOException se il file non è leggibile
+     */
+    public List<Entry> readEntries() throws IOException {
+        flush();
+        synchronized (fileLock) {
+            return read().entries();
+        }
+    }
+
+    /**
+     * Ripete sul database le voci confermate nell'intervallo [from, until], in
+     * ordine, ciascuna nella propria transazione. Le voci che violano una
+     * chiave primaria, inserendo righe con un ID esplicito già presente, sono
+     * già contenute nel backup e vengono saltate; la violazione di qualsiasi
+     * altro vincolo di unicità interrompe il ripristino. Al termine i contatori
+     * degli ID generati vengono riallineati.
+     *
+     * @param conn  connessione al database
+     * @param from  istante iniziale, incluso
+     * @param until istante finale, incluso
+     * @return il numero di voci applicate
+     * @throws IOException  se il registro non è leggibile
+     * @throws SQLException se una voce non può essere applicata
+     */
+    public int replay(Connection conn, LocalDateTime from, LocalDateTime until) throws IOException, SQLException {
+        int applied = 0;
+        int skipped = 0;
+        Set<String> primaryKeys = primaryKeyIndexes(conn);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (Entry entry : readEntries()) {
+                if (entry.timestamp().isBefore(from) || entry.timestamp().isAfter(until)) {
+                    continue;
+                }
+                try {
+                    for (Change change : entry.changes()) {
+                        try (PreparedStatement stmt = conn.prepareStatement(change.sql())) {
+                            for (int i = 0; i < change.parameters().size(); i++) {
+                                bind(stmt, i + 1, change.parameters().get(i));
+                            }
+                            stmt.executeUpdate();
+                        }
+                    }
+                    conn.commit();
+                    applied++;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    if (!isPrimaryKeyViolation(e, primaryKeys)) {
+                        throw new SQLException("Impossibile applicare la voce " + entry.sequence()
+                                + " del registro delle modifiche.", e);
+                    }
+                    skipped++;
+                }
+            }
+            restartIdentities(conn);
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        logger.info("Registro delle modifiche applicato dal {} al {}: {} voci applicate, {} già presenti.", from,
+                until, applied, skipped);
+        return applied;
+    }
+
+    /**
+     * Elimina dal registro le voci confermate dopo l'istante indicato, che non
+     * fanno più parte della storia del database ripristinato.
+     *
+     * @param timestamp istante del ripristino
+     * @throws IOException se la riscrittura del registro fallisce
+     */
+    public void discardAfter(LocalDateTime timestamp) throws IOException {
+        retain(entry -> !entry.timestamp().isAfter(timestamp), "successive al " + timestamp);
+    }
+
+    /**
+     * Elimina dal registro le voci confermate prima dell'istante indicato, già
+     * contenute in tutti i backup conservati.
+     *
+     * @param timestamp istante del backup più vecchio
+     * @throws IOException se la riscrittura del registro fallisce
+     */
+    public void discardBefore(LocalDateTime timestamp) throws IOException {
+        retain(entry -> !entry.timestamp().isBefore(timestamp), "precedenti al " + timestamp);
+    }
+
+    /**
+     * Svuota il registro.
+     *
+     * @throws IOException se la riscrittura del registro fallisce
+     */
+    public void clear() throws IOException {
+        retain(entry -> false, "presenti");
+    }
+
+    /**
+     * Apre il file del registro e avvia il thread di scrittura, se necessario.
+     *
+     * @throws IOException se il file non può essere aperto
+     */
+    private synchronized void ensureOpen() throws IOException {
+        if (writer != null) {
+            return;
+        }
+        synchronized (fileLock) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            ReadResult existing = read();
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (existing.validLength() < channel.size()) {
+                logger.warn("Scartata la parte finale incompleta del registro delle modifiche {}.", file);
+                channel.truncate(existing.validLength());
+            }
+            channel.position(channel.size());
+            if (!existing.entries().isEmpty()) {
+                lastSequence = Math.max(lastSequence,
+                        existing.entries().get(existing.entries().size() - 1).sequence());
+            }
+        }
+
+        writer = new Thread(this::writeLoop, "registro-modifiche");
+        writer.setDaemon(true);
+        writer.start();
+        if (!shutdownHookRegistered) {
+            // Le voci ancora in coda vengono scritte anche alla chiusura dell'applicazione
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "chiusura-registro-modifiche"));
+            shutdownHookRegistered = true;
+        }
+    }
+
+    /**
+     * Ciclo del thread di scrittura: attende una voce, raccoglie quelle già in
+     * coda e le scrive con un'unica sincronizzazione su disco.
+     */
+    private void writeLoop() {
+        List<Pending> group = new ArrayList<>();
+        boolean stop = false;
+        while (!stop) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(group, MAX_GROUP_SIZE - 1);
+
+            IOException failure = null;
+            try {
+                write(group);
+            } catch (IOException e) {
+                logger.error("Scrittura di {} voci del registro delle modifiche fallita.", group.size(), e);
+                failure = e;
+            }
+            for (Pending pending : group) {
+                stop |= pending.stop();
+                if (failure == null) {
+                    pending.written().complete(null);
+                } else {
+                    pending.written().completeExceptionally(failure);
+                }
+            }
+            group.clear();
+        }
+    }
+
+    private void write(List<Pending> group) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        for (Pending pending : group) {
+            if (pending.entry() != null) {
+                buffer.writeBytes(encode(pending.entry()).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        if (buffer.size() == 0) {
+            return;
+        }
+        synchronized (fileLock) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Riscrive il registro mantenendo solo le voci indicate.
+     *
+     * @param keep        condizione delle voci da mantenere
+     * @param description descrizione delle voci eliminate, per il log
+     * @throws IOException se la riscrittura fallisce
+     */
+    private void retain(Predicate<Entry> keep, String description) throws IOException {
+        flush();
+        synchronized (fileLock) {
+            if (!Files.exists(file)) {
+                return;
+            }
+            List<Entry> entries = read().entries();
+            StringBuilder kept = new StringBuilder();
+            int removed = 0;
+            for (Entry entry : entries) {
+                if (keep.test(entry)) {
+                    kept.append(encode(entry));
+                } else {
+                    removed++;
+                }
+            }
+            if (removed == 0) {
+                return;
+            }
+
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temporary, kept, StandardCharsets.UTF_8);
+            boolean open = channel != null && channel.isOpen();
+            if (open) {
+                channel.close();
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (open) {
+                channel = FileChannel.open(file, StandardOpenOption.WRITE);
+                channel.position(channel.size());
+            }
+            logger.info("Eliminate {} voci {} dal registro delle modifiche.", removed, description);
+        }
+    }
+
+    /**
+     * Voci valide lette dal file e lunghezza in byte della parte valida.
+     */
+    private record ReadResult(List<Entry> entries, long validLength) {
+    }
+
+    private ReadResult read() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return new ReadResult(entries, 0);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        int start = 0;
+        for (int end = 0; end < bytes.length; end++) {
+            if (bytes[end] != '\n') {
+                continue;
+            }
+            Entry entry = decode(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+            if (entry == null) {
+                break;
+            }
+            entries.add(entry);
+            start = end + 1;
+        }
+        return new ReadResult(entries, start);
+    }
+
+    /*
+     * Formato di una riga: checksum CRC32 esadecimale, numero progressivo,
+     * istante, numero di istruzioni e, per ogni istruzione, SQL, numero di
+     * parametri e parametri, separati da tabulazioni. I parametri sono preceduti
+     * dal tipo: i (Integer), l (Long), d (Double), b (Boolean), s (String),
+     * t (LocalDateTime), n (null).
+     */
+
+    private static String encode(Entry entry) {
+        List<String> fields = new ArrayList<>();
+        fields.add(Long.toString(entry.sequence()));
+        fields.add(entry.timestamp().toString());
+        fields.add(Integer.toString(entry.changes().size()));
+        for (Change change : entry.changes()) {
+            fields.add(change.sql());
+            fields.add(Integer.toString(change.parameters().size()));
+            for (Object parameter : change.parameters()) {
+                fields.add(encodeParameter(parameter));
+            }
+        }
+
+        StringBuilder payload = new StringBuilder();
+        for (String field : fields) {
+            if (payload.length() > 0) {
+                payload.append(SEPARATOR);
+            }
+            escape(field, payload);
+        }
+        return Long.toHexString(checksum(payload.toString())) + SEPARATOR + payload + '\n';
+    }
+
+    private static Entry decode(String line) {
+        int separator = line.indexOf(SEPARATOR);
+        if (separator < 0) {
+            return null;
+        }
+        String payload = line.substring(separator + 1);
+        try {
+            if (Long.parseLong(line.substring(0, separator), 16) != checksum(payload)) {
+                return null;
+            }
+            String[] fields = payload.split(String.valueOf(SEPARATOR), -1);
+            int index = 0;
+            long sequence = Long.parseLong(unescape(fields[index++]));
+            LocalDateTime timestamp = LocalDateTime.parse(unescape(fields[index++]));
+            int changeCount = Integer.parseInt(unescape(fields[index++]));
+            List<Change> changes = new ArrayList<>(changeCount);
+            for (int c = 0; c < changeCount; c++) {
+                String sql = unescape(fields[index++]);
+                Object[] parameters = new Object[Integer.parseInt(unescape(fields[index++]))];
+                for (int p = 0; p < parameters.length; p++) {
+                    parameters[p] = decodeParameter(unescape(fields[index++]));
+                }
+                changes.add(Change.of(sql, parameters));
+            }
+            return new Entry(sequence, timestamp, changes);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String encodeParameter(Object value) {
+        if (value == null) {
+            return "n";
+        } else if (value instanceof Integer) {
+            return "i:" + value;
+        } else if (value instanceof Long) {
+            return "l:" + value;
+        } else if (value instanceof Double) {
+            return "d:" + value;
+        } else if (value instanceof Boolean) {
+            return "b:" + value;
+        } else if (value instanceof String) {
+            return "s:" + value;
+        } else if (value instanceof LocalDateTime) {
+            return "t:" + value;
+        }
+        throw new IllegalArgumentException("Tipo di parametro non supportato: " + value.getClass().getName());
+    }
+
+    private static Object decodeParameter(String value) {
+        if (value.equals("n")) {
+            return null;
+        }
+        String content = value.substring(2);
+        return switch (value.charAt(0)) {
+            case 'i' -> Integer.valueOf(content);
+            case 'l' -> Long.valueOf(content);
+            case 'd' -> Double.valueOf(content);
+            case 'b' -> Boolean.valueOf(content);
+            case 's' -> content;
+            case 't' -> LocalDateTime.parse(content);
+            default -> throw new IllegalArgumentException("Tipo di parametro sconosciuto: " + value);
+        };
+    }
+
+    private static void bind(PreparedStatement stmt, int index, Object value) throws SQLException {
+        if (value instanceof LocalDateTime dateTime) {
+            stmt.setTimestamp(index, Timestamp.valueOf(dateTime));
+        } else {
+            stmt.setObject(index, value);
+        }
+    }
+
+    private static void escape(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            char next = value.charAt(++i);
+            out.append(switch (next) {
+                case 't' -> '\t';
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                default -> next;
+            });
+        }
+        return out.toString();
+    }
+
+    private static long checksum(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Riallinea i contatori degli ID generati al valore massimo presente, dopo
+     * gli inserimenti con ID esplicito.
+     */
+    private static void restartIdentities(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String table : IDENTITY_TABLES) {
+                long next;
+                try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+                    rs.next();
+                    next = rs.getLong(1);
+                }
+                stmt.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+            }
+        }
+    }
+
+    /**
+     * Legge i nomi degli indici delle chiavi primarie dello schema.
+     */
+    private static Set<String> primaryKeyIndexes(Connection conn) throws SQLException {
+        Set<String> indexes = new HashSet<>();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(PRIMARY_KEY_INDEXES_QUERY)) {
+            while (rs.next()) {
+                indexes.add(rs.getString(1).toUpperCase(Locale.ROOT));
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Verifica se l'errore è la violazione di una chiave primaria. H2 riporta
+     * nel messaggio l'indice violato, nella forma {@code "SCHEMA.INDICE ON ..."},
+     * oppure {@code "PRIMARY KEY ON ..."} per le chiavi con ID generato.
+     */
+    private static boolean isPrimaryKeyViolation(SQLException e, Set<String> primaryKeys) {
+        if (!UNIQUE_VIOLATION_STATE.equals(e.getSQLState()) || e.getMessage() == null) {
+            return false;
+        }
+        String message = e.getMessage().toUpperCase(Locale.ROOT);
+        if (message.contains("\"PRIMARY KEY ON ")) {
+            return true;
+        }
+        for (String index : primaryKeys) {
+            if (message.contains("." + index + " ON ")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void await(CompletableFuture<Void> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Attesa della scrittura del registro interrotta.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Scrittura del registro delle modifiche fallita.", e.getCause());
+        }
+    }
+}
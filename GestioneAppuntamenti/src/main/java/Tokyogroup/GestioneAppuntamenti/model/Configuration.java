@@ -0,0 +1,424 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Configurazione del database, del pool di connessioni, delle metriche e
+ * dell'API HTTP.
+ * <p>
+ * Ogni chiave, ad esempio {@code appuntamenti.db.path}, viene cercata in
+ * ordine di priorità:
+ * <ol>
+ * <li>proprietà di sistema ({@code -Dappuntamenti.db.path=...});</li>
+ * <li>variabile d'ambiente con il nome in maiuscolo e i punti sostituiti da
+ * trattini bassi ({@code APPUNTAMENTI_DB_PATH});</li>
+ * <li>file di configurazione indicato da {@value #FILE_PROPERTY} (o
+ * {@code APPUNTAMENTI_CONFIG}), altrimenti {@value #DEFAULT_FILE} nella
+ * cartella di lavoro, se esiste;</li>
+ * <li>valore predefinito.</li>
+ * </ol>
+ * Tutti i valori vengono verificati al caricamento: una configurazione non
+ * valida viene rifiutata con un unico errore che elenca le chiavi errate, prima
+ * che venga aperto il database.
+ * <p>
+ * Le impostazioni di H2 (cache, ritardo di scrittura, timeout dei lock e
+ * ritardo di chiusura) vengono aggiunte all'URL solo se configurate; altrimenti
+ * valgono i valori predefiniti di H2.
+ */
+public final class Configuration {
+    private static final Logger logger = LogManager.getLogger(Configuration.class);
+
+    /** Proprietà di sistema con il percorso del file di configurazione. */
+    public static final String FILE_PROPERTY = "appuntamenti.config";
+    /** File di configurazione cercato nella cartella di lavoro. */
+    public static final String DEFAULT_FILE = "appuntamenti.properties";
+
+    private static Configuration instance;
+
+    private final String databasePath;
+    private final DatabaseManager.Mode mode;
+    private final String server;
+    private final int serverPort;
+    private final String user;
+    private final String password;
+    private final Path backupDirectory;
+    private final int backupGenerations;
+    private final Integer cacheSizeKb;
+    private final Integer writeDelayMillis;
+    private final Integer lockTimeoutMillis;
+    private final Integer closeDelaySeconds;
+    private final int poolMaxSize;
+    private final int poolMinIdle;
+    private final long poolIdleTimeoutMillis;
+    private final long poolBorrowTimeoutMillis;
+    private final long poolLeakThresholdMillis;
+    private final int poolValidationTimeoutSeconds;
+    private final ConnectionPool.Tuning networkTuning;
+    private final long metricsIntervalSeconds;
+    private final int apiPort;
+    private final int apiThreads;
+    private final long apiSessionTimeoutMillis;
+    private final String source;
+
+    private Configuration(Sources values) {
+        databasePath = values.text("appuntamenti.db.path", "./resources/data/appointments");
+        mode = values.parse("appuntamenti.db.mode", "embedded", DatabaseManager.Mode::fromProperty);
+        server = values.text("appuntamenti.db.server", "localhost:" + DatabaseServer.DEFAULT_PORT);
+        serverPort = values.integer("appuntamenti.db.port", DatabaseServer.DEFAULT_PORT, 1, 65_535);
+        user = values.text("appuntamenti.db.user", "sa");
+        password = values.raw("appuntamenti.db.password", "");
+        String backups = values.raw("appuntamenti.backup.dir", null);
+        backupDirectory = backups == null || backups.isBlank()
+                ? Path.of(databasePath).toAbsolutePath().normalize().resolveSibling("backups")
+                : Path.of(backups.trim()).toAbsolutePath().normalize();
+        backupGenerations = values.integer("appuntamenti.backup.generations", 5, 1, 1_000);
+
+        cacheSizeKb = values.optionalInteger("appuntamenti.h2.cache.size", 1_024, Integer.MAX_VALUE);
+        writeDelayMillis = values.optionalInteger("appuntamenti.h2.write.delay", 0, 60_000);
+        lockTimeoutMillis = values.optionalInteger("appuntamenti.h2.lock.timeout", 0, 600_000);
+        closeDelaySeconds = values.optionalInteger("appuntamenti.h2.close.delay", -1, Integer.MAX_VALUE);
+
+        poolMaxSize = values.integer("appuntamenti.pool.max.size", 10, 1, 1_000);
+        poolMinIdle = values.integer("appuntamenti.pool.min.idle", 2, 0, poolMaxSize);
+        poolIdleTimeoutMillis = values.integer("appuntamenti.pool.idle.timeout", 300, 1, 86_400) * 1_000L;
+        poolBorrowTimeoutMillis = values.integer("appuntamenti.pool.borrow.timeout", 30, 1, 3_600) * 1_000L;
+        poolLeakThresholdMillis = values.integer("appuntamenti.pool.leak.threshold", 60, 0, 86_400) * 1_000L;
+        poolValidationTimeoutSeconds = values.integer("appuntamenti.pool.validation.timeout", 2, 1, 60);
+        networkTuning = new ConnectionPool.Tuning(
+                values.integer("appuntamenti.pool.statement.cache", 64, 0, 10_000),
+                values.integer("appuntamenti.pool.fetch.size", 256, 0, 100_000),
+                values.integer("appuntamenti.pool.validation.interval", 5_000, 0, 3_600_000));
+
+        metricsIntervalSeconds = values.integer("appuntamenti.metrics.interval", 300, 1, 86_400);
+
+        apiPort = values.integer("appuntamenti.api.port", 8080, 0, 65_535);
+        apiThreads = values.integer("appuntamenti.api.threads", 16, 1, 1_000);
+        apiSessionTimeoutMillis = values.integer("appuntamenti.api.session.timeout", 1_800, 60, 86_400) * 1_000L;
+        source = values.source;
+
+        if (mode == DatabaseManager.Mode.SERVER && !server.matches("[^:\\s/]+:\\d{1,5}")) {
+            values.errors.add("appuntamenti.db.server: atteso host:porta, trovato '" + server + "'");
+        }
+        if (!values.errors.isEmpty()) {
+            throw new IllegalArgumentException("Configurazione non valida (" + source + "):\n  "
+                    + String.join("\n  ", values.errors));
+        }
+    }
+
+    /**
+     * Restituisce la configurazione, caricandola alla prima chiamata dalle
+     * proprietà di sistema, dalle variabili d'ambiente e dal file di
+     * configurazione.
+     *
+     * @return la configurazione
+     * @throws IllegalArgumentException se un valore non è valido o il file di
+     *                                  configurazione non è leggibile
+     */
+    public static synchronized Configuration getInstance() {
+        if (instance == null) {
+            instance = load(System.getProperties(), System.getenv());
+            logger.info("Configurazione caricata: {}", instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Carica la configurazione dalle fonti indicate.
+     *
+     * @param system      proprietà di sistema
+     * @param environment variabili d'ambiente
+     * @return la configurazione
+     * @throws IllegalArgumentException se un valore non è valido o il file di
+     *                                  configurazione non è leggibile
+     */
+    static Configuration load(Properties system, Map<String, String> environment) {
+        String explicit = system.getProperty(FILE_PROPERTY, environment.get(environmentName(FILE_PROPERTY)));
+        Path file = Path.of(explicit != null ? explicit : DEFAULT_FILE);
+        Properties fromFile = new Properties();
+        String source = "nessun file";
+        if (explicit != null || Files.isRegularFile(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                fromFile.load(reader);
+                source = file.toAbsolutePath().normalize().toString();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("File di configurazione " + file.toAbsolutePath()
+                        + " non leggibile: " + e.getMessage(), e);
+            }
+        }
+        return new Configuration(new Sources(system, environment, fromFile, source));
+    }
+
+    /**
+     * Restituisce il nome della variabile d'ambiente corrispondente a una chiave.
+     *
+     * @param key chiave di configurazione
+     * @return il nome della variabile d'ambiente
+     */
+    static String environmentName(String key) {
+        return key.toUpperCase(Locale.ROOT).replace('.', '_');
+    }
+
+    /**
+     * @return percorso del database senza estensione
+     */
+    public String getDatabasePath() {
+        return databasePath;
+    }
+
+    /**
+     * @return modalità di accesso al database
+     */
+    public DatabaseManager.Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return porta TCP del server dedicato del database
+     */
+    public int getServerPort() {
+        return serverPort;
+    }
+
+    /**
+     * @return utente del database
+     */
+    public String getUser() {
+        return user;
+    }
+
+    /**
+     * @return password del database
+     */
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * @return cartella degli archivi di backup
+     */
+    public Path getBackupDirectory() {
+        return backupDirectory;
+    }
+
+    /**
+     * @return numero di backup da conservare
+     */
+    public int getBackupGenerations() {
+        return backupGenerations;
+    }
+
+    /**
+     * @return numero massimo di connessioni del pool
+     */
+    public int getPoolMaxSize() {
+        return poolMaxSize;
+    }
+
+    /**
+     * @return connessioni inattive mantenute dal pool
+     */
+    public int getPoolMinIdle() {
+        return poolMinIdle;
+    }
+
+    /**
+     * @return tempo dopo il quale una connessione inattiva viene chiusa, in
+     *         millisecondi
+     */
+    public long getPoolIdleTimeoutMillis() {
+        return poolIdleTimeoutMillis;
+    }
+
+    /**
+     * @return attesa massima per ottenere una connessione, in millisecondi
+     */
+    public long getPoolBorrowTimeoutMillis() {
+        return poolBorrowTimeoutMillis;
+    }
+
+    /**
+     * @return tempo oltre il quale una connessione non restituita viene
+     *         segnalata, in millisecondi (0 se disattivato)
+     */
+    public long getPoolLeakThresholdMillis() {
+        return poolLeakThresholdMillis;
+    }
+
+    /**
+     * @return timeout della validazione al prelievo, in secondi
+     */
+    public int getPoolValidationTimeoutSeconds() {
+        return poolValidationTimeoutSeconds;
+    }
+
+    /**
+     * Restituisce le impostazioni del pool per la modalità configurata: quelle
+     * per i database in rete nelle modalità condivise, nessuna altrimenti.
+     *
+     * @return le impostazioni del pool
+     */
+    public ConnectionPool.Tuning getPoolTuning() {
+        return mode.isShared() ? networkTuning : ConnectionPool.Tuning.NONE;
+    }
+
+    /**
+     * @return intervallo del riepilogo delle metriche nel log, in secondi
+     */
+    public long getMetricsIntervalSeconds() {
+        return metricsIntervalSeconds;
+    }
+
+    /**
+     * @return porta TCP dell'API HTTP (0 per una porta libera qualsiasi)
+     */
+    public int getApiPort() {
+        return apiPort;
+    }
+
+    /**
+     * @return thread che servono le richieste dell'API HTTP
+     */
+    public int getApiThreads() {
+        return apiThreads;
+    }
+
+    /**
+     * @return inattività dopo la quale una sessione dell'API scade, in
+     *         millisecondi
+     */
+    public long getApiSessionTimeoutMillis() {
+        return apiSessionTimeoutMillis;
+    }
+
+    /**
+     * Costruisce l'URL JDBC per la modalità configurata, con le impostazioni di
+     * H2 indicate. Il server dedicato serve i database della propria cartella,
+     * quindi in modalità server l'URL contiene solo il nome del file e le
+     * impostazioni del database restano quelle del server; vale solo il timeout
+     * dei lock, che riguarda la sessione.
+     *
+     * @return l'URL JDBC del database
+     */
+    public String getJdbcUrl() {
+        StringBuilder url = new StringBuilder();
+        switch (mode) {
+            case EMBEDDED -> url.append("jdbc:h2:file:").append(databasePath);
+            case AUTO_SERVER -> url.append("jdbc:h2:file:").append(databasePath).append(";AUTO_SERVER=TRUE");
+            case SERVER -> url.append("jdbc:h2:tcp://").append(server).append('/')
+                    .append(Path.of(databasePath).getFileName());
+        }
+        if (mode != DatabaseManager.Mode.SERVER) {
+            appendSetting(url, "CACHE_SIZE", cacheSizeKb);
+            appendSetting(url, "WRITE_DELAY", writeDelayMillis);
+            appendSetting(url, "DB_CLOSE_DELAY", closeDelaySeconds);
+        }
+        appendSetting(url, "LOCK_TIMEOUT", lockTimeoutMillis);
+        return url.toString();
+    }
+
+    private static void appendSetting(StringBuilder url, String name, Integer value) {
+        if (value != null) {
+            url.append(';').append(name).append('=').append(value);
+        }
+    }
+
+    /**
+     * Descrive la configurazione per il log, senza la password.
+     */
+    @Override
+    public String toString() {
+        StringJoiner description = new StringJoiner(", ", "", " (" + source + ")");
+        description.add("url=" + getJdbcUrl());
+        description.add("utente=" + user);
+        description.add("backup=" + backupDirectory + " x" + backupGenerations);
+        description.add("pool=" + poolMinIdle + ".." + poolMaxSize);
+        description.add("rete=" + getPoolTuning());
+        description.add("metriche=" + metricsIntervalSeconds + " s");
+        return description.toString();
+    }
+
+    /**
+     * Lettura delle chiavi dalle fonti in ordine di priorità, con raccolta degli
+     * errori di validazione.
+     */
+    private static final class Sources {
+        private final Properties system;
+        private final Map<String, String> environment;
+        private final Properties file;
+        private final String source;
+        private final List<String> errors = new ArrayList<>();
+
+        private Sources(Properties system, Map<String, String> environment, Properties file, String source) {
+            this.system = system;
+            this.environment = environment;
+            this.file = file;
+            this.source = source;
+        }
+
+        private String raw(String key, String defaultValue) {
+            String value = system.getProperty(key);
+            if (value == null) {
+                value = environment.get(environmentName(key));
+            }
+            if (value == null) {
+                value = file.getProperty(key);
+            }
+            return value != null ? value : defaultValue;
+        }
+
+        private String text(String key, String defaultValue) {
+            String value = raw(key, defaultValue).trim();
+            if (value.isEmpty()) {
+                errors.add(key + ": valore vuoto");
+                return defaultValue;
+            }
+            return value;
+        }
+
+        private <T> T parse(String key, String defaultValue, Function<String, T> parser) {
+            String value = text(key, defaultValue);
+            try {
+                return parser.apply(value);
+            } catch (IllegalArgumentException e) {
+                errors.add(key + ": " + e.getMessage());
+                return parser.apply(defaultValue);
+            }
+        }
+
+        private int integer(String key, int defaultValue, int min, int max) {
+            Integer value = optionalInteger(key, min, max);
+            return value != null ? value : defaultValue;
+        }
+
+        private Integer optionalInteger(String key, int min, int max) {
+            String value = raw(key, null);
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            try {
+                int parsed = Integer.parseInt(value.trim());
+                if (parsed >= min && parsed <= max) {
+                    return parsed;
+                }
+                errors.add(key + ": " + parsed + " fuori dall'intervallo " + min + ".." + max);
+            } catch (NumberFormatException e) {
+                errors.add(key + ": '" + value.trim() + "' non è un numero intero");
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,601 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool di connessioni JDBC a dimensione limitata.
+ * <p>
+ * Le connessioni fisiche vengono riutilizzate tra le richieste: chiamare
+ * {@link Connection#close()} sulla connessione ottenuta la restituisce al pool
+ * invece di chiuderla. Il pool valida ogni connessione al prelievo, chiude le
+ * connessioni inattive da troppo tempo, segnala con lo stack trace del prelievo
+ * le connessioni trattenute oltre la soglia di leak e raccoglie le metriche di
+ * utilizzo (connessioni attive, inattive e tempi di attesa).
+ * <p>
+ * Per i database raggiunti in rete il pool può essere configurato con un
+ * {@link Tuning}: riutilizzo delle istruzioni preparate su ogni connessione
+ * fisica, dimensione dei blocchi di righe letti dal server e validazione al
+ * prelievo solo per le connessioni inattive da un certo tempo, così da
+ * risparmiare round trip sulla rete.
+ */
+public class ConnectionPool {
+    private static final Logger logger = LogManager.getLogger(ConnectionPool.class);
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int validationTimeoutSeconds;
+    private final Tuning tuning;
+
+    // Limita il numero totale di connessioni (attive + inattive)
+    private final Semaphore permits;
+    // Connessioni inattive, riutilizzate in ordine LIFO per sfruttare le più recenti
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder invalidCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final LongAdder statementReuseCount = new LongAdder();
+
+    /**
+     * Impostazioni per ridurre i round trip verso un database in rete.
+     *
+     * @param statementCacheSize       istruzioni preparate conservate per ogni
+     *                                 connessione fisica (0 per disattivare)
+     * @param fetchSize                righe lette dal server per ogni blocco
+     *                                 (0 per il valore del driver)
+     * @param validationIntervalMillis le connessioni restituite da meno di questo
+     *                                 tempo non vengono validate al prelievo
+     */
+    public record Tuning(int statementCacheSize, int fetchSize, long validationIntervalMillis) {
+
+        /** Nessuna ottimizzazione: ogni prelievo valida la connessione. */
+        public static final Tuning NONE = new Tuning(0, 0, 0);
+    }
+
+    /**
+     * Crea un nuovo pool di connessioni.
+     *
+     * @param url                      URL JDBC del database
+     * @param user                     utente del database
+     * @param password                 password del database
+     * @param maxSize                  numero massimo di connessioni aperte
+     * @param minIdle                  connessioni inattive da mantenere anche oltre
+     *                                 il timeout di inattività
+     * @param idleTimeoutMillis        tempo dopo il quale una connessione inattiva
+     *                                 viene chiusa
+     * @param borrowTimeoutMillis      attesa massima per ottenere una connessione
+     * @param leakThresholdMillis      tempo oltre il quale una connessione non
+     *                                 restituita viene segnalata (0 per disattivare)
+     * @param validationTimeoutSeconds timeout della validazione al prelievo
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize, int minIdle,
+            long idleTimeoutMillis, long borrowTimeoutMillis, long leakThresholdMillis,
+            int validationTimeoutSeconds) {
+        this(url, user, password, maxSize, minIdle, idleTimeoutMillis, borrowTimeoutMillis, leakThresholdMillis,
+                validationTimeoutSeconds, Tuning.NONE);
+    }
+
+    /**
+     * Crea un nuovo pool di connessioni con le impostazioni indicate per i
+     * database in rete.
+     *
+     * @param url                      URL JDBC del database
+     * @param user                     utente del database
+     * @param password                 password del database
+     * @param maxSize                  numero massimo di connessioni aperte
+     * @param minIdle                  connessioni inattive da mantenere anche oltre
+     *                                 il timeout di inattività
+     * @param idleTimeoutMillis        tempo dopo il quale una connessione inattiva
+     *                                 viene chiusa
+     * @param borrowTimeoutMillis      attesa massima per ottenere una connessione
+     * @param leakThresholdMillis      tempo oltre il quale una connessione non
+     *                                 restituita viene segnalata (0 per disattivare)
+     * @param validationTimeoutSeconds timeout della validazione al prelievo
+     * @param tuning                   impostazioni per i database in rete
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize, int minIdle,
+            long idleTimeoutMillis, long borrowTimeoutMillis, long leakThresholdMillis,
+            int validationTimeoutSeconds, Tuning tuning) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("La dimensione massima del pool deve essere positiva.");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(Math.max(minIdle, 0), maxSize);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.tuning = tuning;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000L, Math.min(idleTimeoutMillis,
+                leakThresholdMillis > 0 ? leakThresholdMillis : idleTimeoutMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+
+        logger.info("Pool di connessioni creato (max {}, timeout inattività {} ms).", maxSize, idleTimeoutMillis);
+    }
+
+    /**
+     * Preleva una connessione dal pool, creandone una nuova se non ci sono
+     * connessioni inattive valide e il limite non è stato raggiunto.
+     *
+     * @return una connessione da restituire chiamando {@link Connection#close()}
+     * @throws SQLException se il pool è chiuso, se l'attesa supera il timeout o se
+     *                      la connessione non può essere aperta
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Il pool di connessioni è chiuso.");
+        }
+
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLException("Timeout in attesa di una connessione dal pool dopo "
+                        + borrowTimeoutMillis + " ms.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrotto in attesa di una connessione dal pool.", e);
+        }
+        recordWait(System.nanoTime() - waitStart);
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(DriverManager.getConnection(url, user, password));
+                createdCount.increment();
+            }
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowTrace = leakThresholdMillis > 0 ? new Throwable("Connessione prelevata qui") : null;
+            pooled.leakReported = false;
+            borrowed.add(pooled);
+            borrowCount.increment();
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Chiude il pool e tutte le connessioni inattive. Le connessioni ancora in uso
+     * vengono chiuse fisicamente quando vengono restituite.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeper.shutdownNow();
+
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.closePhysical();
+        }
+        if (!borrowed.isEmpty()) {
+            logger.warn("Pool chiuso con {} connessioni ancora in uso.", borrowed.size());
+        }
+        logger.info("Pool di connessioni chiuso. {}", getStats());
+    }
+
+    /**
+     * Indica se il pool è stato chiuso.
+     *
+     * @return true se il pool è chiuso
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Restituisce un'istantanea delle metriche del pool.
+     *
+     * @return le statistiche correnti
+     */
+    public Stats getStats() {
+        long borrows = borrowCount.sum();
+        long waitNanos = totalWaitNanos.sum();
+        return new Stats(borrowed.size(), idle.size(), maxSize, borrows, createdCount.sum(), evictedCount.sum(),
+                invalidCount.sum(), timeoutCount.sum(), leakCount.sum(),
+                borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(waitNanos / borrows),
+                TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()), statementReuseCount.sum());
+    }
+
+    /**
+     * Preleva la prima connessione inattiva ancora valida, chiudendo quelle non
+     * più utilizzabili. Le connessioni restituite da meno dell'intervallo di
+     * validazione non vengono validate.
+     */
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (System.currentTimeMillis() - pooled.lastUsedAt < tuning.validationIntervalMillis()
+                    || pooled.isValid()) {
+                return pooled;
+            }
+            invalidCount.increment();
+            logger.warn("Connessione non valida scartata dal pool.");
+            pooled.closePhysical();
+        }
+        return null;
+    }
+
+    /**
+     * Restituisce una connessione al pool, ripristinandone lo stato.
+     */
+    private void release(PooledConnection pooled) {
+        if (!borrowed.remove(pooled)) {
+            return;
+        }
+        try {
+            if (closed || !pooled.reset()) {
+                pooled.closePhysical();
+            } else {
+                pooled.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Chiude le connessioni inattive scadute e segnala i possibili leak.
+     */
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+            int excess = idle.size() - minIdle;
+            Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+            while (excess > 0 && oldestFirst.hasNext()) {
+                PooledConnection pooled = oldestFirst.next();
+                if (now - pooled.lastUsedAt >= idleTimeoutMillis && idle.remove(pooled)) {
+                    pooled.closePhysical();
+                    evictedCount.increment();
+                    excess--;
+                }
+            }
+
+            if (leakThresholdMillis > 0) {
+                for (PooledConnection pooled : borrowed) {
+                    if (!pooled.leakReported && now - pooled.borrowedAt >= leakThresholdMillis) {
+                        pooled.leakReported = true;
+                        leakCount.increment();
+                        logger.warn("Possibile leak: connessione in uso da {} ms senza essere restituita.",
+                                now - pooled.borrowedAt, pooled.borrowTrace);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Errore durante la manutenzione del pool di connessioni.", e);
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Connessione fisica gestita dal pool.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private volatile long borrowedAt;
+        private volatile long lastUsedAt;
+        private volatile Throwable borrowTrace;
+        private volatile boolean leakReported;
+        // Istruzioni preparate inattive, in ordine di utilizzo; protette da statements
+        private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= tuning.statementCacheSize()) {
+                    return false;
+                }
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Restituisce un'istruzione preparata, riutilizzando quella conservata per
+         * la stessa query se presente. La chiusura dell'istruzione restituita la
+         * rimette a disposizione invece di chiuderla.
+         */
+        private PreparedStatement prepare(String sql, Connection handle) throws SQLException {
+            PreparedStatement statement;
+            synchronized (statements) {
+                statement = statements.remove(sql);
+            }
+            if (statement != null && !statement.isClosed()) {
+                statementReuseCount.increment();
+            } else {
+                statement = physical.prepareStatement(sql);
+                applyFetchSize(statement);
+            }
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, new StatementHandle(this, sql, statement, handle));
+        }
+
+        /**
+         * Conserva un'istruzione chiusa dal chiamante per il riutilizzo, dopo averne
+         * ripristinato lo stato.
+         */
+        private void recycle(String sql, PreparedStatement statement) {
+            try {
+                ResultSet open = statement.getResultSet();
+                if (open != null) {
+                    open.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                synchronized (statements) {
+                    if (!physical.isClosed() && !statements.containsKey(sql)) {
+                        statements.put(sql, statement);
+                        return;
+                    }
+                }
+            } catch (SQLException e) {
+                logger.debug("Istruzione preparata non riutilizzabile, chiusa.", e);
+            }
+            closeQuietly(statement);
+        }
+
+        /**
+         * Crea il proxy consegnato al chiamante per un singolo prelievo.
+         */
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new Handle(this));
+        }
+
+        private boolean isValid() {
+            try {
+                return !physical.isClosed() && physical.isValid(validationTimeoutSeconds);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Annulla le transazioni lasciate aperte e ripristina l'auto-commit.
+         *
+         * @return false se la connessione non è più riutilizzabile
+         */
+        private boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                if (physical.isReadOnly()) {
+                    physical.setReadOnly(false);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                logger.warn("Impossibile ripristinare la connessione restituita al pool.", e);
+                return false;
+            }
+        }
+
+        private void closePhysical() {
+            synchronized (statements) {
+                statements.values().forEach(ConnectionPool::closeQuietly);
+                statements.clear();
+            }
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                logger.warn("Errore durante la chiusura di una connessione del pool.", e);
+            }
+        }
+    }
+
+    /**
+     * Gestore delle chiamate sul proxy: {@code close()} restituisce la
+     * connessione al pool, ogni altra chiamata viene inoltrata alla connessione
+     * fisica finché il proxy non è stato chiuso.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private volatile boolean released;
+
+        private Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    if (released) {
+                        throw new SQLException("La connessione è già stata restituita al pool.");
+                    }
+                    if (tuning.statementCacheSize() > 0 && method.getName().equals("prepareStatement")
+                            && args.length == 1) {
+                        return pooled.prepare((String) args[0], (Connection) proxy);
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof Statement statement) {
+                        applyFetchSize(statement);
+                    }
+                    return result;
+            }
+        }
+    }
+
+    /**
+     * Gestore delle chiamate su un'istruzione preparata riutilizzabile:
+     * {@code close()} la restituisce alla connessione fisica, ogni altra
+     * chiamata viene inoltrata all'istruzione finché non è stata chiusa.
+     */
+    private static final class StatementHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final String sql;
+        private final PreparedStatement statement;
+        private final Connection connection;
+        private boolean closed;
+
+        private StatementHandle(PooledConnection pooled, String sql, PreparedStatement statement,
+                Connection connection) {
+            this.pooled = pooled;
+            this.sql = sql;
+            this.statement = statement;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        pooled.recycle(sql, statement);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledStatement[" + statement + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("L'istruzione preparata è già stata chiusa.");
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    private void applyFetchSize(Statement statement) throws SQLException {
+        if (tuning.fetchSize() > 0) {
+            statement.setFetchSize(tuning.fetchSize());
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.debug("Errore durante la chiusura di un'istruzione preparata.", e);
+        }
+    }
+
+    /**
+     * Istantanea delle metriche del pool.
+     *
+     * @param active          connessioni attualmente in uso
+     * @param idle            connessioni inattive disponibili
+     * @param maxSize         dimensione massima del pool
+     * @param borrows         prelievi totali
+     * @param created         connessioni fisiche aperte
+     * @param evicted         connessioni chiuse per inattività
+     * @param invalid         connessioni scartate perché non valide
+     * @param timeouts        prelievi falliti per timeout
+     * @param leaks           connessioni segnalate come possibili leak
+     * @param averageWaitMicros attesa media per prelievo in microsecondi
+     * @param maxWaitMicros   attesa massima per prelievo in microsecondi
+     * @param statementReuses istruzioni preparate riutilizzate
+     */
+    public record Stats(int active, int idle, int maxSize, long borrows, long created, long evicted, long invalid,
+            long timeouts, long leaks, long averageWaitMicros, long maxWaitMicros, long statementReuses) {
+
+        /**
+         * Restituisce una rappresentazione leggibile delle metriche.
+         *
+         * @return le metriche in formato testuale
+         */
+        @Override
+        public String toString() {
+            return "attive=" + active + ", inattive=" + idle + ", max=" + maxSize + ", prelievi=" + borrows
+                    + ", create=" + created + ", scadute=" + evicted + ", non valide=" + invalid
+                    + ", timeout=" + timeouts + ", leak=" + leaks + ", attesa media=" + averageWaitMicros
+                    + " µs, attesa max=" + maxWaitMicros + " µs, istruzioni riutilizzate=" + statementReuses;
+        }
+    }
+}
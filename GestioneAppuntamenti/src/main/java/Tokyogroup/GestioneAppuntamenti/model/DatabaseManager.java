@@ -1,25 +1,101 @@
 package Tokyogroup.GestioneAppuntamenti.model;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
 
-import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 
 /**
  * Classe per la gestione del database.
+ * <p>
+ * La modalità di accesso si sceglie con la proprietà di sistema
+ * {@code appuntamenti.db.mode}:
+ * <ul>
+ * <li>{@code embedded} (predefinita): il database è aperto in esclusiva da
+ * questo processo;</li>
+ * <li>{@code auto}: il primo client che apre il file avvia un server TCP a cui
+ * si collegano gli altri client della stessa rete (H2 AUTO_SERVER);</li>
+ * <li>{@code server}: i client si collegano al server dedicato
+ * {@link DatabaseServer} indicato da {@code appuntamenti.db.server}.</li>
+ * </ul>
+ * Percorso, modalità, impostazioni di H2 e dimensionamento del pool si
+ * leggono da {@link Configuration}.
+ * Nelle modalità condivise le cache locali e il registro delle modifiche sono
+ * disattivati, perché le modifiche degli altri client non passano da questo
+ * processo, e le operazioni sui file del database vanno eseguite sul server.
  */
 public class DatabaseManager {
+    private static final Logger logger = LogManager.getLogger(DatabaseManager.class);
 
-    private static final String DB_PATH = "./resources/data/appointments"; // Percorso del database
-    private static final String DB_URL = "jdbc:h2:file:" + DB_PATH; // Prefisso corretto
-    private static final String USER = "sa";
-    private static final String PASSWORD = "";
+    /**
+     * Modalità di accesso al database.
+     */
+    public enum Mode {
+        /** Database aperto in esclusiva da questo processo. */
+        EMBEDDED,
+        /** File condiviso: il primo processo che lo apre fa da server agli altri. */
+        AUTO_SERVER,
+        /** Database servito da un processo {@link DatabaseServer} dedicato. */
+        SERVER;
+
+        /**
+         * Indica se il database può essere modificato da altri processi.
+         *
+         * @return true se il database è condiviso con altri client
+         */
+        public boolean isShared() {
+            return this != EMBEDDED;
+        }
+
+        /**
+         * Restituisce la modalità corrispondente al valore della proprietà
+         * {@code appuntamenti.db.mode}.
+         *
+         * @param value embedded, auto o server; null per la modalità predefinita
+         * @return la modalità
+         * @throws IllegalArgumentException se il valore non è riconosciuto
+         */
+        public static Mode fromProperty(String value) {
+            if (value == null || value.isBlank()) {
+                return EMBEDDED;
+            }
+            return switch (value.trim().toLowerCase()) {
+                case "embedded" -> EMBEDDED;
+                case "auto" -> AUTO_SERVER;
+                case "server" -> SERVER;
+                default -> throw new IllegalArgumentException("Modalità del database non valida: " + value
+                        + " (valori ammessi: embedded, auto, server)");
+            };
+        }
+    }
+
+    private static final Configuration CONFIG = Configuration.getInstance();
+    private static final String DB_PATH = CONFIG.getDatabasePath();
+    private static final Mode MODE = CONFIG.getMode();
+    private static final String DB_URL = CONFIG.getJdbcUrl();
+    private static final String USER = CONFIG.getUser();
+    private static final String PASSWORD = CONFIG.getPassword();
+    // Tentativi di migrazione quando più client aprono insieme un database condiviso
+    private static final int SHARED_MIGRATION_ATTEMPTS = 3;
+
+    private static volatile ConnectionPool pool;
+
+    // Tempo di prelievo di una connessione dal pool e prelievi falliti
+    private static final MetricsRegistry.Operation GET_CONNECTION = MetricsRegistry.getInstance()
+            .operation("DatabaseManager.getConnection");
+    private static final MetricsRegistry.Counter CONNECTION_FAILURES = MetricsRegistry.getInstance()
+            .counter("DatabaseManager.getConnection.fallite");
 
     /**
      * Costruttore predefinito della classe DatabaseManager.
@@ -30,40 +106,118 @@ public class DatabaseManager {
     }
 
     /**
-     * Ottiene una connessione al database.
+     * Restituisce la modalità di accesso al database.
+     *
+     * @return la modalità configurata con {@code appuntamenti.db.mode}
+     */
+    public static Mode getMode() {
+        return MODE;
+    }
+
+    /**
+     * Ottiene una connessione al database dal pool di connessioni.
+     * La connessione va chiusa al termine dell'utilizzo per restituirla al pool.
+     * Il tempo di prelievo viene registrato in {@link MetricsRegistry}.
      *
      * @return la connessione al database
      * @throws SQLException se si verifica un errore durante la connessione
      */
     public static Connection getConnection() throws SQLException {
-        try {
-            Class.forName("org.h2.Driver");
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("Driver H2 non trovato", e);
+        try (MetricsRegistry.Timer timer = GET_CONNECTION.time()) {
+            ConnectionPool current = pool;
+            if (current == null || current.isClosed()) {
+                current = createPool();
+            }
+            return current.getConnection();
+        } catch (SQLException e) {
+            CONNECTION_FAILURES.increment();
+            throw e;
         }
+    }
+
+    /**
+     * Crea il pool di connessioni se non esiste ancora.
+     *
+     * @return il pool di connessioni attivo
+     * @throws SQLException se il driver H2 non è disponibile
+     */
+    private static synchronized ConnectionPool createPool() throws SQLException {
+        if (pool == null || pool.isClosed()) {
+            try {
+                Class.forName("org.h2.Driver");
+            } catch (ClassNotFoundException e) {
+                throw new SQLException("Driver H2 non trovato", e);
+            }
+
+            if (MODE != Mode.SERVER) {
+                createDatabaseDirectory();
+            }
+
+            pool = new ConnectionPool(DB_URL, USER, PASSWORD, CONFIG.getPoolMaxSize(), CONFIG.getPoolMinIdle(),
+                    CONFIG.getPoolIdleTimeoutMillis(), CONFIG.getPoolBorrowTimeoutMillis(),
+                    CONFIG.getPoolLeakThresholdMillis(), CONFIG.getPoolValidationTimeoutSeconds(),
+                    CONFIG.getPoolTuning());
+            logger.info("Database {} in modalità {}.", DB_URL, MODE);
+        }
+        return pool;
+    }
+
+    /**
+     * Chiude il pool di connessioni e tutte le connessioni inattive.
+     * Il pool viene ricreato automaticamente alla successiva richiesta di
+     * connessione.
+     */
+    public static synchronized void closeConnectionPool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
 
-        createDatabaseDirectory();
+    /**
+     * Restituisce le metriche del pool di connessioni.
+     *
+     * @return le statistiche del pool, o null se il pool non è ancora stato creato
+     */
+    public static ConnectionPool.Stats getConnectionPoolStats() {
+        ConnectionPool current = pool;
+        return current == null ? null : current.getStats();
+    }
 
-        return DriverManager.getConnection(DB_URL, USER, PASSWORD);
+    /**
+     * Restituisce il percorso assoluto del database, senza estensione.
+     *
+     * @return il percorso del database
+     */
+    static Path getDatabasePath() {
+        return Path.of(DB_PATH).toAbsolutePath().normalize();
     }
 
     /**
      * Crea la directory del database se non esiste.
      */
     private static void createDatabaseDirectory() {
-        File directory = new File("./resources/data");
+        File directory = new File(DB_PATH).getAbsoluteFile().getParentFile();
         if (!directory.exists() && !directory.mkdirs()) {
             throw new RuntimeException(
                     "Impossibile creare la directory del database in " + directory.getAbsolutePath());
         }
     }
     /**
-     * Cancella i file del database appointments.
-     * Se i file non esistono, non fa nulla.
+     * Cancella i file del database appointments e svuota il registro delle
+     * modifiche. Se i file non esistono, non fa nulla.
+     * Il pool di connessioni viene chiuso e le cache in memoria svuotate prima
+     * della cancellazione.
      *
-     * @throws IOException se si verifica un errore durante la cancellazione dei file
+     * @throws IOException se si verifica un errore durante la cancellazione dei
+     *                     file o il database è condiviso
      */
     public static void deleteDatabaseFiles() throws IOException {
+        requireExclusiveAccess();
+        closeConnectionPool();
+        clearCaches();
+        ChangeJournal.getInstance().clear();
+
         File dbFile = new File(DB_PATH + ".mv.db");
         File traceFile = new File(DB_PATH + ".trace.db");
 
@@ -76,143 +230,166 @@ public class DatabaseManager {
         }
     }
     /**
-     * Inizializza il database creando le tabelle necessarie.
+     * Inizializza il database applicando le migrazioni dello schema mancanti.
+     * Su un database esistente vengono applicate solo le versioni non ancora
+     * registrate nella tabella {@code schema_version}, senza perdita di dati.
+     * Su un database condiviso la migrazione viene ritentata se fallisce, perché
+     * un altro client può applicare la stessa versione nello stesso momento.
      *
      * @throws SQLException se si verifica un errore durante l'inizializzazione
      */
     public static void initializeDatabase() throws SQLException {
-        String[] tableCreationQueries = {
-                """
-                        CREATE TABLE IF NOT EXISTS Users (
-                            id INT AUTO_INCREMENT PRIMARY KEY,
-                            username VARCHAR(255) UNIQUE NOT NULL,
-                            password VARCHAR(255) NOT NULL,
-                            accountType ENUM('CLIENTE', 'GESTORE') NOT NULL,
-                            isActive BOOLEAN DEFAULT TRUE
-                        );
-                        """,
-                """
-                        CREATE TABLE IF NOT EXISTS Appointments (
-                            id INT AUTO_INCREMENT PRIMARY KEY,
-                            clientId INT NOT NULL,
-                            hairdresserId INT NOT NULL,
-                            appointmentDate DATETIME NOT NULL,
-                            status ENUM('VALIDA', 'CANCELLATA', 'ESEGUITA') NOT NULL DEFAULT 'VALIDA',
-                            FOREIGN KEY (clientId) REFERENCES Users(id) ON DELETE CASCADE,
-                            FOREIGN KEY (hairdresserId) REFERENCES Users(id) ON DELETE CASCADE
-                        );
-                        """,
-                """
-                        CREATE TABLE IF NOT EXISTS Services (
-                            id INT AUTO_INCREMENT PRIMARY KEY,
-                            name VARCHAR(255) UNIQUE NOT NULL,
-                            price DECIMAL(10, 2) NOT NULL
-                        );
-                        """,
-                """
-                        CREATE TABLE IF NOT EXISTS HairdresserServices (
-                            hairdresserId INT NOT NULL,
-                            serviceId INT NOT NULL,
-                            PRIMARY KEY (hairdresserId, serviceId),
-                            FOREIGN KEY (hairdresserId) REFERENCES Users(id) ON DELETE CASCADE,
-                            FOREIGN KEY (serviceId) REFERENCES Services(id)
-                        );
-                        """,
-                """
-                        CREATE TABLE IF NOT EXISTS AppointmentServices (
-                            appointmentId INT NOT NULL,
-                            serviceId INT NOT NULL,
-                            PRIMARY KEY (appointmentId, serviceId),
-                            FOREIGN KEY (appointmentId) REFERENCES Appointments(id) ON DELETE CASCADE,
-                            FOREIGN KEY (serviceId) REFERENCES Services(id)
-                        );
-                        """,
-                """
-                        CREATE TABLE IF NOT EXISTS Messages (
-                            id INT AUTO_INCREMENT PRIMARY KEY,
-                            senderId INT NOT NULL,
-                            receiverId INT NOT NULL,
-                            messageText TEXT NOT NULL,
-                            status ENUM('LETTO', 'NON LETTO') NOT NULL DEFAULT 'NON LETTO',
-                            sentDate DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
-                            FOREIGN KEY (senderId) REFERENCES Users(id) ON DELETE CASCADE,
-                            FOREIGN KEY (receiverId) REFERENCES Users(id)
-                        );
-                        """
-        };
-
-        try (Connection connection = getConnection();
-                Statement stmt = connection.createStatement()) {
-            for (String query : tableCreationQueries) {
-                stmt.execute(query);
+        int attempts = MODE.isShared() ? SHARED_MIGRATION_ATTEMPTS : 1;
+        for (int attempt = 1;; attempt++) {
+            try (Connection connection = getConnection()) {
+                new SchemaMigrator().migrate(connection);
+                return;
+            } catch (SQLException e) {
+                if (attempt >= attempts) {
+                    throw new SQLException("Errore durante l'inizializzazione del database", e);
+                }
+                logger.warn("Migrazione dello schema non riuscita (tentativo {} di {}), nuovo tentativo: {}",
+                        attempt, attempts, e.getMessage());
+                try {
+                    Thread.sleep(500L * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Inizializzazione del database interrotta", interrupted);
+                }
             }
-        } catch (SQLException e) {
-            throw new SQLException("Errore durante l'inizializzazione del database", e);
         }
     }
 
     /**
      * Aggiorna gli appuntamenti passati impostando lo stato a 'ESEGUITA'.
+     * L'aggiornamento avviene in lotti tramite {@link PastAppointmentsScheduler},
+     * che di norma lo esegue periodicamente in background.
      *
      * @throws SQLException se si verifica un errore durante l'aggiornamento
      */
     public static void updatePastAppointments() throws SQLException {
-        String query = """
-                    UPDATE Appointments
-                    SET status = 'ESEGUITA'
-                    WHERE appointmentDate < NOW() AND status NOT IN ('CANCELLATA', 'ESEGUITA');
-                """;
-
-        try (Connection connection = getConnection();
-                PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.executeUpdate();
+        try {
+            PastAppointmentsScheduler.getInstance().runOnce();
         } catch (SQLException e) {
             throw new SQLException("Errore durante l'aggiornamento degli appuntamenti passati", e);
         }
     }
 
     /**
-     * Crea una copia del database attuale chiamandola DatabaseBackup.
-     * Se esiste già un database di backup, lo sovrascrive.
-     * Se non esiste un database originale, ritorna errore.
+     * Esegue un backup del database tramite {@link BackupManager}, senza chiudere
+     * le connessioni in uso. Se il database non esiste ancora non fa nulla.
+     * Dal registro delle modifiche vengono eliminate le voci già contenute in
+     * tutti i backup conservati.
      *
-     * @throws IOException se si verifica un errore durante il backup del database
+     * @throws IOException se si verifica un errore durante il backup del
+     *                     database o il database è condiviso
      */
     public static void backupDatabase() throws IOException {
-        File originalDb = new File(DB_PATH + ".mv.db");
-        File originalTrace = new File(DB_PATH + ".trace.db");
-        File backupDb = new File("./resources/data/DatabaseBackup.mv.db");
-        File backupTrace = new File("./resources/data/DatabaseBackup.trace.db");
-
-        // Controllo se i file originali esistono
-        if (originalDb.exists()) {
-            FileUtils.copyFile(originalDb, backupDb);
-        }
-        if (originalTrace.exists()) {
-            FileUtils.copyFile(originalTrace, backupTrace);
+        requireExclusiveAccess();
+        if (!new File(DB_PATH + ".mv.db").exists()) {
+            logger.warn("Backup non eseguito: il database {} non esiste.", getDatabasePath());
+            return;
         }
+        BackupManager backups = BackupManager.getInstance();
+        backups.backup();
+
+        List<Path> kept = backups.listBackups();
+        ChangeJournal.getInstance().discardBefore(BackupManager.backupTime(kept.get(kept.size() - 1)));
     }
 
     /**
-     * Sovrascrive il database attuale con il database di backup.
-     * Se non esiste un database di backup, ritorna errore.
-     * Se esiste già un database originale, lo sovrascrive.
+     * Sostituisce il database attuale con il backup più recente di
+     * {@link BackupManager}, dopo averne verificato l'integrità.
+     * Se non esiste un backup, non fa nulla.
      *
-     * @throws IOException se si verifica un errore durante il ripristino del database
+     * @throws IOException se il backup non è valido o il ripristino fallisce
      */
     public static void restoreDatabase() throws IOException {
-        File backupDb = new File("./resources/data/DatabaseBackup.mv.db");
-        File backupTrace = new File("./resources/data/DatabaseBackup.trace.db");
-        File originalDb = new File(DB_PATH + ".mv.db");
-        File originalTrace = new File(DB_PATH + ".trace.db");
-
-        // Controllo se i file di backup esistono
-        if (backupDb.exists()) {
-            FileUtils.copyFile(backupDb, originalDb);
+        List<Path> backups = BackupManager.getInstance().listBackups();
+        if (backups.isEmpty()) {
+            logger.warn("Nessun backup da ripristinare.");
+            return;
         }
-        if (backupTrace.exists()) {
-            FileUtils.copyFile(backupTrace, originalTrace);
+        restoreDatabase(BackupManager.backupTime(backups.get(0)));
+    }
+
+    /**
+     * Riporta il database allo stato dell'istante indicato: ripristina il backup
+     * più recente eseguito non oltre quell'istante, lo aggiorna allo schema
+     * attuale e vi applica, in ordine, le modifiche del registro confermate
+     * fino all'istante stesso. Le voci successive vengono eliminate dal
+     * registro, perché non fanno più parte della storia del database.
+     *
+     * @param pointInTime istante da ripristinare
+     * @throws IOException se non esiste un backup adatto, il ripristino fallisce
+     *                     o il database è condiviso
+     */
+    public static void restoreDatabase(LocalDateTime pointInTime) throws IOException {
+        requireExclusiveAccess();
+        BackupManager backups = BackupManager.getInstance();
+        ChangeJournal journal = ChangeJournal.getInstance();
+        Path backup = backups.findLatestBackup(pointInTime)
+                .orElseThrow(() -> new IOException("Nessun backup precedente al " + pointInTime));
+
+        journal.flush();
+        backups.restore(backup);
+        try (Connection conn = getConnection()) {
+            // Le voci del registro seguono lo schema attuale, che un backup meno
+            // recente potrebbe non avere ancora
+            new SchemaMigrator().migrate(conn);
+            journal.replay(conn, BackupManager.backupTime(backup), pointInTime);
+        } catch (SQLException e) {
+            throw new IOException("Errore durante l'applicazione del registro delle modifiche.", e);
+        } finally {
+            clearCaches();
         }
+        journal.discardAfter(pointInTime);
+    }
 
+    /**
+     * Sostituisce il file del database con un file già verificato.
+     * Il pool di connessioni viene chiuso e il database arrestato, così anche le
+     * connessioni ancora in uso vengono invalidate; finché la sostituzione non è
+     * completata non possono essere create nuove connessioni. Le cache in memoria
+     * vengono svuotate.
+     *
+     * @param replacement file MVStore che sostituisce il database
+     * @throws IOException se la sostituzione fallisce
+     */
+    static synchronized void replaceDatabaseFile(Path replacement) throws IOException {
+        requireExclusiveAccess();
+        closeConnectionPool();
+        try (Connection conn = DriverManager.getConnection(DB_URL + ";IFEXISTS=TRUE", USER, PASSWORD);
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        } catch (SQLException e) {
+            // Il database non esiste o è già chiuso
+            logger.debug("Arresto del database prima del ripristino non eseguito: {}", e.getMessage());
+        }
+
+        Files.move(replacement, Path.of(DB_PATH + ".mv.db"), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        clearCaches();
+    }
+
+    /**
+     * Verifica che il database sia aperto in esclusiva: backup, ripristino e
+     * cancellazione agiscono sui file e vanno eseguiti dal processo che li apre.
+     */
+    private static void requireExclusiveAccess() throws IOException {
+        if (MODE.isShared()) {
+            throw new IOException("Operazione non disponibile in modalità condivisa (" + MODE
+                    + "): eseguirla sul server del database.");
+        }
+    }
+
+    /**
+     * Svuota le cache in memoria costruite sul contenuto del database.
+     */
+    private static void clearCaches() {
+        AvailabilityIndex.getInstance().invalidateAll();
+        ServiceCatalog.getInstance().invalidate();
+        ScheduleCalendar.getInstance().invalidate();
+        PastAppointmentsScheduler.getInstance().resetHighWaterMark();
     }
 }
@@ -0,0 +1,84 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.h2.tools.Server;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Server TCP dedicato del database, per più postazioni che condividono gli
+ * stessi appuntamenti.
+ * <p>
+ * Il server apre il database in modalità embedded, applica le migrazioni,
+ * esegue un backup e lo rende disponibile in rete ai client avviati con
+ * {@code appuntamenti.db.mode=server} e {@code appuntamenti.db.server=host:porta}.
+ * Il percorso del database si sceglie con {@code appuntamenti.db.path} e la
+ * porta con {@code appuntamenti.db.port} (predefinita {@value #DEFAULT_PORT}),
+ * come le altre chiavi di {@link Configuration}.
+ * Backup e ripristino vanno eseguiti in questo processo, l'unico che apre i
+ * file del database.
+ */
+public final class DatabaseServer {
+    private static final Logger logger = LogManager.getLogger(DatabaseServer.class);
+
+    /** Porta TCP predefinita del server. */
+    public static final int DEFAULT_PORT = 9092;
+
+    private DatabaseServer() {
+        // Solo metodi statici
+    }
+
+    /**
+     * Avvia il server TCP sulla porta indicata per il database configurato in
+     * questo processo. Sono raggiungibili solo i database esistenti nella
+     * directory del database.
+     *
+     * @param port       porta TCP, 0 per una porta libera qualsiasi
+     * @param allowOthers true per accettare connessioni da altri computer
+     * @return il server avviato
+     * @throws SQLException se l'apertura del database o l'avvio del server
+     *                      falliscono
+     */
+    public static Server start(int port, boolean allowOthers) throws SQLException {
+        if (DatabaseManager.getMode() != DatabaseManager.Mode.EMBEDDED) {
+            throw new IllegalStateException("Il server del database richiede la modalità embedded, non "
+                    + DatabaseManager.getMode());
+        }
+        DatabaseManager.initializeDatabase();
+
+        String baseDir = DatabaseManager.getDatabasePath().getParent().toString();
+        Server server = allowOthers
+                ? Server.createTcpServer("-tcpPort", String.valueOf(port), "-tcpAllowOthers", "-ifExists",
+                        "-baseDir", baseDir)
+                : Server.createTcpServer("-tcpPort", String.valueOf(port), "-ifExists", "-baseDir", baseDir);
+        server.start();
+        logger.info("Server del database {} in ascolto su {}.", DatabaseManager.getDatabasePath(), server.getURL());
+        return server;
+    }
+
+    /**
+     * Avvia il server da riga di comando, dopo un backup del database, e lo
+     * arresta alla chiusura del processo.
+     *
+     * @param args non utilizzati
+     * @throws SQLException se l'avvio del server fallisce
+     */
+    public static void main(String[] args) throws SQLException {
+        int port = Configuration.getInstance().getServerPort();
+        DatabaseManager.initializeDatabase();
+        try {
+            DatabaseManager.backupDatabase();
+        } catch (IOException e) {
+            logger.warn("Backup all'avvio del server non riuscito.", e);
+        }
+
+        Server server = start(port, true);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            DatabaseManager.closeConnectionPool();
+            logger.info("Server del database arrestato.");
+        }, "arresto-server-database"));
+    }
+}
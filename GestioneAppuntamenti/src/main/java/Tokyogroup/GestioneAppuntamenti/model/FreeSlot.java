@@ -0,0 +1,13 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Orario libero trovato dalla ricerca delle prime disponibilità.
+ *
+ * @param hairdresserId   ID del parrucchiere
+ * @param hairdresserName nome del parrucchiere
+ * @param start           data e ora di inizio
+ */
+public record FreeSlot(int hairdresserId, String hairdresserName, LocalDateTime start) {
+}
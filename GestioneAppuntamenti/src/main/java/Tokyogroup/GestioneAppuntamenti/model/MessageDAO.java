@@ -40,22 +40,24 @@ public class MessageDAO {
      * @return una lista di oggetti User rappresentanti i gestori attivi.
      */
     public List<User> getManagers() {
-        String query = "SELECT id, username, password FROM Users WHERE accountType = 'GESTORE' AND isActive = true";
-        List<User> managers = new ArrayList<>();
+        return MetricsRegistry.timed("MessageDAO.getManagers", () -> {
+            String query = "SELECT id, username, password FROM Users WHERE accountType = 'GESTORE' AND isActive = true";
+            List<User> managers = new ArrayList<>();
 
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query);
-                ResultSet rs = stmt.executeQuery()) {
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query);
+                    ResultSet rs = stmt.executeQuery()) {
 
-            while (rs.next()) {
-                managers.add(
-                        new User(rs.getInt("id"), rs.getString("username"), rs.getString("password"), "GESTORE", true));
+                while (rs.next()) {
+                    managers.add(
+                            new User(rs.getInt("id"), rs.getString("username"), rs.getString("password"), "GESTORE", true));
+                }
+            } catch (Exception e) {
+                throw new RuntimeException("Errore durante il caricamento dei gestori.", e);
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Errore durante il caricamento dei gestori.", e);
-        }
 
-        return managers;
+            return managers;
+        });
     }
 
     /**
@@ -68,18 +70,20 @@ public class MessageDAO {
      * @throws Exception se si verifica un errore durante l'inserimento.
      */
     public boolean addMessage(int senderId, int receiverId, String messageText) throws Exception {
-        String query = "INSERT INTO Messages (senderId, receiverId, messageText, status) VALUES (?, ?, ?, 'NON LETTO')";
+        return MetricsRegistry.timed("MessageDAO.addMessage", () -> {
+            String query = "INSERT INTO Messages (senderId, receiverId, messageText, status) VALUES (?, ?, ?, 'NON LETTO')";
 
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query)) {
 
-            stmt.setInt(1, senderId);
-            stmt.setInt(2, receiverId);
-            stmt.setString(3, messageText);
+                stmt.setInt(1, senderId);
+                stmt.setInt(2, receiverId);
+                stmt.setString(3, messageText);
 
-            boolean result = stmt.executeUpdate() > 0;
-            return result;
-        }
+                boolean result = stmt.executeUpdate() > 0;
+                return result;
+            }
+        });
     }
 
     /**
@@ -89,40 +93,42 @@ public class MessageDAO {
      * @return una lista di oggetti Message rappresentanti i messaggi non letti.
      */
     public List<Message> getUnreadMessages(int managerId) {
-        String query = """
-                SELECT m.id,
-                       m.senderId,
-                       u.username AS senderUsername,
-                       m.sentDate,
-                       m.messageText
-                FROM Messages m
-                JOIN Users u ON m.senderId = u.id
-                WHERE m.receiverId = ? AND m.status = 'NON LETTO'
-                """;
-
-        List<Message> messages = new ArrayList<>();
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, managerId);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    messages.add(new Message(
-                            rs.getInt("id"), // ID Messaggio
-                            rs.getInt("senderId"), // ID Mittente
-                            rs.getString("senderUsername"), // Nome Utente Mittente
-                            rs.getString("sentDate"), // Data Invio
-                            rs.getString("messageText"), // Messaggio
-                            "NON LETTO" // Stato Messaggio
-                    ));
+        return MetricsRegistry.timed("MessageDAO.getUnreadMessages", () -> {
+            String query = """
+                    SELECT m.id,
+                           m.senderId,
+                           u.username AS senderUsername,
+                           m.sentDate,
+                           m.messageText
+                    FROM Messages m
+                    JOIN Users u ON m.senderId = u.id
+                    WHERE m.receiverId = ? AND m.status = 'NON LETTO'
+                    """;
+
+            List<Message> messages = new ArrayList<>();
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query)) {
+
+                stmt.setInt(1, managerId);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        messages.add(new Message(
+                                rs.getInt("id"), // ID Messaggio
+                                rs.getInt("senderId"), // ID Mittente
+                                rs.getString("senderUsername"), // Nome Utente Mittente
+                                rs.getString("sentDate"), // Data Invio
+                                rs.getString("messageText"), // Messaggio
+                                "NON LETTO" // Stato Messaggio
+                        ));
+                    }
                 }
+            } catch (Exception e) {
+                throw new RuntimeException("Errore durante il caricamento dei messaggi non letti.", e);
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Errore durante il caricamento dei messaggi non letti.", e);
-        }
 
-        return messages;
+            return messages;
+        });
     }
 
     /**
@@ -133,16 +139,18 @@ public class MessageDAO {
      * @return true se l'aggiornamento è avvenuto con successo, false altrimenti.
      */
     public boolean updateMessageStatus(int messageId, String status) {
-        String query = "UPDATE Messages SET status = ? WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, status);
-            stmt.setInt(2, messageId);
-            boolean result = stmt.executeUpdate() > 0;
-            return result;
-        } catch (Exception e) {
-            throw new RuntimeException("Errore durante l'aggiornamento dello stato del messaggio.", e);
-        }
+        return MetricsRegistry.timed("MessageDAO.updateMessageStatus", () -> {
+            String query = "UPDATE Messages SET status = ? WHERE id = ?";
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query)) {
+
+                stmt.setString(1, status);
+                stmt.setInt(2, messageId);
+                boolean result = stmt.executeUpdate() > 0;
+                return result;
+            } catch (Exception e) {
+                throw new RuntimeException("Errore durante l'aggiornamento dello stato del messaggio.", e);
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,428 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registro delle metriche dei percorsi critici: tempi di esecuzione dei metodi
+ * dei DAO e del prelievo delle connessioni, più alcuni contatori.
+ * <p>
+ * Ogni operazione registra la propria latenza in microsecondi in un
+ * istogramma HdrHistogram ({@link Recorder}), senza lock sul thread
+ * chiamante; operazioni e contatori vengono esportati via JMX nel dominio
+ * {@value #JMX_DOMAIN}. Se avviato con {@link #startSnapshots()}, il
+ * registro scrive periodicamente nel log p50, p99 e massimo delle operazioni
+ * eseguite nell'intervallo. Senza operazioni in corso il costo è nullo: le
+ * registrazioni avvengono solo durante le chiamate e il riepilogo di un
+ * intervallo senza attività non produce righe di log.
+ * <p>
+ * Utilizzo tipico in un DAO, con l'operazione registrata per nome alla prima
+ * chiamata:
+ *
+ * <pre>
+ * public List&lt;User&gt; getClients() throws SQLException {
+ *     return MetricsRegistry.timed("AppointmentDAO.getClients", () -&gt; {
+ *         ...
+ *     });
+ * }
+ * </pre>
+ */
+public class MetricsRegistry {
+    private static final Logger logger = LogManager.getLogger(MetricsRegistry.class);
+
+    /** Dominio JMX delle metriche. */
+    public static final String JMX_DOMAIN = "Tokyogroup.GestioneAppuntamenti";
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    // Cercate per nome a ogni chiamata di timed(), ordinate solo nel riepilogo
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final MBeanServer mbeanServer;
+    private ScheduledExecutorService snapshots; // Protetto da this
+
+    /**
+     * Crea un registro che esporta le metriche sul server JMX indicato.
+     *
+     * @param mbeanServer server JMX, o null per non esportare le metriche
+     */
+    MetricsRegistry(MBeanServer mbeanServer) {
+        this.mbeanServer = mbeanServer;
+    }
+
+    /**
+     * Istanza singleton, creata al primo accesso senza sincronizzare le
+     * chiamate successive.
+     */
+    private static final class Holder {
+        static final MetricsRegistry INSTANCE = new MetricsRegistry(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Restituisce l'istanza singleton, che esporta le metriche sul server JMX
+     * della piattaforma.
+     *
+     * @return l'istanza singleton di MetricsRegistry
+     */
+    public static MetricsRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Corpo di un'operazione misurata che restituisce un risultato.
+     *
+     * @param <T> tipo del risultato
+     * @param <E> eccezione controllata sollevata dal corpo
+     */
+    @FunctionalInterface
+    public interface SqlSupplier<T, E extends Exception> {
+
+        /**
+         * @return il risultato dell'operazione
+         * @throws E se l'operazione fallisce
+         */
+        T get() throws E;
+    }
+
+    /**
+     * Corpo di un'operazione misurata senza risultato.
+     *
+     * @param <E> eccezione controllata sollevata dal corpo
+     */
+    @FunctionalInterface
+    public interface SqlRunnable<E extends Exception> {
+
+        /**
+         * @throws E se l'operazione fallisce
+         */
+        void run() throws E;
+    }
+
+    /**
+     * Esegue il corpo registrandone la durata nell'operazione con il nome
+     * indicato, creata alla prima chiamata. La durata viene registrata anche
+     * se il corpo solleva un'eccezione.
+     *
+     * @param <T>  tipo del risultato
+     * @param <E>  eccezione controllata sollevata dal corpo
+     * @param name nome dell'operazione, nella forma Classe.metodo
+     * @param body corpo dell'operazione
+     * @return il risultato del corpo
+     * @throws E se il corpo solleva l'eccezione
+     */
+    public static <T, E extends Exception> T timed(String name, SqlSupplier<T, E> body) throws E {
+        try (Timer timer = getInstance().operation(name).time()) {
+            return body.get();
+        }
+    }
+
+    /**
+     * Esegue il corpo registrandone la durata nell'operazione con il nome
+     * indicato, creata alla prima chiamata.
+     *
+     * @param <E>  eccezione controllata sollevata dal corpo
+     * @param name nome dell'operazione, nella forma Classe.metodo
+     * @param body corpo dell'operazione
+     * @throws E se il corpo solleva l'eccezione
+     */
+    public static <E extends Exception> void timed(String name, SqlRunnable<E> body) throws E {
+        try (Timer timer = getInstance().operation(name).time()) {
+            body.run();
+        }
+    }
+
+    /**
+     * Attributi JMX di un'operazione, calcolati dall'avvio dell'applicazione.
+     */
+    public interface OperationMXBean {
+
+        /**
+         * @return numero di esecuzioni
+         */
+        long getCount();
+
+        /**
+         * @return latenza media in microsecondi
+         */
+        double getMeanMicros();
+
+        /**
+         * @return mediana della latenza in microsecondi
+         */
+        long getP50Micros();
+
+        /**
+         * @return 99° percentile della latenza in microsecondi
+         */
+        long getP99Micros();
+
+        /**
+         * @return latenza massima in microsecondi
+         */
+        long getMaxMicros();
+    }
+
+    /**
+     * Attributi JMX di un contatore.
+     */
+    public interface CounterMXBean {
+
+        /**
+         * @return valore del contatore
+         */
+        long getValue();
+    }
+
+    /**
+     * Riepilogo delle latenze di un'operazione.
+     *
+     * @param count      numero di esecuzioni
+     * @param meanMicros latenza media in microsecondi
+     * @param p50Micros  mediana in microsecondi
+     * @param p99Micros  99° percentile in microsecondi
+     * @param maxMicros  massimo in microsecondi
+     */
+    public record Summary(long count, double meanMicros, long p50Micros, long p99Micros, long maxMicros) {
+
+        private static Summary of(Histogram histogram) {
+            return new Summary(histogram.getTotalCount(), histogram.getMean(),
+                    histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+                    histogram.getMaxValue());
+        }
+    }
+
+    /**
+     * Misura in corso di un'operazione, da chiudere al termine dell'operazione.
+     */
+    public static final class Timer implements AutoCloseable {
+        private final Recorder recorder;
+        private final long startNanos = System.nanoTime();
+
+        private Timer(Recorder recorder) {
+            this.recorder = recorder;
+        }
+
+        /**
+         * Registra la durata dell'operazione.
+         */
+        @Override
+        public void close() {
+            recorder.recordValue((System.nanoTime() - startNanos) / 1_000);
+        }
+    }
+
+    /**
+     * Operazione di cui vengono misurate le latenze.
+     */
+    public static final class Operation implements OperationMXBean {
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        // Istogrammi protetti da this; il Recorder accetta registrazioni concorrenti senza lock
+        private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        private final Histogram interval = new Histogram(SIGNIFICANT_DIGITS);
+        private Histogram recycled;
+
+        private Operation() {
+        }
+
+        /**
+         * Inizia la misura di un'esecuzione dell'operazione.
+         *
+         * @return la misura, da chiudere al termine dell'esecuzione
+         */
+        public Timer time() {
+            return new Timer(recorder);
+        }
+
+        /**
+         * Restituisce il riepilogo delle latenze dall'avvio dell'applicazione.
+         *
+         * @return il riepilogo delle latenze
+         */
+        public synchronized Summary getSummary() {
+            drain();
+            return Summary.of(total);
+        }
+
+        /**
+         * Restituisce il riepilogo delle latenze dalla chiamata precedente e
+         * azzera l'intervallo.
+         *
+         * @return il riepilogo delle latenze dell'intervallo
+         */
+        synchronized Summary takeInterval() {
+            drain();
+            Summary summary = Summary.of(interval);
+            interval.reset();
+            return summary;
+        }
+
+        private void drain() {
+            recycled = recorder.getIntervalHistogram(recycled);
+            total.add(recycled);
+            interval.add(recycled);
+        }
+
+        @Override
+        public long getCount() {
+            return getSummary().count();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return getSummary().meanMicros();
+        }
+
+        @Override
+        public long getP50Micros() {
+            return getSummary().p50Micros();
+        }
+
+        @Override
+        public long getP99Micros() {
+            return getSummary().p99Micros();
+        }
+
+        @Override
+        public long getMaxMicros() {
+            return getSummary().maxMicros();
+        }
+    }
+
+    /**
+     * Contatore di eventi.
+     */
+    public static final class Counter implements CounterMXBean {
+        private final LongAdder value = new LongAdder();
+
+        private Counter() {
+        }
+
+        /**
+         * Incrementa il contatore di uno.
+         */
+        public void increment() {
+            value.increment();
+        }
+
+        @Override
+        public long getValue() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Restituisce l'operazione con il nome indicato, creandola ed esportandola
+     * via JMX alla prima richiesta.
+     *
+     * @param name nome dell'operazione, nella forma Classe.metodo
+     * @return l'operazione
+     */
+    public Operation operation(String name) {
+        Operation operation = operations.get(name);
+        if (operation != null) {
+            return operation;
+        }
+        return operations.computeIfAbsent(name, key -> register("Operazioni", key, new Operation()));
+    }
+
+    /**
+     * Restituisce il contatore con il nome indicato, creandolo ed esportandolo
+     * via JMX alla prima richiesta.
+     *
+     * @param name nome del contatore
+     * @return il contatore
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> register("Contatori", key, new Counter()));
+    }
+
+    /**
+     * Avvia la scrittura periodica nel log del riepilogo delle operazioni. Le
+     * chiamate successive alla prima non hanno effetto.
+     */
+    public synchronized void startSnapshots() {
+        if (snapshots != null) {
+            return;
+        }
+        long seconds = Configuration.getInstance().getMetricsIntervalSeconds();
+        snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "riepilogo-metriche");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshots.scheduleAtFixedRate(this::logSnapshot, seconds, seconds, TimeUnit.SECONDS);
+        logger.info("Riepilogo delle metriche nel log ogni {} secondi.", seconds);
+    }
+
+    /**
+     * Arresta la scrittura periodica del riepilogo.
+     */
+    public synchronized void stopSnapshots() {
+        if (snapshots != null) {
+            snapshots.shutdownNow();
+            snapshots = null;
+        }
+    }
+
+    /**
+     * Scrive nel log il riepilogo delle operazioni eseguite dall'ultimo
+     * riepilogo e il valore dei contatori. Se non è stata eseguita alcuna
+     * operazione non scrive nulla.
+     *
+     * @return le righe del riepilogo, vuote se non è stata eseguita alcuna
+     *         operazione
+     */
+    List<String> logSnapshot() {
+        List<String> lines = new ArrayList<>();
+        new TreeMap<>(operations).forEach((name, operation) -> {
+            Summary summary = operation.takeInterval();
+            if (summary.count() > 0) {
+                lines.add(String.format("%-52s %8d %10d %10d %10d", name, summary.count(), summary.p50Micros(),
+                        summary.p99Micros(), summary.maxMicros()));
+            }
+        });
+        if (lines.isEmpty()) {
+            return lines;
+        }
+        counters.forEach((name, counter) -> lines.add(String.format("%-52s %8d", name, counter.getValue())));
+
+        StringBuilder snapshot = new StringBuilder(String.format(
+                "Metriche dell'intervallo (latenze in microsecondi):%n  %-52s %8s %10s %10s %10s",
+                "operazione", "chiamate", "p50", "p99", "max"));
+        for (String line : lines) {
+            snapshot.append(String.format("%n  ")).append(line);
+        }
+        logger.info(snapshot);
+        return lines;
+    }
+
+    private <T> T register(String type, String name, T metric) {
+        if (mbeanServer != null) {
+            try {
+                mbeanServer.registerMBean(metric,
+                        new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name)));
+            } catch (JMException e) {
+                logger.warn("Esportazione JMX della metrica {} fallita.", name, e);
+            }
+        }
+        return metric;
+    }
+}
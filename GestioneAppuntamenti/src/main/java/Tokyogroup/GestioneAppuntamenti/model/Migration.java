@@ -0,0 +1,101 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Singola migrazione dello schema del database.
+ * <p>
+ * Una migrazione è identificata da un numero di versione crescente ed è
+ * composta da una sequenza ordinata di istruzioni SQL. Il checksum delle
+ * istruzioni viene salvato nella tabella {@code schema_version} per
+ * riconoscere le migrazioni modificate dopo essere state applicate.
+ * <p>
+ * Una migrazione può avere un controllo preliminare, eseguito nella stessa
+ * transazione prima delle istruzioni, che la interrompe se i dati presenti
+ * non permettono di applicarla. Il controllo non fa parte del checksum.
+ *
+ * @param version      numero di versione (positivo e univoco)
+ * @param description  descrizione della migrazione
+ * @param statements   istruzioni SQL da eseguire in ordine
+ * @param precondition controllo eseguito prima delle istruzioni, o null
+ */
+public record Migration(int version, String description, List<String> statements, Precondition precondition) {
+
+    /**
+     * Controllo dei dati eseguito prima delle istruzioni di una migrazione.
+     */
+    @FunctionalInterface
+    public interface Precondition {
+
+        /**
+         * Verifica che la migrazione possa essere applicata ai dati presenti.
+         *
+         * @param conn connessione al database, nella transazione della
+         *             migrazione
+         * @throws SQLException se la migrazione non può essere applicata
+         */
+        void check(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Costruttore che valida la migrazione.
+     *
+     * @param version      numero di versione
+     * @param description  descrizione della migrazione
+     * @param statements   istruzioni SQL da eseguire in ordine
+     * @param precondition controllo eseguito prima delle istruzioni, o null
+     * @throws IllegalArgumentException se la versione non è positiva o non ci sono
+     *                                  istruzioni
+     */
+    public Migration {
+        if (version <= 0) {
+            throw new IllegalArgumentException("La versione della migrazione deve essere positiva: " + version);
+        }
+        if (statements == null || statements.isEmpty()) {
+            throw new IllegalArgumentException("La migrazione " + version + " non contiene istruzioni.");
+        }
+        statements = List.copyOf(statements);
+    }
+
+    /**
+     * Crea una migrazione a partire da una lista variabile di istruzioni.
+     *
+     * @param version     numero di versione
+     * @param description descrizione della migrazione
+     * @param statements  istruzioni SQL da eseguire in ordine
+     * @return la migrazione
+     */
+    public static Migration of(int version, String description, String... statements) {
+        return new Migration(version, description, List.of(statements), null);
+    }
+
+    /**
+     * Restituisce la stessa migrazione con il controllo preliminare indicato.
+     *
+     * @param precondition controllo eseguito prima delle istruzioni
+     * @return la migrazione con il controllo
+     */
+    public Migration withPrecondition(Precondition precondition) {
+        return new Migration(version, description, statements, precondition);
+    }
+
+    /**
+     * Calcola il checksum CRC32 delle istruzioni, ignorando le differenze di fine
+     * riga e gli spazi iniziali e finali.
+     *
+     * @return il checksum della migrazione
+     */
+    public long checksum() {
+        CRC32 crc = new CRC32();
+        for (String statement : statements) {
+            String normalized = statement.replace("\r\n", "\n").strip();
+            crc.update(normalized.getBytes(StandardCharsets.UTF_8));
+            crc.update('\n');
+        }
+        return crc.getValue();
+    }
+}
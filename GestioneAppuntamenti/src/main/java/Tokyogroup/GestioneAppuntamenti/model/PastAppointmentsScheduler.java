@@ -0,0 +1,283 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggiornamento periodico in background degli appuntamenti passati.
+ * <p>
+ * Gli appuntamenti validi con data passata vengono impostati a 'ESEGUITA' in
+ * lotti di dimensione limitata, ciascuno nella propria transazione, così
+ * l'aggiornamento non blocca a lungo la tabella. Ogni esecuzione legge solo
+ * l'intervallo di date [high-water mark, adesso) tramite l'indice
+ * (status, appointmentDate); al termine l'high-water mark avanza fino
+ * all'istante dell'esecuzione, meno un piccolo margine per le prenotazioni
+ * confermate a cavallo di due esecuzioni. Il riepilogo settimanale viene
+ * aggiornato allo stesso modo dopo gli appuntamenti.
+ */
+public class PastAppointmentsScheduler {
+    private static final Logger logger = LogManager.getLogger(PastAppointmentsScheduler.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final long DEFAULT_PERIOD_SECONDS = 60;
+
+    // Margine sottratto all'high-water mark a ogni esecuzione
+    private static final Duration HIGH_WATER_MARK_OVERLAP = Duration.ofMinutes(5);
+
+    static final String OLDEST_VALID_QUERY = """
+            SELECT MIN(appointmentDate) AS oldest
+            FROM Appointments
+            WHERE status = 'VALIDA';
+            """;
+
+    static final String UPDATE_BATCH_QUERY = """
+            UPDATE Appointments
+            SET status = 'ESEGUITA'
+            WHERE status = 'VALIDA'
+            AND appointmentDate >= ? AND appointmentDate < ?
+            FETCH FIRST ? ROWS ONLY;
+            """;
+
+    // Stesso aggiornamento sul riepilogo settimanale, tramite (status, appointmentDate)
+    static final String UPDATE_SUMMARY_BATCH_QUERY = """
+            UPDATE WeeklySummary
+            SET status = 'ESEGUITA'
+            WHERE status = 'VALIDA'
+            AND appointmentDate >= ? AND appointmentDate < ?
+            FETCH FIRST ? ROWS ONLY;
+            """;
+
+    // Istanza singleton
+    private static final PastAppointmentsScheduler instance = new PastAppointmentsScheduler(DEFAULT_BATCH_SIZE);
+
+    private final int batchSize;
+    private final Object runLock = new Object();
+    private LocalDateTime highWaterMark; // Protetto da runLock
+    private ScheduledExecutorService executor; // Protetto da this
+    private volatile RunReport lastReport;
+
+    /**
+     * Esito di un'esecuzione dell'aggiornamento.
+     *
+     * @param rowsProcessed  numero di appuntamenti impostati a 'ESEGUITA'
+     * @param batches        numero di lotti eseguiti
+     * @param durationMillis durata dell'esecuzione in millisecondi
+     * @param highWaterMark  high-water mark dopo l'esecuzione
+     */
+    public record RunReport(int rowsProcessed, int batches, long durationMillis, LocalDateTime highWaterMark) {
+    }
+
+    /**
+     * Crea un aggiornamento con la dimensione dei lotti indicata.
+     *
+     * @param batchSize numero massimo di appuntamenti aggiornati per transazione
+     * @throws IllegalArgumentException se la dimensione non è positiva
+     */
+    PastAppointmentsScheduler(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("La dimensione dei lotti deve essere positiva.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Restituisce l'istanza singleton.
+     *
+     * @return l'istanza dell'aggiornamento periodico
+     */
+    public static PastAppointmentsScheduler getInstance() {
+        return instance;
+    }
+
+    /**
+     * Avvia l'aggiornamento periodico: la prima esecuzione parte subito, le
+     * successive ogni {@value #DEFAULT_PERIOD_SECONDS} secondi.
+     */
+    public void start() {
+        start(0, DEFAULT_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Avvia l'aggiornamento periodico su un thread daemon dedicato. Se è già
+     * avviato non fa nulla.
+     *
+     * @param initialDelay ritardo della prima esecuzione
+     * @param period       intervallo tra la fine di un'esecuzione e l'inizio
+     *                     della successiva
+     * @param unit         unità di misura di ritardo e intervallo
+     */
+    public synchronized void start(long initialDelay, long period, TimeUnit unit) {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "aggiornamento-appuntamenti-passati");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runSafely, initialDelay, period, unit);
+        logger.info("Aggiornamento periodico degli appuntamenti passati avviato (ogni {} {}).", period,
+                unit.toString().toLowerCase());
+    }
+
+    /**
+     * Arresta l'aggiornamento periodico, attendendo il termine dell'esecuzione
+     * in corso.
+     */
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+        logger.info("Aggiornamento periodico degli appuntamenti passati arrestato.");
+    }
+
+    /**
+     * Indica se l'aggiornamento periodico è avviato.
+     *
+     * @return true se avviato, false altrimenti
+     */
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * Restituisce l'esito dell'ultima esecuzione.
+     *
+     * @return l'esito, o null se non è ancora stata eseguita
+     */
+    public RunReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Azzera l'high-water mark, così la prossima esecuzione considera di nuovo
+     * tutti gli appuntamenti validi. Va chiamato quando il contenuto del
+     * database viene sostituito.
+     */
+    public void resetHighWaterMark() {
+        synchronized (runLock) {
+            highWaterMark = null;
+        }
+    }
+
+    /**
+     * Esegue subito un aggiornamento degli appuntamenti passati.
+     *
+     * @return l'esito dell'esecuzione
+     * @throws SQLException se si verifica un errore durante l'aggiornamento
+     */
+    public RunReport runOnce() throws SQLException {
+        return runOnce(LocalDateTime.now());
+    }
+
+    /**
+     * Esegue un aggiornamento considerando passati gli appuntamenti precedenti a
+     * {@code now}.
+     *
+     * @param now istante di riferimento
+     * @return l'esito dell'esecuzione
+     * @throws SQLException se si verifica un errore durante l'aggiornamento
+     */
+    RunReport runOnce(LocalDateTime now) throws SQLException {
+        synchronized (runLock) {
+            long start = System.nanoTime();
+            int rows = 0;
+            int batches = 0;
+
+            try (Connection conn = DatabaseManager.getConnection()) {
+                LocalDateTime from = highWaterMark != null ? highWaterMark : findOldestValid(conn);
+                if (from != null && from.isBefore(now)) {
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_BATCH_QUERY)) {
+                        stmt.setTimestamp(1, Timestamp.valueOf(from));
+                        stmt.setTimestamp(2, Timestamp.valueOf(now));
+                        stmt.setInt(3, batchSize);
+
+                        int updated;
+                        do {
+                            updated = stmt.executeUpdate();
+                            rows += updated;
+                            batches++;
+                        } while (updated == batchSize);
+                    }
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SUMMARY_BATCH_QUERY)) {
+                        stmt.setTimestamp(1, Timestamp.valueOf(from));
+                        stmt.setTimestamp(2, Timestamp.valueOf(now));
+                        stmt.setInt(3, batchSize);
+                        while (stmt.executeUpdate() == batchSize) {
+                            // Un lotto per transazione, come per gli appuntamenti
+                        }
+                    }
+                }
+            }
+
+            if (rows > 0) {
+                AvailabilityIndex.getInstance().invalidateAll();
+            }
+            LocalDateTime mark = now.minus(HIGH_WATER_MARK_OVERLAP);
+            if (highWaterMark == null || mark.isAfter(highWaterMark)) {
+                highWaterMark = mark;
+            }
+
+            RunReport report = new RunReport(rows, batches, (System.nanoTime() - start) / 1_000_000, highWaterMark);
+            lastReport = report;
+            if (rows > 0) {
+                logger.info("Aggiornati {} appuntamenti passati in {} lotti ({} ms).", rows, batches,
+                        report.durationMillis());
+            } else {
+                logger.debug("Nessun appuntamento passato da aggiornare ({} ms).", report.durationMillis());
+            }
+            return report;
+        }
+    }
+
+    /**
+     * Trova la data dell'appuntamento valido meno recente.
+     *
+     * @param conn connessione al database
+     * @return la data, o null se non ci sono appuntamenti validi
+     * @throws SQLException se si verifica un errore durante l'interrogazione
+     */
+    private static LocalDateTime findOldestValid(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(OLDEST_VALID_QUERY);
+                ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                Timestamp oldest = rs.getTimestamp("oldest");
+                return oldest != null ? oldest.toLocalDateTime() : null;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Esegue un aggiornamento dal thread periodico, registrando gli errori
+     * invece di propagarli, che interromperebbero le esecuzioni successive.
+     */
+    private void runSafely() {
+        try {
+            runOnce();
+        } catch (SQLException | RuntimeException e) {
+            logger.error("Aggiornamento degli appuntamenti passati fallito.", e);
+        }
+    }
+}
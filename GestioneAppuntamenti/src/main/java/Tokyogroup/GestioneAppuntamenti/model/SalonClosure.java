@@ -0,0 +1,12 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import java.time.LocalDate;
+
+/**
+ * Giorno di chiusura dell'intero negozio, ad esempio una festività.
+ *
+ * @param date   giorno di chiusura
+ * @param reason motivo, o null
+ */
+public record SalonClosure(LocalDate date, String reason) {
+}
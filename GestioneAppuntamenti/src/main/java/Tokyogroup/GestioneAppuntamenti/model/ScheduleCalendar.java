@@ -0,0 +1,237 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calendario precalcolato degli orari di lavoro.
+ * <p>
+ * Orari settimanali, eccezioni dei parrucchieri e chiusure del negozio vengono
+ * letti dal database alla prima richiesta e trasformati in insiemi di bit dei
+ * quarti d'ora di lavoro, con la stessa granularità di {@link AvailabilityIndex}:
+ * uno per ogni giorno della settimana di ogni parrucchiere e uno per ogni
+ * giorno con eccezioni. La disponibilità di un giorno si ottiene quindi con
+ * una sola ricerca, senza valutare le regole a ogni richiesta. Il calendario
+ * resta valido fino a quando un'operazione di scrittura sugli orari lo
+ * invalida.
+ * <p>
+ * Un parrucchiere senza orario settimanale lavora tutti i giorni dalle 9:00
+ * alle 18:00, come prima che gli orari fossero configurabili.
+ */
+public class ScheduleCalendar {
+
+    // Istanza singleton, disattivata se il database è condiviso con altri client
+    private static final ScheduleCalendar instance = new ScheduleCalendar(!DatabaseManager.getMode().isShared());
+
+    // Giornata predefinita: dalle 9:00 alle 18:00
+    private static final BitSet DEFAULT_DAY = AvailabilityIndex.DEFAULT_OPEN_SLOTS;
+
+    // Giornata di chiusura
+    private static final BitSet CLOSED_DAY = new BitSet(AvailabilityIndex.SLOTS_PER_DAY);
+
+    private final boolean enabled;
+
+    private volatile Calendar calendar;
+    private final AtomicLong version = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Caricatore del calendario, usato in caso di cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Carica orari, eccezioni e chiusure dal database.
+         *
+         * @return il calendario
+         * @throws SQLException se si verifica un errore di accesso al database
+         */
+        Calendar load() throws SQLException;
+    }
+
+    /**
+     * Costruttore del calendario.
+     */
+    ScheduleCalendar() {
+        this(true);
+    }
+
+    /**
+     * Costruttore del calendario. Un calendario disattivato viene caricato a
+     * ogni richiesta: serve quando altri processi possono modificare gli orari.
+     *
+     * @param enabled false per non memorizzare il calendario
+     */
+    ScheduleCalendar(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Restituisce l'istanza singleton del calendario.
+     *
+     * @return l'istanza del calendario
+     */
+    public static ScheduleCalendar getInstance() {
+        return instance;
+    }
+
+    /**
+     * Restituisce il calendario, caricandolo con il caricatore indicato se non
+     * è presente in memoria.
+     *
+     * @param loader caricatore da usare in caso di cache miss
+     * @return il calendario
+     * @throws SQLException se il caricamento dal database fallisce
+     */
+    public Calendar get(Loader loader) throws SQLException {
+        if (!enabled) {
+            misses.increment();
+            return loader.load();
+        }
+        Calendar cached = calendar;
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        long loadedVersion = version.get();
+        Calendar loaded = loader.load();
+        // Un calendario letto mentre veniva invalidato potrebbe non contenere
+        // la modifica: lo restituisce senza memorizzarlo.
+        synchronized (this) {
+            if (version.get() == loadedVersion) {
+                calendar = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Invalida il calendario, che verrà ricaricato alla richiesta successiva.
+     */
+    public synchronized void invalidate() {
+        version.incrementAndGet();
+        calendar = null;
+    }
+
+    /**
+     * Restituisce il numero di richieste servite dalla cache.
+     *
+     * @return il numero di cache hit
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Restituisce il numero di richieste che hanno richiesto un caricamento.
+     *
+     * @return il numero di cache miss
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Istantanea immutabile del calendario, con i quarti d'ora di lavoro già
+     * calcolati.
+     */
+    public static final class Calendar {
+        private final Map<Integer, BitSet[]> weeks;
+        private final Map<Integer, Map<LocalDate, BitSet>> exceptionDays;
+        private final Set<LocalDate> closures;
+
+        /**
+         * Calcola il calendario dalle regole.
+         *
+         * @param intervals  fasce di lavoro degli orari settimanali
+         * @param exceptions eccezioni dei parrucchieri
+         * @param closures   chiusure del negozio
+         */
+        Calendar(List<WorkingInterval> intervals, List<ScheduleException> exceptions, List<SalonClosure> closures) {
+            Map<Integer, BitSet[]> byHairdresser = new HashMap<>();
+            for (WorkingInterval interval : intervals) {
+                BitSet[] week = byHairdresser.computeIfAbsent(interval.hairdresserId(), id -> newWeek());
+                week[interval.dayOfWeek().getValue()].set(AvailabilityIndex.slotOf(interval.start()),
+                        AvailabilityIndex.slotOf(interval.end()));
+            }
+
+            // Le fasce in più si applicano prima delle assenze dello stesso giorno
+            Map<Integer, Map<LocalDate, BitSet>> days = new HashMap<>();
+            for (boolean available : new boolean[] { true, false }) {
+                for (ScheduleException exception : exceptions) {
+                    if (exception.available() != available) {
+                        continue;
+                    }
+                    BitSet[] week = byHairdresser.get(exception.hairdresserId());
+                    BitSet day = days.computeIfAbsent(exception.hairdresserId(), id -> new HashMap<>())
+                            .computeIfAbsent(exception.date(), date -> (BitSet) (week == null ? DEFAULT_DAY
+                                    : week[date.getDayOfWeek().getValue()]).clone());
+                    int from = exception.isWholeDay() ? 0 : AvailabilityIndex.slotOf(exception.start());
+                    int to = exception.isWholeDay() ? AvailabilityIndex.SLOTS_PER_DAY
+                            : AvailabilityIndex.slotOf(exception.end());
+                    day.set(from, to, available);
+                }
+            }
+
+            Set<LocalDate> closed = new HashSet<>();
+            for (SalonClosure closure : closures) {
+                closed.add(closure.date());
+            }
+            this.weeks = Collections.unmodifiableMap(byHairdresser);
+            this.exceptionDays = Collections.unmodifiableMap(days);
+            this.closures = Collections.unmodifiableSet(closed);
+        }
+
+        /**
+         * Restituisce i quarti d'ora di lavoro di un parrucchiere in un giorno.
+         *
+         * @param hairdresserId ID del parrucchiere
+         * @param date          il giorno
+         * @return insieme di bit in cui il bit q indica che il parrucchiere
+         *         lavora nel quarto d'ora q (da non modificare)
+         */
+        public BitSet openSlots(int hairdresserId, LocalDate date) {
+            if (closures.contains(date)) {
+                return CLOSED_DAY;
+            }
+            Map<LocalDate, BitSet> days = exceptionDays.get(hairdresserId);
+            BitSet day = days == null ? null : days.get(date);
+            if (day != null) {
+                return day;
+            }
+            BitSet[] week = weeks.get(hairdresserId);
+            return week == null ? DEFAULT_DAY : week[date.getDayOfWeek().getValue()];
+        }
+
+        /**
+         * Indica se il negozio è chiuso in un giorno.
+         *
+         * @param date il giorno
+         * @return true se il giorno è una chiusura del negozio
+         */
+        public boolean isClosed(LocalDate date) {
+            return closures.contains(date);
+        }
+
+        private static BitSet[] newWeek() {
+            // Indicizzato con DayOfWeek.getValue(), da 1 (lunedì) a 7 (domenica)
+            BitSet[] week = new BitSet[8];
+            for (int day = 0; day < week.length; day++) {
+                week[day] = new BitSet(AvailabilityIndex.SLOTS_PER_DAY);
+            }
+            return week;
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Classe DAO per la gestione degli orari di lavoro: fasce settimanali dei
+ * parrucchieri, eccezioni in giorni specifici e chiusure del negozio.
+ * <p>
+ * Le regole vengono lette tramite {@link ScheduleCalendar}, che le trasforma
+ * in quarti d'ora di lavoro; ogni modifica invalida il calendario.
+ */
+public class ScheduleDAO {
+
+    /**
+     * Costruttore predefinito della classe ScheduleDAO.
+     */
+    public ScheduleDAO() {
+        // Costruttore vuoto
+    }
+
+    // Calendario precalcolato, condiviso da tutte le istanze
+    private final ScheduleCalendar calendar = ScheduleCalendar.getInstance();
+
+    // Registro delle modifiche per il ripristino a un istante preciso
+    private final ChangeJournal journal = ChangeJournal.getInstance();
+
+    // Inserimenti con ID esplicito, registrati nel registro delle modifiche
+    static final String JOURNAL_WORKING_HOURS_QUERY = """
+            INSERT INTO WorkingHours (id, hairdresserId, dayOfWeek, startTime, endTime) VALUES (?, ?, ?, ?, ?)
+            """;
+    static final String JOURNAL_EXCEPTION_QUERY = """
+            INSERT INTO ScheduleExceptions (id, hairdresserId, exceptionDate, startTime, endTime, available, reason)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    /**
+     * Restituisce il calendario precalcolato, caricandolo dal database se non è
+     * in memoria.
+     *
+     * @return il calendario
+     */
+    public ScheduleCalendar.Calendar getCalendar() {
+        return MetricsRegistry.timed("ScheduleDAO.getCalendar", () -> {
+            try {
+                return calendar.get(this::loadCalendar);
+            } catch (SQLException e) {
+                throw new RuntimeException("Errore durante il caricamento degli orari di lavoro.", e);
+            }
+        });
+    }
+
+    /**
+     * Restituisce i quarti d'ora di lavoro di un parrucchiere in un giorno.
+     *
+     * @param hairdresserId ID del parrucchiere
+     * @param date          il giorno
+     * @return insieme di bit dei quarti d'ora di lavoro (da non modificare)
+     */
+    public BitSet getOpenSlots(int hairdresserId, LocalDate date) {
+        return getCalendar().openSlots(hairdresserId, date);
+    }
+
+    /**
+     * Carica orari settimanali, eccezioni e chiusure. Le eccezioni e le
+     * chiusure dei giorni passati non servono alle prenotazioni e non vengono
+     * caricate.
+     *
+     * @return il calendario
+     * @throws SQLException se si verifica un errore durante l'interrogazione del
+     *                      database
+     */
+    private ScheduleCalendar.Calendar loadCalendar() throws SQLException {
+        LocalDate today = LocalDate.now();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            List<WorkingInterval> intervals = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery(
+                            "SELECT id, hairdresserId, dayOfWeek, startTime, endTime FROM WorkingHours")) {
+                while (rs.next()) {
+                    intervals.add(mapWorkingInterval(rs));
+                }
+            }
+
+            List<ScheduleException> exceptions = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement("""
+                    SELECT id, hairdresserId, exceptionDate, startTime, endTime, available, reason
+                    FROM ScheduleExceptions
+                    WHERE exceptionDate >= ?
+                    """)) {
+                stmt.setDate(1, Date.valueOf(today));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        exceptions.add(mapException(rs));
+                    }
+                }
+            }
+
+            List<SalonClosure> closures = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT closureDate, reason FROM SalonClosures WHERE closureDate >= ?")) {
+                stmt.setDate(1, Date.valueOf(today));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        closures.add(new SalonClosure(rs.getDate("closureDate").toLocalDate(), rs.getString("reason")));
+                    }
+                }
+            }
+            return new ScheduleCalendar.Calendar(intervals, exceptions, closures);
+        }
+    }
+
+    /**
+     * Recupera l'orario settimanale di un parrucchiere.
+     *
+     * @param hairdresserId ID del parrucchiere
+     * @return le fasce di lavoro, ordinate per giorno e ora di inizio; vuota se
+     *         il parrucchiere segue l'orario predefinito
+     */
+    public List<WorkingInterval> getWorkingHours(int hairdresserId) {
+        return MetricsRegistry.timed("ScheduleDAO.getWorkingHours", () -> {
+            String query = """
+                    SELECT id, hairdresserId, dayOfWeek, startTime, endTime
+                    FROM WorkingHours
+                    WHERE hairdresserId = ?
+                    ORDER BY dayOfWeek, startTime
+                    """;
+            List<WorkingInterval> intervals = new ArrayList<>();
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query)) {
+                stmt.setInt(1, hairdresserId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        intervals.add(mapWorkingInterval(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(
+                        "Errore durante il recupero dell'orario del parrucchiere con ID: " + hairdresserId, e);
+            }
+            return intervals;
+        });
+    }
+
+    /**
+     * Aggiunge una fascia di lavoro all'orario settimanale di un parrucchiere.
+     * Il primo inserimento sostituisce l'orario predefinito dalle 9:00 alle
+     * 18:00: da quel momento il parrucchiere lavora solo nelle fasce indicate.
+     *
+     * @param hairdresserId ID del parrucchiere
+     * @param dayOfWeek     giorno della settimana
+     * @param start         inizio della fascia, allineato al quarto d'ora
+     * @param end           fine della fascia, allineata al quarto d'ora
+     * @return ID della fascia aggiunta
+     * @throws IllegalArgumentException se la fascia non è valida
+     */
+    public int addWorkingInterval(int hairdresserId, DayOfWeek dayOfWeek, LocalTime start, LocalTime end) {
+        return MetricsRegistry.timed("ScheduleDAO.addWorkingInterval", () -> {
+            checkInterval(start, end);
+            String query = "INSERT INTO WorkingHours (hairdresserId, dayOfWeek, startTime, endTime) VALUES (?, ?, ?, ?)";
+
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                conn.setAutoCommit(false);
+                stmt.setInt(1, hairdresserId);
+                stmt.setInt(2, dayOfWeek.getValue());
+                stmt.setTime(3, Time.valueOf(start));
+                stmt.setTime(4, Time.valueOf(end));
+                stmt.executeUpdate();
+
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Errore durante l'aggiunta della fascia di lavoro: ID non generato.");
+                    }
+                    int id = generatedKeys.getInt(1);
+                    journal.commit(conn, JOURNAL_WORKING_HOURS_QUERY, id, hairdresserId, dayOfWeek.getValue(),
+                            start.toString(), end.toString());
+                    calendar.invalidate();
+                    return id;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(
+                        "Errore durante l'aggiunta della fascia di lavoro per il parrucchiere con ID: " + hairdresserId,
+                        e);
+            }
+        });
+    }
+
+    /**
+     * Rimuove una fascia di lavoro dall'orario settimanale di un parrucchiere.
+     *
+     * @param hairdresserId ID del parrucchiere
+     * @param intervalId    ID della fascia
+     * @return true se la fascia è stata rimossa, false se non esiste o
+     *         appartiene a un altro parrucchiere
+     */
+    public boolean removeWorkingInterval(int hairdresserId, int intervalId) {
+        return MetricsRegistry.timed("ScheduleDAO.removeWorkingInterval", () -> {
+            return delete("DELETE FROM WorkingHours WHERE id = ? AND hairdresserId = ?", intervalId, hairdresserId,
+                    "Errore durante la rimozione della fascia di lavoro con ID: " + intervalId);
+        });
+    }
+
+    /**
+     * Recupera le eccezioni all'orario di un parrucchiere da oggi in poi.
+     *
+     * @param hairdresserId ID del parrucchiere
+     * @return le eccezioni, ordinate per giorno e ora di inizio
+     */
+    public List<ScheduleException> getExceptions(int hairdresserId) {
+        return MetricsRegistry.timed("ScheduleDAO.getExceptions", () -> {
+            String query = """
+                    SELECT id, hairdresserId, exceptionDate, startTime, endTime, available, reason
+                    FROM ScheduleExceptions
+                    WHERE hairdresserId = ? AND exceptionDate >= ?
+                    ORDER BY exceptionDate, startTime NULLS FIRST
+                    """;
+            List<ScheduleException> exceptions = new ArrayList<>();
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query)) {
+                stmt.setInt(1, hairdresserId);
+                stmt.setDate(2, Date.valueOf(LocalDate.now()));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        exceptions.add(mapException(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(
+                        "Errore durante il recupero delle eccezioni del parrucchiere con ID: " + hairdresserId, e);
+            }
+            return exceptions;
+        });
+    }
+
+    /**
+     * Aggiunge un'eccezione all'orario di un parrucchiere in un giorno: un'assenza
+     * o una fascia di lavoro in più. Gli appuntamenti già prenotati non vengono
+     * modificati.
+     *
+     * @param hairdresserId ID del parrucchiere
+     * @param date          il giorno
+     * @param start         inizio della fascia, null per tutto il giorno
+     * @param end           fine della fascia, null per tutto il giorno
+     * @param available     true per una fascia di lavoro in più, false per
+     *                      un'assenza
+     * @param reason        motivo, può essere null
+     * @return ID dell'eccezione aggiunta
+     * @throws IllegalArgumentException se la fascia non è valida
+     */
+    public int addException(int hairdresserId, LocalDate date, LocalTime start, LocalTime end, boolean available,
+            String reason) {
+        return MetricsRegistry.timed("ScheduleDAO.addException", () -> {
+            if ((start == null) != (end == null)) {
+                throw new IllegalArgumentException("Indicare sia l'inizio sia la fine della fascia, o nessuno dei due.");
+            }
+            if (start != null) {
+                checkInterval(start, end);
+            }
+            String query = """
+                    INSERT INTO ScheduleExceptions (hairdresserId, exceptionDate, startTime, endTime, available, reason)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    """;
+
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                conn.setAutoCommit(false);
+                stmt.setInt(1, hairdresserId);
+                stmt.setDate(2, Date.valueOf(date));
+                stmt.setTime(3, start == null ? null : Time.valueOf(start));
+                stmt.setTime(4, end == null ? null : Time.valueOf(end));
+                stmt.setBoolean(5, available);
+                stmt.setString(6, reason);
+                stmt.executeUpdate();
+
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Errore durante l'aggiunta dell'eccezione: ID non generato.");
+                    }
+                    int id = generatedKeys.getInt(1);
+                    journal.commit(conn, JOURNAL_EXCEPTION_QUERY, id, hairdresserId, date.toString(),
+                            start == null ? null : start.toString(), end == null ? null : end.toString(), available,
+                            reason);
+                    calendar.invalidate();
+                    return id;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(
+                        "Errore durante l'aggiunta dell'eccezione per il parrucchiere con ID: " + hairdresserId, e);
+            }
+        });
+    }
+
+    /**
+     * Rimuove un'eccezione all'orario di un parrucchiere.
+     *
+     * @param hairdresserId ID del parrucchiere
+     * @param exceptionId   ID dell'eccezione
+     * @return true se l'eccezione è stata rimossa, false se non esiste o
+     *         appartiene a un altro parrucchiere
+     */
+    public boolean removeException(int hairdresserId, int exceptionId) {
+        return MetricsRegistry.timed("ScheduleDAO.removeException", () -> {
+            return delete("DELETE FROM ScheduleExceptions WHERE id = ? AND hairdresserId = ?", exceptionId,
+                    hairdresserId,
+                    "Errore durante la rimozione dell'eccezione con ID: " + exceptionId);
+        });
+    }
+
+    /**
+     * Recupera le chiusure del negozio da oggi in poi.
+     *
+     * @return le chiusure, ordinate per giorno
+     */
+    public List<SalonClosure> getClosures() {
+        return MetricsRegistry.timed("ScheduleDAO.getClosures", () -> {
+            String query = "SELECT closureDate, reason FROM SalonClosures WHERE closureDate >= ? ORDER BY closureDate";
+            List<SalonClosure> closures = new ArrayList<>();
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query)) {
+                stmt.setDate(1, Date.valueOf(LocalDate.now()));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        closures.add(new SalonClosure(rs.getDate("closureDate").toLocalDate(), rs.getString("reason")));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Errore durante il recupero delle chiusure del negozio.", e);
+            }
+            return closures;
+        });
+    }
+
+    /**
+     * Aggiunge un giorno di chiusura del negozio. Gli appuntamenti già
+     * prenotati non vengono modificati.
+     *
+     * @param date   il giorno
+     * @param reason motivo, può essere null
+     * @return true se la chiusura è stata aggiunta, false se il giorno era già
+     *         chiuso
+     */
+    public boolean addClosure(LocalDate date, String reason) {
+        return MetricsRegistry.timed("ScheduleDAO.addClosure", () -> {
+            String query = "INSERT INTO SalonClosures (closureDate, reason) VALUES (?, ?)";
+
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query)) {
+                conn.setAutoCommit(false);
+                stmt.setDate(1, Date.valueOf(date));
+                stmt.setString(2, reason);
+                stmt.executeUpdate();
+                journal.commit(conn, query, date.toString(), reason);
+                calendar.invalidate();
+                return true;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                return false;
+            } catch (SQLException e) {
+                throw new RuntimeException("Errore durante l'aggiunta della chiusura del " + date, e);
+            }
+        });
+    }
+
+    /**
+     * Rimuove un giorno di chiusura del negozio.
+     *
+     * @param date il giorno
+     * @return true se la chiusura è stata rimossa
+     */
+    public boolean removeClosure(LocalDate date) {
+        return MetricsRegistry.timed("ScheduleDAO.removeClosure", () -> {
+            String query = "DELETE FROM SalonClosures WHERE closureDate = ?";
+
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query)) {
+                conn.setAutoCommit(false);
+                stmt.setDate(1, Date.valueOf(date));
+                boolean removed = stmt.executeUpdate() > 0;
+                if (removed) {
+                    journal.commit(conn, query, date.toString());
+                    calendar.invalidate();
+                }
+                return removed;
+            } catch (SQLException e) {
+                throw new RuntimeException("Errore durante la rimozione della chiusura del " + date, e);
+            }
+        });
+    }
+
+    /**
+     * Verifica che una fascia oraria sia allineata ai quarti d'ora e non vuota.
+     *
+     * @throws IllegalArgumentException se la fascia non è valida
+     */
+    private static void checkInterval(LocalTime start, LocalTime end) {
+        if (start == null || end == null) {
+            throw new IllegalArgumentException("La fascia oraria deve avere un inizio e una fine.");
+        }
+        AvailabilityIndex.slotOf(start);
+        AvailabilityIndex.slotOf(end);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("L'inizio della fascia deve precedere la fine: " + start + "-" + end);
+        }
+    }
+
+    private boolean delete(String query, int id, int hairdresserId, String errorMessage) {
+        try (Connection conn = DatabaseManager.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(query)) {
+            conn.setAutoCommit(false);
+            stmt.setInt(1, id);
+            stmt.setInt(2, hairdresserId);
+            boolean removed = stmt.executeUpdate() > 0;
+            if (removed) {
+                journal.commit(conn, query, id, hairdresserId);
+                calendar.invalidate();
+            }
+            return removed;
+        } catch (SQLException e) {
+            throw new RuntimeException(errorMessage, e);
+        }
+    }
+
+    private static WorkingInterval mapWorkingInterval(ResultSet rs) throws SQLException {
+        return new WorkingInterval(
+                rs.getInt("id"),
+                rs.getInt("hairdresserId"),
+                DayOfWeek.of(rs.getInt("dayOfWeek")),
+                rs.getTime("startTime").toLocalTime(),
+                rs.getTime("endTime").toLocalTime());
+    }
+
+    private static ScheduleException mapException(ResultSet rs) throws SQLException {
+        Time start = rs.getTime("startTime");
+        Time end = rs.getTime("endTime");
+        return new ScheduleException(
+                rs.getInt("id"),
+                rs.getInt("hairdresserId"),
+                rs.getDate("exceptionDate").toLocalDate(),
+                start == null ? null : start.toLocalTime(),
+                end == null ? null : end.toLocalTime(),
+                rs.getBoolean("available"),
+                rs.getString("reason"));
+    }
+}
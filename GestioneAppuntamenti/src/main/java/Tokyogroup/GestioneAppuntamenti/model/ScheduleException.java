@@ -0,0 +1,31 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Eccezione all'orario settimanale di un parrucchiere in un giorno preciso:
+ * un'assenza (ferie, permesso) o una fascia di lavoro in più.
+ *
+ * @param id            ID dell'eccezione
+ * @param hairdresserId ID del parrucchiere
+ * @param date          giorno dell'eccezione
+ * @param start         inizio dell'intervallo, o null per l'intera giornata
+ * @param end           fine dell'intervallo (esclusa), o null per l'intera
+ *                      giornata
+ * @param available     true per una fascia di lavoro in più, false per
+ *                      un'assenza
+ * @param reason        motivo, o null
+ */
+public record ScheduleException(int id, int hairdresserId, LocalDate date, LocalTime start, LocalTime end,
+        boolean available, String reason) {
+
+    /**
+     * Indica se l'eccezione riguarda l'intera giornata.
+     *
+     * @return true se non è indicato un intervallo
+     */
+    public boolean isWholeDay() {
+        return start == null;
+    }
+}
@@ -0,0 +1,423 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Esegue le migrazioni versionate dello schema del database.
+ * <p>
+ * Le versioni applicate vengono registrate nella tabella
+ * {@code schema_version} insieme al checksum delle istruzioni. A ogni avvio
+ * vengono applicate in ordine solo le migrazioni mancanti; se una migrazione
+ * già applicata risulta modificata l'avvio viene interrotto.
+ * <p>
+ * Le istruzioni DDL di H2 eseguono un commit implicito, quindi ogni istruzione
+ * deve poter essere rieseguita senza errori (ad esempio con
+ * {@code IF NOT EXISTS}) nel caso in cui una migrazione venga interrotta a
+ * metà.
+ */
+public class SchemaMigrator {
+    private static final Logger logger = LogManager.getLogger(SchemaMigrator.class);
+
+    /**
+     * Migrazioni dello schema, in ordine di versione.
+     */
+    private static final List<Migration> MIGRATIONS = List.of(
+            Migration.of(1, "Tabelle iniziali",
+                    """
+                            CREATE TABLE IF NOT EXISTS Users (
+                                id INT AUTO_INCREMENT PRIMARY KEY,
+                                username VARCHAR(255) UNIQUE NOT NULL,
+                                password VARCHAR(255) NOT NULL,
+                                accountType ENUM('CLIENTE', 'GESTORE') NOT NULL,
+                                isActive BOOLEAN DEFAULT TRUE
+                            );
+                            """,
+                    """
+                            CREATE TABLE IF NOT EXISTS Appointments (
+                                id INT AUTO_INCREMENT PRIMARY KEY,
+                                clientId INT NOT NULL,
+                                hairdresserId INT NOT NULL,
+                                appointmentDate DATETIME NOT NULL,
+                                status ENUM('VALIDA', 'CANCELLATA', 'ESEGUITA') NOT NULL DEFAULT 'VALIDA',
+                                FOREIGN KEY (clientId) REFERENCES Users(id) ON DELETE CASCADE,
+                                FOREIGN KEY (hairdresserId) REFERENCES Users(id) ON DELETE CASCADE
+                            );
+                            """,
+                    """
+                            CREATE TABLE IF NOT EXISTS Services (
+                                id INT AUTO_INCREMENT PRIMARY KEY,
+                                name VARCHAR(255) UNIQUE NOT NULL,
+                                price DECIMAL(10, 2) NOT NULL
+                            );
+                            """,
+                    """
+                            CREATE TABLE IF NOT EXISTS HairdresserServices (
+                                hairdresserId INT NOT NULL,
+                                serviceId INT NOT NULL,
+                                PRIMARY KEY (hairdresserId, serviceId),
+                                FOREIGN KEY (hairdresserId) REFERENCES Users(id) ON DELETE CASCADE,
+                                FOREIGN KEY (serviceId) REFERENCES Services(id)
+                            );
+                            """,
+                    """
+                            CREATE TABLE IF NOT EXISTS AppointmentServices (
+                                appointmentId INT NOT NULL,
+                                serviceId INT NOT NULL,
+                                PRIMARY KEY (appointmentId, serviceId),
+                                FOREIGN KEY (appointmentId) REFERENCES Appointments(id) ON DELETE CASCADE,
+                                FOREIGN KEY (serviceId) REFERENCES Services(id)
+                            );
+                            """,
+                    """
+                            CREATE TABLE IF NOT EXISTS Messages (
+                                id INT AUTO_INCREMENT PRIMARY KEY,
+                                senderId INT NOT NULL,
+                                receiverId INT NOT NULL,
+                                messageText TEXT NOT NULL,
+                                status ENUM('LETTO', 'NON LETTO') NOT NULL DEFAULT 'NON LETTO',
+                                sentDate DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                FOREIGN KEY (senderId) REFERENCES Users(id) ON DELETE CASCADE,
+                                FOREIGN KEY (receiverId) REFERENCES Users(id)
+                            );
+                            """),
+            Migration.of(2, "Indici per le interrogazioni dei DAO",
+                    """
+                            CREATE INDEX IF NOT EXISTS idx_appointments_hairdresser_date_status
+                            ON Appointments (hairdresserId, appointmentDate, status);
+                            """,
+                    """
+                            CREATE INDEX IF NOT EXISTS idx_appointments_client_status
+                            ON Appointments (clientId, status);
+                            """,
+                    """
+                            CREATE INDEX IF NOT EXISTS idx_messages_receiver_status
+                            ON Messages (receiverId, status);
+                            """,
+                    """
+                            CREATE INDEX IF NOT EXISTS idx_users_accounttype_active
+                            ON Users (accountType, isActive);
+                            """),
+            Migration.of(3, "Unicità degli appuntamenti validi per parrucchiere e orario",
+                    // Vale solo per gli appuntamenti validi: negli altri casi è NULL e non partecipa al vincolo
+                    """
+                            ALTER TABLE Appointments ADD COLUMN IF NOT EXISTS validSlot DATETIME
+                            GENERATED ALWAYS AS (CASE WHEN status = 'VALIDA' THEN appointmentDate END);
+                            """,
+                    """
+                            CREATE UNIQUE INDEX IF NOT EXISTS uq_appointments_hairdresser_valid_slot
+                            ON Appointments (hairdresserId, validSlot);
+                            """).withPrecondition(SchemaMigrator::rejectDuplicateValidAppointments),
+            Migration.of(4, "Indice per l'aggiornamento degli appuntamenti passati",
+                    // Permette di scorrere gli appuntamenti validi per intervallo di data, per tutti i parrucchieri
+                    """
+                            CREATE INDEX IF NOT EXISTS idx_appointments_status_date
+                            ON Appointments (status, appointmentDate);
+                            """),
+            Migration.of(5, "Durata dei servizi e degli appuntamenti",
+                    // I servizi e gli appuntamenti esistenti durano un'ora, come gli orari usati finora
+                    """
+                            ALTER TABLE Services ADD COLUMN IF NOT EXISTS durationMinutes INT NOT NULL DEFAULT 60
+                            CHECK (durationMinutes > 0 AND MOD(durationMinutes, 15) = 0);
+                            """,
+                    // Somma delle durate dei servizi prenotati, fissata alla prenotazione
+                    """
+                            ALTER TABLE Appointments ADD COLUMN IF NOT EXISTS durationMinutes INT NOT NULL DEFAULT 60
+                            CHECK (durationMinutes > 0 AND MOD(durationMinutes, 15) = 0);
+                            """),
+            Migration.of(6, "Orari di lavoro, eccezioni e chiusure del negozio",
+                    // Fasce di lavoro settimanali; dayOfWeek va da 1 (lunedì) a 7 (domenica)
+                    """
+                            CREATE TABLE IF NOT EXISTS WorkingHours (
+                                id INT AUTO_INCREMENT PRIMARY KEY,
+                                hairdresserId INT NOT NULL,
+                                dayOfWeek TINYINT NOT NULL CHECK (dayOfWeek BETWEEN 1 AND 7),
+                                startTime TIME NOT NULL,
+                                endTime TIME NOT NULL,
+                                CHECK (startTime < endTime),
+                                FOREIGN KEY (hairdresserId) REFERENCES Users(id) ON DELETE CASCADE
+                            );
+                            """,
+                    """
+                            CREATE INDEX IF NOT EXISTS idx_working_hours_hairdresser
+                            ON WorkingHours (hairdresserId, dayOfWeek);
+                            """,
+                    // Assenze (available = FALSE) o fasce in più in un giorno; senza orari vale per tutto il giorno
+                    """
+                            CREATE TABLE IF NOT EXISTS ScheduleExceptions (
+                                id INT AUTO_INCREMENT PRIMARY KEY,
+                                hairdresserId INT NOT NULL,
+                                exceptionDate DATE NOT NULL,
+                                startTime TIME,
+                                endTime TIME,
+                                available BOOLEAN NOT NULL DEFAULT FALSE,
+                                reason VARCHAR(255),
+                                CHECK ((startTime IS NULL AND endTime IS NULL) OR startTime < endTime),
+                                FOREIGN KEY (hairdresserId) REFERENCES Users(id) ON DELETE CASCADE
+                            );
+                            """,
+                    """
+                            CREATE INDEX IF NOT EXISTS idx_schedule_exceptions_hairdresser
+                            ON ScheduleExceptions (hairdresserId, exceptionDate);
+                            """,
+                    """
+                            CREATE TABLE IF NOT EXISTS SalonClosures (
+                                closureDate DATE PRIMARY KEY,
+                                reason VARCHAR(255)
+                            );
+                            """),
+            Migration.of(7, "Riepilogo settimanale degli appuntamenti",
+                    // Una riga per appuntamento, nella cella (giorno, ora) della settimana che inizia il lunedì weekStart
+                    """
+                            CREATE TABLE IF NOT EXISTS WeeklySummary (
+                                appointmentId INT PRIMARY KEY,
+                                hairdresserId INT NOT NULL,
+                                weekStart DATE NOT NULL,
+                                dayOfWeek TINYINT NOT NULL,
+                                hourOfDay TINYINT NOT NULL,
+                                appointmentDate DATETIME NOT NULL,
+                                clientName VARCHAR(255) NOT NULL,
+                                status ENUM('VALIDA', 'CANCELLATA', 'ESEGUITA') NOT NULL,
+                                services VARCHAR(4096) NOT NULL,
+                                revenue DECIMAL(10, 2) NOT NULL,
+                                FOREIGN KEY (appointmentId) REFERENCES Appointments(id) ON DELETE CASCADE
+                            );
+                            """,
+                    """
+                            CREATE INDEX IF NOT EXISTS idx_weekly_summary_hairdresser_week
+                            ON WeeklySummary (hairdresserId, weekStart, appointmentDate);
+                            """,
+                    """
+                            CREATE INDEX IF NOT EXISTS idx_weekly_summary_status_date
+                            ON WeeklySummary (status, appointmentDate);
+                            """,
+                    // Riepilogo degli appuntamenti già presenti
+                    """
+                            MERGE INTO WeeklySummary (appointmentId, hairdresserId, weekStart, dayOfWeek, hourOfDay,
+                                appointmentDate, clientName, status, services, revenue)
+                            KEY (appointmentId)
+                            SELECT a.id, a.hairdresserId,
+                                DATEADD(DAY, 1 - ISO_DAY_OF_WEEK(a.appointmentDate), CAST(a.appointmentDate AS DATE)),
+                                ISO_DAY_OF_WEEK(a.appointmentDate) - 1, HOUR(a.appointmentDate), a.appointmentDate,
+                                c.username, a.status,
+                                COALESCE(GROUP_CONCAT(s.name ORDER BY s.name SEPARATOR ', '), ''),
+                                COALESCE(SUM(s.price), 0)
+                            FROM Appointments a
+                            JOIN Users c ON a.clientId = c.id
+                            LEFT JOIN AppointmentServices aps ON a.id = aps.appointmentId
+                            LEFT JOIN Services s ON aps.serviceId = s.id
+                            GROUP BY a.id, a.hairdresserId, a.appointmentDate, c.username, a.status;
+                            """));
+
+    /**
+     * Orari con più appuntamenti validi dello stesso parrucchiere, che
+     * impediscono di creare il vincolo di unicità della migrazione 3.
+     */
+    private static final String DUPLICATE_VALID_APPOINTMENTS_QUERY = """
+            SELECT hairdresserId, appointmentDate, GROUP_CONCAT(id ORDER BY id SEPARATOR ', ') AS ids
+            FROM Appointments
+            WHERE status = 'VALIDA'
+            GROUP BY hairdresserId, appointmentDate
+            HAVING COUNT(*) > 1
+            ORDER BY appointmentDate, hairdresserId
+            """;
+
+    private final List<Migration> migrations;
+
+    /**
+     * Crea un migratore con le migrazioni dell'applicazione.
+     */
+    public SchemaMigrator() {
+        this(MIGRATIONS);
+    }
+
+    /**
+     * Crea un migratore con un elenco specifico di migrazioni.
+     *
+     * @param migrations le migrazioni da applicare
+     * @throws IllegalArgumentException se due migrazioni hanno la stessa versione
+     */
+    SchemaMigrator(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort(Comparator.comparingInt(Migration::version));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).version() == sorted.get(i - 1).version()) {
+                throw new IllegalArgumentException("Versione di migrazione duplicata: " + sorted.get(i).version());
+            }
+        }
+        this.migrations = List.copyOf(sorted);
+    }
+
+    /**
+     * Applica le migrazioni mancanti.
+     *
+     * @param conn connessione al database
+     * @return il numero di migrazioni applicate
+     * @throws SQLException se una migrazione fallisce o se una migrazione già
+     *                      applicata è stata modificata
+     */
+    public int migrate(Connection conn) throws SQLException {
+        createVersionTable(conn);
+        Map<Integer, Long> applied = getAppliedChecksums(conn);
+
+        for (Map.Entry<Integer, Long> entry : applied.entrySet()) {
+            Migration known = findMigration(entry.getKey());
+            if (known != null && known.checksum() != entry.getValue()) {
+                throw new SQLException("La migrazione " + entry.getKey()
+                        + " è stata modificata dopo essere stata applicata (checksum non corrispondente).");
+            }
+        }
+
+        int count = 0;
+        for (Migration migration : migrations) {
+            if (!applied.containsKey(migration.version())) {
+                apply(conn, migration);
+                count++;
+            }
+        }
+        if (count > 0) {
+            logger.info("Applicate {} migrazioni, versione dello schema: {}", count, getCurrentVersion(conn));
+        }
+        return count;
+    }
+
+    /**
+     * Restituisce la versione più alta applicata allo schema.
+     *
+     * @param conn connessione al database
+     * @return la versione corrente, 0 se nessuna migrazione è stata applicata
+     * @throws SQLException se si verifica un errore durante l'interrogazione
+     */
+    public int getCurrentVersion(Connection conn) throws SQLException {
+        createVersionTable(conn);
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Restituisce la versione più alta tra le migrazioni conosciute.
+     *
+     * @return la versione più recente dello schema
+     */
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+    }
+
+    private void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version INT PRIMARY KEY,
+                        description VARCHAR(255) NOT NULL,
+                        checksum BIGINT NOT NULL,
+                        installedOn TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                        executionTimeMs BIGINT NOT NULL
+                    );
+                    """);
+        }
+    }
+
+    private Map<Integer, Long> getAppliedChecksums(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private Migration findMigration(int version) {
+        for (Migration migration : migrations) {
+            if (migration.version() == version) {
+                return migration;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Interrompe la migrazione 3 se un parrucchiere ha più appuntamenti validi
+     * nello stesso orario, elencandoli: quali prenotazioni mantenere va deciso
+     * a mano prima di riavviare, non cancellandole automaticamente. Il
+     * messaggio riporta l'istruzione che mantiene in ogni orario la
+     * prenotazione meno recente, da eseguire sul database con l'applicazione
+     * ferma (vedi il README).
+     *
+     * @param conn connessione al database
+     * @throws SQLException se esistono doppie prenotazioni o se
+     *                      l'interrogazione fallisce
+     */
+    static void rejectDuplicateValidAppointments(Connection conn) throws SQLException {
+        List<String> conflicts = new ArrayList<>();
+        List<String> excess = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(DUPLICATE_VALID_APPOINTMENTS_QUERY)) {
+            while (rs.next()) {
+                String ids = rs.getString("ids");
+                conflicts.add("parrucchiere " + rs.getInt("hairdresserId") + " il "
+                        + rs.getTimestamp("appointmentDate").toLocalDateTime() + ": appuntamenti " + ids);
+                // Gli ID sono in ordine crescente: il primo è la prenotazione meno recente
+                excess.add(ids.substring(ids.indexOf(", ") + 2));
+            }
+        }
+        if (conflicts.isEmpty()) {
+            return;
+        }
+        String list = String.join("; ", conflicts);
+        String resolution = "UPDATE Appointments SET status = 'CANCELLATA' WHERE id IN (" + String.join(", ", excess)
+                + ");";
+        logger.warn("Trovati {} orari con più appuntamenti validi dello stesso parrucchiere: {}", conflicts.size(),
+                list);
+        logger.warn("Per mantenere in ogni orario la prenotazione meno recente eseguire sul database: {}", resolution);
+        throw new SQLException("Orari con più appuntamenti validi dello stesso parrucchiere: " + conflicts.size()
+                + " (" + list + "). Cancellare o spostare le prenotazioni in eccesso e riavviare; per mantenere in "
+                + "ogni orario la prenotazione meno recente eseguire sul database: " + resolution);
+    }
+
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        logger.info("Applicazione della migrazione {}: {}", migration.version(), migration.description());
+        long start = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            if (migration.precondition() != null) {
+                migration.precondition().check(conn);
+            }
+            for (String statement : migration.statements()) {
+                stmt.execute(statement);
+            }
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            try (PreparedStatement insert = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description, checksum, executionTimeMs) VALUES (?, ?, ?, ?)")) {
+                insert.setInt(1, migration.version());
+                insert.setString(2, migration.description());
+                insert.setLong(3, migration.checksum());
+                insert.setLong(4, elapsedMs);
+                insert.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Errore durante la migrazione " + migration.version() + ": "
+                    + migration.description(), e);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
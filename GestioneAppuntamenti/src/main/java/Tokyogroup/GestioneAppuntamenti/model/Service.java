@@ -5,21 +5,47 @@ package Tokyogroup.GestioneAppuntamenti.model;
  */
 public class Service {
 
+    /**
+     * Durata predefinita di un servizio in minuti, pari a quella degli
+     * appuntamenti precedenti all'introduzione delle durate.
+     */
+    public static final int DEFAULT_DURATION_MINUTES = 60;
+
+    /**
+     * Granularità delle durate e degli orari di inizio, in minuti.
+     */
+    public static final int DURATION_STEP_MINUTES = 15;
+
     private int id;
     private String name;
     private double price;
+    private int durationMinutes = DEFAULT_DURATION_MINUTES;
 
     /**
-     * Costruttore completo.
+     * Costruttore con la durata predefinita di un'ora.
      *
      * @param id    l'identificativo del servizio
      * @param name  il nome del servizio
      * @param price il prezzo del servizio
      */
     public Service(int id, String name, double price) {
+        this(id, name, price, DEFAULT_DURATION_MINUTES);
+    }
+
+    /**
+     * Costruttore completo.
+     *
+     * @param id              l'identificativo del servizio
+     * @param name            il nome del servizio
+     * @param price           il prezzo del servizio
+     * @param durationMinutes la durata del servizio in minuti, multipla di 15
+     * @throws IllegalArgumentException se la durata non è valida
+     */
+    public Service(int id, String name, double price, int durationMinutes) {
         this.id = id;
         this.name = name;
         this.price = price;
+        setDurationMinutes(durationMinutes);
     }
 
     /**
@@ -82,6 +108,29 @@ public class Service {
         this.price = price;
     }
 
+    /**
+     * Restituisce la durata del servizio.
+     *
+     * @return la durata in minuti
+     */
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    /**
+     * Imposta la durata del servizio.
+     *
+     * @param durationMinutes la durata in minuti, positiva e multipla di 15
+     * @throws IllegalArgumentException se la durata non è valida
+     */
+    public void setDurationMinutes(int durationMinutes) {
+        if (durationMinutes <= 0 || durationMinutes % DURATION_STEP_MINUTES != 0) {
+            throw new IllegalArgumentException("La durata deve essere un multiplo positivo di "
+                    + DURATION_STEP_MINUTES + " minuti.");
+        }
+        this.durationMinutes = durationMinutes;
+    }
+
     /**
      * Restituisce una rappresentazione in formato stringa del servizio.
      *
@@ -0,0 +1,265 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache in memoria del catalogo dei servizi.
+ * <p>
+ * Il catalogo contiene tutti i servizi, la corrispondenza tra nome e ID e
+ * l'insieme dei servizi offerti da ogni parrucchiere. Viene caricato dal
+ * database alla prima richiesta e resta valido fino a quando un'operazione di
+ * scrittura sui servizi lo invalida.
+ * <p>
+ * Il contenuto memorizzato è immutabile: i servizi vengono restituiti come
+ * nuove istanze di {@link Service}, che i chiamanti possono modificare senza
+ * alterare la cache.
+ */
+public class ServiceCatalog {
+
+    // Istanza singleton, disattivata se il database è condiviso con altri client
+    private static final ServiceCatalog instance = new ServiceCatalog(!DatabaseManager.getMode().isShared());
+
+    private final boolean enabled;
+
+    private volatile Catalog catalog;
+    private final AtomicLong version = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Caricatore del catalogo, usato in caso di cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Carica il catalogo completo dal database.
+         *
+         * @return il catalogo dei servizi
+         * @throws SQLException se si verifica un errore di accesso al database
+         */
+        Catalog load() throws SQLException;
+    }
+
+    /**
+     * Costruttore del catalogo.
+     */
+    ServiceCatalog() {
+        this(true);
+    }
+
+    /**
+     * Costruttore del catalogo. Un catalogo disattivato viene caricato a ogni
+     * richiesta: serve quando altri processi possono modificare i servizi.
+     *
+     * @param enabled false per non memorizzare il catalogo
+     */
+    ServiceCatalog(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Restituisce l'istanza singleton del catalogo.
+     *
+     * @return l'istanza del catalogo
+     */
+    public static ServiceCatalog getInstance() {
+        return instance;
+    }
+
+    /**
+     * Restituisce il catalogo, caricandolo con il caricatore indicato se non è
+     * presente in memoria.
+     *
+     * @param loader caricatore da usare in caso di cache miss
+     * @return il catalogo dei servizi
+     * @throws SQLException se il caricamento dal database fallisce
+     */
+    public Catalog get(Loader loader) throws SQLException {
+        if (!enabled) {
+            misses.increment();
+            return loader.load();
+        }
+        Catalog cached = catalog;
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        long loadedVersion = version.get();
+        Catalog loaded = loader.load();
+        // Un catalogo letto mentre veniva invalidato potrebbe non contenere la
+        // modifica: lo restituisce senza memorizzarlo.
+        synchronized (this) {
+            if (version.get() == loadedVersion) {
+                catalog = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Invalida il catalogo, che verrà ricaricato alla richiesta successiva.
+     */
+    public synchronized void invalidate() {
+        version.incrementAndGet();
+        catalog = null;
+        invalidations.increment();
+    }
+
+    /**
+     * Restituisce il numero di richieste servite dalla cache.
+     *
+     * @return il numero di cache hit
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Restituisce il numero di richieste che hanno richiesto un caricamento.
+     *
+     * @return il numero di cache miss
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Restituisce il numero di invalidazioni del catalogo.
+     *
+     * @return il numero di invalidazioni
+     */
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Istantanea immutabile del catalogo dei servizi.
+     */
+    public static final class Catalog {
+        private final Map<Integer, ServiceEntry> servicesById;
+        private final Map<String, Integer> idsByName;
+        private final Map<Integer, Set<Integer>> servicesByHairdresser;
+
+        /**
+         * Crea un'istantanea del catalogo.
+         *
+         * @param services              tutti i servizi, nell'ordine in cui vanno
+         *                              restituiti
+         * @param servicesByHairdresser ID dei servizi offerti da ogni parrucchiere
+         */
+        Catalog(List<Service> services, Map<Integer, ? extends Set<Integer>> servicesByHairdresser) {
+            Map<Integer, ServiceEntry> byId = new LinkedHashMap<>();
+            Map<String, Integer> byName = new HashMap<>();
+            for (Service service : services) {
+                byId.put(service.getId(), new ServiceEntry(service.getId(), service.getName(), service.getPrice(),
+                        service.getDurationMinutes()));
+                byName.put(service.getName(), service.getId());
+            }
+            Map<Integer, Set<Integer>> byHairdresser = new HashMap<>();
+            for (Map.Entry<Integer, ? extends Set<Integer>> entry : servicesByHairdresser.entrySet()) {
+                byHairdresser.put(entry.getKey(), Collections.unmodifiableSet(new LinkedHashSet<>(entry.getValue())));
+            }
+            this.servicesById = Collections.unmodifiableMap(byId);
+            this.idsByName = Collections.unmodifiableMap(byName);
+            this.servicesByHairdresser = Collections.unmodifiableMap(byHairdresser);
+        }
+
+        /**
+         * Restituisce tutti i servizi.
+         *
+         * @return nuove istanze di tutti i servizi
+         */
+        public List<Service> getServices() {
+            List<Service> services = new ArrayList<>(servicesById.size());
+            for (ServiceEntry entry : servicesById.values()) {
+                services.add(entry.toService());
+            }
+            return services;
+        }
+
+        /**
+         * Restituisce i servizi offerti da un parrucchiere.
+         *
+         * @param hairdresserId ID del parrucchiere
+         * @return nuove istanze dei servizi offerti
+         */
+        public List<Service> getServicesOf(int hairdresserId) {
+            Set<Integer> ids = getServiceIdsOf(hairdresserId);
+            List<Service> services = new ArrayList<>(ids.size());
+            for (int id : ids) {
+                services.add(servicesById.get(id).toService());
+            }
+            return services;
+        }
+
+        /**
+         * Restituisce i servizi non ancora offerti da un parrucchiere.
+         *
+         * @param hairdresserId ID del parrucchiere
+         * @return nuove istanze dei servizi non offerti
+         */
+        public List<Service> getServicesNotOf(int hairdresserId) {
+            Set<Integer> ids = getServiceIdsOf(hairdresserId);
+            List<Service> services = new ArrayList<>();
+            for (ServiceEntry entry : servicesById.values()) {
+                if (!ids.contains(entry.id())) {
+                    services.add(entry.toService());
+                }
+            }
+            return services;
+        }
+
+        /**
+         * Restituisce gli ID dei servizi offerti da un parrucchiere.
+         *
+         * @param hairdresserId ID del parrucchiere
+         * @return insieme non modificabile degli ID dei servizi
+         */
+        public Set<Integer> getServiceIdsOf(int hairdresserId) {
+            return servicesByHairdresser.getOrDefault(hairdresserId, Set.of());
+        }
+
+        /**
+         * Restituisce l'ID di un servizio dato il nome.
+         *
+         * @param name nome del servizio
+         * @return l'ID del servizio, o null se il servizio non esiste
+         */
+        public Integer getServiceId(String name) {
+            return idsByName.get(name);
+        }
+
+        /**
+         * Restituisce la durata di un servizio.
+         *
+         * @param id ID del servizio
+         * @return la durata in minuti, o null se il servizio non esiste
+         */
+        public Integer getDurationMinutes(int id) {
+            ServiceEntry entry = servicesById.get(id);
+            return entry == null ? null : entry.durationMinutes();
+        }
+    }
+
+    /**
+     * Dati immutabili di un servizio memorizzato.
+     */
+    private record ServiceEntry(int id, String name, double price, int durationMinutes) {
+        Service toService() {
+            return new Service(id, name, price, durationMinutes);
+        }
+    }
+}
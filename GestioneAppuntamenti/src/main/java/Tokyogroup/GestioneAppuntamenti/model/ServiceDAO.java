@@ -1,8 +1,13 @@
 package Tokyogroup.GestioneAppuntamenti.model;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Classe DAO per la gestione dei servizi.
@@ -16,39 +21,77 @@ public class ServiceDAO {
 	public ServiceDAO() {
 	    // Costruttore vuoto
 	}
-	
+
+    // Cache del catalogo dei servizi, condivisa da tutte le istanze
+    private final ServiceCatalog catalog = ServiceCatalog.getInstance();
+
+    // Registro delle modifiche per il ripristino a un istante preciso
+    private final ChangeJournal journal = ChangeJournal.getInstance();
+
+    // Inserimento con ID esplicito, registrato nel registro delle modifiche
+    static final String JOURNAL_SERVICE_QUERY = """
+            INSERT INTO Services (id, name, price, durationMinutes) VALUES (?, ?, ?, ?)
+            """;
+
     /**
-     * Recupera i servizi offerti da un parrucchiere come oggetti `Service`.
+     * Restituisce il catalogo dei servizi, caricandolo dal database se non è in
+     * cache.
      *
-     * @param hairdresserId ID del parrucchiere.
-     * @return Lista di oggetti `Service` con nome e prezzo.
+     * @return Il catalogo dei servizi.
+     * @throws SQLException Se si verifica un errore durante il caricamento.
      */
-    public List<Service> getServicesByHairdresser(int hairdresserId) {
+    private ServiceCatalog.Catalog getCatalog() throws SQLException {
+        return catalog.get(this::loadCatalog);
+    }
+
+    /**
+     * Carica dal database tutti i servizi e le associazioni con i parrucchieri.
+     *
+     * @return Il catalogo dei servizi.
+     * @throws SQLException Se si verifica un errore durante l'interrogazione del
+     *                      database.
+     */
+    private ServiceCatalog.Catalog loadCatalog() throws SQLException {
         List<Service> services = new ArrayList<>();
-        String query = """
-                    SELECT s.id, s.name, s.price
-                    FROM Services s
-                    JOIN HairdresserServices hs ON s.id = hs.serviceId
-                    WHERE hs.hairdresserId = ?;
-                """;
+        Map<Integer, Set<Integer>> servicesByHairdresser = new HashMap<>();
 
         try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setInt(1, hairdresserId);
-
-            try (ResultSet rs = stmt.executeQuery()) {
+                Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT id, name, price, durationMinutes FROM Services ORDER BY id")) {
                 while (rs.next()) {
                     services.add(new Service(
                             rs.getInt("id"),
                             rs.getString("name"),
-                            rs.getDouble("price")));
+                            rs.getDouble("price"),
+                            rs.getInt("durationMinutes")));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT hairdresserId, serviceId FROM HairdresserServices ORDER BY hairdresserId, serviceId")) {
+                while (rs.next()) {
+                    servicesByHairdresser.computeIfAbsent(rs.getInt("hairdresserId"), id -> new LinkedHashSet<>())
+                            .add(rs.getInt("serviceId"));
                 }
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(
-                    "Errore durante il recupero dei servizi per il parrucchiere con ID: " + hairdresserId, e);
         }
-        return services;
+        return new ServiceCatalog.Catalog(services, servicesByHairdresser);
+    }
+	
+    /**
+     * Recupera i servizi offerti da un parrucchiere come oggetti `Service`.
+     *
+     * @param hairdresserId ID del parrucchiere.
+     * @return Lista di oggetti `Service` con nome e prezzo.
+     */
+    public List<Service> getServicesByHairdresser(int hairdresserId) {
+        return MetricsRegistry.timed("ServiceDAO.getServicesByHairdresser", () -> {
+            try {
+                return getCatalog().getServicesOf(hairdresserId);
+            } catch (SQLException e) {
+                throw new RuntimeException(
+                        "Errore durante il recupero dei servizi per il parrucchiere con ID: " + hairdresserId, e);
+            }
+        });
     }
 
     /**
@@ -59,27 +102,56 @@ public class ServiceDAO {
      * @return true se almeno un appuntamento è stato aggiornato.
      */
     public boolean cancelAppointmentsWithService(int serviceId, int hairdresserId) {
-        String query = """
-                    UPDATE Appointments
-                    SET status = 'CANCELLATA'
-                    WHERE id IN (
-                        SELECT DISTINCT a.id
-                        FROM Appointments a
-                        JOIN AppointmentServices asrv ON a.id = asrv.appointmentId
-                        WHERE a.hairdresserId = ? AND asrv.serviceId = ? AND a.status = 'VALIDA' AND a.appointmentDate > NOW()
-                    )
-                """;
+        return MetricsRegistry.timed("ServiceDAO.cancelAppointmentsWithService", () -> {
+            String query = """
+                        UPDATE Appointments
+                        SET status = 'CANCELLATA'
+                        WHERE id IN (
+                            SELECT DISTINCT a.id
+                            FROM Appointments a
+                            JOIN AppointmentServices asrv ON a.id = asrv.appointmentId
+                            WHERE a.hairdresserId = ? AND asrv.serviceId = ? AND a.status = 'VALIDA' AND a.appointmentDate > ?
+                        )
+                    """;
 
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setInt(1, hairdresserId);
-            stmt.setInt(2, serviceId);
-            int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0;
-        } catch (SQLException e) {
-            throw new RuntimeException(
-                    "Errore durante la cancellazione degli appuntamenti per il servizio ID: " + serviceId, e);
-        }
+            String summaryQuery = """
+                        UPDATE WeeklySummary
+                        SET status = 'CANCELLATA'
+                        WHERE hairdresserId = ? AND status = 'VALIDA' AND appointmentDate > ?
+                        AND appointmentId IN (SELECT appointmentId FROM AppointmentServices WHERE serviceId = ?)
+                    """;
+
+            // L'istante è un parametro, così la modifica registrata si ripete in modo identico
+            LocalDateTime now = LocalDateTime.now();
+            try (Connection conn = DatabaseManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(query);
+                        PreparedStatement summaryStmt = conn.prepareStatement(summaryQuery)) {
+                    stmt.setInt(1, hairdresserId);
+                    stmt.setInt(2, serviceId);
+                    stmt.setTimestamp(3, Timestamp.valueOf(now));
+                    if (stmt.executeUpdate() == 0) {
+                        conn.rollback();
+                        return false;
+                    }
+                    // Il riepilogo settimanale segue la cancellazione nella stessa transazione
+                    summaryStmt.setInt(1, hairdresserId);
+                    summaryStmt.setTimestamp(2, Timestamp.valueOf(now));
+                    summaryStmt.setInt(3, serviceId);
+                    summaryStmt.executeUpdate();
+                    journal.commit(conn, List.of(ChangeJournal.Change.of(query, hairdresserId, serviceId, now),
+                            ChangeJournal.Change.of(summaryQuery, hairdresserId, now, serviceId)));
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+                AvailabilityIndex.getInstance().invalidate(hairdresserId);
+                return true;
+            } catch (SQLException e) {
+                throw new RuntimeException(
+                        "Errore durante la cancellazione degli appuntamenti per il servizio ID: " + serviceId, e);
+            }
+        });
     }
 
     /**
@@ -89,21 +161,75 @@ public class ServiceDAO {
      * @return ID del servizio.
      */
     public int getServiceIdByName(String serviceName) {
-        String query = "SELECT id FROM Services WHERE name = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, serviceName);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("id");
-                } else {
+        return MetricsRegistry.timed("ServiceDAO.getServiceIdByName", () -> {
+            try {
+                Integer id = getCatalog().getServiceId(serviceName);
+                if (id == null) {
                     throw new RuntimeException("Servizio non trovato: " + serviceName);
                 }
+                return id;
+            } catch (SQLException e) {
+                throw new RuntimeException("Errore durante il recupero dell'ID per il servizio: " + serviceName, e);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("Errore durante il recupero dell'ID per il servizio: " + serviceName, e);
-        }
+        });
+    }
+
+    /**
+     * Recupera gli ID di più servizi dati i loro nomi, con un unico accesso al
+     * catalogo.
+     *
+     * @param serviceNames Nomi dei servizi.
+     * @return ID dei servizi, nello stesso ordine dei nomi.
+     */
+    public List<Integer> getServiceIdsByName(List<String> serviceNames) {
+        return MetricsRegistry.timed("ServiceDAO.getServiceIdsByName", () -> {
+            try {
+                ServiceCatalog.Catalog catalog = getCatalog();
+                List<Integer> ids = new ArrayList<>(serviceNames.size());
+                for (String serviceName : serviceNames) {
+                    Integer id = catalog.getServiceId(serviceName);
+                    if (id == null) {
+                        throw new RuntimeException("Servizio non trovato: " + serviceName);
+                    }
+                    ids.add(id);
+                }
+                return ids;
+            } catch (SQLException e) {
+                throw new RuntimeException("Errore durante il recupero degli ID per i servizi: " + serviceNames, e);
+            }
+        });
+    }
+
+    /**
+     * Calcola la durata complessiva di un insieme di servizi dati i nomi, con
+     * un unico accesso al catalogo. I nomi ripetuti vengono contati una volta
+     * sola, come nella prenotazione.
+     *
+     * @param serviceNames Nomi dei servizi.
+     * @return Durata in minuti, o {@value Service#DEFAULT_DURATION_MINUTES} se
+     *         la lista è vuota.
+     * @throws IllegalArgumentException se un servizio non esiste.
+     */
+    public int getTotalDurationByName(List<String> serviceNames) {
+        return MetricsRegistry.timed("ServiceDAO.getTotalDurationByName", () -> {
+            if (serviceNames == null || serviceNames.isEmpty()) {
+                return Service.DEFAULT_DURATION_MINUTES;
+            }
+            try {
+                ServiceCatalog.Catalog catalog = getCatalog();
+                int total = 0;
+                for (String serviceName : new LinkedHashSet<>(serviceNames)) {
+                    Integer id = catalog.getServiceId(serviceName);
+                    if (id == null) {
+                        throw new IllegalArgumentException("Servizio non trovato: " + serviceName);
+                    }
+                    total += catalog.getDurationMinutes(id);
+                }
+                return total;
+            } catch (SQLException e) {
+                throw new RuntimeException("Errore durante il calcolo della durata dei servizi: " + serviceNames, e);
+            }
+        });
     }
 
     /**
@@ -112,23 +238,13 @@ public class ServiceDAO {
      * @return Lista di tutti i servizi (oggetti `Service`).
      */
     public List<Service> getAllServices() {
-        List<Service> services = new ArrayList<>();
-        String query = "SELECT id, name, price FROM Services";
-
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query);
-                ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                services.add(new Service(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getDouble("price")));
+        return MetricsRegistry.timed("ServiceDAO.getAllServices", () -> {
+            try {
+                return getCatalog().getServices();
+            } catch (SQLException e) {
+                throw new RuntimeException("Errore durante il recupero di tutti i servizi.", e);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("Errore durante il recupero di tutti i servizi.", e);
-        }
-        return services;
+        });
     }
 
     /**
@@ -138,31 +254,13 @@ public class ServiceDAO {
      * @return Lista di servizi disponibili per l'aggiunta.
      */
     public List<Service> getAvailableServicesForHairdresser(int hairdresserId) {
-        String query = """
-                    SELECT s.id, s.name, s.price
-                    FROM Services s
-                    WHERE s.id NOT IN (
-                        SELECT serviceId FROM HairdresserServices WHERE hairdresserId = ?
-                    )
-                """;
-
-        List<Service> services = new ArrayList<>();
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setInt(1, hairdresserId);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    services.add(new Service(
-                            rs.getInt("id"),
-                            rs.getString("name"),
-                            rs.getDouble("price")));
-                }
+        return MetricsRegistry.timed("ServiceDAO.getAvailableServicesForHairdresser", () -> {
+            try {
+                return getCatalog().getServicesNotOf(hairdresserId);
+            } catch (SQLException e) {
+                throw new RuntimeException("Errore durante il recupero dei servizi disponibili per il parrucchiere.", e);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("Errore durante il recupero dei servizi disponibili per il parrucchiere.", e);
-        }
-        return services;
+        });
     }
 
     /**
@@ -173,17 +271,25 @@ public class ServiceDAO {
      * @return true se l'operazione è stata completata con successo.
      */
     public boolean removeServiceFromHairdresser(int hairdresserId, int serviceId) {
-        String query = "DELETE FROM HairdresserServices WHERE hairdresserId = ? AND serviceId = ?";
+        return MetricsRegistry.timed("ServiceDAO.removeServiceFromHairdresser", () -> {
+            String query = "DELETE FROM HairdresserServices WHERE hairdresserId = ? AND serviceId = ?";
 
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setInt(1, hairdresserId);
-            stmt.setInt(2, serviceId);
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query)) {
+                conn.setAutoCommit(false);
+                stmt.setInt(1, hairdresserId);
+                stmt.setInt(2, serviceId);
 
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            throw new RuntimeException("Errore durante la rimozione del servizio dal parrucchiere.", e);
-        }
+                boolean removed = stmt.executeUpdate() > 0;
+                if (removed) {
+                    journal.commit(conn, query, hairdresserId, serviceId);
+                }
+                catalog.invalidate();
+                return removed;
+            } catch (SQLException e) {
+                throw new RuntimeException("Errore durante la rimozione del servizio dal parrucchiere.", e);
+            }
+        });
     }
 
     /**
@@ -194,53 +300,80 @@ public class ServiceDAO {
      * @return true se l'operazione è stata completata con successo.
      */
     public boolean addServiceToHairdresser(int hairdresserId, int serviceId) {
-        String query = "INSERT INTO HairdresserServices (hairdresserId, serviceId) VALUES (?, ?)";
+        return MetricsRegistry.timed("ServiceDAO.addServiceToHairdresser", () -> {
+            String query = "INSERT INTO HairdresserServices (hairdresserId, serviceId) VALUES (?, ?)";
 
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setInt(1, hairdresserId);
-            stmt.setInt(2, serviceId);
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query)) {
+                conn.setAutoCommit(false);
+                stmt.setInt(1, hairdresserId);
+                stmt.setInt(2, serviceId);
 
-            return stmt.executeUpdate() > 0;
-        } catch (SQLIntegrityConstraintViolationException e) {
-            return false;
-        } catch (SQLException e) {
-            throw new RuntimeException("Errore durante l'associazione del servizio al parrucchiere.", e);
-        }
+                boolean added = stmt.executeUpdate() > 0;
+                if (added) {
+                    journal.commit(conn, query, hairdresserId, serviceId);
+                }
+                catalog.invalidate();
+                return added;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                return false;
+            } catch (SQLException e) {
+                throw new RuntimeException("Errore durante l'associazione del servizio al parrucchiere.", e);
+            }
+        });
     }
 
     /**
-     * Aggiunge un nuovo servizio al database.
+     * Aggiunge un nuovo servizio della durata di un'ora al database.
      *
      * @param name  Nome del servizio.
      * @param price Prezzo del servizio.
      * @return ID del servizio aggiunto.
      */
     public int addNewService(String name, double price) {
-        String query = "INSERT INTO Services (name, price) VALUES (?, ?)";
+        return addNewService(name, price, Service.DEFAULT_DURATION_MINUTES);
+    }
 
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setString(1, name);
-            stmt.setDouble(2, price);
-            int affectedRows = stmt.executeUpdate();
+    /**
+     * Aggiunge un nuovo servizio al database.
+     *
+     * @param name            Nome del servizio.
+     * @param price           Prezzo del servizio.
+     * @param durationMinutes Durata del servizio in minuti, multipla di 15.
+     * @return ID del servizio aggiunto.
+     */
+    public int addNewService(String name, double price, int durationMinutes) {
+        return MetricsRegistry.timed("ServiceDAO.addNewService", () -> {
+            String query = "INSERT INTO Services (name, price, durationMinutes) VALUES (?, ?, ?)";
 
-            if (affectedRows == 0) {
-                throw new SQLException("Errore durante l'aggiunta del servizio: nessuna riga aggiunta.");
-            }
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                conn.setAutoCommit(false);
+                stmt.setString(1, name);
+                stmt.setDouble(2, price);
+                stmt.setInt(3, durationMinutes);
+                int affectedRows = stmt.executeUpdate();
+
+                if (affectedRows == 0) {
+                    throw new SQLException("Errore durante l'aggiunta del servizio: nessuna riga aggiunta.");
+                }
 
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Errore durante l'aggiunta del servizio: ID non generato.");
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        int serviceId = generatedKeys.getInt(1);
+                        journal.commit(conn, JOURNAL_SERVICE_QUERY, serviceId, name, price, durationMinutes);
+                        catalog.invalidate();
+                        return serviceId;
+                    } else {
+                        throw new SQLException("Errore durante l'aggiunta del servizio: ID non generato.");
+                    }
                 }
+            } catch (SQLIntegrityConstraintViolationException e) {
+                throw new RuntimeException("Il servizio esiste già: " + name, e);
+            } catch (SQLException e) {
+                throw new RuntimeException("Errore durante l'aggiunta del servizio: " + name, e);
             }
-        } catch (SQLIntegrityConstraintViolationException e) {
-            throw new RuntimeException("Il servizio esiste già: " + name, e);
-        } catch (SQLException e) {
-            throw new RuntimeException("Errore durante l'aggiunta del servizio: " + name, e);
-        }
+        });
     }
 
     /**
@@ -250,18 +383,32 @@ public class ServiceDAO {
      * @return true se il servizio è stato aggiunto con successo.
      */
     public boolean addService(Service service) {
-        String query = "INSERT INTO Services (name, price) VALUES (?, ?)";
+        return MetricsRegistry.timed("ServiceDAO.addService", () -> {
+            String query = "INSERT INTO Services (name, price, durationMinutes) VALUES (?, ?, ?)";
 
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, service.getName());
-            stmt.setDouble(2, service.getPrice());
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                conn.setAutoCommit(false);
+                stmt.setString(1, service.getName());
+                stmt.setDouble(2, service.getPrice());
+                stmt.setInt(3, service.getDurationMinutes());
 
-            return stmt.executeUpdate() > 0;
-        } catch (SQLIntegrityConstraintViolationException e) {
-            return false;
-        } catch (SQLException e) {
-            throw new RuntimeException("Errore durante l'aggiunta del servizio: " + service.getName(), e);
-        }
+                boolean added = stmt.executeUpdate() > 0;
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (added && generatedKeys.next()) {
+                        journal.commit(conn, JOURNAL_SERVICE_QUERY, generatedKeys.getInt(1), service.getName(),
+                                service.getPrice(), service.getDurationMinutes());
+                    } else {
+                        conn.commit();
+                    }
+                }
+                catalog.invalidate();
+                return added;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                return false;
+            } catch (SQLException e) {
+                throw new RuntimeException("Errore durante l'aggiunta del servizio: " + service.getName(), e);
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,521 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generatore deterministico di dati sintetici per test di carico e di scala.
+ * <p>
+ * Popola un database vuoto, con lo schema creato da
+ * {@link DatabaseManager#initializeDatabase()}, con parrucchieri, clienti, un
+ * catalogo di servizi, anni di appuntamenti e messaggi. A parità di
+ * {@link Settings} il contenuto generato, ID compresi, è sempre lo stesso.
+ * <p>
+ * Gli appuntamenti occupano orari distinti di ogni parrucchiere, dalle 9 alle
+ * 17 dal lunedì al sabato, e sono scelti uniformemente tra tutti gli orari
+ * disponibili; i clienti abituali prenotano più spesso degli altri. Gli
+ * appuntamenti passati sono in gran parte eseguiti, quelli futuri validi, con
+ * una quota di cancellati in entrambi i casi. Le righe vengono inserite in
+ * ordine cronologico con inserimenti a lotti, una transazione per lotto.
+ * <p>
+ * Gli username sono {@code parrucchiereN} e {@code clienteN} e la password è
+ * {@value #PASSWORD}, così i test possono autenticarsi con utenti noti.
+ */
+public class SyntheticDataGenerator {
+    private static final Logger logger = LogManager.getLogger(SyntheticDataGenerator.class);
+
+    /**
+     * Password di tutti gli utenti generati.
+     */
+    public static final String PASSWORD = "password";
+
+    private static final int FIRST_HOUR = 9;
+    private static final int HOURS_PER_DAY = 9;
+    private static final int FUTURE_DAYS = 30;
+    private static final int BATCH_SIZE = 5_000;
+
+    // Percentuali di appuntamenti cancellati e di clienti disattivati
+    private static final int CANCELLED_PERCENT = 12;
+    private static final int INACTIVE_CLIENTS_PERCENT = 3;
+
+    private static final String[] SERVICE_NAMES = { "Taglio", "Piega", "Shampoo", "Barba", "Colore", "Meches",
+            "Trattamento", "Permanente", "Taglio bambino", "Rasatura", "Stiratura", "Extension" };
+    private static final int[] SERVICE_PRICES = { 15, 12, 5, 8, 40, 55, 20, 50, 10, 10, 35, 120 };
+
+    private final Settings settings;
+
+    /**
+     * Parametri della generazione.
+     *
+     * @param seed          seme del generatore di numeri casuali
+     * @param hairdressers  numero di parrucchieri
+     * @param clients       numero di clienti
+     * @param services      numero di servizi del catalogo
+     * @param appointments  numero di appuntamenti
+     * @param messages      numero di messaggi
+     * @param years         anni di storico degli appuntamenti
+     * @param referenceDate giorno che separa gli appuntamenti passati da quelli
+     *                      futuri
+     */
+    public record Settings(long seed, int hairdressers, int clients, int services, int appointments, int messages,
+            int years, LocalDate referenceDate) {
+
+        /**
+         * Verifica la coerenza dei parametri.
+         *
+         * @throws IllegalArgumentException se un parametro non è valido o se gli
+         *                                  orari disponibili non bastano per gli
+         *                                  appuntamenti richiesti
+         */
+        public Settings {
+            if (hairdressers <= 0 || clients <= 0 || services <= 0 || years <= 0) {
+                throw new IllegalArgumentException("Parrucchieri, clienti, servizi e anni devono essere positivi.");
+            }
+            if (appointments < 0 || messages < 0) {
+                throw new IllegalArgumentException("Appuntamenti e messaggi non possono essere negativi.");
+            }
+            if (referenceDate == null) {
+                throw new IllegalArgumentException("La data di riferimento è obbligatoria.");
+            }
+            long capacity = (long) workingDays(referenceDate.minusYears(years), referenceDate.plusDays(FUTURE_DAYS))
+                    * HOURS_PER_DAY * hairdressers;
+            if (appointments > capacity) {
+                throw new IllegalArgumentException("Orari insufficienti: " + appointments
+                        + " appuntamenti richiesti, " + capacity + " disponibili.");
+            }
+        }
+
+        /**
+         * Crea parametri proporzionati al numero di appuntamenti: due anni di
+         * storico, parrucchieri occupati circa per metà degli orari, un cliente
+         * ogni 20 appuntamenti e un messaggio ogni 10.
+         *
+         * @param appointments numero di appuntamenti
+         * @param seed         seme del generatore di numeri casuali
+         * @return i parametri
+         */
+        public static Settings forAppointments(int appointments, long seed) {
+            LocalDate today = LocalDate.now();
+            int slotsPerHairdresser = workingDays(today.minusYears(2), today.plusDays(FUTURE_DAYS)) * HOURS_PER_DAY;
+            int hairdressers = Math.max(5, (int) Math.ceil(appointments * 2.0 / slotsPerHairdresser));
+            return new Settings(seed, hairdressers, Math.max(50, appointments / 20), SERVICE_NAMES.length,
+                    appointments, Math.max(20, appointments / 10), 2, today);
+        }
+    }
+
+    /**
+     * Esito della generazione.
+     *
+     * @param users               utenti inseriti
+     * @param services            servizi inseriti
+     * @param appointments        appuntamenti inseriti
+     * @param appointmentServices associazioni tra appuntamenti e servizi inserite
+     * @param messages            messaggi inseriti
+     * @param durationMillis      durata della generazione in millisecondi
+     */
+    public record Summary(int users, int services, int appointments, long appointmentServices, int messages,
+            long durationMillis) {
+    }
+
+    /**
+     * Crea un generatore con i parametri indicati.
+     *
+     * @param settings parametri della generazione
+     */
+    public SyntheticDataGenerator(Settings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Popola il database dell'applicazione.
+     *
+     * @return l'esito della generazione
+     * @throws SQLException se il database non è vuoto o un inserimento fallisce
+     */
+    public Summary generate() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            return generate(conn);
+        } finally {
+            AvailabilityIndex.getInstance().invalidateAll();
+            ServiceCatalog.getInstance().invalidate();
+        }
+    }
+
+    /**
+     * Popola il database della connessione indicata, che deve avere lo schema
+     * dell'applicazione ed essere vuoto.
+     *
+     * @param conn connessione al database
+     * @return l'esito della generazione
+     * @throws SQLException se il database non è vuoto o un inserimento fallisce
+     */
+    public Summary generate(Connection conn) throws SQLException {
+        long start = System.nanoTime();
+        ensureEmpty(conn);
+
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            insertUsers(conn, random.split());
+            checkIds(conn, "Users", settings.hairdressers() + settings.clients());
+            insertServices(conn);
+            checkIds(conn, "Services", settings.services());
+            List<int[]> offered = insertHairdresserServices(conn, random.split());
+            long appointmentServices = insertAppointments(conn, random.split(), offered);
+            checkIds(conn, "Appointments", settings.appointments());
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(AppointmentDAO.SUMMARY_REBUILD_QUERY);
+            }
+            insertMessages(conn, random.split());
+            conn.setAutoCommit(true);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ANALYZE");
+            }
+
+            Summary summary = new Summary(settings.hairdressers() + settings.clients(), settings.services(),
+                    settings.appointments(), appointmentServices, settings.messages(),
+                    (System.nanoTime() - start) / 1_000_000);
+            logger.info("Generati {} utenti, {} servizi, {} appuntamenti e {} messaggi in {} ms.", summary.users(),
+                    summary.services(), summary.appointments(), summary.messages(), summary.durationMillis());
+            return summary;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Restituisce l'ID del parrucchiere di indice dato, da 0.
+     *
+     * @param index indice del parrucchiere
+     * @return l'ID del parrucchiere
+     */
+    public int hairdresserId(int index) {
+        return 1 + index;
+    }
+
+    /**
+     * Restituisce l'ID del cliente di indice dato, da 0.
+     *
+     * @param index indice del cliente
+     * @return l'ID del cliente
+     */
+    public int clientId(int index) {
+        return 1 + settings.hairdressers() + index;
+    }
+
+    /**
+     * Restituisce lo username del cliente di indice dato, da 0.
+     *
+     * @param index indice del cliente
+     * @return lo username del cliente
+     */
+    public static String clientUsername(int index) {
+        return "cliente" + (index + 1);
+    }
+
+    /**
+     * Restituisce il primo giorno degli appuntamenti generati.
+     *
+     * @return il primo giorno
+     */
+    public LocalDate firstDay() {
+        return settings.referenceDate().minusYears(settings.years());
+    }
+
+    /**
+     * Restituisce il giorno successivo all'ultimo appuntamento generabile.
+     *
+     * @return il giorno successivo all'intervallo generato
+     */
+    public LocalDate endDay() {
+        return settings.referenceDate().plusDays(FUTURE_DAYS);
+    }
+
+    private static void ensureEmpty(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("""
+                        SELECT (SELECT COUNT(*) FROM Users) + (SELECT COUNT(*) FROM Services)
+                        + (SELECT COUNT(*) FROM Appointments) + (SELECT COUNT(*) FROM Messages)
+                        """)) {
+            rs.next();
+            if (rs.getLong(1) > 0) {
+                throw new SQLException("Il generatore richiede un database vuoto.");
+            }
+        }
+    }
+
+    /**
+     * Verifica che gli ID generati da una tabella vadano da 1 al numero di
+     * righe inserite, come presuppongono i riferimenti tra le tabelle. Non è
+     * così se la tabella è stata svuotata dopo aver già generato degli ID.
+     */
+    private static void checkIds(Connection conn, String table, int expected) throws SQLException {
+        if (expected == 0) {
+            return;
+        }
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT MIN(id), MAX(id) FROM " + table)) {
+            rs.next();
+            if (rs.getInt(1) != 1 || rs.getInt(2) != expected) {
+                throw new SQLException("ID non consecutivi nella tabella " + table
+                        + ": il generatore richiede un database appena creato.");
+            }
+        }
+    }
+
+    private void insertUsers(Connection conn, SplittableRandom random) throws SQLException {
+        String query = "INSERT INTO Users (username, password, accountType, isActive) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            Batch batch = new Batch(conn, stmt);
+            for (int i = 0; i < settings.hairdressers(); i++) {
+                stmt.setString(1, "parrucchiere" + (i + 1));
+                stmt.setString(2, PASSWORD);
+                stmt.setString(3, "GESTORE");
+                stmt.setBoolean(4, true);
+                batch.add();
+            }
+            for (int i = 0; i < settings.clients(); i++) {
+                stmt.setString(1, clientUsername(i));
+                stmt.setString(2, PASSWORD);
+                stmt.setString(3, "CLIENTE");
+                stmt.setBoolean(4, random.nextInt(100) >= INACTIVE_CLIENTS_PERCENT);
+                batch.add();
+            }
+            batch.flush();
+        }
+    }
+
+    private void insertServices(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO Services (name, price) VALUES (?, ?)")) {
+            Batch batch = new Batch(conn, stmt);
+            for (int i = 0; i < settings.services(); i++) {
+                int variant = i / SERVICE_NAMES.length;
+                String name = SERVICE_NAMES[i % SERVICE_NAMES.length];
+                stmt.setString(1, variant == 0 ? name : name + " " + (variant + 1));
+                stmt.setInt(2, SERVICE_PRICES[i % SERVICE_PRICES.length] + 5 * variant);
+                batch.add();
+            }
+            batch.flush();
+        }
+    }
+
+    /**
+     * Assegna a ogni parrucchiere un sottoinsieme casuale del catalogo, di
+     * almeno tre servizi quando il catalogo lo consente.
+     *
+     * @return per ogni parrucchiere, gli ID dei servizi offerti
+     */
+    private List<int[]> insertHairdresserServices(Connection conn, SplittableRandom random) throws SQLException {
+        List<int[]> offered = new ArrayList<>(settings.hairdressers());
+        String query = "INSERT INTO HairdresserServices (hairdresserId, serviceId) VALUES (?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            Batch batch = new Batch(conn, stmt);
+            for (int i = 0; i < settings.hairdressers(); i++) {
+                int[] serviceIds = new int[settings.services()];
+                int count = 0;
+                for (int s = 0; s < settings.services(); s++) {
+                    if (s < 3 || random.nextInt(100) < 60) {
+                        serviceIds[count++] = s + 1;
+                        stmt.setInt(1, hairdresserId(i));
+                        stmt.setInt(2, s + 1);
+                        batch.add();
+                    }
+                }
+                offered.add(Arrays.copyOf(serviceIds, count));
+            }
+            batch.flush();
+        }
+        return offered;
+    }
+
+    /**
+     * Inserisce gli appuntamenti scegliendo uniformemente gli orari tra quelli
+     * disponibili (selection sampling), in ordine cronologico, e i relativi
+     * servizi.
+     *
+     * @return il numero di associazioni tra appuntamenti e servizi inserite
+     */
+    private long insertAppointments(Connection conn, SplittableRandom random, List<int[]> offered)
+            throws SQLException {
+        String appointmentQuery = """
+                INSERT INTO Appointments (clientId, hairdresserId, appointmentDate, status)
+                VALUES (?, ?, ?, ?)
+                """;
+        String serviceQuery = "INSERT INTO AppointmentServices (appointmentId, serviceId) VALUES (?, ?)";
+        LocalDateTime now = settings.referenceDate().atStartOfDay();
+        long remainingSlots = (long) workingDays(firstDay(), endDay()) * HOURS_PER_DAY * settings.hairdressers();
+        int remaining = settings.appointments();
+        int appointmentId = 0;
+        long services = 0;
+
+        try (PreparedStatement appointmentStmt = conn.prepareStatement(appointmentQuery);
+                PreparedStatement serviceStmt = conn.prepareStatement(serviceQuery)) {
+            Batch appointments = new Batch(conn, appointmentStmt, serviceStmt);
+            for (LocalDate day = firstDay(); remaining > 0 && day.isBefore(endDay()); day = day.plusDays(1)) {
+                if (day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                    continue;
+                }
+                for (int hour = 0; hour < HOURS_PER_DAY && remaining > 0; hour++) {
+                    LocalDateTime slot = day.atTime(FIRST_HOUR + hour, 0);
+                    Timestamp timestamp = Timestamp.valueOf(slot);
+                    for (int h = 0; h < settings.hairdressers() && remaining > 0; h++, remainingSlots--) {
+                        if (random.nextLong(remainingSlots) >= remaining) {
+                            continue;
+                        }
+                        remaining--;
+                        appointmentId++;
+
+                        boolean cancelled = random.nextInt(100) < CANCELLED_PERCENT;
+                        appointmentStmt.setInt(1, clientId(regularClient(random)));
+                        appointmentStmt.setInt(2, hairdresserId(h));
+                        appointmentStmt.setTimestamp(3, timestamp);
+                        appointmentStmt.setString(4,
+                                cancelled ? "CANCELLATA" : slot.isBefore(now) ? "ESEGUITA" : "VALIDA");
+                        appointmentStmt.addBatch();
+
+                        int[] serviceIds = offered.get(h);
+                        int count = Math.min(serviceIds.length, serviceCount(random));
+                        int first = random.nextInt(serviceIds.length);
+                        for (int s = 0; s < count; s++) {
+                            serviceStmt.setInt(1, appointmentId);
+                            serviceStmt.setInt(2, serviceIds[(first + s) % serviceIds.length]);
+                            serviceStmt.addBatch();
+                            services++;
+                        }
+                        appointments.added();
+                    }
+                }
+            }
+            appointments.flush();
+        }
+        return services;
+    }
+
+    private void insertMessages(Connection conn, SplittableRandom random) throws SQLException {
+        String query = """
+                INSERT INTO Messages (senderId, receiverId, messageText, status, sentDate)
+                VALUES (?, ?, ?, ?, ?)
+                """;
+        LocalDateTime end = settings.referenceDate().atStartOfDay();
+        long minutes = settings.years() * 365L * 24 * 60;
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            Batch batch = new Batch(conn, stmt);
+            for (int i = 0; i < settings.messages(); i++) {
+                // Messaggi più frequenti in prossimità della data di riferimento
+                long age = (long) (minutes * Math.pow(random.nextDouble(), 3));
+                LocalDateTime sent = end.minusMinutes(age);
+                boolean recent = age < 30L * 24 * 60;
+                stmt.setInt(1, clientId(regularClient(random)));
+                stmt.setInt(2, hairdresserId(random.nextInt(settings.hairdressers())));
+                stmt.setString(3, "Messaggio " + (i + 1));
+                stmt.setString(4, recent && random.nextBoolean() ? "NON LETTO" : "LETTO");
+                stmt.setTimestamp(5, Timestamp.valueOf(sent));
+                batch.add();
+            }
+            batch.flush();
+        }
+    }
+
+    /**
+     * Sceglie un cliente favorendo quelli con indice basso, che diventano i
+     * clienti abituali.
+     */
+    private int regularClient(SplittableRandom random) {
+        double r = random.nextDouble();
+        return (int) (settings.clients() * r * r);
+    }
+
+    /**
+     * Numero di servizi di un appuntamento: uno nel 60% dei casi, due nel 30% e
+     * tre nel restante 10%.
+     */
+    private static int serviceCount(SplittableRandom random) {
+        int r = random.nextInt(10);
+        return r < 6 ? 1 : r < 9 ? 2 : 3;
+    }
+
+    private static int workingDays(LocalDate from, LocalDate to) {
+        int days = 0;
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days++;
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Lotto di inserimenti su una o più istruzioni, eseguito e confermato ogni
+     * {@value SyntheticDataGenerator#BATCH_SIZE} righe.
+     */
+    private static final class Batch {
+        private final Connection conn;
+        private final PreparedStatement[] statements;
+        private int pending;
+
+        Batch(Connection conn, PreparedStatement... statements) {
+            this.conn = conn;
+            this.statements = statements;
+        }
+
+        void add() throws SQLException {
+            statements[0].addBatch();
+            added();
+        }
+
+        void added() throws SQLException {
+            if (++pending >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (pending == 0) {
+                return;
+            }
+            for (PreparedStatement statement : statements) {
+                statement.executeBatch();
+            }
+            conn.commit();
+            pending = 0;
+        }
+    }
+
+    /**
+     * Popola il database dell'applicazione da riga di comando. Il percorso del
+     * database si sceglie con la proprietà di sistema
+     * {@code appuntamenti.db.path}.
+     *
+     * @param args numero di appuntamenti e, facoltativo, seme
+     * @throws SQLException se la generazione fallisce
+     */
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 1) {
+            System.err.println("Uso: SyntheticDataGenerator <appuntamenti> [seme]");
+            System.exit(2);
+        }
+        int appointments = Integer.parseInt(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        DatabaseManager.initializeDatabase();
+        new SyntheticDataGenerator(Settings.forAppointments(appointments, seed)).generate();
+        DatabaseManager.closeConnectionPool();
+    }
+}
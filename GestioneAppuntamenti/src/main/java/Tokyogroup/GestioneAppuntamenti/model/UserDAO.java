@@ -4,6 +4,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 /**
  * Classe DAO per la gestione degli utenti.
@@ -13,6 +14,12 @@ public class UserDAO {
 	// Istanza Singleton
 	private static UserDAO instance;
 
+	// Registro delle modifiche per il ripristino a un istante preciso
+	private final ChangeJournal journal = ChangeJournal.getInstance();
+
+	// Inserimento con ID esplicito, registrato nel registro delle modifiche
+	static final String JOURNAL_USER_QUERY = "INSERT INTO Users (id, username, password, accountType) VALUES (?, ?, ?, ?)";
+
 	/**
 	 * Costruttore privato della classe UserDAO.
 	 * Inizializza un'istanza per la gestione delle operazioni sugli utenti.
@@ -42,25 +49,27 @@ public class UserDAO {
 	 * @throws SQLException in caso di errori durante l'accesso al database
 	 */
 	public User findUser(String username, String password) throws SQLException {
-		String query = "SELECT id, username, password, accountType, isActive FROM Users WHERE username = ? AND password = ?";
-		try (Connection conn = DatabaseManager.getConnection();
-			 PreparedStatement stmt = conn.prepareStatement(query)) {
-
-			stmt.setString(1, username);
-			stmt.setString(2, password);
-
-			try (ResultSet rs = stmt.executeQuery()) {
-				if (rs.next()) {
-					return new User(
-							rs.getInt("id"),
-							rs.getString("username"),
-							rs.getString("password"),
-							rs.getString("accountType"),
-							rs.getBoolean("isActive"));
+		return MetricsRegistry.timed("UserDAO.findUser", () -> {
+			String query = "SELECT id, username, password, accountType, isActive FROM Users WHERE username = ? AND password = ?";
+			try (Connection conn = DatabaseManager.getConnection();
+				 PreparedStatement stmt = conn.prepareStatement(query)) {
+
+				stmt.setString(1, username);
+				stmt.setString(2, password);
+
+				try (ResultSet rs = stmt.executeQuery()) {
+					if (rs.next()) {
+						return new User(
+								rs.getInt("id"),
+								rs.getString("username"),
+								rs.getString("password"),
+								rs.getString("accountType"),
+								rs.getBoolean("isActive"));
+					}
 				}
 			}
-		}
-		return null;
+			return null;
+		});
 	}
 
 	/**
@@ -71,8 +80,10 @@ public class UserDAO {
 	 * @throws SQLException in caso di errori durante l'accesso al database
 	 */
 	public boolean deleteAccount(int userId) throws SQLException {
-		boolean userDeactivated = deactivateUser(userId);
-		return userDeactivated;
+		return MetricsRegistry.timed("UserDAO.deleteAccount", () -> {
+			boolean userDeactivated = deactivateUser(userId);
+			return userDeactivated;
+		});
 	}
 
 	/**
@@ -86,21 +97,27 @@ public class UserDAO {
 	 * @throws SQLException in caso di errori durante l'accesso al database
 	 */
 	public boolean updatePassword(int userId, String oldPassword, String newPassword) throws SQLException {
-		String query = "UPDATE Users SET password = ? WHERE id = ? AND password = ?";
+		return MetricsRegistry.timed("UserDAO.updatePassword", () -> {
+			String query = "UPDATE Users SET password = ? WHERE id = ? AND password = ?";
 
-		try (Connection conn = DatabaseManager.getConnection();
-			 PreparedStatement stmt = conn.prepareStatement(query)) {
+			try (Connection conn = DatabaseManager.getConnection();
+				 PreparedStatement stmt = conn.prepareStatement(query)) {
 
-			stmt.setString(1, newPassword);
-			stmt.setInt(2, userId);
-			stmt.setString(3, oldPassword);
+				conn.setAutoCommit(false);
+				stmt.setString(1, newPassword);
+				stmt.setInt(2, userId);
+				stmt.setString(3, oldPassword);
 
-			int rowsUpdated = stmt.executeUpdate();
-			boolean success = rowsUpdated > 0;
-			return success;
-		} catch (SQLException e) {
-			throw new SQLException("Errore durante l'aggiornamento della password per l'utente ID: " + userId, e);
-		}
+				int rowsUpdated = stmt.executeUpdate();
+				boolean success = rowsUpdated > 0;
+				if (success) {
+					journal.commit(conn, query, newPassword, userId, oldPassword);
+				}
+				return success;
+			} catch (SQLException e) {
+				throw new SQLException("Errore durante l'aggiornamento della password per l'utente ID: " + userId, e);
+			}
+		});
 	}
 
 	/**
@@ -112,19 +129,25 @@ public class UserDAO {
 	 * @throws SQLException in caso di errori durante l'accesso al database
 	 */
 	public boolean restoreUserAccount(int userId) throws SQLException {
-		String query = "UPDATE Users SET isActive = true WHERE id = ?";
+		return MetricsRegistry.timed("UserDAO.restoreUserAccount", () -> {
+			String query = "UPDATE Users SET isActive = true WHERE id = ?";
 
-		try (Connection conn = DatabaseManager.getConnection();
-			 PreparedStatement stmt = conn.prepareStatement(query)) {
+			try (Connection conn = DatabaseManager.getConnection();
+				 PreparedStatement stmt = conn.prepareStatement(query)) {
 
-			stmt.setInt(1, userId);
+				conn.setAutoCommit(false);
+				stmt.setInt(1, userId);
 
-			int rowsUpdated = stmt.executeUpdate();
-			boolean success = rowsUpdated > 0;
-			return success;
-		} catch (SQLException e) {
-			throw new SQLException("Errore durante il ripristino dell'account per l'utente con ID: " + userId, e);
-		}
+				int rowsUpdated = stmt.executeUpdate();
+				boolean success = rowsUpdated > 0;
+				if (success) {
+					journal.commit(conn, query, userId);
+				}
+				return success;
+			} catch (SQLException e) {
+				throw new SQLException("Errore durante il ripristino dell'account per l'utente con ID: " + userId, e);
+			}
+		});
 	}
 
 	/**
@@ -135,21 +158,32 @@ public class UserDAO {
 	 * @throws SQLException in caso di errori durante l'inserimento nel database
 	 */
 	public boolean addUser(User user) throws SQLException {
-		String query = "INSERT INTO Users (username, password, accountType) VALUES (?, ?, ?)";
-
-		try (Connection conn = DatabaseManager.getConnection();
-			 PreparedStatement stmt = conn.prepareStatement(query)) {
-
-			stmt.setString(1, user.getUsername());
-			stmt.setString(2, user.getPassword());
-			stmt.setString(3, user.getAccountType());
-
-			int rowsInserted = stmt.executeUpdate();
-			boolean success = rowsInserted > 0;
-			return success;
-		} catch (SQLException e) {
-			throw new SQLException("Errore durante l'aggiunta dell'utente: " + user.getUsername(), e);
-		}
+		return MetricsRegistry.timed("UserDAO.addUser", () -> {
+			String query = "INSERT INTO Users (username, password, accountType) VALUES (?, ?, ?)";
+
+			try (Connection conn = DatabaseManager.getConnection();
+				 PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+
+				conn.setAutoCommit(false);
+				stmt.setString(1, user.getUsername());
+				stmt.setString(2, user.getPassword());
+				stmt.setString(3, user.getAccountType());
+
+				int rowsInserted = stmt.executeUpdate();
+				boolean success = rowsInserted > 0;
+				try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+					if (success && generatedKeys.next()) {
+						journal.commit(conn, JOURNAL_USER_QUERY, generatedKeys.getInt(1), user.getUsername(),
+								user.getPassword(), user.getAccountType());
+					} else {
+						conn.commit();
+					}
+				}
+				return success;
+			} catch (SQLException e) {
+				throw new SQLException("Errore durante l'aggiunta dell'utente: " + user.getUsername(), e);
+			}
+		});
 	}
 
 	/**
@@ -160,18 +194,24 @@ public class UserDAO {
 	 * @throws SQLException in caso di errori durante l'accesso al database
 	 */
 	public boolean deactivateUser(int userId) throws SQLException {
-		String query = "UPDATE Users SET isActive = false WHERE id = ?";
+		return MetricsRegistry.timed("UserDAO.deactivateUser", () -> {
+			String query = "UPDATE Users SET isActive = false WHERE id = ?";
 
-		try (Connection conn = DatabaseManager.getConnection();
-			 PreparedStatement stmt = conn.prepareStatement(query)) {
+			try (Connection conn = DatabaseManager.getConnection();
+				 PreparedStatement stmt = conn.prepareStatement(query)) {
 
-			stmt.setInt(1, userId);
+				conn.setAutoCommit(false);
+				stmt.setInt(1, userId);
 
-			int rowsUpdated = stmt.executeUpdate();
-			boolean success = rowsUpdated > 0;
-			return success;
-		} catch (SQLException e) {
-			throw new SQLException("Errore durante la disattivazione dell'utente con ID: " + userId, e);
-		}
+				int rowsUpdated = stmt.executeUpdate();
+				boolean success = rowsUpdated > 0;
+				if (success) {
+					journal.commit(conn, query, userId);
+				}
+				return success;
+			} catch (SQLException e) {
+				throw new SQLException("Errore durante la disattivazione dell'utente con ID: " + userId, e);
+			}
+		});
 	}
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+/**
+ * Appuntamento della vista settimanale di un parrucchiere.
+ *
+ * @param dayOfWeek  giorno della settimana, da 0 (lunedì) a 6 (domenica)
+ * @param hour       ora dell'appuntamento, da 0 a 23
+ * @param clientName username del cliente
+ * @param status     stato dell'appuntamento
+ * @param services   nomi dei servizi separati da virgola
+ */
+public record WeeklyAppointment(int dayOfWeek, int hour, String clientName, String status, String services) {
+}
@@ -0,0 +1,16 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Riepilogo di una settimana di un parrucchiere: gli appuntamenti della
+ * griglia settimanale e il fatturato, letti insieme dalla tabella
+ * {@code WeeklySummary}.
+ *
+ * @param weekStart    lunedì della settimana
+ * @param appointments appuntamenti della settimana, ordinati per giorno e ora
+ * @param revenue      fatturato degli appuntamenti non cancellati
+ */
+public record WeeklySummary(LocalDate weekStart, List<WeeklyAppointment> appointments, double revenue) {
+}
@@ -0,0 +1,17 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Fascia di lavoro dell'orario settimanale di un parrucchiere. Un giorno può
+ * avere più fasce: le pause sono gli intervalli tra una fascia e l'altra.
+ *
+ * @param id            ID della fascia
+ * @param hairdresserId ID del parrucchiere
+ * @param dayOfWeek     giorno della settimana
+ * @param start         inizio della fascia
+ * @param end           fine della fascia (esclusa)
+ */
+public record WorkingInterval(int id, int hairdresserId, DayOfWeek dayOfWeek, LocalTime start, LocalTime end) {
+}
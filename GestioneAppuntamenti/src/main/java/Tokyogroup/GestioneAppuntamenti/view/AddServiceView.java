@@ -1,6 +1,7 @@
 package Tokyogroup.GestioneAppuntamenti.view;
 
 import Tokyogroup.GestioneAppuntamenti.controller.ModifyServicesController;
+import Tokyogroup.GestioneAppuntamenti.model.Service;
 
 import javax.swing.*;
 import java.awt.*;
@@ -8,13 +9,15 @@ import java.awt.event.ActionEvent;
 
 /**
  * Classe per la gestione della finestra di aggiunta di un nuovo servizio.
- * Permette all'utente di inserire un nuovo servizio specificando nome e prezzo.
+ * Permette all'utente di inserire un nuovo servizio specificando nome, prezzo
+ * e durata.
  */
 public class AddServiceView {
 
     private JFrame frame;
     private JTextField serviceNameField;
     private JTextField servicePriceField;
+    private JComboBox<Integer> serviceDurationComboBox;
     private JLabel messageLabel;
     private final ModifyServicesController controller;
     private final Runnable onCloseAction;
@@ -40,7 +43,7 @@ public class AddServiceView {
      */
     private void initialize() {
         frame = new JFrame("Aggiungi Servizio");
-        frame.setBounds(100, 100, 400, 300);
+        frame.setBounds(100, 100, 400, 360);
         frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         frame.setResizable(false);
         frame.getContentPane().setLayout(new BorderLayout());
@@ -79,6 +82,21 @@ public class AddServiceView {
 
         mainPanel.add(Box.createRigidArea(new Dimension(0, 10)));
 
+        JLabel durationLabel = new JLabel("Durata Servizio (minuti):");
+        durationLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        mainPanel.add(durationLabel);
+
+        // Durate a multipli di un quarto d'ora, fino a quattro ore
+        serviceDurationComboBox = new JComboBox<>();
+        for (int minutes = Service.DURATION_STEP_MINUTES; minutes <= 240; minutes += Service.DURATION_STEP_MINUTES) {
+            serviceDurationComboBox.addItem(minutes);
+        }
+        serviceDurationComboBox.setSelectedItem(Service.DEFAULT_DURATION_MINUTES);
+        serviceDurationComboBox.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
+        mainPanel.add(serviceDurationComboBox);
+
+        mainPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+
         messageLabel = new JLabel("");
         messageLabel.setForeground(Color.RED);
         messageLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -134,11 +152,13 @@ public class AddServiceView {
         }
 
         try {
-            int success = controller.addNewService(serviceName, servicePrice);
+            int success = controller.addNewService(serviceName, servicePrice,
+                    (Integer) serviceDurationComboBox.getSelectedItem());
             if (success >= 0) {
                 showMessage("Servizio aggiunto con successo!", Color.GREEN);
                 serviceNameField.setText("");
                 servicePriceField.setText("");
+                serviceDurationComboBox.setSelectedItem(Service.DEFAULT_DURATION_MINUTES);
                 if (onServiceAdded != null) {
                     onServiceAdded.run();
                 }
@@ -1,6 +1,7 @@
 package Tokyogroup.GestioneAppuntamenti.view;
 
 import Tokyogroup.GestioneAppuntamenti.controller.AppointmentController;
+import Tokyogroup.GestioneAppuntamenti.model.FreeSlot;
 import Tokyogroup.GestioneAppuntamenti.model.Service;
 import Tokyogroup.GestioneAppuntamenti.model.User;
 
@@ -8,13 +9,18 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 /**
  * Classe per la gestione della vista di prenotazione degli appuntamenti.
  */
 public class AppointmentView {
+	// Giorni esaminati dalla ricerca della prima data libera
+	private static final int SEARCH_DAYS = 90;
+
 	private final AppointmentController appointmentController;
 	private final Runnable onCloseAction;
 	private JFrame frame;
@@ -23,6 +29,15 @@ public class AppointmentView {
 	private JComboBox<String> hourComboBox;
 	private JTable serviceTable;
 	private JLabel messageLabel;
+	private JButton bookButton;
+	private LoadingIndicator loadingIndicator;
+	private AsyncRequest<List<User>> hairdressersRequest;
+	private AsyncRequest<List<Service>> servicesRequest;
+	private AsyncRequest<List<String>> hoursRequest;
+	private AsyncRequest<List<FreeSlot>> firstFreeRequest;
+	private AsyncRequest<Boolean> bookRequest;
+	// Ora da selezionare al termine del caricamento delle ore disponibili
+	private String pendingHour;
 
 	/**
 	 * Costruttore della classe AppointmentView.
@@ -56,6 +71,7 @@ public class AppointmentView {
 		frame.addWindowListener(new java.awt.event.WindowAdapter() {
 			@Override
 			public void windowClosed(java.awt.event.WindowEvent e) {
+				cancelPendingRequests();
 				if (onCloseAction != null) {
 					onCloseAction.run();
 				}
@@ -103,29 +119,49 @@ public class AppointmentView {
 		hourComboBox.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
 		datePanel.add(hourComboBox);
 
+		JButton firstFreeButton = new JButton("Prima data libera");
+		firstFreeButton.addActionListener(this::onFindFirstFreeSlot);
+		datePanel.add(firstFreeButton);
+
 		JLabel serviceLabel = new JLabel("Seleziona Servizi:");
 		serviceLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 		topPanel.add(serviceLabel);
 
-		DefaultTableModel tableModel = new DefaultTableModel(new Object[] { "Servizio", "Costo", "Seleziona" }, 0) {
+		DefaultTableModel tableModel = new DefaultTableModel(
+				new Object[] { "Servizio", "Costo", "Durata", "Seleziona" }, 0) {
 			private static final long serialVersionUID = 1L;
 
 			@Override
 			public boolean isCellEditable(int row, int column) {
-				return column == 2;
+				return column == 3;
 			}
 
 			@Override
 			public Class<?> getColumnClass(int columnIndex) {
-				return columnIndex == 2 ? Boolean.class : String.class;
+				return columnIndex == 3 ? Boolean.class : String.class;
 			}
 		};
+		// Gli orari di inizio dipendono dalla durata complessiva dei servizi selezionati
+		tableModel.addTableModelListener(e -> {
+			if (e.getColumn() == 3) {
+				updateAvailableHours();
+			}
+		});
 
 		serviceTable = new JTable(tableModel);
 		JScrollPane serviceScrollPane = new JScrollPane(serviceTable);
 		serviceScrollPane.setPreferredSize(new Dimension(300, 150));
 		topPanel.add(serviceScrollPane);
 
+		loadingIndicator = new LoadingIndicator();
+		loadingIndicator.setAlignmentX(Component.CENTER_ALIGNMENT);
+		topPanel.add(loadingIndicator);
+		hairdressersRequest = new AsyncRequest<>(loadingIndicator);
+		servicesRequest = new AsyncRequest<>(loadingIndicator);
+		hoursRequest = new AsyncRequest<>(loadingIndicator);
+		firstFreeRequest = new AsyncRequest<>(loadingIndicator);
+		bookRequest = new AsyncRequest<>(loadingIndicator);
+
 		messageLabel = new JLabel("");
 		messageLabel.setHorizontalAlignment(SwingConstants.CENTER);
 		messageLabel.setForeground(Color.RED);
@@ -141,31 +177,24 @@ public class AppointmentView {
 		cancelButton.addActionListener(e -> frame.dispose());
 		buttonPanel.add(cancelButton);
 
-		JButton bookButton = new JButton("Prenota");
+		bookButton = new JButton("Prenota");
 		bookButton.setPreferredSize(new Dimension(0, 40));
 		bookButton.addActionListener(this::onBookAppointment);
 		buttonPanel.add(bookButton);
 
-		try {
-			loadHairdressers();
-		} catch (Exception e) {
-			showErrorMessage("Errore durante il caricamento dei parrucchieri.");
-		}
+		loadHairdressers();
 	}
 
 	/**
 	 * Carica i parrucchieri disponibili nel JComboBox.
 	 */
 	private void loadHairdressers() {
-		try {
-			List<User> hairdressers = appointmentController.getAvailableHairdressers();
+		hairdressersRequest.submit(appointmentController.getAvailableHairdressersAsync(), hairdressers -> {
 			hairdresserComboBox.removeAllItems();
 			for (User hairdresser : hairdressers) {
 				hairdresserComboBox.addItem(hairdresser);
 			}
-		} catch (Exception e) {
-			showErrorMessage("Errore durante il caricamento dei parrucchieri.");
-		}
+		}, e -> showErrorMessage("Errore durante il caricamento dei parrucchieri."));
 	}
 
 	/**
@@ -174,43 +203,94 @@ public class AppointmentView {
 	 * @param e evento di selezione
 	 */
 	private void onHairdresserSelected(ActionEvent e) {
-		try {
-			User selectedHairdresser = (User) hairdresserComboBox.getSelectedItem();
-			if (selectedHairdresser != null) {
-				List<Service> services = appointmentController.getServicesForHairdresser(selectedHairdresser);
+		User selectedHairdresser = (User) hairdresserComboBox.getSelectedItem();
+		if (selectedHairdresser != null) {
+			servicesRequest.submit(appointmentController.getServicesForHairdresserAsync(selectedHairdresser),
+					services -> {
+						DefaultTableModel model = (DefaultTableModel) serviceTable.getModel();
+						model.setRowCount(0);
+						for (Service service : services) {
+							model.addRow(new Object[] { service.getName(),
+									String.format("€%.2f", service.getPrice()),
+									service.getDurationMinutes() + " min", false });
+						}
+					}, ex -> showErrorMessage("Errore durante il caricamento dei servizi o orari disponibili."));
+
+			updateAvailableHours();
+		}
+	}
 
-				DefaultTableModel model = (DefaultTableModel) serviceTable.getModel();
-				model.setRowCount(0);
-				for (Service service : services) {
-					model.addRow(new Object[] { service.getName(), String.format("€%.2f", service.getPrice()), false });
-				}
+	/**
+	 * Aggiorna le ore disponibili in base alla data e ai servizi selezionati.
+	 * Una richiesta ancora in corso per una selezione precedente viene
+	 * cancellata.
+	 */
+	private void updateAvailableHours() {
+		User selectedHairdresser = (User) hairdresserComboBox.getSelectedItem();
+		if (selectedHairdresser != null) {
+			String selectedDate = ((JSpinner.DateEditor) dateSpinner.getEditor()).getFormat()
+					.format(dateSpinner.getValue());
+			// Le ore della selezione precedente non devono restare prenotabili durante il caricamento
+			hourComboBox.removeAllItems();
+			hoursRequest.submit(appointmentController.getAvailableHoursAsync(selectedHairdresser.getId(), selectedDate,
+					getSelectedServices()), availableHours -> {
+						hourComboBox.removeAllItems();
+						for (String hour : availableHours) {
+							hourComboBox.addItem(hour);
+						}
+						if (pendingHour != null) {
+							hourComboBox.setSelectedItem(pendingHour);
+							pendingHour = null;
+						}
+					}, e -> showErrorMessage("Errore durante il caricamento degli orari disponibili."));
+		}
+	}
 
-				updateAvailableHours();
-			}
-		} catch (Exception ex) {
-			showErrorMessage("Errore durante il caricamento dei servizi o orari disponibili.");
+	/**
+	 * Cerca il primo orario libero del parrucchiere selezionato per i servizi
+	 * selezionati nei prossimi giorni e lo imposta in data e ora.
+	 *
+	 * @param e evento del pulsante
+	 */
+	private void onFindFirstFreeSlot(ActionEvent e) {
+		User selectedHairdresser = (User) hairdresserComboBox.getSelectedItem();
+		if (selectedHairdresser == null) {
+			showErrorMessage("Seleziona un parrucchiere.");
+			return;
 		}
+		firstFreeRequest.submit(appointmentController.findFreeSlotsAsync(selectedHairdresser.getId(),
+				getSelectedServices(), SEARCH_DAYS, 1), slots -> {
+					if (slots.isEmpty()) {
+						showErrorMessage("Nessun orario libero nei prossimi " + SEARCH_DAYS + " giorni.");
+						return;
+					}
+					FreeSlot slot = slots.get(0);
+					pendingHour = slot.start().toLocalTime().toString();
+					Date day = Date.from(slot.start().toLocalDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
+					if (day.equals(dateSpinner.getValue())) {
+						updateAvailableHours();
+					} else {
+						dateSpinner.setValue(day);
+					}
+					showSuccessMessage("Primo orario libero: " + slot.start().toLocalDate() + " alle " + pendingHour
+							+ ".");
+				}, ex -> showErrorMessage("Errore durante la ricerca del primo orario libero."));
 	}
 
 	/**
-	 * Aggiorna le ore disponibili in base alla data selezionata.
+	 * Restituisce i nomi dei servizi selezionati nella tabella.
+	 *
+	 * @return i servizi selezionati
 	 */
-	private void updateAvailableHours() {
-		try {
-			User selectedHairdresser = (User) hairdresserComboBox.getSelectedItem();
-			if (selectedHairdresser != null) {
-				String selectedDate = ((JSpinner.DateEditor) dateSpinner.getEditor()).getFormat()
-						.format(dateSpinner.getValue());
-				List<String> availableHours = appointmentController.getAvailableHours(selectedHairdresser.getId(),
-						selectedDate);
-				hourComboBox.removeAllItems();
-				for (String hour : availableHours) {
-					hourComboBox.addItem(hour);
-				}
+	private List<String> getSelectedServices() {
+		DefaultTableModel model = (DefaultTableModel) serviceTable.getModel();
+		List<String> selectedServices = new ArrayList<>();
+		for (int i = 0; i < model.getRowCount(); i++) {
+			if ((boolean) model.getValueAt(i, 3)) {
+				selectedServices.add((String) model.getValueAt(i, 0));
 			}
-		} catch (Exception e) {
-			showErrorMessage("Errore durante il caricamento degli orari disponibili.");
 		}
+		return selectedServices;
 	}
 
 	/**
@@ -224,34 +304,43 @@ public class AppointmentView {
 			String selectedDate = ((JSpinner.DateEditor) dateSpinner.getEditor()).getFormat()
 					.format(dateSpinner.getValue());
 			String selectedHour = (String) hourComboBox.getSelectedItem();
-			DefaultTableModel model = (DefaultTableModel) serviceTable.getModel();
-
-			List<String> selectedServices = new ArrayList<>();
-			for (int i = 0; i < model.getRowCount(); i++) {
-				if ((boolean) model.getValueAt(i, 2)) {
-					selectedServices.add((String) model.getValueAt(i, 0));
-				}
-			}
+			List<String> selectedServices = getSelectedServices();
 
 			if (selectedHairdresser == null || selectedHour == null || selectedServices.isEmpty()) {
 				showErrorMessage("Seleziona tutti i campi obbligatori.");
 				return;
 			}
 
-			boolean success = appointmentController.bookAppointment(selectedHairdresser.getId(), selectedDate,
-					selectedHour, selectedServices);
-
-			if (success) {
-				showSuccessMessage("Appuntamento prenotato con successo!");
-				updateAvailableHours();
-			} else {
-				showErrorMessage("Errore nella prenotazione dell'appuntamento.");
-			}
+			bookButton.setEnabled(false);
+			bookRequest.submit(appointmentController.bookAppointmentAsync(selectedHairdresser.getId(), selectedDate,
+					selectedHour, selectedServices), success -> {
+						bookButton.setEnabled(true);
+						if (success) {
+							showSuccessMessage("Appuntamento prenotato con successo!");
+						} else {
+							showErrorMessage("L'orario selezionato è già stato prenotato.");
+						}
+						updateAvailableHours();
+					}, ex -> {
+						bookButton.setEnabled(true);
+						showErrorMessage("Errore durante la prenotazione dell'appuntamento.");
+					});
 		} catch (Exception ex) {
 			showErrorMessage("Errore durante la prenotazione dell'appuntamento.");
 		}
 	}
 
+	/**
+	 * Cancella i caricamenti ancora in corso alla chiusura della finestra. Una
+	 * prenotazione già inviata non viene cancellata.
+	 */
+	private void cancelPendingRequests() {
+		hairdressersRequest.cancel();
+		servicesRequest.cancel();
+		hoursRequest.cancel();
+		firstFreeRequest.cancel();
+	}
+
 	/**
 	 * Mostra un messaggio di errore.
 	 *
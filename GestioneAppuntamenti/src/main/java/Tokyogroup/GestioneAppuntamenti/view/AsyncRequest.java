@@ -0,0 +1,91 @@
+package Tokyogroup.GestioneAppuntamenti.view;
+
+import Tokyogroup.GestioneAppuntamenti.controller.CorrelationId;
+
+import javax.swing.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Richiesta asincrona di una vista di cui conta solo il risultato più recente.
+ * <p>
+ * Ogni nuova richiesta cancella quella precedente ancora in corso, così il
+ * risultato di una selezione superata (ad esempio un cambio di data nello
+ * spinner) non sovrascrive quello della selezione corrente. I risultati
+ * vengono applicati sull'Event Dispatch Thread tramite
+ * {@link SwingUtilities#invokeLater(Runnable)}, con l'identificativo di
+ * correlazione dell'azione che ha avviato la richiesta.
+ * <p>
+ * Deve essere usata solo dall'Event Dispatch Thread.
+ *
+ * @param <T> tipo del risultato
+ */
+class AsyncRequest<T> {
+    private final LoadingIndicator indicator;
+    private CompletableFuture<T> current;
+
+    /**
+     * Crea una richiesta che mostra l'indicatore indicato mentre è in corso.
+     *
+     * @param indicator indicatore di caricamento della finestra
+     */
+    AsyncRequest(LoadingIndicator indicator) {
+        this.indicator = indicator;
+    }
+
+    /**
+     * Avvia una nuova richiesta, cancellando quella precedente.
+     *
+     * @param future    il risultato dell'operazione asincrona
+     * @param onSuccess azione eseguita sull'EDT con il risultato
+     * @param onError   azione eseguita sull'EDT in caso di errore
+     */
+    void submit(CompletableFuture<T> future, Consumer<? super T> onSuccess, Consumer<Throwable> onError) {
+        cancel();
+        current = future;
+        indicator.start();
+        String correlationId = CorrelationId.current();
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            try (CorrelationId.Scope scope = CorrelationId.use(correlationId)) {
+                complete(future, result, error, onSuccess, onError);
+            }
+        }));
+    }
+
+    private void complete(CompletableFuture<T> future, T result, Throwable error, Consumer<? super T> onSuccess,
+            Consumer<Throwable> onError) {
+        indicator.stop();
+        if (current != future) {
+            return; // Richiesta superata o cancellata
+        }
+        current = null;
+        if (error == null) {
+            onSuccess.accept(result);
+        } else {
+            onError.accept(error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error);
+        }
+    }
+
+    /**
+     * Cancella la richiesta in corso, il cui risultato verrà ignorato.
+     */
+    void cancel() {
+        if (current != null) {
+            CompletableFuture<T> previous = current;
+            current = null;
+            previous.cancel(false);
+        }
+    }
+
+    /**
+     * Indica se una richiesta è in corso.
+     *
+     * @return true se una richiesta è in corso, false altrimenti
+     */
+    boolean isPending() {
+        return current != null;
+    }
+}
@@ -1,21 +1,28 @@
 package Tokyogroup.GestioneAppuntamenti.view;
 
 import Tokyogroup.GestioneAppuntamenti.controller.CancelAppointmentForHairdresserController;
+import Tokyogroup.GestioneAppuntamenti.model.AppointmentListing;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Map;
 /**
  * Classe che rappresenta la vista per la cancellazione degli appuntamenti per il parrucchiere.
  */
 public class CancelAppointmentForHairdresserView {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     private final CancelAppointmentForHairdresserController controller;
     private final Runnable onCloseAction;
     private JFrame frame;
     private JTable appointmentTable;
+    private JButton cancelAppointmentButton;
+    private LoadingIndicator loadingIndicator;
+    private AsyncRequest<List<AppointmentListing>> appointmentsRequest;
+    private AsyncRequest<Boolean> cancelRequest;
 
     /**
      * Costruttore della vista.
@@ -49,6 +56,7 @@ public class CancelAppointmentForHairdresserView {
         frame.addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosed(java.awt.event.WindowEvent e) {
+                appointmentsRequest.cancel();
                 if (onCloseAction != null) {
                     onCloseAction.run();
                 }
@@ -59,9 +67,17 @@ public class CancelAppointmentForHairdresserView {
         titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
         titleLabel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        frame.add(titleLabel, BorderLayout.NORTH);
 
-        DefaultTableModel tableModel = new DefaultTableModel(new Object[]{"ID Appuntamento", "Data", "Stato", "Cliente"}, 0) {
+        loadingIndicator = new LoadingIndicator();
+        appointmentsRequest = new AsyncRequest<>(loadingIndicator);
+        cancelRequest = new AsyncRequest<>(loadingIndicator);
+
+        JPanel northPanel = new JPanel(new BorderLayout());
+        northPanel.add(titleLabel, BorderLayout.CENTER);
+        northPanel.add(loadingIndicator, BorderLayout.SOUTH);
+        frame.add(northPanel, BorderLayout.NORTH);
+
+        DefaultTableModel tableModel = new DefaultTableModel(new Object[]{"ID Appuntamento", "Data", "Stato", "Cliente", "Servizi"}, 0) {
             private static final long serialVersionUID = 1L;
 
             @Override
@@ -79,14 +95,6 @@ public class CancelAppointmentForHairdresserView {
         JScrollPane scrollPane = new JScrollPane(appointmentTable);
         frame.add(scrollPane, BorderLayout.CENTER);
 
-        try {
-            List<String[]> appointments = controller.getValidAppointmentsForHairdresser();
-            Map<Integer, String> clientNames = controller.getClientNames();
-            updateAppointmentTable(appointments, clientNames);
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(frame, "Errore durante il caricamento degli appuntamenti.", "Errore", JOptionPane.ERROR_MESSAGE);
-        }
-
         JPanel buttonPanel = new JPanel();
         buttonPanel.setLayout(new GridLayout(1, 2, 10, 10));
         buttonPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -97,10 +105,21 @@ public class CancelAppointmentForHairdresserView {
         cancelButton.addActionListener(e -> frame.dispose());
         buttonPanel.add(cancelButton);
 
-        JButton cancelAppointmentButton = new JButton("Disdici");
+        cancelAppointmentButton = new JButton("Disdici");
         cancelAppointmentButton.setPreferredSize(new Dimension(0, 40));
         cancelAppointmentButton.addActionListener(this::onCancelAppointmentClicked);
         buttonPanel.add(cancelAppointmentButton);
+
+        loadAppointments();
+    }
+
+    /**
+     * Carica gli appuntamenti validi con i nomi dei clienti.
+     */
+    private void loadAppointments() {
+        appointmentsRequest.submit(controller.getValidAppointmentListingsAsync(),
+                this::updateAppointmentTable,
+                e -> JOptionPane.showMessageDialog(frame, "Errore durante il caricamento degli appuntamenti.", "Errore", JOptionPane.ERROR_MESSAGE));
     }
 
     /**
@@ -116,16 +135,20 @@ public class CancelAppointmentForHairdresserView {
         }
 
         try {
-            int appointmentId = Integer.parseInt(appointmentTable.getValueAt(selectedRow, 0).toString());
-            boolean success = controller.cancelAppointment(appointmentId);
-            if (success) {
-                JOptionPane.showMessageDialog(frame, "Appuntamento disdetto con successo!");
-                List<String[]> updatedAppointments = controller.getValidAppointmentsForHairdresser();
-                Map<Integer, String> clientNames = controller.getClientNames();
-                updateAppointmentTable(updatedAppointments, clientNames);
-            } else {
+            int appointmentId = (Integer) appointmentTable.getValueAt(selectedRow, 0);
+            cancelAppointmentButton.setEnabled(false);
+            cancelRequest.submit(controller.cancelAppointmentAsync(appointmentId), success -> {
+                cancelAppointmentButton.setEnabled(true);
+                if (success) {
+                    JOptionPane.showMessageDialog(frame, "Appuntamento disdetto con successo!");
+                    loadAppointments();
+                } else {
+                    JOptionPane.showMessageDialog(frame, "Errore durante l'annullamento dell'appuntamento.", "Errore", JOptionPane.ERROR_MESSAGE);
+                }
+            }, ex -> {
+                cancelAppointmentButton.setEnabled(true);
                 JOptionPane.showMessageDialog(frame, "Errore durante l'annullamento dell'appuntamento.", "Errore", JOptionPane.ERROR_MESSAGE);
-            }
+            });
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(frame, "Errore durante l'annullamento dell'appuntamento.", "Errore", JOptionPane.ERROR_MESSAGE);
         }
@@ -135,15 +158,13 @@ public class CancelAppointmentForHairdresserView {
      * Aggiorna la tabella degli appuntamenti.
      *
      * @param appointments la lista degli appuntamenti
-     * @param clientNames  la mappa dei nomi dei clienti
      */
-    private void updateAppointmentTable(List<String[]> appointments, Map<Integer, String> clientNames) {
+    private void updateAppointmentTable(List<AppointmentListing> appointments) {
         DefaultTableModel tableModel = (DefaultTableModel) appointmentTable.getModel();
         tableModel.setRowCount(0);
-        for (String[] appointment : appointments) {
-            int clientId = Integer.parseInt(appointment[3]);
-            String clientName = clientNames.getOrDefault(clientId, "Sconosciuto");
-            tableModel.addRow(new Object[]{appointment[0], appointment[1], appointment[2], clientName});
+        for (AppointmentListing appointment : appointments) {
+            tableModel.addRow(new Object[]{appointment.id(), DATE_FORMAT.format(appointment.appointmentDate()),
+                    appointment.status(), appointment.counterpartName(), appointment.services()});
         }
     }
 }
\ No newline at end of file
@@ -1,22 +1,29 @@
 package Tokyogroup.GestioneAppuntamenti.view;
 
 import Tokyogroup.GestioneAppuntamenti.controller.CancelAppointmentController;
+import Tokyogroup.GestioneAppuntamenti.model.AppointmentListing;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Classe che rappresenta la vista per la cancellazione degli appuntamenti.
  */
 public class CancelAppointmentView {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     private final CancelAppointmentController cancelAppointmentController;
     private final Runnable onCloseAction;
     private JFrame frame;
     private JTable appointmentTable;
+    private JButton cancelAppointmentButton;
+    private LoadingIndicator loadingIndicator;
+    private AsyncRequest<List<AppointmentListing>> appointmentsRequest;
+    private AsyncRequest<Boolean> cancelRequest;
 
     /**
      * Costruttore della classe CancelAppointmentView.
@@ -52,6 +59,7 @@ public class CancelAppointmentView {
         frame.addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosed(java.awt.event.WindowEvent e) {
+                appointmentsRequest.cancel();
                 if (onCloseAction != null) {
                     onCloseAction.run();
                 }
@@ -62,10 +70,18 @@ public class CancelAppointmentView {
         titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
         titleLabel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        frame.add(titleLabel, BorderLayout.NORTH);
+
+        loadingIndicator = new LoadingIndicator();
+        appointmentsRequest = new AsyncRequest<>(loadingIndicator);
+        cancelRequest = new AsyncRequest<>(loadingIndicator);
+
+        JPanel northPanel = new JPanel(new BorderLayout());
+        northPanel.add(titleLabel, BorderLayout.CENTER);
+        northPanel.add(loadingIndicator, BorderLayout.SOUTH);
+        frame.add(northPanel, BorderLayout.NORTH);
 
         DefaultTableModel tableModel = new DefaultTableModel(
-                new Object[] { "ID Appuntamento", "Data", "Stato", "Parrucchiere" }, 0) {
+                new Object[] { "ID Appuntamento", "Data", "Stato", "Parrucchiere", "Servizi" }, 0) {
             private static final long serialVersionUID = 1L;
 
             @Override
@@ -83,16 +99,6 @@ public class CancelAppointmentView {
         JScrollPane scrollPane = new JScrollPane(appointmentTable);
         frame.add(scrollPane, BorderLayout.CENTER);
 
-        try {
-            List<String[]> appointments = cancelAppointmentController.getValidAppointmentsForClient();
-            Map<Integer, String> hairdresserNames = cancelAppointmentController.getHairdresserNames();
-            updateAppointmentTable(appointments, hairdresserNames);
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(frame, "Errore durante il caricamento degli appuntamenti.", "Errore",
-                    JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
         JPanel buttonPanel = new JPanel();
         buttonPanel.setLayout(new GridLayout(1, 2, 10, 10));
         buttonPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -103,10 +109,22 @@ public class CancelAppointmentView {
         closeButton.addActionListener(e -> frame.dispose());
         buttonPanel.add(closeButton);
 
-        JButton cancelAppointmentButton = new JButton("Disdici");
+        cancelAppointmentButton = new JButton("Disdici");
         cancelAppointmentButton.setPreferredSize(new Dimension(0, 40));
         cancelAppointmentButton.addActionListener(this::onCancelAppointmentClicked);
         buttonPanel.add(cancelAppointmentButton);
+
+        loadAppointments();
+    }
+
+    /**
+     * Carica gli appuntamenti validi con i nomi dei parrucchieri.
+     */
+    private void loadAppointments() {
+        appointmentsRequest.submit(cancelAppointmentController.getValidAppointmentListingsAsync(),
+                this::updateAppointmentTable,
+                e -> JOptionPane.showMessageDialog(frame, "Errore durante il caricamento degli appuntamenti.",
+                        "Errore", JOptionPane.ERROR_MESSAGE));
     }
 
     /**
@@ -123,18 +141,23 @@ public class CancelAppointmentView {
         }
 
         try {
-            int appointmentId = Integer.parseInt(appointmentTable.getValueAt(selectedRow, 0).toString());
-
-            boolean success = cancelAppointmentController.cancelAppointment(appointmentId);
-            if (success) {
-                JOptionPane.showMessageDialog(frame, "Appuntamento disdetto con successo!");
-                List<String[]> updatedAppointments = cancelAppointmentController.getValidAppointmentsForClient();
-                Map<Integer, String> hairdresserNames = cancelAppointmentController.getHairdresserNames();
-                updateAppointmentTable(updatedAppointments, hairdresserNames);
-            } else {
+            int appointmentId = (Integer) appointmentTable.getValueAt(selectedRow, 0);
+
+            cancelAppointmentButton.setEnabled(false);
+            cancelRequest.submit(cancelAppointmentController.cancelAppointmentAsync(appointmentId), success -> {
+                cancelAppointmentButton.setEnabled(true);
+                if (success) {
+                    JOptionPane.showMessageDialog(frame, "Appuntamento disdetto con successo!");
+                    loadAppointments();
+                } else {
+                    JOptionPane.showMessageDialog(frame, "Errore durante l'annullamento dell'appuntamento.", "Errore",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            }, ex -> {
+                cancelAppointmentButton.setEnabled(true);
                 JOptionPane.showMessageDialog(frame, "Errore durante l'annullamento dell'appuntamento.", "Errore",
                         JOptionPane.ERROR_MESSAGE);
-            }
+            });
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(frame, "Errore durante l'annullamento dell'appuntamento.", "Errore",
                     JOptionPane.ERROR_MESSAGE);
@@ -144,16 +167,14 @@ public class CancelAppointmentView {
     /**
      * Aggiorna la tabella degli appuntamenti.
      *
-     * @param appointments     la lista degli appuntamenti
-     * @param hairdresserNames la mappa degli ID dei parrucchieri con i loro nomi
+     * @param appointments la lista degli appuntamenti
      */
-    private void updateAppointmentTable(List<String[]> appointments, Map<Integer, String> hairdresserNames) {
+    private void updateAppointmentTable(List<AppointmentListing> appointments) {
         DefaultTableModel tableModel = (DefaultTableModel) appointmentTable.getModel();
         tableModel.setRowCount(0);
-        for (String[] appointment : appointments) {
-            int hairdresserId = Integer.parseInt(appointment[3]);
-            String hairdresserName = hairdresserNames.getOrDefault(hairdresserId, "Sconosciuto");
-            tableModel.addRow(new Object[] { appointment[0], appointment[1], appointment[2], hairdresserName });
+        for (AppointmentListing appointment : appointments) {
+            tableModel.addRow(new Object[] { appointment.id(), DATE_FORMAT.format(appointment.appointmentDate()),
+                    appointment.status(), appointment.counterpartName(), appointment.services() });
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package Tokyogroup.GestioneAppuntamenti.view;
+
+import Tokyogroup.GestioneAppuntamenti.controller.CorrelationId;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+
+/**
+ * Coda degli eventi che assegna un identificativo di correlazione a ogni azione
+ * dell'utente.
+ * <p>
+ * Swing notifica le azioni dei componenti (pulsanti, liste, campi di testo)
+ * mentre gestisce gli eventi di mouse e tastiera da cui derivano, quindi ogni
+ * pressione, rilascio o clic del mouse e ogni pressione o rilascio di un tasto
+ * viene distribuito con un nuovo {@link CorrelationId}. Le righe di log scritte
+ * durante la gestione dell'evento e dalle operazioni asincrone che avvia
+ * riportano lo stesso identificativo.
+ */
+public final class CorrelatingEventQueue extends EventQueue {
+
+    private CorrelatingEventQueue() {
+        // Creata solo da install()
+    }
+
+    /**
+     * Sostituisce la coda degli eventi di sistema con una coda che assegna gli
+     * identificativi di correlazione.
+     */
+    public static void install() {
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new CorrelatingEventQueue());
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        if (!isUserAction(event)) {
+            super.dispatchEvent(event);
+            return;
+        }
+        try (CorrelationId.Scope scope = CorrelationId.begin()) {
+            super.dispatchEvent(event);
+        }
+    }
+
+    private static boolean isUserAction(AWTEvent event) {
+        return switch (event.getID()) {
+            case MouseEvent.MOUSE_PRESSED, MouseEvent.MOUSE_RELEASED, MouseEvent.MOUSE_CLICKED,
+                    KeyEvent.KEY_PRESSED, KeyEvent.KEY_RELEASED, ActionEvent.ACTION_PERFORMED -> true;
+            default -> false;
+        };
+    }
+}
@@ -23,6 +23,12 @@ public class CreateAppointmentView {
     private JComboBox<String> hourComboBox;
     private JTable serviceTable;
     private JLabel messageLabel;
+    private JButton createButton;
+    private LoadingIndicator loadingIndicator;
+    private AsyncRequest<List<User>> clientsRequest;
+    private AsyncRequest<List<Service>> servicesRequest;
+    private AsyncRequest<List<String>> hoursRequest;
+    private AsyncRequest<Boolean> createRequest;
 
     /**
      * Costruttore della classe CreateAppointmentView.
@@ -58,6 +64,7 @@ public class CreateAppointmentView {
         frame.addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosed(java.awt.event.WindowEvent e) {
+                cancelPendingRequests();
                 if (onCloseAction != null) {
                     onCloseAction.run();
                 }
@@ -110,25 +117,40 @@ public class CreateAppointmentView {
         serviceLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         topPanel.add(serviceLabel);
 
-        DefaultTableModel tableModel = new DefaultTableModel(new Object[] { "Servizio", "Costo", "Seleziona" }, 0) {
+        DefaultTableModel tableModel = new DefaultTableModel(
+                new Object[] { "Servizio", "Costo", "Durata", "Seleziona" }, 0) {
             private static final long serialVersionUID = 1L;
 
             @Override
             public boolean isCellEditable(int row, int column) {
-                return column == 2;
+                return column == 3;
             }
 
             @Override
             public Class<?> getColumnClass(int columnIndex) {
-                return columnIndex == 2 ? Boolean.class : String.class;
+                return columnIndex == 3 ? Boolean.class : String.class;
             }
         };
+        // Gli orari di inizio dipendono dalla durata complessiva dei servizi selezionati
+        tableModel.addTableModelListener(e -> {
+            if (e.getColumn() == 3) {
+                updateAvailableHours();
+            }
+        });
 
         serviceTable = new JTable(tableModel);
         JScrollPane serviceScrollPane = new JScrollPane(serviceTable);
         serviceScrollPane.setPreferredSize(new Dimension(300, 150));
         topPanel.add(serviceScrollPane);
 
+        loadingIndicator = new LoadingIndicator();
+        loadingIndicator.setAlignmentX(Component.CENTER_ALIGNMENT);
+        topPanel.add(loadingIndicator);
+        clientsRequest = new AsyncRequest<>(loadingIndicator);
+        servicesRequest = new AsyncRequest<>(loadingIndicator);
+        hoursRequest = new AsyncRequest<>(loadingIndicator);
+        createRequest = new AsyncRequest<>(loadingIndicator);
+
         messageLabel = new JLabel("");
         messageLabel.setHorizontalAlignment(SwingConstants.CENTER);
         frame.add(messageLabel, BorderLayout.CENTER);
@@ -143,16 +165,12 @@ public class CreateAppointmentView {
         cancelButton.addActionListener(e -> frame.dispose());
         buttonPanel.add(cancelButton);
 
-        JButton createButton = new JButton("Crea");
+        createButton = new JButton("Crea");
         createButton.setPreferredSize(new Dimension(0, 40));
         createButton.addActionListener(this::onCreateAppointment);
         buttonPanel.add(createButton);
 
-        try {
-            loadClients();
-        } catch (Exception e) {
-            showErrorMessage("Errore durante il caricamento dei clienti.");
-        }
+        loadClients();
     }
 
     /**
@@ -175,54 +193,68 @@ public class CreateAppointmentView {
      * Carica i servizi disponibili per il cliente selezionato.
      */
     private void loadServicesForClient() {
-        try {
-            DefaultTableModel model = (DefaultTableModel) serviceTable.getModel();
-            model.setRowCount(0);
+        DefaultTableModel model = (DefaultTableModel) serviceTable.getModel();
+        model.setRowCount(0);
 
-            User selectedClient = (User) clientComboBox.getSelectedItem();
-            if (selectedClient == null) {
-                return;
-            }
+        User selectedClient = (User) clientComboBox.getSelectedItem();
+        if (selectedClient == null) {
+            servicesRequest.cancel();
+            return;
+        }
 
-            List<Service> services = createAppointmentController.getServicesForCurrentHairdresser();
+        servicesRequest.submit(createAppointmentController.getServicesForCurrentHairdresserAsync(), services -> {
+            model.setRowCount(0);
             for (Service service : services) {
-                model.addRow(new Object[] { service.getName(), String.format("€%.2f", service.getPrice()), false });
+                model.addRow(new Object[] { service.getName(), String.format("€%.2f", service.getPrice()),
+                        service.getDurationMinutes() + " min", false });
             }
-        } catch (Exception e) {
-            showErrorMessage("Errore durante il caricamento dei servizi per il cliente.");
-        }
+        }, e -> showErrorMessage("Errore durante il caricamento dei servizi per il cliente."));
     }
 
     /**
      * Carica i clienti disponibili.
      */
     private void loadClients() {
-        try {
-            List<User> clients = createAppointmentController.getClients();
+        clientsRequest.submit(createAppointmentController.getClientsAsync(), clients -> {
             clientComboBox.removeAllItems();
             for (User client : clients) {
                 clientComboBox.addItem(client);
             }
-        } catch (Exception e) {
-            showErrorMessage("Errore durante il caricamento dei clienti.");
-        }
+        }, e -> showErrorMessage("Errore durante il caricamento dei clienti."));
     }
 
     /**
-     * Aggiorna gli orari disponibili per la data selezionata.
+     * Aggiorna gli orari disponibili per la data e i servizi selezionati. Una
+     * richiesta ancora in corso per una selezione precedente viene cancellata.
      */
     private void updateAvailableHours() {
-        try {
-            String selectedDate = ((JSpinner.DateEditor) dateSpinner.getEditor()).getFormat()
-                    .format(dateSpinner.getValue());
-            List<String> availableHours = createAppointmentController.getAvailableHoursForDate(selectedDate);
-            hourComboBox.removeAllItems();
-            for (String hour : availableHours) {
-                hourComboBox.addItem(hour);
+        String selectedDate = ((JSpinner.DateEditor) dateSpinner.getEditor()).getFormat()
+                .format(dateSpinner.getValue());
+        // Le ore della data precedente non devono restare prenotabili durante il caricamento
+        hourComboBox.removeAllItems();
+        hoursRequest.submit(createAppointmentController.getAvailableHoursForDateAsync(selectedDate,
+                getSelectedServices()), availableHours -> {
+                    hourComboBox.removeAllItems();
+                    for (String hour : availableHours) {
+                        hourComboBox.addItem(hour);
+                    }
+                }, e -> showErrorMessage("Errore durante il caricamento degli orari disponibili."));
+    }
+
+    /**
+     * Restituisce i nomi dei servizi selezionati nella tabella.
+     *
+     * @return i servizi selezionati
+     */
+    private List<String> getSelectedServices() {
+        DefaultTableModel model = (DefaultTableModel) serviceTable.getModel();
+        List<String> selectedServices = new ArrayList<>();
+        for (int i = 0; i < model.getRowCount(); i++) {
+            if ((boolean) model.getValueAt(i, 3)) {
+                selectedServices.add((String) model.getValueAt(i, 0));
             }
-        } catch (Exception e) {
-            showErrorMessage("Errore durante il caricamento degli orari disponibili.");
         }
+        return selectedServices;
     }
 
     /**
@@ -236,34 +268,42 @@ public class CreateAppointmentView {
             String selectedDate = ((JSpinner.DateEditor) dateSpinner.getEditor()).getFormat()
                     .format(dateSpinner.getValue());
             String selectedHour = (String) hourComboBox.getSelectedItem();
-            DefaultTableModel model = (DefaultTableModel) serviceTable.getModel();
-
-            List<String> selectedServices = new ArrayList<>();
-            for (int i = 0; i < model.getRowCount(); i++) {
-                if ((boolean) model.getValueAt(i, 2)) {
-                    selectedServices.add((String) model.getValueAt(i, 0));
-                }
-            }
+            List<String> selectedServices = getSelectedServices();
 
             if (selectedClient == null || selectedHour == null || selectedServices.isEmpty()) {
                 showErrorMessage("Seleziona tutti i campi obbligatori.");
                 return;
             }
 
-            boolean success = createAppointmentController.createAppointment(selectedClient.getId(), selectedDate,
-                    selectedHour, selectedServices);
-
-            if (success) {
-                showSuccessMessage("Appuntamento creato con successo!");
-                updateAvailableHours();
-            } else {
-                showErrorMessage("Errore nella creazione dell'appuntamento.");
-            }
+            createButton.setEnabled(false);
+            createRequest.submit(createAppointmentController.createAppointmentAsync(selectedClient.getId(),
+                    selectedDate, selectedHour, selectedServices), success -> {
+                        createButton.setEnabled(true);
+                        if (success) {
+                            showSuccessMessage("Appuntamento creato con successo!");
+                        } else {
+                            showErrorMessage("L'orario selezionato è già stato prenotato.");
+                        }
+                        updateAvailableHours();
+                    }, ex -> {
+                        createButton.setEnabled(true);
+                        showErrorMessage("Errore durante la creazione dell'appuntamento.");
+                    });
         } catch (Exception ex) {
             showErrorMessage("Errore durante la creazione dell'appuntamento.");
         }
     }
 
+    /**
+     * Cancella i caricamenti ancora in corso alla chiusura della finestra. Una
+     * creazione già inviata non viene cancellata.
+     */
+    private void cancelPendingRequests() {
+        clientsRequest.cancel();
+        servicesRequest.cancel();
+        hoursRequest.cancel();
+    }
+
     /**
      * Mostra un messaggio di errore.
      *
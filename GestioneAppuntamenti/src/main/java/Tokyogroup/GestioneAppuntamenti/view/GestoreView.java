@@ -4,6 +4,7 @@ import Tokyogroup.GestioneAppuntamenti.controller.CancelAppointmentForHairdresse
 import Tokyogroup.GestioneAppuntamenti.controller.ChangePasswordController;
 import Tokyogroup.GestioneAppuntamenti.controller.CreateAppointmentController;
 import Tokyogroup.GestioneAppuntamenti.controller.ModifyServicesController;
+import Tokyogroup.GestioneAppuntamenti.controller.ScheduleController;
 import Tokyogroup.GestioneAppuntamenti.controller.ViewMessagesController;
 import Tokyogroup.GestioneAppuntamenti.controller.WeeklyAppointmentsController;
 import Tokyogroup.GestioneAppuntamenti.model.User;
@@ -81,8 +82,8 @@ public class GestoreView {
                 new Runnable[] { this::handleViewMessages }, uniformHeight);
 
         addGroup(centerPanel, "Gestione Personale", new String[] {
-                "Modificare servizi offerti" },
-                new Runnable[] { this::handleModifyServices }, uniformHeight);
+                "Modificare servizi offerti", "Orari e chiusure" },
+                new Runnable[] { this::handleModifyServices, this::handleSchedule }, uniformHeight);
 
         addGroup(centerPanel, "Gestione Account", new String[] {
                 "Modificare la password" },
@@ -200,6 +201,15 @@ public class GestoreView {
         SwingUtilities.invokeLater(() -> new ModifyServicesView(controller, this::show).show());
     }
 
+    /**
+     * Gestisce l'orario di lavoro e le chiusure del negozio.
+     */
+    private void handleSchedule() {
+        frame.dispose();
+        ScheduleController controller = new ScheduleController(user);
+        SwingUtilities.invokeLater(() -> new ScheduleView(controller, this::show).show());
+    }
+
     /**
      * Gestisce la modifica della password.
      */
@@ -0,0 +1,41 @@
+package Tokyogroup.GestioneAppuntamenti.view;
+
+import javax.swing.*;
+
+/**
+ * Barra di avanzamento indeterminata, visibile finché almeno una richiesta
+ * asincrona della finestra è in corso.
+ * <p>
+ * Deve essere usata solo dall'Event Dispatch Thread.
+ */
+class LoadingIndicator extends JProgressBar {
+    private static final long serialVersionUID = 1L;
+
+    private int pending;
+
+    /**
+     * Crea l'indicatore, inizialmente nascosto.
+     */
+    LoadingIndicator() {
+        setIndeterminate(true);
+        setString("Caricamento...");
+        setStringPainted(true);
+        setVisible(false);
+    }
+
+    /**
+     * Segnala l'inizio di una richiesta.
+     */
+    void start() {
+        pending++;
+        setVisible(true);
+    }
+
+    /**
+     * Segnala la fine di una richiesta.
+     */
+    void stop() {
+        pending = Math.max(0, pending - 1);
+        setVisible(pending > 0);
+    }
+}
@@ -95,6 +95,15 @@ public class LoginView {
 		loginButton.addActionListener(this::handleLogin);
 		buttonPanel.add(loginButton);
 
+		// La finestra compare mentre il database viene ancora inizializzato
+		loginButton.setEnabled(false);
+		loginController.whenDatabaseReady().whenComplete((ready, error) -> SwingUtilities.invokeLater(() -> {
+			loginButton.setEnabled(error == null);
+			if (error != null) {
+				showMessage("Database non disponibile.", Color.RED);
+			}
+		}));
+
 		registerLabel.addMouseListener(new java.awt.event.MouseAdapter() {
 			@Override
 			public void mouseClicked(java.awt.event.MouseEvent evt) {
@@ -0,0 +1,327 @@
+package Tokyogroup.GestioneAppuntamenti.view;
+
+import Tokyogroup.GestioneAppuntamenti.controller.ScheduleController;
+import Tokyogroup.GestioneAppuntamenti.model.SalonClosure;
+import Tokyogroup.GestioneAppuntamenti.model.ScheduleException;
+import Tokyogroup.GestioneAppuntamenti.model.WorkingInterval;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.DayOfWeek;
+import java.time.format.TextStyle;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Classe che rappresenta la vista per la gestione dell'orario di lavoro:
+ * fasce settimanali, eccezioni in giorni specifici e chiusure del negozio.
+ */
+public class ScheduleView {
+
+    private JFrame frame;
+    private final ScheduleController controller;
+    private final Runnable onCloseAction;
+
+    private final DefaultListModel<WorkingInterval> intervalsModel = new DefaultListModel<>();
+    private final DefaultListModel<ScheduleException> exceptionsModel = new DefaultListModel<>();
+    private final DefaultListModel<SalonClosure> closuresModel = new DefaultListModel<>();
+    private JList<WorkingInterval> intervalsList;
+    private JList<ScheduleException> exceptionsList;
+    private JList<SalonClosure> closuresList;
+
+    private LoadingIndicator loadingIndicator;
+    private AsyncRequest<List<WorkingInterval>> intervalsRequest;
+    private AsyncRequest<List<ScheduleException>> exceptionsRequest;
+    private AsyncRequest<List<SalonClosure>> closuresRequest;
+
+    /**
+     * Costruttore della classe ScheduleView.
+     *
+     * @param controller    il controller per la gestione degli orari
+     * @param onCloseAction l'azione da eseguire alla chiusura della finestra
+     */
+    public ScheduleView(ScheduleController controller, Runnable onCloseAction) {
+        this.controller = controller;
+        this.onCloseAction = onCloseAction;
+        initialize();
+    }
+
+    /**
+     * Inizializza la finestra e i suoi componenti.
+     */
+    private void initialize() {
+        frame = new JFrame("Orari e Chiusure");
+        frame.setBounds(100, 100, 560, 480);
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        frame.setResizable(false);
+        frame.getContentPane().setLayout(new BorderLayout());
+
+        frame.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                intervalsRequest.cancel();
+                exceptionsRequest.cancel();
+                closuresRequest.cancel();
+                if (onCloseAction != null) {
+                    onCloseAction.run();
+                }
+            }
+        });
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Orario settimanale", createWeeklyTab());
+        tabs.addTab("Eccezioni", createExceptionsTab());
+        tabs.addTab("Chiusure", createClosuresTab());
+        frame.getContentPane().add(tabs, BorderLayout.CENTER);
+
+        JPanel bottomPanel = new JPanel(new BorderLayout(10, 10));
+        bottomPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        loadingIndicator = new LoadingIndicator();
+        bottomPanel.add(loadingIndicator, BorderLayout.CENTER);
+        JButton closeButton = new JButton("Chiudi");
+        closeButton.addActionListener(e -> frame.dispose());
+        bottomPanel.add(closeButton, BorderLayout.EAST);
+        frame.getContentPane().add(bottomPanel, BorderLayout.SOUTH);
+
+        intervalsRequest = new AsyncRequest<>(loadingIndicator);
+        exceptionsRequest = new AsyncRequest<>(loadingIndicator);
+        closuresRequest = new AsyncRequest<>(loadingIndicator);
+
+        loadWorkingHours();
+        loadExceptions();
+        loadClosures();
+    }
+
+    /**
+     * Crea la scheda dell'orario settimanale.
+     *
+     * @return il pannello della scheda
+     */
+    private JPanel createWeeklyTab() {
+        intervalsList = createList(intervalsModel,
+                interval -> dayName(interval.dayOfWeek()) + "  " + interval.start() + " - " + interval.end());
+
+        JComboBox<DayOfWeek> dayComboBox = new JComboBox<>(DayOfWeek.values());
+        dayComboBox.setRenderer(new DefaultListCellRenderer() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                    boolean isSelected, boolean cellHasFocus) {
+                return super.getListCellRendererComponent(list, dayName((DayOfWeek) value), index, isSelected,
+                        cellHasFocus);
+            }
+        });
+        JTextField startField = new JTextField("09:00", 5);
+        JTextField endField = new JTextField("13:00", 5);
+
+        JPanel form = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        form.add(dayComboBox);
+        form.add(new JLabel("Dalle:"));
+        form.add(startField);
+        form.add(new JLabel("Alle:"));
+        form.add(endField);
+
+        return createTab("Senza fasce si applica l'orario predefinito, dalle 9:00 alle 18:00.", intervalsList, form,
+                () -> {
+                    controller.addWorkingInterval((DayOfWeek) dayComboBox.getSelectedItem(), startField.getText(),
+                            endField.getText());
+                    loadWorkingHours();
+                },
+                () -> {
+                    WorkingInterval selected = intervalsList.getSelectedValue();
+                    if (selected != null && controller.removeWorkingInterval(selected.id())) {
+                        loadWorkingHours();
+                    }
+                });
+    }
+
+    /**
+     * Crea la scheda delle eccezioni all'orario.
+     *
+     * @return il pannello della scheda
+     */
+    private JPanel createExceptionsTab() {
+        exceptionsList = createList(exceptionsModel, exception -> exception.date() + "  "
+                + (exception.isWholeDay() ? "tutto il giorno" : exception.start() + " - " + exception.end())
+                + "  " + (exception.available() ? "Fascia in più" : "Assenza")
+                + (exception.reason() == null ? "" : " (" + exception.reason() + ")"));
+
+        JTextField dateField = new JTextField(8);
+        JTextField startField = new JTextField(4);
+        JTextField endField = new JTextField(4);
+        JComboBox<String> typeComboBox = new JComboBox<>(new String[] { "Assenza", "Fascia in più" });
+        JTextField reasonField = new JTextField(8);
+
+        JPanel form = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        form.add(new JLabel("Data:"));
+        form.add(dateField);
+        form.add(new JLabel("Dalle:"));
+        form.add(startField);
+        form.add(new JLabel("Alle:"));
+        form.add(endField);
+        form.add(typeComboBox);
+        form.add(new JLabel("Motivo:"));
+        form.add(reasonField);
+
+        return createTab("Data nel formato yyyy-MM-dd; lasciare vuoti gli orari per tutto il giorno.", exceptionsList,
+                form,
+                () -> {
+                    controller.addException(dateField.getText(), startField.getText(), endField.getText(),
+                            typeComboBox.getSelectedIndex() == 1, reasonField.getText());
+                    loadExceptions();
+                },
+                () -> {
+                    ScheduleException selected = exceptionsList.getSelectedValue();
+                    if (selected != null && controller.removeException(selected.id())) {
+                        loadExceptions();
+                    }
+                });
+    }
+
+    /**
+     * Crea la scheda delle chiusure del negozio.
+     *
+     * @return il pannello della scheda
+     */
+    private JPanel createClosuresTab() {
+        closuresList = createList(closuresModel,
+                closure -> closure.date() + (closure.reason() == null ? "" : "  " + closure.reason()));
+
+        JTextField dateField = new JTextField(8);
+        JTextField reasonField = new JTextField(16);
+
+        JPanel form = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        form.add(new JLabel("Data:"));
+        form.add(dateField);
+        form.add(new JLabel("Motivo:"));
+        form.add(reasonField);
+
+        return createTab("Il negozio chiuso non accetta prenotazioni presso nessun parrucchiere.", closuresList, form,
+                () -> {
+                    if (!controller.addClosure(dateField.getText(), reasonField.getText())) {
+                        JOptionPane.showMessageDialog(frame, "Il negozio è già chiuso in questa data.",
+                                "Attenzione", JOptionPane.WARNING_MESSAGE);
+                    }
+                    loadClosures();
+                },
+                () -> {
+                    SalonClosure selected = closuresList.getSelectedValue();
+                    if (selected != null && controller.removeClosure(selected.date().toString())) {
+                        loadClosures();
+                    }
+                });
+    }
+
+    /**
+     * Compone una scheda con una nota, l'elenco, il modulo di inserimento e i
+     * pulsanti per aggiungere e rimuovere.
+     *
+     * @param hint     nota mostrata sopra l'elenco
+     * @param list     l'elenco delle voci
+     * @param form     il modulo di inserimento
+     * @param onAdd    azione del pulsante "Aggiungi"
+     * @param onRemove azione del pulsante "Rimuovi"
+     * @return il pannello della scheda
+     */
+    private JPanel createTab(String hint, JList<?> list, JPanel form, Runnable onAdd, Runnable onRemove) {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        panel.add(new JLabel(hint), BorderLayout.NORTH);
+        panel.add(new JScrollPane(list), BorderLayout.CENTER);
+
+        JButton addButton = new JButton("Aggiungi");
+        addButton.addActionListener(e -> runAction(onAdd));
+        JButton removeButton = new JButton("Rimuovi");
+        removeButton.addActionListener(e -> {
+            if (list.getSelectedValue() == null) {
+                JOptionPane.showMessageDialog(frame, "Seleziona una voce da rimuovere.", "Attenzione",
+                        JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            runAction(onRemove);
+        });
+
+        JPanel buttonPanel = new JPanel(new GridLayout(1, 2, 10, 10));
+        buttonPanel.add(removeButton);
+        buttonPanel.add(addButton);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(form, BorderLayout.CENTER);
+        southPanel.add(buttonPanel, BorderLayout.SOUTH);
+        panel.add(southPanel, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    /**
+     * Esegue un'operazione di modifica, mostrando i dati non validi e gli
+     * errori all'utente.
+     *
+     * @param action l'operazione
+     */
+    private void runAction(Runnable action) {
+        try {
+            action.run();
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(frame, ex.getMessage(), "Dati non validi", JOptionPane.WARNING_MESSAGE);
+        } catch (RuntimeException ex) {
+            JOptionPane.showMessageDialog(frame, "Errore durante il salvataggio dell'orario.", "Errore",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void loadWorkingHours() {
+        intervalsRequest.submit(controller.getWorkingHoursAsync(), items -> fill(intervalsModel, items),
+                e -> showLoadError());
+    }
+
+    private void loadExceptions() {
+        exceptionsRequest.submit(controller.getExceptionsAsync(), items -> fill(exceptionsModel, items),
+                e -> showLoadError());
+    }
+
+    private void loadClosures() {
+        closuresRequest.submit(controller.getClosuresAsync(), items -> fill(closuresModel, items),
+                e -> showLoadError());
+    }
+
+    private void showLoadError() {
+        JOptionPane.showMessageDialog(frame, "Errore durante il caricamento degli orari.", "Errore",
+                JOptionPane.ERROR_MESSAGE);
+    }
+
+    private static <T> void fill(DefaultListModel<T> model, List<T> items) {
+        model.clear();
+        model.addAll(items);
+    }
+
+    private static <T> JList<T> createList(DefaultListModel<T> model, Function<T, String> text) {
+        JList<T> list = new JList<>(model);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                    boolean isSelected, boolean cellHasFocus) {
+                return super.getListCellRendererComponent(list, text.apply((T) value), index, isSelected,
+                        cellHasFocus);
+            }
+        });
+        return list;
+    }
+
+    private static String dayName(DayOfWeek day) {
+        String name = day.getDisplayName(TextStyle.FULL, Locale.ITALIAN);
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Mostra la finestra.
+     */
+    public void show() {
+        frame.setVisible(true);
+    }
+}
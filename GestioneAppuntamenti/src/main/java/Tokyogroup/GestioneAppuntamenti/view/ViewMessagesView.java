@@ -17,6 +17,10 @@ public class ViewMessagesView {
     private JFrame frame;
     private JTable messagesTable;
     private DefaultTableModel tableModel;
+    private JButton markAsReadButton;
+    private LoadingIndicator loadingIndicator;
+    private AsyncRequest<List<Message>> messagesRequest;
+    private AsyncRequest<Boolean> markAsReadRequest;
     private final ViewMessagesController controller;
     private final Runnable onCloseAction;
 
@@ -45,6 +49,7 @@ public class ViewMessagesView {
         frame.addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosed(java.awt.event.WindowEvent e) {
+                messagesRequest.cancel();
                 if (onCloseAction != null) {
                     onCloseAction.run();
                 }
@@ -54,7 +59,15 @@ public class ViewMessagesView {
         JLabel titleLabel = new JLabel("Messaggi Non Letti");
         titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        frame.getContentPane().add(titleLabel, BorderLayout.NORTH);
+
+        loadingIndicator = new LoadingIndicator();
+        messagesRequest = new AsyncRequest<>(loadingIndicator);
+        markAsReadRequest = new AsyncRequest<>(loadingIndicator);
+
+        JPanel northPanel = new JPanel(new BorderLayout());
+        northPanel.add(titleLabel, BorderLayout.CENTER);
+        northPanel.add(loadingIndicator, BorderLayout.SOUTH);
+        frame.getContentPane().add(northPanel, BorderLayout.NORTH);
 
         String[] columnNames = { "Messaggio", "ID Messaggio", "Utente", "Data" };
         tableModel = new DefaultTableModel(columnNames, 0) {
@@ -79,7 +92,7 @@ public class ViewMessagesView {
         cancelButton.addActionListener(e -> frame.dispose());
         buttonPanel.add(cancelButton);
 
-        JButton markAsReadButton = new JButton("Segna come Letto");
+        markAsReadButton = new JButton("Segna come Letto");
         markAsReadButton.setPreferredSize(new Dimension(0, 40));
         markAsReadButton.addActionListener(this::handleMarkAsRead);
         buttonPanel.add(markAsReadButton);
@@ -91,8 +104,7 @@ public class ViewMessagesView {
      * Carica i messaggi non letti nella tabella.
      */
     private void loadMessages() {
-        try {
-            List<Message> messages = controller.getUnreadMessages();
+        messagesRequest.submit(controller.getUnreadMessagesAsync(), messages -> {
             tableModel.setRowCount(0);
             for (Message message : messages) {
                 tableModel.addRow(new Object[] {
@@ -102,10 +114,8 @@ public class ViewMessagesView {
                         message.getSentDate(),
                 });
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(frame, "Errore durante il caricamento dei messaggi.", "Errore",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        }, e -> JOptionPane.showMessageDialog(frame, "Errore durante il caricamento dei messaggi.", "Errore",
+                JOptionPane.ERROR_MESSAGE));
     }
 
     /**
@@ -122,8 +132,9 @@ public class ViewMessagesView {
         }
 
         int messageId = (int) messagesTable.getValueAt(selectedRow, 1);
-        try {
-            boolean success = controller.markMessageAsRead(messageId);
+        markAsReadButton.setEnabled(false);
+        markAsReadRequest.submit(controller.markMessageAsReadAsync(messageId), success -> {
+            markAsReadButton.setEnabled(true);
             if (success) {
                 JOptionPane.showMessageDialog(frame, "Messaggio segnato come letto.", "Successo",
                         JOptionPane.INFORMATION_MESSAGE);
@@ -132,10 +143,11 @@ public class ViewMessagesView {
                 JOptionPane.showMessageDialog(frame, "Errore durante l'aggiornamento del messaggio.", "Errore",
                         JOptionPane.ERROR_MESSAGE);
             }
-        } catch (Exception ex) {
+        }, ex -> {
+            markAsReadButton.setEnabled(true);
             JOptionPane.showMessageDialog(frame, "Errore durante l'aggiornamento del messaggio.", "Errore",
                     JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     /**
@@ -5,13 +5,14 @@ import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellRenderer;
 
 import Tokyogroup.GestioneAppuntamenti.controller.WeeklyAppointmentsController;
+import Tokyogroup.GestioneAppuntamenti.model.WeeklyAppointment;
+import Tokyogroup.GestioneAppuntamenti.model.WeeklySummary;
 
 import java.awt.*;
 import java.time.LocalDate;
 import java.time.format.TextStyle;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 /**
  * Classe per la visualizzazione degli appuntamenti settimanali.
@@ -23,6 +24,8 @@ public class WeeklyAppointmentsView {
     private JFrame frame;
     private JTable table;
     private JLabel revenueLabel;
+    private LoadingIndicator loadingIndicator;
+    private AsyncRequest<WeeklySummary> weeklyRequest;
 
     /**
      * Costruttore della vista degli appuntamenti settimanali.
@@ -57,6 +60,7 @@ public class WeeklyAppointmentsView {
         frame.addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosed(java.awt.event.WindowEvent e) {
+                weeklyRequest.cancel();
                 if (onCloseAction != null) {
                     onCloseAction.run();
                 }
@@ -136,6 +140,10 @@ public class WeeklyAppointmentsView {
         revenueLabel.setFont(new Font("Arial", Font.BOLD, 16));
         bottomPanel.add(revenueLabel, BorderLayout.WEST);
 
+        loadingIndicator = new LoadingIndicator();
+        bottomPanel.add(loadingIndicator, BorderLayout.CENTER);
+        weeklyRequest = new AsyncRequest<>(loadingIndicator);
+
         JButton closeButton = new JButton("Chiudi");
         closeButton.addActionListener(e -> frame.dispose());
         bottomPanel.add(closeButton, BorderLayout.EAST);
@@ -149,9 +157,21 @@ public class WeeklyAppointmentsView {
      * Carica gli appuntamenti settimanali e aggiorna la tabella e il fatturato.
      */
     private void loadWeeklyAppointments() {
+        weeklyRequest.submit(controller.getWeeklySummaryAsync(), this::showWeeklyAppointments,
+                e -> JOptionPane.showMessageDialog(frame,
+                        "Errore durante il caricamento degli appuntamenti settimanali.", "Errore",
+                        JOptionPane.ERROR_MESSAGE));
+    }
+
+    /**
+     * Aggiorna la tabella e il fatturato con i dati caricati.
+     *
+     * @param data riepilogo della settimana
+     */
+    private void showWeeklyAppointments(WeeklySummary data) {
         try {
-            Map<Integer, List<String[]>> weeklyAppointments = controller.getWeeklyAppointments();
-            double totalRevenue = controller.calculateWeeklyRevenue();
+            List<WeeklyAppointment> weeklyAppointments = data.appointments();
+            double totalRevenue = data.revenue();
 
             DefaultTableModel tableModel = (DefaultTableModel) table.getModel();
             for (int hour = 0; hour < 24; hour++) {
@@ -160,19 +180,11 @@ public class WeeklyAppointmentsView {
                 }
             }
 
-            for (Map.Entry<Integer, List<String[]>> entry : weeklyAppointments.entrySet()) {
-                int dayOfWeek = entry.getKey();
-                for (String[] appointment : entry.getValue()) {
-                    int hour = Integer.parseInt(appointment[0]);
-                    String client = appointment[1];
-                    String status = appointment[2];
-                    String services = appointment[3];
-
-                    String cellText = String.format(
-                            "Cliente:%s, Stato:%s, Servizi:%s",
-                            client, status, services);
-                    tableModel.setValueAt(cellText, hour, dayOfWeek);
-                }
+            for (WeeklyAppointment appointment : weeklyAppointments) {
+                String cellText = String.format(
+                        "Cliente:%s, Stato:%s, Servizi:%s",
+                        appointment.clientName(), appointment.status(), appointment.services());
+                tableModel.setValueAt(cellText, appointment.hour(), appointment.dayOfWeek());
             }
 
             revenueLabel.setText(String.format("Fatturato settimanale: €%.2f", totalRevenue));
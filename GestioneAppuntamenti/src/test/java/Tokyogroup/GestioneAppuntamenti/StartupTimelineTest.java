@@ -0,0 +1,49 @@
+package Tokyogroup.GestioneAppuntamenti;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per StartupTimeline.
+ */
+class StartupTimelineTest {
+
+    /**
+     * Verifica che le fasi eseguite in parallelo vengano registrate con il
+     * proprio thread, in ordine di inizio e con la durata misurata.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testRecordsParallelPhasesInStartOrder() throws Exception {
+        StartupTimeline timeline = new StartupTimeline();
+
+        Thread background = new Thread(() -> {
+            try (StartupTimeline.Measure phase = timeline.start("database")) {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "avvio-database");
+        background.start();
+        Thread.sleep(20);
+        try (StartupTimeline.Measure phase = timeline.start("interfaccia")) {
+            Thread.sleep(30);
+        }
+        background.join();
+        timeline.mark("prima finestra visibile");
+
+        List<StartupTimeline.Phase> phases = timeline.getPhases();
+        assertEquals(List.of("database", "interfaccia", "prima finestra visibile"),
+                phases.stream().map(StartupTimeline.Phase::name).toList());
+        assertEquals("avvio-database", phases.get(0).thread());
+        assertTrue(phases.get(0).durationMillis() >= 100);
+        assertTrue(phases.get(1).startMillis() < phases.get(0).startMillis() + phases.get(0).durationMillis(),
+                "Le due fasi devono sovrapporsi");
+        assertEquals(0, phases.get(2).durationMillis());
+        assertDoesNotThrow(timeline::log);
+    }
+}
@@ -0,0 +1,287 @@
+package Tokyogroup.GestioneAppuntamenti.api;
+
+import Tokyogroup.GestioneAppuntamenti.model.DatabaseManager;
+import Tokyogroup.GestioneAppuntamenti.model.Service;
+import Tokyogroup.GestioneAppuntamenti.model.ServiceDAO;
+import Tokyogroup.GestioneAppuntamenti.model.User;
+import Tokyogroup.GestioneAppuntamenti.model.UserDAO;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica gli endpoint dell'API HTTP su un server avviato nel processo di
+ * test, e ne misura la capacità con molte richieste concorrenti. La prova di
+ * carico ha il tag {@code carico} e viene eseguita solo con
+ * {@code mvn -Pbenchmarks verify}.
+ */
+class ApiServerTest {
+
+    private static final Logger logger = LogManager.getLogger(ApiServerTest.class);
+
+    private static final int LOAD_CLIENTS = 8;
+    private static final int LOAD_REQUESTS = 2_000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private HttpClient client;
+    private ApiServer server;
+    private String baseUrl;
+
+    /**
+     * Effettua il backup del database prima di eseguire tutti i test.
+     *
+     * @throws Exception se si verifica un errore durante il backup del database.
+     */
+    @BeforeAll
+    static void backupDatabase() throws Exception {
+        DatabaseManager.backupDatabase();
+    }
+
+    /**
+     * Crea un cliente, un parrucchiere con un servizio e avvia l'API su una
+     * porta libera.
+     *
+     * @throws Exception se si verifica un errore durante la configurazione.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        DatabaseManager.deleteDatabaseFiles();
+        DatabaseManager.initializeDatabase();
+
+        UserDAO userDAO = UserDAO.getInstance();
+        userDAO.addUser(new User(1, "cliente", "password", "CLIENTE", true));
+        userDAO.addUser(new User(2, "parrucchiere", "password", "GESTORE", true));
+        userDAO.addUser(new User(3, "altro", "password", "CLIENTE", true));
+        ServiceDAO serviceDAO = new ServiceDAO();
+        serviceDAO.addService(new Service(1, "Taglio", 10));
+        serviceDAO.addServiceToHairdresser(2, 1);
+
+        server = ApiServer.start(0, 16, 60_000);
+        baseUrl = "http://localhost:" + server.getPort();
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    /**
+     * Arresta l'API e ripristina il database dopo ogni test.
+     *
+     * @throws Exception se si verifica un errore durante il ripristino del
+     *                   database.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        server.stop();
+        DatabaseManager.restoreDatabase();
+    }
+
+    /**
+     * Verifica login, catalogo, disponibilità e prenotazione di un cliente, con
+     * il conflitto sullo stesso orario.
+     *
+     * @throws Exception se una richiesta fallisce.
+     */
+    @Test
+    void testClientBooksAndSeesAppointment() throws Exception {
+        String token = login("cliente");
+        String day = LocalDate.now().plusDays(30).toString();
+
+        HttpResponse<String> hairdressers = send("GET", "/api/hairdressers", token, null);
+        assertEquals(200, hairdressers.statusCode());
+        assertEquals("parrucchiere", json(hairdressers).get(0).get("username").asText());
+        assertFalse(hairdressers.body().contains("password"));
+
+        JsonNode services = json(send("GET", "/api/hairdressers/2/services", token, null));
+        assertEquals("Taglio", services.get(0).get("name").asText());
+        assertEquals(60, services.get(0).get("durationMinutes").asInt());
+
+        // Inizi a ogni quarto d'ora dalle 9:00 alle 17:00 per un'ora di servizi
+        JsonNode availability = json(send("GET", "/api/hairdressers/2/availability?date=" + day, token, null));
+        assertEquals(33, availability.get("hours").size());
+
+        String booking = """
+                {"hairdresserId": 2, "date": "%s", "hour": "10:00", "services": ["Taglio"]}
+                """.formatted(day);
+        assertEquals(201, send("POST", "/api/appointments", token, booking).statusCode());
+        HttpResponse<String> conflict = send("POST", "/api/appointments", token, booking);
+        assertEquals(409, conflict.statusCode());
+        assertTrue(json(conflict).has("error"));
+
+        availability = json(send("GET", "/api/hairdressers/2/availability?date=" + day + "&services=Taglio", token,
+                null));
+        assertEquals(26, availability.get("hours").size());
+        assertEquals("09:00", availability.get("hours").get(0).asText());
+        assertEquals("11:00", availability.get("hours").get(1).asText());
+        assertEquals(400, send("GET", "/api/hairdressers/2/availability?date=" + day + "&services=Sconosciuto",
+                token, null).statusCode());
+        assertEquals(400, send("POST", "/api/appointments", token, booking.replace("10:00", "10:10")).statusCode());
+        assertEquals(400, send("POST", "/api/appointments", token, booking.replace("10:00", "17:30")).statusCode());
+
+        JsonNode slots = json(send("GET", "/api/slots?services=Taglio&days=90&limit=3", token, null));
+        assertEquals(3, slots.size());
+        assertEquals(2, slots.get(0).get("hairdresserId").asInt());
+        assertEquals(400, send("GET", "/api/slots?days=molti", token, null).statusCode());
+
+        JsonNode appointments = json(send("GET", "/api/appointments", token, null));
+        assertEquals(1, appointments.size());
+        assertEquals(day + "T10:00", appointments.get(0).get("dateTime").asText());
+        assertEquals("parrucchiere", appointments.get(0).get("counterpartName").asText());
+    }
+
+    /**
+     * Verifica che un cliente possa disdire solo i propri appuntamenti.
+     *
+     * @throws Exception se una richiesta fallisce.
+     */
+    @Test
+    void testCancellationRequiresOwnership() throws Exception {
+        String owner = login("cliente");
+        String day = LocalDate.now().plusDays(30).toString();
+        send("POST", "/api/appointments", owner, """
+                {"hairdresserId": 2, "date": "%s", "hour": "11:00", "services": ["Taglio"]}
+                """.formatted(day));
+        int appointmentId = json(send("GET", "/api/appointments", owner, null)).get(0).get("id").asInt();
+
+        assertEquals(404, send("DELETE", "/api/appointments/" + appointmentId, login("altro"), null).statusCode());
+        assertEquals(204, send("DELETE", "/api/appointments/" + appointmentId, owner, null).statusCode());
+        assertEquals(0, json(send("GET", "/api/appointments", owner, null)).size());
+    }
+
+    /**
+     * Verifica le risposte di errore: credenziali errate, token mancante o
+     * chiuso, dati non validi, percorsi e metodi sconosciuti.
+     *
+     * @throws Exception se una richiesta fallisce.
+     */
+    @Test
+    void testErrorResponses() throws Exception {
+        assertEquals(401, send("POST", "/api/login", null,
+                "{\"username\": \"cliente\", \"password\": \"sbagliata\"}").statusCode());
+        assertEquals(400, send("POST", "/api/login", null, "{\"username\": \"cliente\"").statusCode());
+        assertEquals(401, send("GET", "/api/appointments", null, null).statusCode());
+        assertEquals(401, send("GET", "/api/appointments", "inesistente", null).statusCode());
+
+        String token = login("cliente");
+        assertEquals(400, send("GET", "/api/hairdressers/2/availability?date=domani", token, null).statusCode());
+        assertEquals(403, send("GET", "/api/messages", token, null).statusCode());
+        assertEquals(404, send("GET", "/api/sconosciuto", token, null).statusCode());
+        assertEquals(405, send("PUT", "/api/appointments", token, "{}").statusCode());
+
+        assertEquals(204, send("POST", "/api/logout", token, null).statusCode());
+        assertEquals(401, send("GET", "/api/appointments", token, null).statusCode());
+    }
+
+    /**
+     * Verifica l'invio di un messaggio da un cliente e la lettura da parte del
+     * gestore.
+     *
+     * @throws Exception se una richiesta fallisce.
+     */
+    @Test
+    void testMessageRoundTrip() throws Exception {
+        String clientToken = login("cliente");
+        assertEquals(201, send("POST", "/api/messages", clientToken,
+                "{\"receiverId\": 2, \"text\": \"Posso spostare l'appuntamento?\"}").statusCode());
+
+        String managerToken = login("parrucchiere");
+        JsonNode messages = json(send("GET", "/api/messages", managerToken, null));
+        assertEquals(1, messages.size());
+        assertEquals("cliente", messages.get(0).get("senderUsername").asText());
+
+        int messageId = messages.get(0).get("id").asInt();
+        assertEquals(204, send("POST", "/api/messages/" + messageId + "/read", managerToken, null).statusCode());
+        assertEquals(404, send("POST", "/api/messages/" + messageId + "/read", managerToken, null).statusCode());
+        assertEquals(0, json(send("GET", "/api/messages", managerToken, null)).size());
+    }
+
+    /**
+     * Invia migliaia di richieste di disponibilità da più client concorrenti e
+     * verifica che ricevano tutte risposta; scrive nel log del test il numero
+     * di richieste al secondo.
+     *
+     * @throws Exception se una richiesta fallisce.
+     */
+    @Test
+    @Tag("carico")
+    void testConcurrentAvailabilityRequests() throws Exception {
+        String token = login("cliente");
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        ExecutorService executor = Executors.newFixedThreadPool(LOAD_CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int c = 0; c < LOAD_CLIENTS; c++) {
+                int offset = c;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int ok = 0;
+                    for (int i = 0; i < LOAD_REQUESTS / LOAD_CLIENTS; i++) {
+                        String path = "/api/hairdressers/2/availability?date=" + firstDay.plusDays((offset + i) % 60);
+                        if (send("GET", path, token, null).statusCode() == 200) {
+                            ok++;
+                        }
+                    }
+                    return ok;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            int ok = 0;
+            for (Future<Integer> result : results) {
+                ok += result.get(120, TimeUnit.SECONDS);
+            }
+            long elapsedMillis = Math.max(1, (System.nanoTime() - begin) / 1_000_000);
+
+            assertEquals(LOAD_REQUESTS, ok);
+            logger.info("API: {} richieste con {} client in {} ms ({} richieste/s)", ok, LOAD_CLIENTS,
+                    elapsedMillis, ok * 1000L / elapsedMillis);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String login(String username) throws Exception {
+        HttpResponse<String> response = send("POST", "/api/login", null,
+                "{\"username\": \"" + username + "\", \"password\": \"password\"}");
+        assertEquals(200, response.statusCode());
+        JsonNode body = json(response);
+        assertEquals(username, body.get("username").asText());
+        return body.get("token").asText();
+    }
+
+    private HttpResponse<String> send(String method, String path, String token, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode json(HttpResponse<String> response) throws Exception {
+        return mapper.readTree(response.body());
+    }
+}
@@ -1,11 +1,14 @@
 package Tokyogroup.GestioneAppuntamenti.controller;
 import Tokyogroup.GestioneAppuntamenti.model.DatabaseManager;
+import Tokyogroup.GestioneAppuntamenti.model.FreeSlot;
 import Tokyogroup.GestioneAppuntamenti.model.Service;
 import Tokyogroup.GestioneAppuntamenti.model.ServiceDAO;
 import Tokyogroup.GestioneAppuntamenti.model.User;
 import Tokyogroup.GestioneAppuntamenti.model.UserDAO;
 
 import org.junit.jupiter.api.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -122,6 +125,33 @@ class AppointmentControllerTest {
         assertFalse(availableHours.isEmpty());
     }
 
+    /**
+     * Verifica che gli orari disponibili dipendano dalla durata complessiva dei
+     * servizi selezionati, a intervalli di un quarto d'ora, e che non si possa
+     * prenotare oltre la chiusura.
+     */
+    @Test
+    void testGetAvailableHoursForServices() {
+        String tomorrow = LocalDate.now().plusDays(1).toString();
+        assertEquals(33, User.getAvailableHours(2, tomorrow).size());
+
+        // Taglio e piega occupano le 10:00-12:00
+        assertTrue(User.bookAppointment(2, tomorrow, "10:00", List.of("Taglio", "Piega")));
+
+        List<String> twoHours = User.getAvailableHours(2, tomorrow, List.of("Taglio", "Piega"));
+        assertEquals(17, twoHours.size());
+        assertEquals("12:00", twoHours.get(0));
+        assertEquals("16:00", twoHours.get(twoHours.size() - 1));
+        List<String> oneHour = User.getAvailableHours(2, tomorrow, List.of("Taglio"));
+        assertEquals(List.of("09:00", "12:00", "12:15"), oneHour.subList(0, 3));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> User.bookAppointment(2, tomorrow, "16:30", List.of("Taglio", "Piega")));
+        assertThrows(IllegalArgumentException.class, () -> User.bookAppointment(2, tomorrow, "12:20", List.of("Taglio")));
+        assertFalse(User.bookAppointment(2, tomorrow, "11:45", List.of("Taglio")));
+        assertTrue(User.bookAppointment(2, tomorrow, "16:00", List.of("Taglio", "Piega")));
+    }
+
     /**
      * Testa il metodo bookAppointment di AppointmentController.
      */
@@ -132,6 +162,59 @@ class AppointmentControllerTest {
         assertTrue(success);
     }
 
+    /**
+     * Testa il metodo findFreeSlots di AppointmentController: gli orari occupati
+     * vengono saltati e, senza parrucchiere indicato, vengono considerati solo
+     * i parrucchieri che offrono tutti i servizi richiesti.
+     *
+     * @throws Exception se si verifica un errore durante la configurazione.
+     */
+    @Test
+    void testFindFreeSlots() throws Exception {
+        userDAO.addUser(new User(3, "hairdresser2", "password", "GESTORE", true));
+        new ServiceDAO().addServiceToHairdresser(3, 1);
+        String tomorrow = LocalDate.now().plusDays(1).toString();
+        for (int hour = 9; hour < 12; hour++) {
+            assertTrue(User.bookAppointment(2, tomorrow, String.format("%02d:00", hour), List.of("Taglio")));
+        }
+
+        List<FreeSlot> slots = User.findFreeSlots(2, List.of("Taglio", "Piega"), 90, 500);
+        assertEquals(500, slots.size());
+        assertTrue(slots.get(0).start().isAfter(LocalDateTime.now()));
+        assertTrue(slots.stream().noneMatch(slot -> slot.start().toLocalDate().toString().equals(tomorrow)
+                && slot.start().getHour() < 12));
+        assertTrue(slots.stream().anyMatch(slot -> slot.start().equals(LocalDate.now().plusDays(1).atTime(12, 0))));
+        for (int i = 1; i < slots.size(); i++) {
+            assertTrue(slots.get(i - 1).start().isBefore(slots.get(i).start()));
+        }
+
+        // Solo il parrucchiere 2 offre la piega
+        assertTrue(User.findFreeSlots(null, List.of("Piega"), 90, 50).stream()
+                .allMatch(slot -> slot.hairdresserId() == 2));
+        List<FreeSlot> any = User.findFreeSlots(null, List.of("Taglio"), 2, 1000);
+        assertTrue(any.stream().anyMatch(slot -> slot.hairdresserId() == 3
+                && slot.start().equals(LocalDate.now().plusDays(1).atTime(9, 0))));
+        assertEquals("hairdresser2", any.stream().filter(slot -> slot.hairdresserId() == 3).findFirst()
+                .orElseThrow().hairdresserName());
+
+        assertThrows(IllegalArgumentException.class, () -> User.findFreeSlots(2, List.of(), 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> User.findFreeSlots(2, List.of(), 90, 0));
+    }
+
+    /**
+     * Verifica che le ricerche successive alla prima, servite dalle ore
+     * occupate già caricate, restituiscano gli stessi orari. La latenza della
+     * ricerca è misurata da LookupBenchmark.
+     */
+    @Test
+    void testFindFreeSlotsRepeated() {
+        List<FreeSlot> first = User.findFreeSlots(null, List.of("Taglio"), 90, 10);
+        assertEquals(10, first.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(first, User.findFreeSlots(null, List.of("Taglio"), 90, 10));
+        }
+    }
+
     /**
      * Testa il metodo isDateTimeValid di AppointmentController.
      */
@@ -0,0 +1,80 @@
+package Tokyogroup.GestioneAppuntamenti.controller;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per AsyncExecutor.
+ */
+class AsyncExecutorTest {
+
+    /**
+     * Verifica che il risultato venga calcolato fuori dal thread chiamante.
+     *
+     * @throws Exception se il future non viene completato.
+     */
+    @Test
+    void testSupplyRunsOnAnotherThread() throws Exception {
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Thread> future = AsyncExecutor.supply(Thread::currentThread);
+
+        assertNotSame(caller, future.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Verifica che un'eccezione dell'operazione completi il future in modo
+     * eccezionale.
+     */
+    @Test
+    void testSupplyPropagatesException() {
+        CompletableFuture<Object> future = AsyncExecutor.supply(() -> {
+            throw new IllegalStateException("errore");
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    /**
+     * Verifica che un'operazione cancellata prima dell'avvio non venga eseguita.
+     *
+     * @throws Exception se l'attesa viene interrotta.
+     */
+    @Test
+    void testCancelledTaskIsSkipped() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean executed = new AtomicBoolean();
+
+        // Occupa tutti i thread del pool, se presente, così l'operazione resta in coda
+        CompletableFuture<?>[] blockers = new CompletableFuture<?>[8];
+        for (int i = 0; i < blockers.length; i++) {
+            blockers[i] = AsyncExecutor.supply(() -> {
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            });
+        }
+        CompletableFuture<Boolean> future = AsyncExecutor.supply(() -> {
+            executed.set(true);
+            return true;
+        });
+        future.cancel(false);
+        release.countDown();
+        CompletableFuture.allOf(blockers).get(5, TimeUnit.SECONDS);
+        // Lascia al pool il tempo di estrarre l'operazione cancellata dalla coda
+        AsyncExecutor.supply(() -> true).get(5, TimeUnit.SECONDS);
+
+        assertTrue(future.isCancelled());
+        assertFalse(executed.get());
+    }
+}
@@ -1,4 +1,5 @@
 package Tokyogroup.GestioneAppuntamenti.controller;
+import Tokyogroup.GestioneAppuntamenti.model.AppointmentEntry;
 import Tokyogroup.GestioneAppuntamenti.model.DatabaseManager;
 import Tokyogroup.GestioneAppuntamenti.model.Service;
 import Tokyogroup.GestioneAppuntamenti.model.ServiceDAO;
@@ -72,7 +73,7 @@ class CancelAppointmentControllerTest {
         UserTemp = new AppointmentController(testUser);
         List<String> selectedServices = List.of("Taglio", "Piega");
         UserTemp.bookAppointment(2, "2025-10-10", "11:00", selectedServices);
-        List<String[]> appointments = User.getValidAppointmentsForClient();
+        List<AppointmentEntry> appointments = User.getValidAppointmentsForClient();
         assertNotNull(appointments);
         assertFalse(appointments.isEmpty());
     }
@@ -0,0 +1,61 @@
+package Tokyogroup.GestioneAppuntamenti.controller;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per CorrelationId.
+ */
+class CorrelationIdTest {
+
+    /**
+     * Verifica che un'operazione asincrona erediti l'identificativo dell'azione
+     * che l'ha avviata e che il thread di esecuzione non lo conservi dopo.
+     *
+     * @throws Exception se il future non viene completato.
+     */
+    @Test
+    void testAsyncOperationInheritsCorrelationId() throws Exception {
+        try (CorrelationId.Scope scope = CorrelationId.begin()) {
+            String id = CorrelationId.current();
+            assertNotNull(id);
+
+            assertEquals(id, AsyncExecutor.supply(CorrelationId::current).get(5, TimeUnit.SECONDS));
+        }
+        assertNull(CorrelationId.current());
+    }
+
+    /**
+     * Verifica che un'operazione avviata fuori da un'azione riceva un nuovo
+     * identificativo, diverso a ogni operazione.
+     *
+     * @throws Exception se il future non viene completato.
+     */
+    @Test
+    void testAsyncOperationWithoutActionGetsNewId() throws Exception {
+        String first = AsyncExecutor.supply(CorrelationId::current).get(5, TimeUnit.SECONDS);
+        String second = AsyncExecutor.supply(CorrelationId::current).get(5, TimeUnit.SECONDS);
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotEquals(first, second);
+    }
+
+    /**
+     * Verifica che la chiusura di un ambito annidato ripristini l'identificativo
+     * precedente.
+     */
+    @Test
+    void testNestedScopeRestoresPreviousId() {
+        try (CorrelationId.Scope outer = CorrelationId.begin()) {
+            String id = CorrelationId.current();
+            try (CorrelationId.Scope inner = CorrelationId.begin()) {
+                assertNotEquals(id, CorrelationId.current());
+            }
+            assertEquals(id, CorrelationId.current());
+        }
+    }
+}
@@ -6,6 +6,8 @@ import Tokyogroup.GestioneAppuntamenti.model.User;
 import Tokyogroup.GestioneAppuntamenti.model.UserDAO;
 import org.junit.jupiter.api.*;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.awt.GraphicsEnvironment;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -161,4 +163,25 @@ class LoginControllerTest {
             User.openRegistration();
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Testa che l'autenticazione attenda il completamento dell'inizializzazione
+     * del database.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testAuthenticateWaitsForDatabase() throws Exception {
+        CompletableFuture<Void> databaseReady = new CompletableFuture<>();
+        LoginController controller = new LoginController(databaseReady);
+
+        CompletableFuture<User> authenticated = CompletableFuture
+                .supplyAsync(() -> controller.authenticate("testUser", "password"));
+        Thread.sleep(100);
+        assertFalse(authenticated.isDone());
+        assertFalse(controller.whenDatabaseReady().toCompletableFuture().isDone());
+
+        databaseReady.complete(null);
+        assertEquals("testUser", authenticated.get(5, TimeUnit.SECONDS).getUsername());
+    }
+}
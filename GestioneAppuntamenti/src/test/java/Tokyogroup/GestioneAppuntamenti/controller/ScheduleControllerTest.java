@@ -0,0 +1,164 @@
+package Tokyogroup.GestioneAppuntamenti.controller;
+import Tokyogroup.GestioneAppuntamenti.model.DatabaseManager;
+import Tokyogroup.GestioneAppuntamenti.model.FreeSlot;
+import Tokyogroup.GestioneAppuntamenti.model.Service;
+import Tokyogroup.GestioneAppuntamenti.model.ServiceDAO;
+import Tokyogroup.GestioneAppuntamenti.model.User;
+import Tokyogroup.GestioneAppuntamenti.model.UserDAO;
+import Tokyogroup.GestioneAppuntamenti.model.WorkingInterval;
+
+import org.junit.jupiter.api.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per ScheduleController e per l'effetto degli orari di lavoro
+ * sulle disponibilità.
+ */
+class ScheduleControllerTest {
+
+    private ScheduleController schedule;
+    private AppointmentController client;
+    private LocalDate day;
+
+    /**
+     * Effettua il backup del database prima di eseguire tutti i test.
+     *
+     * @throws Exception se si verifica un errore durante il backup del database.
+     */
+    @BeforeAll
+    static void backupDatabase() throws Exception {
+        DatabaseManager.backupDatabase();
+    }
+
+    /**
+     * Configura l'ambiente di test prima di ogni test.
+     *
+     * @throws Exception se si verifica un errore durante la configurazione.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        DatabaseManager.deleteDatabaseFiles();
+        DatabaseManager.initializeDatabase();
+
+        User testUser = new User(1, "testUser", "password", "CLIENTE", true);
+        User testHairdresser = new User(2, "hairdresser", "password", "GESTORE", true);
+        UserDAO userDAO = UserDAO.getInstance();
+        userDAO.addUser(testUser);
+        userDAO.addUser(testHairdresser);
+        userDAO.addUser(new User(3, "hairdresser2", "password", "GESTORE", true));
+        ServiceDAO sDAO = new ServiceDAO();
+        sDAO.addService(new Service(1, "Taglio", 10));
+        sDAO.addServiceToHairdresser(2, 1);
+
+        schedule = new ScheduleController(testHairdresser);
+        client = new AppointmentController(testUser);
+        day = LocalDate.now().plusDays(7);
+    }
+
+    /**
+     * Ripristina il database dopo ogni test.
+     *
+     * @throws Exception se si verifica un errore durante il ripristino del database.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        DatabaseManager.restoreDatabase();
+    }
+
+    /**
+     * Verifica che l'orario settimanale con la pausa pranzo sostituisca quello
+     * predefinito e che un appuntamento non possa attraversare la pausa.
+     */
+    @Test
+    void testWeeklyHoursWithBreak() {
+        assertTrue(schedule.getWorkingHours().isEmpty());
+        assertEquals(33, client.getAvailableHours(2, day.toString()).size());
+
+        schedule.addWorkingInterval(day.getDayOfWeek(), "09:00", "12:00");
+        schedule.addWorkingInterval(day.getDayOfWeek(), "14:00", "18:00");
+        assertEquals(2, schedule.getWorkingHours().size());
+
+        // Un'ora di servizi: dalle 9:00 alle 11:00 e dalle 14:00 alle 17:00
+        List<String> hours = client.getAvailableHours(2, day.toString(), List.of("Taglio"));
+        assertEquals(9 + 13, hours.size());
+        assertEquals("11:00", hours.get(8));
+        assertEquals("14:00", hours.get(9));
+        assertTrue(client.getAvailableHours(2, day.plusDays(1).toString()).isEmpty(),
+                "Gli altri giorni non hanno fasce di lavoro");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> client.bookAppointment(2, day.toString(), "11:30", List.of("Taglio")));
+        assertTrue(client.bookAppointment(2, day.toString(), "14:00", List.of("Taglio")));
+
+        WorkingInterval afternoon = schedule.getWorkingHours().get(1);
+        assertTrue(schedule.removeWorkingInterval(afternoon.id()));
+        assertEquals(9, client.getAvailableHours(2, day.toString(), List.of("Taglio")).size());
+    }
+
+    /**
+     * Verifica le assenze e le fasce in più in un giorno specifico.
+     */
+    @Test
+    void testExceptions() {
+        int absence = schedule.addException(day.toString(), "", "", false, "Ferie");
+        assertTrue(client.getAvailableHours(2, day.toString()).isEmpty());
+        assertEquals(33, client.getAvailableHours(2, day.plusDays(1).toString()).size());
+        assertEquals(1, schedule.getExceptions().size());
+        assertEquals("Ferie", schedule.getExceptions().get(0).reason());
+
+        assertTrue(schedule.removeException(absence));
+        schedule.addException(day.toString(), "18:00", "20:00", true, null);
+        List<String> hours = client.getAvailableHours(2, day.toString());
+        assertEquals(33 + 8, hours.size());
+        assertEquals("19:00", hours.get(hours.size() - 1));
+        assertTrue(client.bookAppointment(2, day.toString(), "19:00", List.of("Taglio")));
+    }
+
+    /**
+     * Verifica che una chiusura del negozio escluda il giorno dalle
+     * disponibilità, dalla ricerca e dalle prenotazioni.
+     */
+    @Test
+    void testSalonClosure() {
+        assertTrue(schedule.addClosure(day.toString(), "Festa patronale"));
+        assertFalse(schedule.addClosure(day.toString(), null));
+        assertEquals(1, schedule.getClosures().size());
+
+        assertTrue(client.getAvailableHours(2, day.toString()).isEmpty());
+        List<FreeSlot> slots = client.findFreeSlots(2, List.of("Taglio"), 14, 1000);
+        assertFalse(slots.isEmpty());
+        assertTrue(slots.stream().noneMatch(slot -> slot.start().toLocalDate().equals(day)));
+        assertThrows(IllegalArgumentException.class,
+                () -> client.bookAppointment(2, day.toString(), "10:00", List.of("Taglio")));
+
+        assertTrue(schedule.removeClosure(day.toString()));
+        assertTrue(client.bookAppointment(2, day.toString(), "10:00", List.of("Taglio")));
+    }
+
+    /**
+     * Verifica il rifiuto dei dati non validi e delle modifiche all'orario di
+     * un altro parrucchiere.
+     */
+    @Test
+    void testInvalidInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> schedule.addWorkingInterval(DayOfWeek.MONDAY, "09:10", "12:00"));
+        assertThrows(IllegalArgumentException.class,
+                () -> schedule.addWorkingInterval(DayOfWeek.MONDAY, "14:00", "13:00"));
+        assertThrows(IllegalArgumentException.class,
+                () -> schedule.addWorkingInterval(DayOfWeek.MONDAY, "nove", "13:00"));
+        assertThrows(IllegalArgumentException.class,
+                () -> schedule.addException(LocalDate.now().minusDays(1).toString(), "", "", false, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> schedule.addException(day.toString(), "10:00", "", false, null));
+        assertThrows(IllegalArgumentException.class, () -> schedule.addClosure("domani", null));
+
+        int interval = schedule.addWorkingInterval(DayOfWeek.MONDAY, "09:00", "12:00");
+        ScheduleController other = new ScheduleController(new User(3, "hairdresser2", "password", "GESTORE", true));
+        assertFalse(other.removeWorkingInterval(interval));
+        assertEquals(1, schedule.getWorkingHours().size());
+    }
+}
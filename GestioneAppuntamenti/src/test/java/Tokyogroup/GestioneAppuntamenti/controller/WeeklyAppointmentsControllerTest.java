@@ -4,12 +4,12 @@ import Tokyogroup.GestioneAppuntamenti.model.Service;
 import Tokyogroup.GestioneAppuntamenti.model.ServiceDAO;
 import Tokyogroup.GestioneAppuntamenti.model.User;
 import Tokyogroup.GestioneAppuntamenti.model.UserDAO;
+import Tokyogroup.GestioneAppuntamenti.model.WeeklyAppointment;
 
 import org.junit.jupiter.api.*;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -73,7 +73,7 @@ class WeeklyAppointmentsControllerTest {
     	{
     		List<String> selectedServices = List.of("Taglio", "Piega");
     		User.bookAppointment(2, LocalDate.now().getYear() + "-" + LocalDate.now().getMonthValue() + "-" + (LocalDate.now().getDayOfMonth() + 1), "11:00", selectedServices);
-    		Map<Integer, List<String[]>> weeklyAppointments = Hairdresser.getWeeklyAppointments();
+    		List<WeeklyAppointment> weeklyAppointments = Hairdresser.getWeeklyAppointments();
     		assertNotNull(weeklyAppointments);
     		assertFalse(weeklyAppointments.isEmpty());
         }
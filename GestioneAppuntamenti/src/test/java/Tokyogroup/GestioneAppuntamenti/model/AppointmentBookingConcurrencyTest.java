@@ -0,0 +1,223 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica che prenotazioni concorrenti dello stesso orario, o di orari che si
+ * sovrappongono, non producano doppie prenotazioni.
+ */
+class AppointmentBookingConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 400;
+    private static final int[] HAIRDRESSERS = { 2, 3 };
+    private static final int HOURS = 9;
+
+    private AppointmentDAO appointmentDAO;
+
+    /**
+     * Effettua il backup del database prima di eseguire tutti i test.
+     *
+     * @throws Exception se si verifica un errore durante il backup del database.
+     */
+    @BeforeAll
+    static void backupDatabase() throws Exception {
+        DatabaseManager.backupDatabase();
+    }
+
+    /**
+     * Crea un cliente, due parrucchieri e un servizio in un database vuoto.
+     *
+     * @throws Exception se si verifica un errore durante la configurazione.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        DatabaseManager.deleteDatabaseFiles();
+        DatabaseManager.initializeDatabase();
+
+        UserDAO userDAO = UserDAO.getInstance();
+        userDAO.addUser(new User(1, "cliente", "password", "CLIENTE", true));
+        userDAO.addUser(new User(2, "parrucchiere1", "password", "GESTORE", true));
+        userDAO.addUser(new User(3, "parrucchiere2", "password", "GESTORE", true));
+        ServiceDAO serviceDAO = new ServiceDAO();
+        serviceDAO.addService(new Service(1, "Taglio", 10));
+        serviceDAO.addService(new Service(2, "Colore", 40, 90));
+        serviceDAO.addService(new Service(3, "Barba", 8, 15));
+        appointmentDAO = AppointmentDAO.getInstance();
+    }
+
+    /**
+     * Ripristina il database dopo ogni test.
+     *
+     * @throws Exception se si verifica un errore durante il ripristino del
+     *                   database.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        DatabaseManager.restoreDatabase();
+    }
+
+    /**
+     * Esegue centinaia di prenotazioni concorrenti su pochi orari e verifica che
+     * ogni orario venga assegnato esattamente una volta.
+     *
+     * @throws Exception se una prenotazione fallisce con un errore inatteso.
+     */
+    @Test
+    void testConcurrentBookingsNeverDoubleBook() throws Exception {
+        String day = LocalDate.now().plusDays(30).toString();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BookingResult>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                int hairdresserId = HAIRDRESSERS[i % HAIRDRESSERS.length];
+                String dateTime = String.format("%s %02d:00:00", day, 9 + (i / HAIRDRESSERS.length) % HOURS);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return appointmentDAO.reserveAppointment(1, hairdresserId, dateTime, List.of(1));
+                }));
+            }
+            start.countDown();
+
+            int booked = 0;
+            int taken = 0;
+            for (Future<BookingResult> result : results) {
+                if (result.get(60, TimeUnit.SECONDS).isBooked()) {
+                    booked++;
+                } else {
+                    taken++;
+                }
+            }
+
+            int slots = HAIRDRESSERS.length * HOURS;
+            assertEquals(slots, booked);
+            assertEquals(ATTEMPTS - slots, taken);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (Connection conn = DatabaseManager.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("""
+                        SELECT COUNT(*) AS total, COUNT(DISTINCT (hairdresserId, appointmentDate)) AS distinctSlots
+                        FROM Appointments WHERE status = 'VALIDA'
+                        """)) {
+            assertTrue(rs.next());
+            assertEquals(HAIRDRESSERS.length * HOURS, rs.getInt("total"));
+            assertEquals(rs.getInt("total"), rs.getInt("distinctSlots"));
+        }
+    }
+
+    /**
+     * Prenota in parallelo appuntamenti di un'ora e mezza che iniziano a ogni
+     * quarto d'ora della mattina e verifica che nessuna coppia di appuntamenti
+     * confermati si sovrapponga.
+     *
+     * @throws Exception se una prenotazione fallisce con un errore inatteso.
+     */
+    @Test
+    void testConcurrentOverlappingBookingsNeverOverlap() throws Exception {
+        LocalDate day = LocalDate.now().plusDays(30);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BookingResult>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                String dateTime = String.format("%s %s:00", day, LocalTime.of(9, 0).plusMinutes(15L * (i % 12)));
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return appointmentDAO.reserveAppointment(1, 2, dateTime, List.of(2));
+                }));
+            }
+            start.countDown();
+            for (Future<BookingResult> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<LocalDateTime> starts = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("""
+                        SELECT appointmentDate, durationMinutes FROM Appointments
+                        WHERE status = 'VALIDA' ORDER BY appointmentDate
+                        """)) {
+            while (rs.next()) {
+                assertEquals(90, rs.getInt("durationMinutes"));
+                starts.add(rs.getTimestamp("appointmentDate").toLocalDateTime());
+            }
+        }
+        assertFalse(starts.isEmpty());
+        for (int i = 1; i < starts.size(); i++) {
+            assertFalse(starts.get(i).isBefore(starts.get(i - 1).plusMinutes(90)),
+                    "Appuntamenti sovrapposti: " + starts.get(i - 1) + " e " + starts.get(i));
+        }
+    }
+
+    /**
+     * Verifica che la durata di un appuntamento sia la somma delle durate dei
+     * servizi e che gli appuntamenti possano essere accostati senza spazi ma
+     * non sovrapposti.
+     *
+     * @throws SQLException se si verifica un errore di accesso al database.
+     */
+    @Test
+    void testBookingsPackedByDuration() throws SQLException {
+        String day = LocalDate.now().plusDays(30).toString();
+
+        // Colore e barba: 90 + 15 minuti, dalle 10:00 alle 11:45
+        assertTrue(appointmentDAO.reserveAppointment(1, 2, day + " 10:00:00", List.of(2, 3)).isBooked());
+        assertEquals(BookingResult.Status.SLOT_TAKEN,
+                appointmentDAO.reserveAppointment(1, 2, day + " 11:30:00", List.of(3)).status());
+        assertEquals(BookingResult.Status.SLOT_TAKEN,
+                appointmentDAO.reserveAppointment(1, 2, day + " 09:15:00", List.of(1)).status());
+        assertTrue(appointmentDAO.reserveAppointment(1, 2, day + " 09:00:00", List.of(1)).isBooked());
+        assertTrue(appointmentDAO.reserveAppointment(1, 2, day + " 11:45:00", List.of(3)).isBooked());
+        // Un altro parrucchiere è libero nello stesso orario
+        assertTrue(appointmentDAO.reserveAppointment(1, 3, day + " 10:30:00", List.of(2)).isBooked());
+
+        BitSet occupied = appointmentDAO.getOccupiedSlots(2, LocalDate.parse(day));
+        assertEquals(AvailabilityIndex.OPENING_SLOT, occupied.nextSetBit(0));
+        assertEquals(48, occupied.nextClearBit(AvailabilityIndex.OPENING_SLOT), "Occupato fino alle 12:00");
+    }
+
+    /**
+     * Verifica che un orario liberato da una cancellazione possa essere
+     * prenotato di nuovo.
+     *
+     * @throws SQLException se si verifica un errore di accesso al database.
+     */
+    @Test
+    void testCancelledSlotCanBeBookedAgain() throws SQLException {
+        String dateTime = LocalDate.now().plusDays(30) + " 10:00:00";
+
+        BookingResult first = appointmentDAO.reserveAppointment(1, 2, dateTime, List.of(1));
+        assertTrue(first.isBooked());
+        assertEquals(BookingResult.Status.SLOT_TAKEN,
+                appointmentDAO.reserveAppointment(1, 2, dateTime, List.of(1)).status());
+
+        assertTrue(appointmentDAO.updateAppointmentStatus(first.appointmentId(), "CANCELLATA"));
+        assertTrue(appointmentDAO.reserveAppointment(1, 2, dateTime, List.of(1)).isBooked());
+    }
+}
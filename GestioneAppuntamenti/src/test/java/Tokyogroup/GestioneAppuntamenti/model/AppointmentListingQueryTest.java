@@ -0,0 +1,178 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per gli elenchi di appuntamenti letti con un'unica
+ * interrogazione.
+ */
+class AppointmentListingQueryTest {
+
+    private AppointmentDAO appointmentDAO;
+    private LocalDate day;
+
+    /**
+     * Effettua il backup del database prima di eseguire tutti i test.
+     *
+     * @throws Exception se si verifica un errore durante il backup del database.
+     */
+    @BeforeAll
+    static void backupDatabase() throws Exception {
+        DatabaseManager.backupDatabase();
+    }
+
+    /**
+     * Crea due clienti, due parrucchieri e due servizi in un database vuoto.
+     *
+     * @throws Exception se si verifica un errore durante la configurazione.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        DatabaseManager.deleteDatabaseFiles();
+        DatabaseManager.initializeDatabase();
+
+        UserDAO userDAO = UserDAO.getInstance();
+        userDAO.addUser(new User(1, "cliente1", "password", "CLIENTE", true));
+        userDAO.addUser(new User(2, "cliente2", "password", "CLIENTE", true));
+        userDAO.addUser(new User(3, "parrucchiere1", "password", "GESTORE", true));
+        userDAO.addUser(new User(4, "parrucchiere2", "password", "GESTORE", true));
+        ServiceDAO serviceDAO = new ServiceDAO();
+        serviceDAO.addService(new Service(1, "Taglio", 10));
+        serviceDAO.addService(new Service(2, "Piega", 15));
+        appointmentDAO = AppointmentDAO.getInstance();
+        day = LocalDate.now().plusDays(30);
+    }
+
+    /**
+     * Ripristina il database dopo ogni test.
+     *
+     * @throws Exception se si verifica un errore durante il ripristino del
+     *                   database.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        DatabaseManager.restoreDatabase();
+    }
+
+    /**
+     * Verifica che l'elenco di un cliente contenga il nome del parrucchiere e
+     * i servizi prenotati, ordinati per data.
+     *
+     * @throws Exception se si verifica un errore durante l'accesso al database.
+     */
+    @Test
+    void testClientListingJoinsHairdresserAndServices() throws Exception {
+        assertTrue(appointmentDAO.bookAppointment(1, 4, day + " 11:00:00", List.of(1)));
+        assertTrue(appointmentDAO.bookAppointment(1, 3, day + " 10:00:00", List.of(2, 1)));
+        assertTrue(appointmentDAO.bookAppointment(2, 3, day + " 12:00:00", List.of(1)));
+
+        List<AppointmentListing> listings = appointmentDAO.getClientAppointmentListings(1);
+
+        assertEquals(2, listings.size());
+        AppointmentListing first = listings.get(0);
+        assertEquals(day.atTime(10, 0), first.appointmentDate());
+        assertEquals("VALIDA", first.status());
+        assertEquals(3, first.counterpartId());
+        assertEquals("parrucchiere1", first.counterpartName());
+        assertEquals("Piega, Taglio", first.services());
+        AppointmentListing second = listings.get(1);
+        assertEquals(day.atTime(11, 0), second.appointmentDate());
+        assertEquals("parrucchiere2", second.counterpartName());
+        assertEquals("Taglio", second.services());
+    }
+
+    /**
+     * Verifica che l'elenco di un parrucchiere contenga i nomi dei clienti ed
+     * escluda gli appuntamenti cancellati.
+     *
+     * @throws Exception se si verifica un errore durante l'accesso al database.
+     */
+    @Test
+    void testHairdresserListingJoinsClientsAndSkipsCancelled() throws Exception {
+        assertTrue(appointmentDAO.bookAppointment(1, 3, day + " 09:00:00", List.of(1)));
+        assertTrue(appointmentDAO.bookAppointment(2, 3, day + " 10:00:00", List.of(2)));
+        int cancelledId = appointmentDAO.getClientAppointmentListings(1).get(0).id();
+        appointmentDAO.updateAppointmentStatus(cancelledId, "CANCELLATA");
+
+        List<AppointmentListing> listings = appointmentDAO.getHairdresserAppointmentListings(3);
+
+        assertEquals(1, listings.size());
+        assertEquals(2, listings.get(0).counterpartId());
+        assertEquals("cliente2", listings.get(0).counterpartName());
+        assertEquals("Piega", listings.get(0).services());
+    }
+
+    /**
+     * Verifica che gli elenchi tipizzati riportino ID, date e ore come valori
+     * nativi e che le varianti con visitatore producano le stesse righe.
+     *
+     * @throws Exception se si verifica un errore durante l'accesso al database.
+     */
+    @Test
+    void testTypedRowsAndVisitorVariants() throws Exception {
+        assertTrue(appointmentDAO.bookAppointment(1, 3, day + " 15:00:00", List.of(1, 2)));
+
+        List<AppointmentEntry> entries = appointmentDAO.getValidAppointmentsForClient(1);
+        assertEquals(1, entries.size());
+        assertEquals(day.atTime(15, 0), entries.get(0).appointmentDate());
+        assertEquals(3, entries.get(0).counterpartId());
+
+        List<AppointmentEntry> visited = new ArrayList<>();
+        appointmentDAO.forEachValidAppointmentForHairdresser(3, visited::add);
+        assertEquals(List.of(new AppointmentEntry(entries.get(0).id(), day.atTime(15, 0), "VALIDA", 1)), visited);
+
+        LocalDate startOfWeek = day.with(DayOfWeek.MONDAY);
+        List<WeeklyAppointment> week = appointmentDAO.getAppointmentsForWeek(3, startOfWeek, startOfWeek.plusDays(6));
+        assertEquals(List.of(new WeeklyAppointment(day.getDayOfWeek().getValue() - 1, 15, "cliente1", "VALIDA",
+                "Piega, Taglio")), week);
+    }
+
+    /**
+     * Verifica che il riepilogo settimanale segua prenotazioni e cancellazioni
+     * e che il fatturato escluda gli appuntamenti cancellati.
+     *
+     * @throws Exception se si verifica un errore durante l'accesso al database.
+     */
+    @Test
+    void testWeeklySummaryFollowsBookingsAndCancellations() throws Exception {
+        LocalDate monday = day.with(DayOfWeek.MONDAY);
+        assertTrue(appointmentDAO.bookAppointment(1, 3, monday + " 09:00:00", List.of(1, 2)));
+        assertTrue(appointmentDAO.bookAppointment(2, 3, monday.plusDays(2) + " 10:00:00", List.of(1)));
+        assertTrue(appointmentDAO.bookAppointment(1, 3, monday.plusDays(6) + " 17:00:00", List.of(2)));
+        assertTrue(appointmentDAO.bookAppointment(2, 3, monday.plusDays(7) + " 09:00:00", List.of(1)));
+        assertTrue(appointmentDAO.bookAppointment(2, 4, monday + " 09:00:00", List.of(1)));
+
+        WeeklySummary summary = appointmentDAO.getWeeklySummary(3, monday.plusDays(3));
+        assertEquals(monday, summary.weekStart());
+        assertEquals(List.of(new WeeklyAppointment(0, 9, "cliente1", "VALIDA", "Piega, Taglio"),
+                new WeeklyAppointment(2, 10, "cliente2", "VALIDA", "Taglio"),
+                new WeeklyAppointment(6, 17, "cliente1", "VALIDA", "Piega")), summary.appointments());
+        assertEquals(50.0, summary.revenue(), 0.001);
+
+        int sundayId = appointmentDAO.getClientAppointmentListings(1).get(1).id();
+        assertTrue(appointmentDAO.updateAppointmentStatus(sundayId, "CANCELLATA"));
+        summary = appointmentDAO.getWeeklySummary(3, monday);
+        assertEquals("CANCELLATA", summary.appointments().get(2).status());
+        assertEquals(35.0, summary.revenue(), 0.001);
+
+        assertTrue(appointmentDAO.cancelAppointmentsForUser(2));
+        assertEquals(25.0, appointmentDAO.getWeeklySummary(3, monday).revenue(), 0.001);
+        assertTrue(new ServiceDAO().cancelAppointmentsWithService(2, 3));
+        summary = appointmentDAO.getWeeklySummary(3, monday);
+        assertTrue(summary.appointments().stream().allMatch(a -> "CANCELLATA".equals(a.status())));
+        assertEquals(0.0, summary.revenue(), 0.001);
+
+        // Un intervallo a cavallo di due settimane
+        List<WeeklyAppointment> range = appointmentDAO.getAppointmentsForWeek(3, monday.plusDays(6),
+                monday.plusDays(7));
+        assertEquals(List.of(new WeeklyAppointment(6, 17, "cliente1", "CANCELLATA", "Piega"),
+                new WeeklyAppointment(0, 9, "cliente2", "CANCELLATA", "Taglio")), range);
+    }
+}
@@ -0,0 +1,212 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica con EXPLAIN che le interrogazioni per data di AppointmentDAO usino
+ * l'indice su (hairdresserId, appointmentDate, status) con un intervallo su
+ * appointmentDate, invece di un predicato che avvolge la colonna in una
+ * funzione, e che il riepilogo settimanale si legga dal proprio indice.
+ */
+class AppointmentQueryPlanTest {
+
+    private static final String INDEX = "IDX_APPOINTMENTS_HAIRDRESSER_DATE_STATUS";
+    private static final String SUMMARY_INDEX = "IDX_WEEKLY_SUMMARY_HAIRDRESSER_WEEK";
+
+    // Una funzione applicata alla colonna appointmentDate nella clausola WHERE
+    private static final Pattern FUNCTION_ON_DATE = Pattern
+            .compile("[A-Z_]+\\((\"A\"\\.)?\"APPOINTMENTDATE\"");
+
+    private Connection conn;
+
+    /**
+     * Crea lo schema in un database in memoria e lo popola con un anno di
+     * appuntamenti per due parrucchieri, in modo che l'ottimizzatore disponga di
+     * statistiche realistiche.
+     *
+     * @throws SQLException se si verifica un errore durante la preparazione.
+     */
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:plantest", "sa", "");
+        new SchemaMigrator().migrate(conn);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO Users (username, password, accountType) VALUES "
+                    + "('cliente', 'pwd', 'CLIENTE'), ('p1', 'pwd', 'GESTORE'), ('p2', 'pwd', 'GESTORE')");
+            stmt.execute("""
+                    INSERT INTO Appointments (clientId, hairdresserId, appointmentDate, status)
+                    SELECT 1, 2 + MOD(X, 2), DATEADD(HOUR, 9 + MOD(X / 2, 9), DATEADD(DAY, X / 18, DATE '2029-06-01')),
+                           'VALIDA'
+                    FROM SYSTEM_RANGE(0, 6569)
+                    """);
+            stmt.execute(AppointmentDAO.SUMMARY_REBUILD_QUERY);
+            stmt.execute("ANALYZE");
+        }
+    }
+
+    /**
+     * Chiude il database in memoria dopo ogni test.
+     *
+     * @throws SQLException se si verifica un errore di chiusura.
+     */
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    /**
+     * Verifica il piano di getBookedHours.
+     *
+     * @throws SQLException se si verifica un errore durante l'EXPLAIN.
+     */
+    @Test
+    void testBookedHoursUsesDateRange() throws SQLException {
+        assertRangeScan(explain(AppointmentDAO.BOOKED_HOURS_QUERY));
+    }
+
+    /**
+     * Verifica il piano di getAvailableHours.
+     *
+     * @throws SQLException se si verifica un errore durante l'EXPLAIN.
+     */
+    @Test
+    void testAvailableHoursUsesDateRange() throws SQLException {
+        assertRangeScan(explain(AppointmentDAO.AVAILABLE_HOURS_QUERY));
+    }
+
+    /**
+     * Verifica che il riepilogo settimanale si legga con una ricerca puntuale
+     * sull'indice (hairdresserId, weekStart).
+     *
+     * @throws SQLException se si verifica un errore durante l'EXPLAIN.
+     */
+    @Test
+    void testWeeklySummaryUsesWeekIndex() throws SQLException {
+        String plan;
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + AppointmentDAO.WEEKLY_SUMMARY_QUERY)) {
+            stmt.setInt(1, 2);
+            stmt.setDate(2, Date.valueOf(LocalDate.of(2030, 1, 7)));
+            plan = singleRow(stmt);
+        }
+        String indexCondition = indexCondition(plan, SUMMARY_INDEX);
+        assertTrue(indexCondition.contains("HAIRDRESSERID ="), "Parrucchiere non usato nell'indice:\n" + plan);
+        assertTrue(indexCondition.contains("WEEKSTART ="), "Settimana non usata nell'indice:\n" + plan);
+        assertFalse(plan.contains("JOIN"), "Il riepilogo non deve richiedere join:\n" + plan);
+    }
+
+    /**
+     * Verifica il piano di getAppointmentsForWeek su un intervallo di giorni.
+     *
+     * @throws SQLException se si verifica un errore durante l'EXPLAIN.
+     */
+    @Test
+    void testWeeklyAppointmentsUsesWeekRange() throws SQLException {
+        LocalDate monday = LocalDate.of(2030, 1, 7);
+        String plan;
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + AppointmentDAO.WEEKLY_APPOINTMENTS_QUERY)) {
+            stmt.setInt(1, 2);
+            stmt.setDate(2, Date.valueOf(monday));
+            stmt.setDate(3, Date.valueOf(monday));
+            stmt.setTimestamp(4, Timestamp.valueOf(monday.atStartOfDay()));
+            stmt.setTimestamp(5, Timestamp.valueOf(monday.plusDays(7).atStartOfDay()));
+            plan = singleRow(stmt);
+        }
+        String indexCondition = indexCondition(plan, SUMMARY_INDEX);
+        assertTrue(indexCondition.contains("WEEKSTART >="), "Intervallo non usato nell'indice:\n" + plan);
+        assertTrue(indexCondition.contains("WEEKSTART <="), "Intervallo non usato nell'indice:\n" + plan);
+    }
+
+    /**
+     * Verifica che l'aggiornamento a lotti del riepilogo settimanale legga un
+     * intervallo dell'indice su (status, appointmentDate).
+     *
+     * @throws SQLException se si verifica un errore durante l'EXPLAIN.
+     */
+    @Test
+    void testPastSummaryBatchUsesStatusDateRange() throws SQLException {
+        String plan;
+        try (PreparedStatement stmt = conn
+                .prepareStatement("EXPLAIN " + PastAppointmentsScheduler.UPDATE_SUMMARY_BATCH_QUERY)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(LocalDate.of(2030, 1, 7).atStartOfDay()));
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDate.of(2030, 1, 8).atStartOfDay()));
+            stmt.setInt(3, 500);
+            plan = singleRow(stmt);
+        }
+        assertTrue(indexCondition(plan, "IDX_WEEKLY_SUMMARY_STATUS_DATE").contains("APPOINTMENTDATE >="),
+                "Intervallo non usato nell'indice:\n" + plan);
+    }
+
+    /**
+     * Verifica che l'aggiornamento a lotti degli appuntamenti passati legga un
+     * intervallo dell'indice su (status, appointmentDate).
+     *
+     * @throws SQLException se si verifica un errore durante l'EXPLAIN.
+     */
+    @Test
+    void testPastAppointmentsBatchUsesStatusDateRange() throws SQLException {
+        String plan;
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + PastAppointmentsScheduler.UPDATE_BATCH_QUERY)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(LocalDate.of(2030, 1, 7).atStartOfDay()));
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDate.of(2030, 1, 8).atStartOfDay()));
+            stmt.setInt(3, 500);
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                plan = rs.getString(1).toUpperCase();
+            }
+        }
+        assertTrue(plan.contains("IDX_APPOINTMENTS_STATUS_DATE"), "Indice non utilizzato:\n" + plan);
+        String indexCondition = plan.substring(plan.indexOf("IDX_APPOINTMENTS_STATUS_DATE"));
+        indexCondition = indexCondition.substring(0, indexCondition.indexOf("*/"));
+        assertTrue(indexCondition.contains("APPOINTMENTDATE >="), "Intervallo non usato nell'indice:\n" + plan);
+    }
+
+    private String explain(String query) throws SQLException {
+        LocalDate day = LocalDate.of(2030, 1, 7);
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + query)) {
+            stmt.setInt(1, 2);
+            stmt.setTimestamp(2, Timestamp.valueOf(day.atStartOfDay()));
+            stmt.setTimestamp(3, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                return rs.getString(1).toUpperCase();
+            }
+        }
+    }
+
+    private static String singleRow(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            assertTrue(rs.next());
+            return rs.getString(1).toUpperCase();
+        }
+    }
+
+    private static String indexCondition(String plan, String index) {
+        assertTrue(plan.contains(index), "Indice non utilizzato:\n" + plan);
+        String indexCondition = plan.substring(plan.indexOf(index));
+        return indexCondition.substring(0, indexCondition.indexOf("*/"));
+    }
+
+    private void assertRangeScan(String plan) {
+        assertTrue(plan.contains(INDEX), "Indice non utilizzato:\n" + plan);
+        String indexCondition = plan.substring(plan.indexOf(INDEX));
+        indexCondition = indexCondition.substring(0, indexCondition.indexOf("*/"));
+        assertTrue(indexCondition.contains("APPOINTMENTDATE >="), "Intervallo non usato nell'indice:\n" + plan);
+        assertTrue(indexCondition.contains("APPOINTMENTDATE <"), "Intervallo non usato nell'indice:\n" + plan);
+
+        String where = plan.substring(plan.lastIndexOf("\nWHERE "));
+        assertFalse(FUNCTION_ON_DATE.matcher(where).find(), "Predicato non sargable:\n" + plan);
+    }
+}
@@ -0,0 +1,224 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per AvailabilityIndex.
+ */
+class AvailabilityIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 4);
+
+    // Quarti d'ora delle 10:00, 11:00 e 15:00
+    private static final int TEN = 40;
+    private static final int ELEVEN = 44;
+    private static final int FIFTEEN = 60;
+
+    private AvailabilityIndex index;
+    private AtomicInteger loads;
+
+    /**
+     * Crea un indice vuoto prima di ogni test.
+     */
+    @BeforeEach
+    void setUp() {
+        index = new AvailabilityIndex();
+        loads = new AtomicInteger();
+    }
+
+    /**
+     * Verifica che un giorno venga caricato una sola volta e poi servito
+     * dall'indice.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testLoadedDayIsCached() throws SQLException {
+        BitSet first = index.getOccupiedSlots(1, DAY, this::loadTenOClock);
+        BitSet second = index.getOccupiedSlots(1, DAY, this::loadTenOClock);
+
+        assertTrue(first.get(TEN));
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, index.getMissCount());
+        assertEquals(1, index.getHitCount());
+    }
+
+    /**
+     * Verifica che una prenotazione aggiorni tutti i quarti d'ora della sua
+     * durata nel giorno memorizzato e che una cancellazione faccia ricaricare
+     * il giorno, senza modificare i BitSet già restituiti.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testMarkOccupiedAndInvalidate() throws SQLException {
+        BitSet before = index.getOccupiedSlots(1, DAY, this::loadTenOClock);
+
+        index.markOccupied(1, DAY.atTime(15, 0), 45);
+        BitSet after = index.getOccupiedSlots(1, DAY, this::loadTenOClock);
+        assertEquals(4 + 3, after.cardinality());
+        assertTrue(after.get(FIFTEEN));
+        assertFalse(before.get(FIFTEEN), "Il BitSet pubblicato non deve cambiare");
+        assertEquals(1, loads.get());
+
+        index.invalidate(1, DAY);
+        index.getOccupiedSlots(1, DAY, this::loadTenOClock);
+        assertTrue(after.get(TEN), "Il BitSet pubblicato non deve cambiare");
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Verifica che una cancellazione segnalata dopo una prenotazione
+     * concorrente dello stesso orario non lo mostri libero.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testLateCancellationDoesNotFreeNewBooking() throws SQLException {
+        index.getOccupiedSlots(1, DAY, this::loadTenOClock);
+
+        // La prenotazione delle 10:00 è confermata dopo la cancellazione della precedente,
+        // ma la cancellazione aggiorna l'indice per ultima
+        index.markOccupied(1, DAY.atTime(10, 0), 60);
+        index.invalidate(1, DAY);
+
+        assertTrue(index.getOccupiedSlots(1, DAY, this::loadTenOClock).get(TEN));
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Verifica che dopo un'invalidazione il giorno venga ricaricato.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testInvalidateForcesReload() throws SQLException {
+        index.getOccupiedSlots(1, DAY, this::loadTenOClock);
+        index.invalidate(1);
+        index.getOccupiedSlots(1, DAY, this::loadTenOClock);
+        index.invalidateAll();
+        index.getOccupiedSlots(1, DAY, this::loadTenOClock);
+
+        assertEquals(3, loads.get());
+    }
+
+    /**
+     * Verifica che un caricamento concorrente a una modifica non venga
+     * memorizzato, perché potrebbe non contenere la modifica.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testStaleLoadIsNotCached() throws SQLException {
+        BitSet stale = index.getOccupiedSlots(1, DAY, (hairdresserId, date) -> {
+            loads.incrementAndGet();
+            // Una prenotazione avviene mentre il giorno viene letto dal database
+            index.markOccupied(hairdresserId, date.atTime(11, 0), 60);
+            return new BitSet();
+        });
+        assertFalse(stale.get(ELEVEN));
+
+        BitSet fresh = index.getOccupiedSlots(1, DAY, (hairdresserId, date) -> {
+            loads.incrementAndGet();
+            BitSet slots = new BitSet();
+            slots.set(ELEVEN, ELEVEN + 4);
+            return slots;
+        });
+        assertTrue(fresh.get(ELEVEN));
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Verifica che un intervallo di giorni venga caricato con una sola chiamata
+     * e che i giorni caricati servano anche le richieste del singolo giorno.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testRangeLoadedOnceAndCachedPerDay() throws SQLException {
+        AvailabilityIndex.RangeLoader loader = (hairdresserId, from, to) -> {
+            loads.incrementAndGet();
+            BitSet slots = new BitSet();
+            slots.set(TEN, TEN + 4);
+            return Map.of(DAY.plusDays(2), slots);
+        };
+
+        Map<LocalDate, BitSet> range = index.getOccupiedSlots(1, DAY, DAY.plusDays(90), loader);
+        assertEquals(90, range.size());
+        assertTrue(range.get(DAY.plusDays(2)).get(TEN));
+        assertTrue(range.get(DAY).isEmpty());
+
+        index.markOccupied(1, DAY.atTime(15, 0), 60);
+        assertTrue(index.getOccupiedSlots(1, DAY, DAY.plusDays(90), loader).get(DAY).get(FIFTEEN));
+        assertTrue(index.getOccupiedSlots(1, DAY.plusDays(2), this::loadTenOClock).get(TEN));
+        assertEquals(1, loads.get());
+
+        // Un giorno mancante fa ricaricare l'intervallo
+        index.getOccupiedSlots(1, DAY, DAY.plusDays(91), loader);
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Verifica le etichette precalcolate e la conversione degli orari in quarti
+     * d'ora.
+     */
+    @Test
+    void testSlotLabel() {
+        assertEquals("09:00", AvailabilityIndex.slotLabel(AvailabilityIndex.OPENING_SLOT));
+        assertEquals("17:45", AvailabilityIndex.slotLabel(AvailabilityIndex.CLOSING_SLOT - 1));
+        assertEquals(ELEVEN + 1, AvailabilityIndex.slotOf(LocalTime.of(11, 15)));
+        assertThrows(IllegalArgumentException.class, () -> AvailabilityIndex.slotOf(LocalTime.of(11, 10)));
+        assertEquals(3, AvailabilityIndex.slotsFor(45));
+    }
+
+    /**
+     * Verifica gli inizi possibili per durate diverse: solo le sequenze libere
+     * abbastanza lunghe ammettono un inizio, e l'appuntamento deve terminare
+     * entro la chiusura.
+     */
+    @Test
+    void testFeasibleStarts() {
+        // Occupato 10:00-11:00 e 12:30-13:00
+        BitSet occupied = new BitSet();
+        occupied.set(TEN, ELEVEN);
+        occupied.set(50, 52);
+
+        BitSet hour = AvailabilityIndex.feasibleStarts(occupied, 60, 0);
+        assertTrue(hour.get(AvailabilityIndex.OPENING_SLOT));
+        assertFalse(hour.get(AvailabilityIndex.OPENING_SLOT + 1), "Le 9:15 terminerebbero alle 10:15");
+        assertTrue(hour.get(ELEVEN));
+        assertTrue(hour.get(46), "11:30-12:30 è libero");
+        assertFalse(hour.get(47));
+        assertTrue(hour.get(AvailabilityIndex.CLOSING_SLOT - 4));
+        assertFalse(hour.get(AvailabilityIndex.CLOSING_SLOT - 3), "Le 17:15 terminerebbero dopo la chiusura");
+        // 9:00, 11:00-11:30 e 13:00-17:00
+        assertEquals(1 + 3 + 17, hour.cardinality());
+
+        BitSet quarter = AvailabilityIndex.feasibleStarts(occupied, 15, 0);
+        assertEquals(AvailabilityIndex.CLOSING_SLOT - AvailabilityIndex.OPENING_SLOT - 6, quarter.cardinality());
+
+        BitSet twoHours = AvailabilityIndex.feasibleStarts(occupied, 120, 0);
+        assertEquals(52, twoHours.nextSetBit(0), "Nessun inizio prima delle 13:00");
+
+        BitSet afterNoon = AvailabilityIndex.feasibleStarts(new BitSet(), 60, 48);
+        assertEquals(48, afterNoon.nextSetBit(0));
+        assertTrue(AvailabilityIndex.feasibleStarts(new BitSet(), 10 * 60, 0).isEmpty());
+    }
+
+    private BitSet loadTenOClock(int hairdresserId, LocalDate date) {
+        loads.incrementAndGet();
+        BitSet slots = new BitSet();
+        slots.set(TEN, TEN + 4);
+        return slots;
+    }
+}
@@ -0,0 +1,170 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per BackupManager.
+ */
+class BackupManagerTest {
+
+    @TempDir
+    Path backupDirectory;
+
+    /**
+     * Effettua il backup del database prima di eseguire tutti i test.
+     *
+     * @throws Exception se si verifica un errore durante il backup del database.
+     */
+    @BeforeAll
+    static void backupDatabase() throws Exception {
+        DatabaseManager.backupDatabase();
+    }
+
+    /**
+     * Prepara un database vuoto con un utente.
+     *
+     * @throws Exception se si verifica un errore durante la configurazione.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        DatabaseManager.deleteDatabaseFiles();
+        DatabaseManager.initializeDatabase();
+        UserDAO.getInstance().addUser(new User(1, "cliente", "password", "CLIENTE", true));
+    }
+
+    /**
+     * Ripristina il database dopo ogni test.
+     *
+     * @throws Exception se si verifica un errore durante il ripristino del
+     *                   database.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        DatabaseManager.restoreDatabase();
+    }
+
+    /**
+     * Verifica che il backup riesca mentre un'altra connessione ha una
+     * transazione aperta, senza includerne le modifiche non confermate.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testBackupWhileTransactionIsOpen() throws Exception {
+        BackupManager manager = new BackupManager(backupDirectory, 3);
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO Users (username, password, accountType, isActive) VALUES ('bozza', 'password', 'CLIENTE', TRUE)")) {
+                stmt.executeUpdate();
+            }
+
+            BackupManager.BackupInfo info = manager.backup();
+            assertTrue(Files.exists(info.file()));
+            assertTrue(info.sizeBytes() > 0);
+            assertTrue(info.sizeBytes() < info.databaseSizeBytes(), "Il backup deve essere compresso");
+            conn.rollback();
+            conn.setAutoCommit(true);
+        }
+
+        UserDAO.getInstance().addUser(new User(2, "dopo", "password", "CLIENTE", true));
+        manager.restoreLatest();
+
+        assertNotNull(UserDAO.getInstance().findUser("cliente", "password"));
+        assertNull(UserDAO.getInstance().findUser("bozza", "password"));
+        assertNull(UserDAO.getInstance().findUser("dopo", "password"));
+    }
+
+    /**
+     * Verifica che un backup di un database con una password diversa da quella
+     * predefinita venga verificato e ripristinato con le credenziali
+     * configurate.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testBackupAndRestoreWithPassword() throws Exception {
+        BackupManager manager = new BackupManager(backupDirectory, 2, "sa", "segreta");
+        setPassword(DatabaseManager.getConnection(), "segreta");
+        try {
+            manager.backup();
+            UserDAO.getInstance().addUser(new User(2, "dopo", "password", "CLIENTE", true));
+            manager.restoreLatest();
+        } finally {
+            // Il database ripristinato ha la password del backup: si torna a quella dei test
+            setPassword(DriverManager.getConnection(Configuration.getInstance().getJdbcUrl(), "sa", "segreta"),
+                    Configuration.getInstance().getPassword());
+        }
+
+        assertNotNull(UserDAO.getInstance().findUser("cliente", "password"));
+        assertNull(UserDAO.getInstance().findUser("dopo", "password"));
+    }
+
+    /**
+     * Verifica che vengano conservate solo le generazioni più recenti.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testRotationKeepsNewestGenerations() throws Exception {
+        BackupManager manager = new BackupManager(backupDirectory, 2);
+
+        Path first = manager.backup().file();
+        Thread.sleep(5);
+        Path second = manager.backup().file();
+        Thread.sleep(5);
+        Path third = manager.backup().file();
+
+        assertEquals(List.of(third, second), manager.listBackups());
+        assertFalse(Files.exists(first));
+    }
+
+    /**
+     * Verifica che un backup non valido venga rifiutato lasciando invariato il
+     * database attuale.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testInvalidBackupLeavesDatabaseUntouched() throws Exception {
+        BackupManager manager = new BackupManager(backupDirectory, 2);
+        Path invalid = backupDirectory.resolve("appointments-20000101-000000-000.zip");
+        Files.writeString(invalid, "non è un archivio");
+
+        assertThrows(IOException.class, () -> manager.restore(invalid));
+        assertNotNull(UserDAO.getInstance().findUser("cliente", "password"));
+    }
+
+    /**
+     * Verifica che senza backup il ripristino non faccia nulla.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testRestoreWithoutBackups() throws Exception {
+        BackupManager manager = new BackupManager(backupDirectory.resolve("vuota"), 2);
+
+        assertFalse(manager.restoreLatest());
+        assertNotNull(UserDAO.getInstance().findUser("cliente", "password"));
+    }
+
+    private static void setPassword(Connection conn, String password) throws SQLException {
+        try (conn; PreparedStatement stmt = conn.prepareStatement("ALTER USER SA SET PASSWORD ?")) {
+            stmt.setString(1, password);
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Postazione simulata per {@link SharedDatabaseLoadTest}: in un processo
+ * separato prova a prenotare tutti gli orari indicati, in un ordine casuale
+ * proprio, sul database condiviso configurato dalle proprietà di sistema.
+ * Al termine scrive l'esito nel file indicato: prenotazioni riuscite,
+ * rifiutate, tempo in millisecondi, latenze p50 e p99 in microsecondi e
+ * riutilizzi delle istruzioni preparate, separati da spazi.
+ */
+final class BookingLoadClient {
+
+    private BookingLoadClient() {
+    }
+
+    /**
+     * Esegue le prenotazioni.
+     *
+     * @param args file dell'esito, seme dell'ordine, ID del cliente, primo
+     *             giorno, numero di giorni, prima ora, numero di ore e ID dei
+     *             parrucchieri
+     * @throws Exception se una prenotazione fallisce con un errore inatteso
+     */
+    public static void main(String[] args) throws Exception {
+        Path resultFile = Path.of(args[0]);
+        long seed = Long.parseLong(args[1]);
+        int clientId = Integer.parseInt(args[2]);
+        LocalDate firstDay = LocalDate.parse(args[3]);
+        int days = Integer.parseInt(args[4]);
+        int firstHour = Integer.parseInt(args[5]);
+        int hours = Integer.parseInt(args[6]);
+
+        List<String[]> slots = new ArrayList<>();
+        for (int i = 7; i < args.length; i++) {
+            for (int day = 0; day < days; day++) {
+                for (int hour = firstHour; hour < firstHour + hours; hour++) {
+                    slots.add(new String[] { args[i], String.format("%s %02d:00:00", firstDay.plusDays(day), hour) });
+                }
+            }
+        }
+        Collections.shuffle(slots, new Random(seed));
+
+        DatabaseManager.initializeDatabase();
+        AppointmentDAO appointmentDAO = AppointmentDAO.getInstance();
+        int booked = 0;
+        int taken = 0;
+        long start = System.nanoTime();
+        for (String[] slot : slots) {
+            if (appointmentDAO.reserveAppointment(clientId, Integer.parseInt(slot[0]), slot[1], List.of(1))
+                    .isBooked()) {
+                booked++;
+            } else {
+                taken++;
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        MetricsRegistry.Summary latency = MetricsRegistry.getInstance().operation("AppointmentDAO.reserveAppointment")
+                .getSummary();
+        Files.writeString(resultFile, booked + " " + taken + " " + elapsedMillis + " " + latency.p50Micros() + " "
+                + latency.p99Micros() + " " + DatabaseManager.getConnectionPoolStats().statementReuses());
+        DatabaseManager.closeConnectionPool();
+        System.exit(0);
+    }
+}
@@ -0,0 +1,337 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per ChangeJournal e per il ripristino del database a un
+ * istante preciso.
+ */
+class ChangeJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private Path testBackup;
+
+    /**
+     * Effettua il backup del database prima di eseguire tutti i test.
+     *
+     * @throws Exception se si verifica un errore durante il backup del database.
+     */
+    @BeforeAll
+    static void backupDatabase() throws Exception {
+        DatabaseManager.backupDatabase();
+    }
+
+    /**
+     * Crea un cliente, un parrucchiere e un servizio in un database vuoto.
+     *
+     * @throws Exception se si verifica un errore durante la configurazione.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        DatabaseManager.deleteDatabaseFiles();
+        DatabaseManager.initializeDatabase();
+
+        UserDAO.getInstance().addUser(new User(1, "cliente", "password", "CLIENTE", true));
+        UserDAO.getInstance().addUser(new User(2, "parrucchiere", "password", "GESTORE", true));
+        new ServiceDAO().addService(new Service(1, "Taglio", 10));
+    }
+
+    /**
+     * Elimina il backup creato dal test e ripristina il database.
+     *
+     * @throws Exception se si verifica un errore durante il ripristino del
+     *                   database.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        if (testBackup != null) {
+            Files.deleteIfExists(testBackup);
+        }
+        DatabaseManager.restoreDatabase();
+    }
+
+    /**
+     * Verifica che il ripristino a un istante riapplichi al backup solo le
+     * modifiche confermate fino a quell'istante e che gli ID generati
+     * successivamente non entrino in conflitto.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testRestoreToPointInTime() throws Exception {
+        AppointmentDAO appointmentDAO = AppointmentDAO.getInstance();
+        LocalDateTime slot = LocalDateTime.now().plusDays(7).truncatedTo(ChronoUnit.DAYS).withHour(10);
+
+        testBackup = BackupManager.getInstance().backup().file();
+        Thread.sleep(5);
+
+        int first = appointmentDAO.reserveAppointment(1, 2, Timestamp.valueOf(slot).toString(), List.of(1))
+                .appointmentId();
+        UserDAO.getInstance().addUser(new User(3, "nuovo", "password", "CLIENTE", true));
+        Thread.sleep(5);
+        LocalDateTime pointInTime = LocalDateTime.now();
+        Thread.sleep(5);
+
+        int second = appointmentDAO.reserveAppointment(1, 2, Timestamp.valueOf(slot.plusHours(1)).toString(),
+                List.of(1)).appointmentId();
+        assertTrue(appointmentDAO.updateAppointmentStatus(first, "CANCELLATA"));
+
+        DatabaseManager.restoreDatabase(pointInTime);
+
+        assertEquals("VALIDA", statusOf(first));
+        assertNull(statusOf(second));
+        assertNotNull(UserDAO.getInstance().findUser("nuovo", "password"));
+        for (ChangeJournal.Entry entry : ChangeJournal.getInstance().readEntries()) {
+            assertFalse(entry.timestamp().isAfter(pointInTime));
+        }
+
+        // Dopo gli inserimenti con ID esplicito i nuovi ID proseguono dal massimo presente
+        int third = appointmentDAO.reserveAppointment(1, 2, Timestamp.valueOf(slot.plusHours(2)).toString(),
+                List.of(1)).appointmentId();
+        assertEquals(first + 1, third);
+    }
+
+    /**
+     * Verifica che una riga incompleta in fondo al registro venga scartata e che
+     * la numerazione prosegua da quella dell'ultima voce valida.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testTornTailIsDiscarded() throws Exception {
+        Path file = directory.resolve("test.journal");
+        ChangeJournal journal = new ChangeJournal(file);
+        journal.record("UPDATE Users SET isActive = ? WHERE id = ?", true, 1);
+        journal.record("UPDATE Users SET password = ? WHERE id = ?", "a\tb\nc\\d", 2);
+        journal.close();
+        Files.writeString(file, "1234\t3\t2030-01", StandardOpenOption.APPEND);
+
+        ChangeJournal reopened = new ChangeJournal(file);
+        reopened.record("UPDATE Appointments SET appointmentDate = ? WHERE id = ?", LocalDateTime.of(2030, 1, 1, 9, 0),
+                null);
+        List<ChangeJournal.Entry> entries = reopened.readEntries();
+        reopened.close();
+
+        assertEquals(List.of(1L, 2L, 3L), entries.stream().map(ChangeJournal.Entry::sequence).toList());
+        assertEquals(List.of("a\tb\nc\\d", 2), entries.get(1).changes().get(0).parameters());
+        assertEquals(Arrays.asList(LocalDateTime.of(2030, 1, 1, 9, 0), null),
+                entries.get(2).changes().get(0).parameters());
+    }
+
+    /**
+     * Verifica che le voci registrate da più thread vengano scritte tutte, in
+     * ordine di numerazione.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testConcurrentRecordsAreWrittenInOrder() throws Exception {
+        ChangeJournal journal = new ChangeJournal(directory.resolve("concorrente.journal"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        for (int i = 0; i < 1600; i++) {
+            int id = i;
+            written.add(CompletableFuture.supplyAsync(
+                    () -> journal.record("UPDATE Users SET isActive = FALSE WHERE id = ?", id), executor)
+                    .thenCompose(future -> future));
+        }
+        CompletableFuture.allOf(written.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        List<ChangeJournal.Entry> entries = journal.readEntries();
+        journal.close();
+        assertEquals(1600, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(i + 1, entries.get(i).sequence());
+        }
+    }
+
+    /**
+     * Verifica che una voce confermata venga scritta solo dopo quelle con
+     * numero inferiore ancora in attesa di conferma e che una voce la cui
+     * conferma fallisce venga scartata.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testEntriesAreWrittenInReservationOrder() throws Exception {
+        ChangeJournal journal = new ChangeJournal(directory.resolve("ordine.journal"));
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Connection slow = connection(() -> {
+            committing.countDown();
+            release.await();
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CompletableFuture<Void> first = CompletableFuture
+                .supplyAsync(() -> commit(journal, slow, "UPDATE Users SET isActive = FALSE WHERE id = 1"), executor)
+                .thenCompose(future -> future);
+        committing.await();
+
+        CompletableFuture<Void> second = journal.record("UPDATE Users SET isActive = FALSE WHERE id = 2");
+        Thread.sleep(50);
+        assertFalse(second.isDone(), "La voce successiva non deve precedere quella in attesa di conferma");
+
+        Connection failing = connection(() -> {
+            throw new SQLException("Conferma fallita");
+        });
+        assertThrows(SQLException.class,
+                () -> journal.commit(failing, "UPDATE Users SET isActive = FALSE WHERE id = 3"));
+
+        release.countDown();
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        CompletableFuture<Void> fourth = journal.record("UPDATE Users SET isActive = FALSE WHERE id = 4");
+        fourth.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        List<ChangeJournal.Entry> entries = journal.readEntries();
+        journal.close();
+        assertEquals(List.of(1L, 2L, 4L), entries.stream().map(ChangeJournal.Entry::sequence).toList());
+        assertTrue(entries.get(2).changes().get(0).sql().endsWith("id = 4"));
+    }
+
+    /**
+     * Verifica che l'istante di un backup venga stabilito solo dopo la
+     * conclusione delle transazioni già registrate, così una voce riservata
+     * prima del backup e confermata durante l'istantanea non resta esclusa sia
+     * dal backup sia dalla ripetizione del registro.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testCheckpointWaitsForOpenTransactions() throws Exception {
+        ChangeJournal journal = new ChangeJournal(directory.resolve("checkpoint.journal"));
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Connection slow = connection(() -> {
+            committing.countDown();
+            release.await();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CompletableFuture<Void> first = CompletableFuture
+                .supplyAsync(() -> commit(journal, slow, "UPDATE Users SET isActive = FALSE WHERE id = 1"), executor)
+                .thenCompose(future -> future);
+        committing.await();
+
+        CompletableFuture<LocalDateTime> checkpoint = CompletableFuture.supplyAsync(() -> {
+            try {
+                return journal.checkpoint();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+        Thread.sleep(50);
+        assertFalse(checkpoint.isDone(), "Il backup non deve iniziare con una transazione registrata ancora aperta");
+
+        release.countDown();
+        LocalDateTime timestamp = checkpoint.get(5, TimeUnit.SECONDS);
+        first.get(5, TimeUnit.SECONDS);
+        journal.record("UPDATE Users SET isActive = FALSE WHERE id = 2").get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        List<ChangeJournal.Entry> entries = journal.readEntries();
+        journal.close();
+        assertTrue(entries.get(0).timestamp().isBefore(timestamp));
+        assertFalse(entries.get(1).timestamp().isBefore(timestamp));
+    }
+
+    /**
+     * Verifica che la ripetizione salti solo le voci con una chiave primaria
+     * già presente e si interrompa sulla violazione di altri vincoli di
+     * unicità.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testReplayFailsOnNonPrimaryKeyConflict() throws Exception {
+        String insert = "INSERT INTO Users (id, username, password, accountType) VALUES (?, ?, ?, ?)";
+        LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+        ChangeJournal journal = new ChangeJournal(directory.resolve("conflitti.journal"));
+        journal.record(insert, 1, "cliente", "password", "CLIENTE");
+        journal.record(insert, 3, "nuovo", "password", "CLIENTE");
+        journal.record(insert, 4, "parrucchiere", "password", "GESTORE");
+        journal.flush();
+
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:replaytest", "sa", "")) {
+            new SchemaMigrator().migrate(conn);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("INSERT INTO Users (id, username, password, accountType) VALUES "
+                        + "(1, 'cliente', 'password', 'CLIENTE'), (2, 'parrucchiere', 'password', 'GESTORE')");
+            }
+            SQLException e = assertThrows(SQLException.class,
+                    () -> journal.replay(conn, from, LocalDateTime.now()));
+            assertTrue(e.getMessage().contains("voce 3"), e.getMessage());
+            try (Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT username FROM Users WHERE id = 3")) {
+                assertTrue(rs.next(), "La voce precedente al conflitto deve essere applicata");
+            }
+        } finally {
+            journal.close();
+        }
+    }
+
+    private static CompletableFuture<Void> commit(ChangeJournal journal, Connection conn, String sql) {
+        try {
+            return journal.commit(conn, sql);
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Azione eseguita alla conferma della transazione di una connessione
+     * simulata.
+     */
+    private interface CommitAction {
+        void run() throws Exception;
+    }
+
+    private static Connection connection(CommitAction onCommit) {
+        return (Connection) Proxy.newProxyInstance(ChangeJournalTest.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("commit")) {
+                        onCommit.run();
+                    }
+                    return null;
+                });
+    }
+
+    private String statusOf(int appointmentId) throws Exception {
+        try (Connection conn = DatabaseManager.getConnection();
+                PreparedStatement stmt = conn.prepareStatement("SELECT status FROM Appointments WHERE id = ?")) {
+            stmt.setInt(1, appointmentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+}
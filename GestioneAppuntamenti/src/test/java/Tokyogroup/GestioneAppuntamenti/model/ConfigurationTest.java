@@ -0,0 +1,92 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per Configuration.
+ */
+class ConfigurationTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Verifica l'ordine di priorità: proprietà di sistema, variabili d'ambiente,
+     * file di configurazione e valori predefiniti.
+     *
+     * @throws Exception se il file di configurazione non può essere scritto.
+     */
+    @Test
+    void testSourcesArePrioritized() throws Exception {
+        Path file = directory.resolve("appuntamenti.properties");
+        Files.writeString(file, """
+                appuntamenti.db.path=./dati/file
+                appuntamenti.pool.max.size=4
+                appuntamenti.h2.cache.size=65536
+                """);
+        Properties system = new Properties();
+        system.setProperty(Configuration.FILE_PROPERTY, file.toString());
+        system.setProperty("appuntamenti.db.path", "./dati/sistema");
+
+        Configuration config = Configuration.load(system,
+                Map.of("APPUNTAMENTI_POOL_MAX_SIZE", "6", "APPUNTAMENTI_H2_LOCK_TIMEOUT", "2000"));
+
+        assertEquals("./dati/sistema", config.getDatabasePath());
+        assertEquals(6, config.getPoolMaxSize());
+        assertEquals(2, config.getPoolMinIdle());
+        assertEquals(DatabaseManager.Mode.EMBEDDED, config.getMode());
+        assertEquals(ConnectionPool.Tuning.NONE, config.getPoolTuning());
+        assertEquals("jdbc:h2:file:./dati/sistema;CACHE_SIZE=65536;LOCK_TIMEOUT=2000", config.getJdbcUrl());
+    }
+
+    /**
+     * Verifica che i valori non validi vengano rifiutati tutti insieme,
+     * indicando le chiavi errate.
+     */
+    @Test
+    void testInvalidValuesAreReported() {
+        Properties system = new Properties();
+        system.setProperty(Configuration.FILE_PROPERTY, directory.resolve("assente.properties").toString());
+        assertThrows(IllegalArgumentException.class, () -> Configuration.load(system, Map.of()));
+
+        system.remove(Configuration.FILE_PROPERTY);
+        system.setProperty("appuntamenti.db.mode", "cluster");
+        system.setProperty("appuntamenti.pool.max.size", "0");
+        system.setProperty("appuntamenti.h2.write.delay", "presto");
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> Configuration.load(system, Map.of()));
+        assertTrue(error.getMessage().contains("appuntamenti.db.mode"));
+        assertTrue(error.getMessage().contains("appuntamenti.pool.max.size"));
+        assertTrue(error.getMessage().contains("appuntamenti.h2.write.delay"));
+    }
+
+    /**
+     * Verifica che in modalità server l'URL punti al server dedicato e che
+     * vengano usate le impostazioni del pool per la rete.
+     */
+    @Test
+    void testServerModeUsesNetworkSettings() {
+        Properties system = new Properties();
+        system.setProperty("appuntamenti.db.mode", "server");
+        system.setProperty("appuntamenti.db.server", "cassa:9123");
+        system.setProperty("appuntamenti.h2.cache.size", "65536");
+        system.setProperty("appuntamenti.pool.fetch.size", "500");
+
+        Configuration config = Configuration.load(system, Map.of());
+
+        assertEquals("jdbc:h2:tcp://cassa:9123/appointments", config.getJdbcUrl());
+        assertEquals(new ConnectionPool.Tuning(64, 500, 5_000), config.getPoolTuning());
+
+        system.setProperty("appuntamenti.db.server", "cassa");
+        assertThrows(IllegalArgumentException.class, () -> Configuration.load(system, Map.of()));
+    }
+}
@@ -0,0 +1,164 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per ConnectionPool.
+ */
+class ConnectionPoolTest {
+
+    private static final String URL = "jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool pool;
+
+    /**
+     * Crea un pool di due connessioni con timeout brevi prima di ogni test.
+     */
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool(URL, "sa", "", 2, 0, 60_000, 200, 0, 1);
+    }
+
+    /**
+     * Chiude il pool dopo ogni test.
+     */
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    /**
+     * Verifica che la connessione fisica venga riutilizzata dopo la restituzione.
+     *
+     * @throws SQLException se si verifica un errore di accesso al database.
+     */
+    @Test
+    void testConnectionIsReused() throws SQLException {
+        String first;
+        try (Connection conn = pool.getConnection()) {
+            first = conn.unwrap(Connection.class).toString();
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertEquals(first, conn.unwrap(Connection.class).toString());
+        }
+
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(1, stats.created());
+        assertEquals(2, stats.borrows());
+        assertEquals(0, stats.active());
+        assertEquals(1, stats.idle());
+    }
+
+    /**
+     * Verifica che il pool non superi la dimensione massima.
+     *
+     * @throws SQLException se si verifica un errore di accesso al database.
+     */
+    @Test
+    void testPoolIsBounded() throws SQLException {
+        try (Connection c1 = pool.getConnection(); Connection c2 = pool.getConnection()) {
+            assertEquals(2, pool.getStats().active());
+            assertThrows(SQLException.class, pool::getConnection);
+            assertEquals(1, pool.getStats().timeouts());
+        }
+        assertEquals(2, pool.getStats().idle());
+    }
+
+    /**
+     * Verifica che una connessione restituita non sia più utilizzabile dal
+     * chiamante.
+     *
+     * @throws SQLException se si verifica un errore di accesso al database.
+     */
+    @Test
+    void testClosedHandleIsUnusable() throws SQLException {
+        Connection conn = pool.getConnection();
+        conn.close();
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+    }
+
+    /**
+     * Verifica che le transazioni lasciate aperte vengano annullate alla
+     * restituzione.
+     *
+     * @throws SQLException se si verifica un errore di accesso al database.
+     */
+    @Test
+    void testOpenTransactionIsRolledBack() throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS PoolTest (id INT PRIMARY KEY)");
+            stmt.execute("DELETE FROM PoolTest");
+            conn.setAutoCommit(false);
+            stmt.execute("INSERT INTO PoolTest VALUES (1)");
+        }
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            assertTrue(conn.getAutoCommit());
+            try (var rs = stmt.executeQuery("SELECT COUNT(*) FROM PoolTest")) {
+                rs.next();
+                assertEquals(0, rs.getInt(1));
+            }
+        }
+    }
+
+    /**
+     * Verifica che una connessione fisica chiusa venga scartata al prelievo.
+     *
+     * @throws SQLException se si verifica un errore di accesso al database.
+     */
+    @Test
+    void testInvalidConnectionIsDiscarded() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            conn.unwrap(Connection.class).close();
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+        assertEquals(2, pool.getStats().created());
+    }
+
+    /**
+     * Verifica che con il riutilizzo attivo un'istruzione preparata chiusa venga
+     * riutilizzata sulla stessa connessione fisica, senza parametri residui.
+     *
+     * @throws SQLException se si verifica un errore di accesso al database.
+     */
+    @Test
+    void testPreparedStatementIsReused() throws SQLException {
+        ConnectionPool tuned = new ConnectionPool(URL, "sa", "", 1, 0, 60_000, 200, 0, 1,
+                new ConnectionPool.Tuning(4, 50, 5_000));
+        try {
+            String sql = "SELECT ? + 1";
+            try (Connection conn = tuned.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+                assertSame(conn, stmt.getConnection());
+                assertEquals(50, stmt.getFetchSize());
+                stmt.setInt(1, 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    assertEquals(2, rs.getInt(1));
+                }
+            }
+            try (Connection conn = tuned.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+                assertThrows(SQLException.class, stmt::executeQuery);
+                stmt.setInt(1, 41);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    assertEquals(42, rs.getInt(1));
+                }
+            }
+
+            assertEquals(1, tuned.getStats().statementReuses());
+            assertEquals(1, tuned.getStats().created());
+        } finally {
+            tuned.close();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per MetricsRegistry.
+ */
+class MetricsRegistryTest {
+
+    /**
+     * Verifica che le latenze registrate siano leggibili via JMX e che il
+     * riepilogo del log riporti solo le operazioni eseguite nell'intervallo.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testRecordsLatenciesAndExportsToJmx() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        MetricsRegistry registry = new MetricsRegistry(server);
+        MetricsRegistry.Operation operation = registry.operation("TestDAO.find");
+        registry.operation("TestDAO.idle");
+
+        for (int i = 0; i < 10; i++) {
+            try (MetricsRegistry.Timer timer = operation.time()) {
+                Thread.sleep(2);
+            }
+        }
+
+        ObjectName name = new ObjectName(MetricsRegistry.JMX_DOMAIN + ":type=Operazioni,name=\"TestDAO.find\"");
+        assertEquals(10L, server.getAttribute(name, "Count"));
+        assertTrue((Long) server.getAttribute(name, "P50Micros") >= 2_000);
+        assertTrue((Long) server.getAttribute(name, "MaxMicros") >= (Long) server.getAttribute(name, "P99Micros"));
+
+        List<String> snapshot = registry.logSnapshot();
+        assertEquals(1, snapshot.size());
+        assertTrue(snapshot.get(0).startsWith("TestDAO.find"));
+
+        // Senza attività nell'intervallo il riepilogo è vuoto, il totale resta
+        assertTrue(registry.logSnapshot().isEmpty());
+        assertEquals(10, operation.getSummary().count());
+    }
+
+    /**
+     * Verifica che i contatori vengano esportati via JMX.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testCounterIsExportedToJmx() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        MetricsRegistry registry = new MetricsRegistry(server);
+
+        registry.counter("TestDAO.caricamenti").increment();
+        registry.counter("TestDAO.caricamenti").increment();
+
+        assertEquals(2L, server.getAttribute(
+                new ObjectName(MetricsRegistry.JMX_DOMAIN + ":type=Contatori,name=\"TestDAO.caricamenti\""), "Value"));
+    }
+
+    /**
+     * Verifica che timed() registri l'operazione per nome alla prima chiamata
+     * e ne misuri la durata anche quando il corpo solleva un'eccezione.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testTimedRegistersOperationByName() throws Exception {
+        assertEquals("ok", MetricsRegistry.timed("TestDAO.timed", () -> "ok"));
+        MetricsRegistry.timed("TestDAO.timed", () -> {
+            Thread.sleep(1);
+        });
+        assertThrows(SQLException.class, () -> MetricsRegistry.timed("TestDAO.timed", () -> {
+            throw new SQLException("Interrogazione fallita");
+        }));
+
+        assertEquals(3, MetricsRegistry.getInstance().operation("TestDAO.timed").getSummary().count());
+    }
+
+    /**
+     * Verifica che il prelievo di una connessione venga misurato.
+     *
+     * @throws Exception se si verifica un errore durante il test.
+     */
+    @Test
+    void testConnectionAcquireIsMeasured() throws Exception {
+        MetricsRegistry.Operation operation = MetricsRegistry.getInstance().operation("DatabaseManager.getConnection");
+        long before = operation.getSummary().count();
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            assertNotNull(conn);
+        }
+
+        assertEquals(before + 1, operation.getSummary().count());
+    }
+}
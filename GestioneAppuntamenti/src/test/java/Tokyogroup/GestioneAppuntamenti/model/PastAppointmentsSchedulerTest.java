@@ -0,0 +1,149 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per PastAppointmentsScheduler.
+ */
+class PastAppointmentsSchedulerTest {
+
+    private AppointmentDAO appointmentDAO;
+    private LocalDateTime now;
+
+    /**
+     * Effettua il backup del database prima di eseguire tutti i test.
+     *
+     * @throws Exception se si verifica un errore durante il backup del database.
+     */
+    @BeforeAll
+    static void backupDatabase() throws Exception {
+        DatabaseManager.backupDatabase();
+    }
+
+    /**
+     * Crea un cliente, un parrucchiere e un servizio in un database vuoto.
+     *
+     * @throws Exception se si verifica un errore durante la configurazione.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        DatabaseManager.deleteDatabaseFiles();
+        DatabaseManager.initializeDatabase();
+
+        UserDAO.getInstance().addUser(new User(1, "cliente", "password", "CLIENTE", true));
+        UserDAO.getInstance().addUser(new User(2, "parrucchiere", "password", "GESTORE", true));
+        new ServiceDAO().addService(new Service(1, "Taglio", 10));
+        appointmentDAO = AppointmentDAO.getInstance();
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+    }
+
+    /**
+     * Ripristina il database dopo ogni test.
+     *
+     * @throws Exception se si verifica un errore durante il ripristino del
+     *                   database.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        DatabaseManager.restoreDatabase();
+    }
+
+    /**
+     * Verifica che gli appuntamenti passati vengano aggiornati in più lotti e
+     * che quelli futuri restino validi.
+     *
+     * @throws Exception se si verifica un errore durante l'accesso al database.
+     */
+    @Test
+    void testRunUpdatesPastAppointmentsInBatches() throws Exception {
+        for (int day = 1; day <= 5; day++) {
+            book(now.minusDays(day));
+        }
+        book(now.plusDays(1));
+
+        PastAppointmentsScheduler.RunReport report = new PastAppointmentsScheduler(2).runOnce(now);
+
+        assertEquals(5, report.rowsProcessed());
+        assertEquals(3, report.batches());
+        assertEquals(5, countWithStatus("ESEGUITA"));
+        assertEquals(1, countWithStatus("VALIDA"));
+    }
+
+    /**
+     * Verifica che le esecuzioni successive considerino solo gli appuntamenti
+     * successivi all'high-water mark.
+     *
+     * @throws Exception se si verifica un errore durante l'accesso al database.
+     */
+    @Test
+    void testHighWaterMarkLimitsLaterRuns() throws Exception {
+        PastAppointmentsScheduler scheduler = new PastAppointmentsScheduler(100);
+        book(now.minusDays(1));
+        assertEquals(1, scheduler.runOnce(now).rowsProcessed());
+        assertEquals(0, scheduler.runOnce(now).rowsProcessed());
+
+        // Un appuntamento appena passato rientra nell'intervallo dell'esecuzione successiva
+        book(now.plusHours(1));
+        // Uno precedente all'high-water mark viene ignorato fino all'azzeramento
+        book(now.minusDays(2));
+        assertEquals(1, scheduler.runOnce(now.plusHours(2)).rowsProcessed());
+        assertEquals(1, countWithStatus("VALIDA"));
+
+        scheduler.resetHighWaterMark();
+        assertEquals(1, scheduler.runOnce(now.plusHours(2)).rowsProcessed());
+        assertEquals(0, countWithStatus("VALIDA"));
+    }
+
+    /**
+     * Verifica che l'aggiornamento periodico venga eseguito in background e
+     * registri l'esito.
+     *
+     * @throws Exception se si verifica un errore durante l'accesso al database.
+     */
+    @Test
+    void testScheduledRunReportsResult() throws Exception {
+        book(now.minusDays(1));
+        PastAppointmentsScheduler scheduler = new PastAppointmentsScheduler(100);
+        try {
+            scheduler.start(0, 1, TimeUnit.HOURS);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (scheduler.getLastReport() == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+        } finally {
+            scheduler.stop();
+        }
+
+        assertFalse(scheduler.isRunning());
+        assertNotNull(scheduler.getLastReport());
+        assertEquals(1, scheduler.getLastReport().rowsProcessed());
+        assertEquals(0, countWithStatus("VALIDA"));
+    }
+
+    private void book(LocalDateTime dateTime) throws SQLException {
+        assertTrue(appointmentDAO.bookAppointment(1, 2, Timestamp.valueOf(dateTime).toString(), List.of(1)));
+    }
+
+    private int countWithStatus(String status) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+                PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM Appointments WHERE status = ?")) {
+            stmt.setString(1, status);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
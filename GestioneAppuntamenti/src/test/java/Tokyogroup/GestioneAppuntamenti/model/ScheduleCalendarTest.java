@@ -0,0 +1,139 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per ScheduleCalendar.
+ */
+class ScheduleCalendarTest {
+
+    // Un lunedì
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    private ScheduleCalendar cache;
+    private AtomicInteger loads;
+
+    /**
+     * Crea un calendario vuoto prima di ogni test.
+     */
+    @BeforeEach
+    void setUp() {
+        cache = new ScheduleCalendar();
+        loads = new AtomicInteger();
+    }
+
+    /**
+     * Verifica che il calendario venga caricato una sola volta e ricaricato
+     * dopo l'invalidazione.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testCalendarIsCached() throws SQLException {
+        ScheduleCalendar.Calendar first = cache.get(this::load);
+        assertSame(first, cache.get(this::load));
+        assertEquals(1, loads.get());
+
+        cache.invalidate();
+        assertNotSame(first, cache.get(this::load));
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    /**
+     * Verifica l'orario predefinito e quello settimanale con la pausa pranzo.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testWeeklyTemplate() throws SQLException {
+        ScheduleCalendar.Calendar calendar = cache.get(this::load);
+
+        BitSet defaultDay = calendar.openSlots(99, MONDAY);
+        assertEquals(AvailabilityIndex.OPENING_SLOT, defaultDay.nextSetBit(0));
+        assertEquals(AvailabilityIndex.CLOSING_SLOT, defaultDay.nextClearBit(AvailabilityIndex.OPENING_SLOT));
+
+        BitSet monday = calendar.openSlots(1, MONDAY);
+        assertEquals(slots("08:00", "12:00", "14:00", "17:00"), monday);
+        assertTrue(calendar.openSlots(1, MONDAY.plusDays(1)).isEmpty(), "Il martedì non ha fasce");
+        assertSame(monday, calendar.openSlots(1, MONDAY.plusWeeks(1)));
+    }
+
+    /**
+     * Verifica che le eccezioni modifichino solo il proprio giorno, con le
+     * assenze applicate dopo le fasce in più, e che le chiusure prevalgano.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testExceptionsAndClosures() throws SQLException {
+        ScheduleCalendar.Calendar calendar = cache.get(() -> new ScheduleCalendar.Calendar(intervals(), List.of(
+                new ScheduleException(1, 1, MONDAY, time("12:00"), time("14:00"), true, "Recupero"),
+                new ScheduleException(2, 1, MONDAY, time("15:00"), time("16:00"), false, "Visita"),
+                new ScheduleException(3, 1, MONDAY.plusDays(1), time("10:00"), time("11:00"), true, null),
+                new ScheduleException(4, 2, MONDAY, null, null, false, "Ferie")),
+                List.of(new SalonClosure(MONDAY.plusDays(2), "Festa"))));
+
+        assertEquals(slots("08:00", "15:00", "16:00", "17:00"), calendar.openSlots(1, MONDAY));
+        assertEquals(slots("10:00", "11:00"), calendar.openSlots(1, MONDAY.plusDays(1)));
+        assertTrue(calendar.openSlots(2, MONDAY).isEmpty(), "Assenza di tutto il giorno");
+        assertEquals(calendar.openSlots(99, MONDAY.plusDays(3)), calendar.openSlots(2, MONDAY.plusDays(3)));
+
+        assertTrue(calendar.isClosed(MONDAY.plusDays(2)));
+        assertTrue(calendar.openSlots(1, MONDAY.plusDays(2)).isEmpty());
+        assertTrue(calendar.openSlots(99, MONDAY.plusDays(2)).isEmpty());
+    }
+
+    /**
+     * Verifica che gli inizi possibili non attraversino le pause.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testFeasibleStartsWithinWorkingHours() throws SQLException {
+        BitSet open = cache.get(this::load).openSlots(1, MONDAY);
+        BitSet occupied = new BitSet(AvailabilityIndex.SLOTS_PER_DAY);
+        AvailabilityIndex.cover(occupied, time("09:00"), 60);
+
+        BitSet starts = AvailabilityIndex.feasibleStarts(occupied, open, 120, 0);
+        assertEquals(slots("10:00", "10:15", "14:00", "15:15"), starts);
+    }
+
+    private ScheduleCalendar.Calendar load() {
+        loads.incrementAndGet();
+        return new ScheduleCalendar.Calendar(intervals(), List.of(), List.of());
+    }
+
+    private static List<WorkingInterval> intervals() {
+        return List.of(
+                new WorkingInterval(1, 1, DayOfWeek.MONDAY, time("08:00"), time("12:00")),
+                new WorkingInterval(2, 1, DayOfWeek.MONDAY, time("14:00"), time("17:00")));
+    }
+
+    private static LocalTime time(String hour) {
+        return LocalTime.parse(hour);
+    }
+
+    /**
+     * Costruisce l'insieme dei quarti d'ora delle fasce [inizio, fine) indicate
+     * a coppie.
+     */
+    private static BitSet slots(String... bounds) {
+        BitSet slots = new BitSet(AvailabilityIndex.SLOTS_PER_DAY);
+        for (int i = 0; i < bounds.length; i += 2) {
+            slots.set(AvailabilityIndex.slotOf(time(bounds[i])), AvailabilityIndex.slotOf(time(bounds[i + 1])));
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,166 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per SchemaMigrator.
+ */
+class SchemaMigratorTest {
+
+    private Connection conn;
+
+    /**
+     * Apre un database in memoria vuoto prima di ogni test.
+     *
+     * @throws SQLException se si verifica un errore di connessione.
+     */
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:migratortest", "sa", "");
+    }
+
+    /**
+     * Chiude il database in memoria dopo ogni test.
+     *
+     * @throws SQLException se si verifica un errore di chiusura.
+     */
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    /**
+     * Verifica che tutte le migrazioni vengano applicate una sola volta.
+     *
+     * @throws SQLException se si verifica un errore durante la migrazione.
+     */
+    @Test
+    void testMigrateIsIdempotent() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator();
+        assertEquals(migrator.getLatestVersion(), migrator.migrate(conn));
+        assertEquals(0, migrator.migrate(conn));
+        assertEquals(migrator.getLatestVersion(), migrator.getCurrentVersion(conn));
+        assertTrue(indexExists("IDX_APPOINTMENTS_HAIRDRESSER_DATE_STATUS"));
+    }
+
+    /**
+     * Verifica che un database creato prima del motore di migrazione venga
+     * aggiornato senza perdita di dati.
+     *
+     * @throws SQLException se si verifica un errore durante la migrazione.
+     */
+    @Test
+    void testMigrateExistingDatabase() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE Users (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        username VARCHAR(255) UNIQUE NOT NULL,
+                        password VARCHAR(255) NOT NULL,
+                        accountType ENUM('CLIENTE', 'GESTORE') NOT NULL,
+                        isActive BOOLEAN DEFAULT TRUE
+                    )
+                    """);
+            stmt.execute("INSERT INTO Users (username, password, accountType) VALUES ('mario', 'pwd', 'CLIENTE')");
+        }
+
+        new SchemaMigrator().migrate(conn);
+
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT username FROM Users")) {
+            assertTrue(rs.next());
+            assertEquals("mario", rs.getString(1));
+        }
+        assertTrue(indexExists("IDX_USERS_ACCOUNTTYPE_ACTIVE"));
+    }
+
+    /**
+     * Verifica che la migrazione 3 venga interrotta, senza modificare gli
+     * appuntamenti, se un parrucchiere ha più appuntamenti validi nello stesso
+     * orario, e che venga applicata dopo aver cancellato quelli in eccesso.
+     *
+     * @throws SQLException se si verifica un errore durante la migrazione.
+     */
+    @Test
+    void testDuplicateValidAppointmentsStopMigration() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE Users (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        username VARCHAR(255) UNIQUE NOT NULL,
+                        password VARCHAR(255) NOT NULL,
+                        accountType ENUM('CLIENTE', 'GESTORE') NOT NULL,
+                        isActive BOOLEAN DEFAULT TRUE
+                    )
+                    """);
+            stmt.execute("""
+                    CREATE TABLE Appointments (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        clientId INT NOT NULL,
+                        hairdresserId INT NOT NULL,
+                        appointmentDate DATETIME NOT NULL,
+                        status ENUM('VALIDA', 'CANCELLATA', 'ESEGUITA') NOT NULL DEFAULT 'VALIDA'
+                    )
+                    """);
+            stmt.execute("""
+                    INSERT INTO Appointments (clientId, hairdresserId, appointmentDate, status) VALUES
+                        (1, 2, '2030-01-07 10:00:00', 'VALIDA'),
+                        (3, 2, '2030-01-07 10:00:00', 'VALIDA'),
+                        (4, 2, '2030-01-07 10:00:00', 'CANCELLATA'),
+                        (5, 6, '2030-01-07 10:00:00', 'VALIDA')
+                    """);
+        }
+
+        SchemaMigrator migrator = new SchemaMigrator();
+        SQLException e = assertThrows(SQLException.class, () -> migrator.migrate(conn));
+        String message = e.getCause().getMessage();
+        assertTrue(message.startsWith("Orari con più appuntamenti validi dello stesso parrucchiere: 1 ("), message);
+        assertTrue(message.contains("parrucchiere 2 il 2030-01-07T10:00: appuntamenti 1, 2"), message);
+        assertTrue(message.endsWith("UPDATE Appointments SET status = 'CANCELLATA' WHERE id IN (2);"), message);
+        assertEquals(2, migrator.getCurrentVersion(conn));
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM Appointments WHERE status = 'VALIDA'")) {
+            rs.next();
+            assertEquals(3, rs.getInt(1));
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(message.substring(message.indexOf("UPDATE Appointments")));
+        }
+        migrator.migrate(conn);
+        assertEquals(migrator.getLatestVersion(), migrator.getCurrentVersion(conn));
+    }
+
+    /**
+     * Verifica che una migrazione modificata dopo l'applicazione venga rifiutata.
+     *
+     * @throws SQLException se si verifica un errore durante la migrazione.
+     */
+    @Test
+    void testChangedMigrationIsRejected() throws SQLException {
+        new SchemaMigrator(List.of(Migration.of(1, "Tabella", "CREATE TABLE IF NOT EXISTS T (id INT)")))
+                .migrate(conn);
+
+        SchemaMigrator changed = new SchemaMigrator(
+                List.of(Migration.of(1, "Tabella", "CREATE TABLE IF NOT EXISTS T (id BIGINT)")));
+        assertThrows(SQLException.class, () -> changed.migrate(conn));
+    }
+
+    private boolean indexExists(String name) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(
+                        "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = '" + name + "'")) {
+            rs.next();
+            return rs.getInt(1) > 0;
+        }
+    }
+}
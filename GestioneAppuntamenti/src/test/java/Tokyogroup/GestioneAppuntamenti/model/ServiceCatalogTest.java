@@ -0,0 +1,114 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per ServiceCatalog.
+ */
+class ServiceCatalogTest {
+
+    private ServiceCatalog cache;
+    private AtomicInteger loads;
+
+    /**
+     * Crea una cache vuota prima di ogni test.
+     */
+    @BeforeEach
+    void setUp() {
+        cache = new ServiceCatalog();
+        loads = new AtomicInteger();
+    }
+
+    /**
+     * Verifica che il catalogo venga caricato una sola volta e poi servito dalla
+     * cache.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testCatalogIsCached() throws SQLException {
+        ServiceCatalog.Catalog first = cache.get(this::load);
+        ServiceCatalog.Catalog second = cache.get(this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    /**
+     * Verifica le interrogazioni sul catalogo.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testCatalogLookups() throws SQLException {
+        ServiceCatalog.Catalog catalog = cache.get(this::load);
+
+        assertEquals(2, catalog.getServiceId("Piega"));
+        assertNull(catalog.getServiceId("Colore"));
+        assertEquals(List.of("Taglio", "Piega", "Barba"), catalog.getServices().stream().map(Service::getName).toList());
+        assertEquals(Set.of(1, 3), catalog.getServiceIdsOf(7));
+        assertEquals(List.of("Piega"), catalog.getServicesNotOf(7).stream().map(Service::getName).toList());
+        assertTrue(catalog.getServicesOf(8).isEmpty());
+    }
+
+    /**
+     * Verifica che modificare un servizio restituito non alteri la cache.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testReturnedServicesAreCopies() throws SQLException {
+        cache.get(this::load).getServices().get(0).setName("Modificato");
+
+        assertEquals("Taglio", cache.get(this::load).getServices().get(0).getName());
+    }
+
+    /**
+     * Verifica che dopo un'invalidazione il catalogo venga ricaricato.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testInvalidateForcesReload() throws SQLException {
+        cache.get(this::load);
+        cache.invalidate();
+        cache.get(this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getInvalidationCount());
+    }
+
+    /**
+     * Verifica che un catalogo caricato durante un'invalidazione non venga
+     * memorizzato.
+     *
+     * @throws SQLException se il caricamento fallisce.
+     */
+    @Test
+    void testStaleLoadIsNotCached() throws SQLException {
+        cache.get(() -> {
+            cache.invalidate();
+            return load();
+        });
+        cache.get(this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    private ServiceCatalog.Catalog load() {
+        loads.incrementAndGet();
+        return new ServiceCatalog.Catalog(
+                List.of(new Service(1, "Taglio", 10), new Service(2, "Piega", 12), new Service(3, "Barba", 8)),
+                Map.of(7, Set.of(1, 3)));
+    }
+}
@@ -0,0 +1,196 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prova di carico del database condiviso: più postazioni, ciascuna in un
+ * processo separato, prenotano gli stessi orari sullo stesso database. Il
+ * numero di postazioni si imposta con {@code -Dcarico.client=4}.
+ * <p>
+ * Come le altre prove di carico, è esclusa dai test ordinari e viene
+ * eseguita con {@code mvn -Pbenchmarks verify}.
+ */
+@Tag("carico")
+class SharedDatabaseLoadTest {
+
+    private static final Logger logger = LogManager.getLogger(SharedDatabaseLoadTest.class);
+
+    private static final int CLIENTS = Integer.getInteger("carico.client", 4);
+    private static final int[] HAIRDRESSERS = { 2, 3 };
+    private static final int DAYS = 10;
+    private static final int FIRST_HOUR = 9;
+    private static final int HOURS = 9;
+    private static final int SLOTS = HAIRDRESSERS.length * DAYS * HOURS;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Esegue le postazioni collegate a un server {@link DatabaseServer}
+     * dedicato, avviato in un processo separato.
+     *
+     * @throws Exception se il server o una postazione falliscono.
+     */
+    @Test
+    void testClientsShareDedicatedServer() throws Exception {
+        Path database = directory.resolve("carico");
+        int port = freePort();
+        Process server = start("server", List.of("-Dappuntamenti.db.path=" + database, "-Dappuntamenti.db.port=" + port),
+                DatabaseServer.class);
+        try {
+            String url = "jdbc:h2:tcp://localhost:" + port + "/carico";
+            try (Connection conn = connectWhenReady(url, server)) {
+                populate(conn);
+                runClients(List.of("-Dappuntamenti.db.mode=server", "-Dappuntamenti.db.server=localhost:" + port,
+                        "-Dappuntamenti.db.path=" + database), conn, "server dedicato");
+            }
+        } finally {
+            server.destroy();
+            server.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Esegue le postazioni in modalità AUTO_SERVER: questo processo apre per
+     * primo il file e fa da server alle altre.
+     *
+     * @throws Exception se una postazione fallisce.
+     */
+    @Test
+    void testClientsShareAutoServer() throws Exception {
+        Path database = directory.resolve("carico");
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:file:" + database + ";AUTO_SERVER=TRUE", "sa",
+                "")) {
+            new SchemaMigrator().migrate(conn);
+            populate(conn);
+            runClients(List.of("-Dappuntamenti.db.mode=auto", "-Dappuntamenti.db.path=" + database), conn,
+                    "AUTO_SERVER");
+        }
+    }
+
+    /**
+     * Avvia le postazioni sugli stessi orari e verifica che ogni orario sia
+     * stato assegnato esattamente una volta.
+     */
+    private void runClients(List<String> properties, Connection conn, String description) throws Exception {
+        String firstDay = LocalDate.now().plusDays(30).toString();
+        List<Process> clients = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            List<String> arguments = new ArrayList<>(List.of(resultFile(i).toString(), String.valueOf(i), "1",
+                    firstDay, String.valueOf(DAYS), String.valueOf(FIRST_HOUR), String.valueOf(HOURS)));
+            for (int hairdresserId : HAIRDRESSERS) {
+                arguments.add(String.valueOf(hairdresserId));
+            }
+            clients.add(start("postazione-" + i, properties, BookingLoadClient.class, arguments.toArray(new String[0])));
+        }
+
+        int booked = 0;
+        int taken = 0;
+        long slowestMillis = 0;
+        for (int i = 0; i < CLIENTS; i++) {
+            Process client = clients.get(i);
+            assertTrue(client.waitFor(120, TimeUnit.SECONDS), "Postazione non terminata");
+            assertEquals(0, client.exitValue(), "Postazione terminata con errore");
+            assertTrue(Files.exists(resultFile(i)), "Esito della postazione mancante");
+
+            String[] fields = Files.readString(resultFile(i)).trim().split(" ");
+            booked += Integer.parseInt(fields[0]);
+            taken += Integer.parseInt(fields[1]);
+            slowestMillis = Math.max(slowestMillis, Long.parseLong(fields[2]));
+            logger.info("{}: prenotate={} rifiutate={} tempo={} ms p50={} µs p99={} µs riutilizzi={}", description,
+                    fields[0], fields[1], fields[2], fields[3], fields[4], fields[5]);
+        }
+        logger.info("{}: {} postazioni, {} prenotazioni in {} ms ({} prenotazioni/s)", description, CLIENTS,
+                booked + taken, slowestMillis, (booked + taken) * 1000L / Math.max(1, slowestMillis));
+
+        assertEquals(SLOTS, booked);
+        assertEquals(SLOTS * (CLIENTS - 1), taken);
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("""
+                        SELECT COUNT(*) AS total, COUNT(DISTINCT (hairdresserId, appointmentDate)) AS distinctSlots
+                        FROM Appointments WHERE status = 'VALIDA'
+                        """)) {
+            assertTrue(rs.next());
+            assertEquals(SLOTS, rs.getInt("total"));
+            assertEquals(SLOTS, rs.getInt("distinctSlots"));
+        }
+    }
+
+    /**
+     * Crea un cliente, i parrucchieri e un servizio.
+     */
+    private static void populate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO Users (id, username, password, accountType) VALUES (1, 'cliente', 'x', 'CLIENTE')");
+            for (int hairdresserId : HAIRDRESSERS) {
+                stmt.execute("INSERT INTO Users (id, username, password, accountType) VALUES (" + hairdresserId
+                        + ", 'parrucchiere" + hairdresserId + "', 'x', 'GESTORE')");
+            }
+            stmt.execute("INSERT INTO Services (id, name, price) VALUES (1, 'Taglio', 10)");
+        }
+    }
+
+    private static Connection connectWhenReady(String url, Process server) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (true) {
+            try {
+                return DriverManager.getConnection(url, "sa", "");
+            } catch (SQLException e) {
+                if (!server.isAlive() || System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(200);
+            }
+        }
+    }
+
+    /**
+     * Avvia una classe in un processo separato, con l'output nel file
+     * {@code <nome>.log} della directory temporanea.
+     */
+    private Process start(String name, List<String> properties, Class<?> mainClass, String... arguments)
+            throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(properties);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass.getName());
+        command.addAll(List.of(arguments));
+        return new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(directory.resolve(name + ".log").toFile()).start();
+    }
+
+    /**
+     * Restituisce il file in cui la postazione indicata scrive il proprio
+     * esito.
+     */
+    private Path resultFile(int client) {
+        return directory.resolve("postazione-" + client + ".esito");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package Tokyogroup.GestioneAppuntamenti.model;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per SyntheticDataGenerator.
+ */
+class SyntheticDataGeneratorTest {
+
+    private static final SyntheticDataGenerator.Settings SETTINGS = new SyntheticDataGenerator.Settings(7, 3, 20,
+            5, 500, 50, 1, LocalDate.of(2030, 1, 15));
+
+    /**
+     * Effettua il backup del database prima di eseguire tutti i test.
+     *
+     * @throws Exception se si verifica un errore durante il backup del database.
+     */
+    @BeforeAll
+    static void backupDatabase() throws Exception {
+        DatabaseManager.backupDatabase();
+    }
+
+    /**
+     * Crea un database vuoto prima di ogni test.
+     *
+     * @throws Exception se si verifica un errore durante la configurazione.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        DatabaseManager.deleteDatabaseFiles();
+        DatabaseManager.initializeDatabase();
+    }
+
+    /**
+     * Ripristina il database dopo ogni test.
+     *
+     * @throws Exception se si verifica un errore durante il ripristino del
+     *                   database.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        DatabaseManager.restoreDatabase();
+    }
+
+    /**
+     * Verifica il numero di righe generate e che gli appuntamenti rispettino
+     * orari di apertura e unicità degli orari per parrucchiere.
+     *
+     * @throws Exception se si verifica un errore durante la generazione.
+     */
+    @Test
+    void testGeneratesRequestedRowsOnDistinctOpeningSlots() throws Exception {
+        SyntheticDataGenerator.Summary summary = new SyntheticDataGenerator(SETTINGS).generate();
+
+        assertEquals(23, summary.users());
+        assertEquals(500, summary.appointments());
+        assertEquals(23, count("SELECT COUNT(*) FROM Users"));
+        assertEquals(5, count("SELECT COUNT(*) FROM Services"));
+        assertEquals(500, count("SELECT COUNT(*) FROM Appointments"));
+        assertEquals(summary.appointmentServices(), count("SELECT COUNT(*) FROM AppointmentServices"));
+        assertEquals(50, count("SELECT COUNT(*) FROM Messages"));
+
+        assertEquals(500, count("SELECT COUNT(DISTINCT (hairdresserId, appointmentDate)) FROM Appointments"));
+        assertEquals(0, count("""
+                SELECT COUNT(*) FROM Appointments
+                WHERE HOUR(appointmentDate) NOT BETWEEN 9 AND 17 OR ISO_DAY_OF_WEEK(appointmentDate) = 7
+                """));
+        assertEquals(0, count("SELECT COUNT(*) FROM Appointments WHERE status = 'VALIDA' "
+                + "AND appointmentDate < TIMESTAMP '2030-01-15 00:00:00'"));
+        assertEquals(0, count("SELECT COUNT(*) FROM Appointments WHERE status = 'ESEGUITA' "
+                + "AND appointmentDate >= TIMESTAMP '2030-01-15 00:00:00'"));
+        assertTrue(count("SELECT COUNT(*) FROM Appointments WHERE status = 'CANCELLATA'") > 0);
+        // Ogni appuntamento usa solo servizi offerti dal suo parrucchiere
+        assertEquals(0, count("""
+                SELECT COUNT(*) FROM AppointmentServices aps
+                JOIN Appointments a ON a.id = aps.appointmentId
+                LEFT JOIN HairdresserServices hs ON hs.hairdresserId = a.hairdresserId AND hs.serviceId = aps.serviceId
+                WHERE hs.serviceId IS NULL
+                """));
+        assertNotNull(UserDAO.getInstance().findUser(SyntheticDataGenerator.clientUsername(0),
+                SyntheticDataGenerator.PASSWORD));
+    }
+
+    /**
+     * Verifica che due generazioni con gli stessi parametri producano lo stesso
+     * contenuto.
+     *
+     * @throws Exception se si verifica un errore durante la generazione.
+     */
+    @Test
+    void testSameSettingsProduceSameData() throws Exception {
+        new SyntheticDataGenerator(SETTINGS).generate();
+        String first = fingerprint();
+
+        DatabaseManager.deleteDatabaseFiles();
+        DatabaseManager.initializeDatabase();
+        new SyntheticDataGenerator(SETTINGS).generate();
+
+        assertEquals(first, fingerprint());
+    }
+
+    /**
+     * Verifica che il generatore rifiuti un database già popolato.
+     *
+     * @throws Exception se si verifica un errore durante la configurazione.
+     */
+    @Test
+    void testRejectsNonEmptyDatabase() throws Exception {
+        UserDAO.getInstance().addUser(new User(1, "cliente", "password", "CLIENTE", true));
+
+        assertThrows(SQLException.class, () -> new SyntheticDataGenerator(SETTINGS).generate());
+    }
+
+    /**
+     * Verifica che i parametri vengano rifiutati se gli orari non bastano per
+     * gli appuntamenti richiesti.
+     */
+    @Test
+    void testRejectsMoreAppointmentsThanSlots() {
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticDataGenerator.Settings(7, 1, 10, 3,
+                10_000, 0, 1, LocalDate.of(2030, 1, 15)));
+    }
+
+    private long count(String query) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(query)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private String fingerprint() throws SQLException {
+        StringBuilder fingerprint = new StringBuilder();
+        try (Connection conn = DatabaseManager.getConnection(); Statement stmt = conn.createStatement()) {
+            for (String query : new String[] {
+                    "SELECT id, username, isActive FROM Users ORDER BY id",
+                    "SELECT hairdresserId, serviceId FROM HairdresserServices ORDER BY hairdresserId, serviceId",
+                    "SELECT id, clientId, hairdresserId, appointmentDate, status FROM Appointments ORDER BY id",
+                    "SELECT appointmentId, serviceId FROM AppointmentServices ORDER BY appointmentId, serviceId",
+                    "SELECT senderId, receiverId, status, sentDate FROM Messages ORDER BY id" }) {
+                try (ResultSet rs = stmt.executeQuery(query)) {
+                    int columns = rs.getMetaData().getColumnCount();
+                    while (rs.next()) {
+                        for (int i = 1; i <= columns; i++) {
+                            fingerprint.append(rs.getString(i)).append(',');
+                        }
+                        fingerprint.append('\n');
+                    }
+                }
+            }
+        }
+        return fingerprint.toString();
+    }
+}